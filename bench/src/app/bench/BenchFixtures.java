@@ -0,0 +1,75 @@
+package app.bench;
+
+import app.model.MenuItem;
+import app.model.Order;
+import app.model.OrderItem;
+import app.model.OrderPricing;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic data shaped like the shop's real tables.
+ * The same seed always yields the same rows so runs stay comparable with the baseline.
+ */
+final class BenchFixtures {
+
+    // Sizes seen in the shop today (menu rows in docs/database.sql, a day of orders, the queue cap)
+    // and the 100x sizes used to spot super-linear behaviour early.
+    static final String MENU_REALISTIC = "30";
+    static final String MENU_100X = "3000";
+    static final String ORDERS_REALISTIC = "200";
+    static final String ORDERS_100X = "20000";
+
+    static final String[] SIZES = {"Small", "Medium", "Large"};
+
+    private static final String[] TEMPS = {"Hot", "Iced", "Blended"};
+    private static final String[] FLAVORS = {"Caramel", "Vanilla", "Mocha", "Hazelnut", "Matcha", "Spanish", "Salted", "Ube", "Chai", "Honey"};
+    private static final String[] DRINKS = {"Latte", "Macchiato", "Americano", "Frappe", "Cold Brew", "Cappuccino", "Tea", "Espresso"};
+    private static final String[] CATEGORIES = {"Coffee", "Tea", "Iced", "Pastry"};
+    private static final String[] CUSTOMERS = {"Ana", "Ben", "Carla", "Dino", "Ella", "Franz", "Gia", "Hugo", "Ivy", "Jomar"};
+
+    private BenchFixtures() {}
+
+    static List<MenuItem> menu(int size, long seed) {
+        Random rnd = new Random(seed);
+        List<MenuItem> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String name = TEMPS[rnd.nextInt(TEMPS.length)] + " " + FLAVORS[rnd.nextInt(FLAVORS.length)] + " "
+                    + DRINKS[rnd.nextInt(DRINKS.length)] + " " + i;
+            out.add(new MenuItem(String.format("SK%05d", i), name, CATEGORIES[rnd.nextInt(CATEGORIES.length)],
+                    BigDecimal.valueOf(90 + rnd.nextInt(120))));
+        }
+        return out;
+    }
+
+    static List<Order> orders(int size, List<MenuItem> menu, long seed) {
+        Random rnd = new Random(seed);
+        List<Order> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Order order = new Order();
+            order.setId(i + 1);
+            order.setCode("#" + (1000 + i));
+            order.setCustomerName(CUSTOMERS[rnd.nextInt(CUSTOMERS.length)] + " " + i);
+            order.setStatus(rnd.nextInt(4) == 0 ? "IN_PROGRESS" : "PENDING");
+            OrderPricing.applyLines(order, lines(menu, 1 + rnd.nextInt(3), rnd));
+            out.add(order);
+        }
+        return out;
+    }
+
+    static List<OrderItem> lines(List<MenuItem> menu, int count, Random rnd) {
+        List<OrderItem> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            MenuItem item = menu.get(rnd.nextInt(menu.size()));
+            String size = SIZES[rnd.nextInt(SIZES.length)];
+            boolean shot = rnd.nextInt(5) == 0;
+            boolean milk = rnd.nextInt(4) == 0;
+            double unit = OrderPricing.unitPrice(item, size, shot, milk);
+            lines.add(OrderPricing.line(item, size, unit, 1 + rnd.nextInt(2)));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,225 @@
+package app.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result file against the stored baseline and flags regressions.
+ *
+ * A benchmark regresses when it is slower than the baseline by more than the threshold
+ * percentage and the gap is larger than the two runs' combined score error.
+ * Exit code is 1 when at least one regression is found.
+ *
+ * Usage: CompareResults baseline.json current.json [thresholdPercent]
+ */
+public final class CompareResults {
+
+    private CompareResults() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <current.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        Path baselinePath = Path.of(args[0]);
+        Path currentPath = Path.of(args[1]);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        if (!Files.exists(baselinePath)) {
+            System.out.println("[Bench] No baseline at " + baselinePath + "; run 'ant save-baseline' to create one.");
+            return;
+        }
+
+        Map<String, Score> baseline = load(baselinePath);
+        Map<String, Score> current = load(currentPath);
+
+        int regressions = 0;
+        System.out.printf(Locale.ROOT, "%-70s %14s %14s %9s%n", "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, Score> e : current.entrySet()) {
+            Score now = e.getValue();
+            Score before = baseline.get(e.getKey());
+            if (before == null) {
+                System.out.printf(Locale.ROOT, "%-70s %14s %14s %9s%n", e.getKey(), "-", now.format(), "new");
+                continue;
+            }
+            // Positive change = worse, whichever direction the unit counts.
+            double change = now.lowerIsBetter()
+                    ? (now.score - before.score) / before.score * 100.0
+                    : (before.score - now.score) / before.score * 100.0;
+            boolean beyondNoise = Math.abs(now.score - before.score) > now.error + before.error;
+            boolean regressed = change > threshold && beyondNoise;
+            if (regressed) regressions++;
+            System.out.printf(Locale.ROOT, "%-70s %14s %14s %+8.1f%%%s%n",
+                    e.getKey(), before.format(), now.format(), change, regressed ? "  REGRESSION" : "");
+        }
+        for (String name : baseline.keySet()) {
+            if (!current.containsKey(name)) {
+                System.out.printf(Locale.ROOT, "%-70s %14s %14s %9s%n", name, baseline.get(name).format(), "-", "missing");
+            }
+        }
+
+        System.out.println(regressions == 0
+                ? "[Bench] No regressions above " + threshold + "%."
+                : "[Bench] " + regressions + " regression(s) above " + threshold + "%.");
+        if (regressions > 0) System.exit(1);
+    }
+
+    private static Map<String, Score> load(Path path) throws IOException {
+        Object root = new JsonReader(Files.readString(path, StandardCharsets.UTF_8)).read();
+        Map<String, Score> out = new TreeMap<>();
+        if (!(root instanceof List<?> runs)) return out;
+        for (Object run : runs) {
+            if (!(run instanceof Map<?, ?> r)) continue;
+            StringBuilder key = new StringBuilder(String.valueOf(r.get("benchmark")));
+            if (r.get("params") instanceof Map<?, ?> params) {
+                key.append(new TreeMap<>(params));
+            }
+            if (!(r.get("primaryMetric") instanceof Map<?, ?> metric)) continue;
+            out.put(key.toString(), new Score(
+                    number(metric.get("score")),
+                    number(metric.get("scoreError")),
+                    String.valueOf(metric.get("scoreUnit"))));
+        }
+        return out;
+    }
+
+    private static double number(Object value) {
+        // JMH writes "NaN" as a string when there were too few samples for an error estimate.
+        return value instanceof Double d ? d : 0.0;
+    }
+
+    private record Score(double score, double error, String unit) {
+        boolean lowerIsBetter() {
+            return unit.endsWith("/op");
+        }
+
+        String format() {
+            return String.format(Locale.ROOT, "%.3f %s", score, unit);
+        }
+    }
+
+    /**
+     * Just enough JSON for JMH result files: objects, arrays, strings, numbers, literals.
+     */
+    private static final class JsonReader {
+        private final String text;
+        private int pos;
+
+        JsonReader(String text) {
+            this.text = text;
+        }
+
+        Object read() {
+            skipSpace();
+            char c = text.charAt(pos);
+            return switch (c) {
+                case '{' -> readObject();
+                case '[' -> readArray();
+                case '"' -> readString();
+                case 't' -> literal("true", Boolean.TRUE);
+                case 'f' -> literal("false", Boolean.FALSE);
+                case 'n' -> literal("null", null);
+                default -> readNumber();
+            };
+        }
+
+        private Map<String, Object> readObject() {
+            Map<String, Object> out = new LinkedHashMap<>();
+            pos++;
+            skipSpace();
+            if (text.charAt(pos) == '}') {
+                pos++;
+                return out;
+            }
+            while (true) {
+                skipSpace();
+                String key = readString();
+                skipSpace();
+                expect(':');
+                out.put(key, read());
+                skipSpace();
+                if (text.charAt(pos) == ',') {
+                    pos++;
+                    continue;
+                }
+                expect('}');
+                return out;
+            }
+        }
+
+        private List<Object> readArray() {
+            List<Object> out = new ArrayList<>();
+            pos++;
+            skipSpace();
+            if (text.charAt(pos) == ']') {
+                pos++;
+                return out;
+            }
+            while (true) {
+                out.add(read());
+                skipSpace();
+                if (text.charAt(pos) == ',') {
+                    pos++;
+                    continue;
+                }
+                expect(']');
+                return out;
+            }
+        }
+
+        private String readString() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = text.charAt(pos++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char esc = text.charAt(pos++);
+                switch (esc) {
+                    case 'n' -> sb.append('\n');
+                    case 't' -> sb.append('\t');
+                    case 'r' -> sb.append('\r');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                    }
+                    default -> sb.append(esc);
+                }
+            }
+        }
+
+        private Double readNumber() {
+            int start = pos;
+            while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) pos++;
+            return Double.parseDouble(text.substring(start, pos));
+        }
+
+        private Object literal(String word, Object value) {
+            if (!text.startsWith(word, pos)) throw new IllegalArgumentException("Bad JSON at " + pos);
+            pos += word.length();
+            return value;
+        }
+
+        private void expect(char c) {
+            if (text.charAt(pos) != c) throw new IllegalArgumentException("Expected '" + c + "' at " + pos);
+            pos++;
+        }
+
+        private void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package app.bench;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * DataSource decorator that counts DB round trips: connection opens, statement executions
+ * (a batch counts once) and commits/rollbacks. Counts are kept globally and per thread so a
+ * caller can measure the round trips of one operation on its own thread.
+ */
+final class CountingDataSource implements DataSource {
+
+    private final DataSource delegate;
+    private final LongAdder total = new LongAdder();
+    private final ThreadLocal<long[]> perThread = ThreadLocal.withInitial(() -> new long[1]);
+
+    CountingDataSource(DataSource delegate) {
+        this.delegate = delegate;
+    }
+
+    long total() {
+        return total.sum();
+    }
+
+    long currentThread() {
+        return perThread.get()[0];
+    }
+
+    private void count() {
+        total.increment();
+        perThread.get()[0]++;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        count();
+        return wrap(delegate.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        count();
+        return wrap(delegate.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection con) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                new Handler(con, true));
+    }
+
+    private final class Handler implements InvocationHandler {
+        private final Object target;
+        private final boolean connection;
+
+        Handler(Object target, boolean connection) {
+            this.target = target;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (connection ? name.equals("commit") || name.equals("rollback") : name.startsWith("execute")) {
+                count();
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+            // Statements handed out by the connection are wrapped too, keeping their own interface.
+            if (connection && result instanceof Statement st) {
+                Class<?> type = method.getReturnType();
+                return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new Handler(st, false));
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return delegate.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        delegate.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        delegate.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return delegate.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return delegate.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return delegate.isWrapperFor(iface);
+    }
+}
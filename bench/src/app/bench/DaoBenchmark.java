@@ -0,0 +1,134 @@
+package app.bench;
+
+import app.db.DashboardDAO;
+import app.db.MenuItemDAO;
+import app.db.OrderDAO;
+import app.db.UserDAO;
+import app.model.DailySalesRow;
+import app.model.DashboardSummary;
+import app.model.MenuItem;
+import app.model.Order;
+import app.model.OrderPricing;
+import app.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DAO throughput and latency against the embedded H2 copy of docs/database.sql, seeded with
+ * generated order history. Runs offline; no MySQL server is involved.
+ *
+ * Sample-time mode records per-call latency, so the JSON result carries p50/p90/p99 next to
+ * the mean; throughput mode gives calls per millisecond.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DaoBenchmark {
+
+    // Roughly two months of a busy shop, and 20x that.
+    @Param({"5000", "100000"})
+    public int seedOrders;
+
+    @Param({"40"})
+    public int activeOrders;
+
+    @Param({"60"})
+    public int days;
+
+    private final OrderDAO orderDAO = new OrderDAO();
+    private final DashboardDAO dashboardDAO = new DashboardDAO();
+    private final MenuItemDAO menuItemDAO = new MenuItemDAO();
+    private final UserDAO userDAO = new UserDAO();
+    private final AtomicInteger inserted = new AtomicInteger();
+
+    private EmbeddedDatabase database;
+    private List<MenuItem> menu;
+    private int firstActiveId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = EmbeddedDatabase.start();
+        firstActiveId = OrderSeeder.seed(seedOrders, activeOrders, days, 42L);
+        menu = menuItemDAO.findAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        database.close();
+    }
+
+    @Benchmark
+    public List<Order> loadActiveOrders() throws Exception {
+        return orderDAO.loadActiveOrders(50);
+    }
+
+    @Benchmark
+    public List<Order> searchOrdersByCustomer() throws Exception {
+        return orderDAO.searchOrders("ella", "", 50);
+    }
+
+    @Benchmark
+    public Integer findIdByCode() throws Exception {
+        return orderDAO.findIdByCode("S" + firstActiveId);
+    }
+
+    @Benchmark
+    public Order insertOrderWithItems() throws Exception {
+        Order order = new Order();
+        int n = inserted.incrementAndGet();
+        order.setCode("B" + n);
+        order.setCustomerName("Bench " + n);
+        // COMPLETED so repeated inserts do not grow the active queue the other benchmarks read.
+        order.setStatus("COMPLETED");
+        order.setPaid(true);
+        OrderPricing.applyLines(order, BenchFixtures.lines(menu, 2, new Random(n)));
+        return orderDAO.insertOrderWithItems(order);
+    }
+
+    @Benchmark
+    public int updateStatusToInProgress() throws Exception {
+        // Re-marks an active order; the row stays active so the data set does not drift.
+        int id = firstActiveId + (inserted.incrementAndGet() % activeOrders);
+        orderDAO.updateStatusToInProgress(id);
+        return id;
+    }
+
+    @Benchmark
+    public DashboardSummary dashboardSummary() throws Exception {
+        return dashboardDAO.loadSummary();
+    }
+
+    @Benchmark
+    public List<DailySalesRow> recentDailySales() throws Exception {
+        return dashboardDAO.loadRecentDailySales(14);
+    }
+
+    @Benchmark
+    public List<MenuItem> menuFindAll() throws Exception {
+        return menuItemDAO.findAll();
+    }
+
+    @Benchmark
+    public List<User> usersFindAll() throws Exception {
+        return userDAO.findAll();
+    }
+}
@@ -0,0 +1,163 @@
+package app.bench;
+
+import app.db.DB;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory H2 database in MySQL mode, created from the phpMyAdmin dump in docs/database.sql
+ * and installed as the DAO data source via {@link DB#setDataSource}.
+ *
+ * The dump is translated statement by statement for H2: session SETs and the transaction
+ * wrapper are dropped, table options are stripped, the view loses its DEFINER clause, and
+ * multi-clause ALTER TABLE statements are split into H2-friendly ones.
+ */
+final class EmbeddedDatabase implements AutoCloseable {
+
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private static final Pattern TABLE_OPTIONS = Pattern.compile("\\)\\s*ENGINE=.*$", Pattern.DOTALL);
+    private static final Pattern VIEW_HEADER = Pattern.compile("^CREATE\\s+ALGORITHM=.*?\\s+VIEW\\s+", Pattern.DOTALL);
+    private static final Pattern HEX_LITERAL = Pattern.compile("\\b0x([0-9a-fA-F]+)");
+    private static final Pattern ALTER_HEADER = Pattern.compile("^ALTER TABLE `(\\w+)`\\s+", Pattern.DOTALL);
+    private static final Pattern UNIQUE_KEY = Pattern.compile("ADD UNIQUE KEY `(\\w+)` \\((.+)\\)");
+    private static final Pattern PLAIN_KEY = Pattern.compile("ADD KEY `(\\w+)` \\((.+)\\)");
+    private static final Pattern MODIFY = Pattern.compile("MODIFY (.+)");
+    private static final Pattern AUTO_INCREMENT_START = Pattern.compile("AUTO_INCREMENT=(\\d+)");
+
+    private final Connection keepAlive;
+    private final String url;
+
+    private EmbeddedDatabase(String url, Connection keepAlive) {
+        this.url = url;
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * Boots a fresh, uniquely named in-memory database and points every DAO at it.
+     */
+    static EmbeddedDatabase start() throws IOException, SQLException {
+        String url = "jdbc:h2:mem:coffee_shop_" + COUNTER.incrementAndGet()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+        DB.setDataSource(DB.forUrl(url, "sa", ""));
+        // The database lives as long as one connection is open.
+        Connection keepAlive = DB.getConnection();
+        try (Statement st = keepAlive.createStatement()) {
+            for (String sql : translate(Files.readString(schemaPath(), StandardCharsets.UTF_8))) {
+                st.execute(sql);
+            }
+        }
+        return new EmbeddedDatabase(url, keepAlive);
+    }
+
+    String url() {
+        return url;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        DB.setDataSource(null);
+        keepAlive.close();
+    }
+
+    /**
+     * docs/database.sql relative to the repo root or to bench/, unless -Dcoffee.schema points elsewhere.
+     */
+    static Path schemaPath() {
+        String override = System.getProperty("coffee.schema");
+        if (override != null) return Path.of(override);
+        Path fromRoot = Path.of("docs", "database.sql");
+        return Files.exists(fromRoot) ? fromRoot : Path.of("..", "docs", "database.sql");
+    }
+
+    static List<String> translate(String dump) {
+        List<String> out = new ArrayList<>();
+        for (String raw : dump.split(";\\s*\\R")) {
+            String sql = stripComments(raw).trim();
+            if (sql.endsWith(";")) sql = sql.substring(0, sql.length() - 1).trim();
+            if (sql.isEmpty()) continue;
+
+            String upper = sql.toUpperCase(Locale.ROOT);
+            if (upper.startsWith("SET ") || upper.equals("START TRANSACTION") || upper.equals("COMMIT")) continue;
+            // phpMyAdmin writes a placeholder table for each view, then drops it again.
+            if (upper.startsWith("CREATE TABLE `V_") || upper.startsWith("DROP TABLE IF EXISTS `V_")) continue;
+
+            if (upper.startsWith("CREATE TABLE")) {
+                out.add(TABLE_OPTIONS.matcher(sql).replaceFirst(")"));
+            } else if (upper.startsWith("CREATE ALGORITHM")) {
+                out.add(VIEW_HEADER.matcher(sql).replaceFirst("CREATE VIEW "));
+            } else if (upper.startsWith("INSERT")) {
+                out.add(HEX_LITERAL.matcher(sql).replaceAll("X'$1'"));
+            } else if (upper.startsWith("ALTER TABLE")) {
+                out.addAll(splitAlter(sql));
+            } else {
+                out.add(sql);
+            }
+        }
+        return out;
+    }
+
+    private static String stripComments(String sql) {
+        StringBuilder sb = new StringBuilder();
+        for (String line : sql.split("\\R")) {
+            String t = line.trim();
+            if (t.startsWith("--") || (t.startsWith("/*") && t.endsWith("*/"))) continue;
+            sb.append(line).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static List<String> splitAlter(String sql) {
+        Matcher header = ALTER_HEADER.matcher(sql);
+        if (!header.find()) return List.of(sql);
+        String table = header.group(1);
+        List<String> out = new ArrayList<>();
+        for (String clause : splitTopLevel(sql.substring(header.end()))) {
+            Matcher m;
+            if ((m = UNIQUE_KEY.matcher(clause)).matches()) {
+                out.add("ALTER TABLE `" + table + "` ADD CONSTRAINT `uk_" + table + "_" + m.group(1) + "` UNIQUE (" + m.group(2) + ")");
+            } else if ((m = PLAIN_KEY.matcher(clause)).matches()) {
+                out.add("CREATE INDEX `idx_" + table + "_" + m.group(1) + "` ON `" + table + "` (" + m.group(2) + ")");
+            } else if ((m = AUTO_INCREMENT_START.matcher(clause)).matches()) {
+                // Applied to the AUTO_INCREMENT column declared by the preceding MODIFY clause.
+                String previous = out.get(out.size() - 1);
+                String column = previous.replaceFirst("^.*MODIFY `(\\w+)`.*$", "$1");
+                out.add("ALTER TABLE `" + table + "` ALTER COLUMN `" + column + "` RESTART WITH " + m.group(1));
+            } else if ((m = MODIFY.matcher(clause)).matches()) {
+                out.add("ALTER TABLE `" + table + "` MODIFY " + m.group(1));
+            } else {
+                out.add("ALTER TABLE `" + table + "` " + clause);
+            }
+        }
+        return out;
+    }
+
+    private static List<String> splitTopLevel(String clauses) {
+        List<String> out = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < clauses.length(); i++) {
+            char c = clauses.charAt(i);
+            if (c == '(') depth++;
+            else if (c == ')') depth--;
+            else if (c == ',' && depth == 0) {
+                out.add(clauses.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        out.add(clauses.substring(start).trim());
+        return out;
+    }
+}
@@ -0,0 +1,141 @@
+package app.bench;
+
+import app.db.DB;
+import app.db.GroupCommitWriter;
+import app.db.MenuItemDAO;
+import app.db.OrderDAO;
+import app.model.MenuItem;
+import app.model.Order;
+import app.model.OrderPricing;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Checkout bursts: eight threads inserting 2-line orders at once, each through its own
+ * transaction (direct, today's OrderDAO path) or through the GroupCommitWriter.
+ *
+ * The embedded H2 database commits in memory, which hides what group commit saves on a real
+ * server. commitMillis adds that cost back as a sleep in every commit, taken one commit at a
+ * time like a log flush on one disk. The trial prints commits/s next to orders/s; SampleTime
+ * gives per-order latency. The group window is -Ddb.groupCommit.windowMillis as in the app.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class GroupCommitBenchmark {
+
+    @Param({"direct", "group"})
+    public String path;
+
+    @Param({"1", "4"})
+    public int commitMillis;
+
+    private final OrderDAO orderDAO = new OrderDAO();
+    private final AtomicInteger inserted = new AtomicInteger();
+    private final LongAdder commits = new LongAdder();
+    private final Object logDevice = new Object();
+
+    private EmbeddedDatabase database;
+    private GroupCommitWriter writer;
+    private List<MenuItem> menu;
+    private long startNanos;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = EmbeddedDatabase.start();
+        menu = new MenuItemDAO().findAll();
+        DB.setDataSource(slowCommits(DB.getDataSource()));
+        if ("group".equals(path)) {
+            writer = new GroupCommitWriter(orderDAO,
+                    Integer.getInteger(GroupCommitWriter.WINDOW_PROPERTY, GroupCommitWriter.DEFAULT_WINDOW_MILLIS),
+                    GroupCommitWriter.DEFAULT_CAPACITY);
+        }
+        startNanos = System.nanoTime();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf(Locale.ROOT, "%n[GroupCommit] %s, commit +%d ms: %.0f orders/s, %.0f commits/s (%.1f orders per commit)%n",
+                path, commitMillis, inserted.get() / seconds, commits.sum() / seconds,
+                commits.sum() == 0 ? 0 : (double) inserted.get() / commits.sum());
+        if (writer != null) writer.close();
+        database.close();
+    }
+
+    @Benchmark
+    public Integer checkout() throws Exception {
+        Order order = new Order();
+        int n = inserted.incrementAndGet();
+        order.setCode("G" + n);
+        order.setCustomerName("Bench " + n);
+        order.setStatus("COMPLETED");
+        order.setPaid(true);
+        OrderPricing.applyLines(order, BenchFixtures.lines(menu, 2, new Random(n)));
+        if (writer != null) return writer.submit(order).get();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return orderDAO.insertOrderWithItems(order).getId();
+            } catch (SQLException ex) {
+                // H2's MySQL mode now and then hands two concurrent transactions the same
+                // AUTO_INCREMENT id; MySQL does not. Only the direct path has concurrent writers.
+                if (attempt == 10 || ex.getSQLState() == null || !ex.getSQLState().startsWith("23")) throw ex;
+            }
+        }
+    }
+
+    /** Counts commits and makes each one take commitMillis longer. */
+    private DataSource slowCommits(DataSource delegate) {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> {
+                    Object result = call(delegate, method, args);
+                    if (!(result instanceof Connection con)) return result;
+                    return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                            (p, m, a) -> {
+                                if (m.getName().equals("commit")) {
+                                    commits.increment();
+                                    synchronized (logDevice) {
+                                        Thread.sleep(commitMillis);
+                                    }
+                                }
+                                return call(con, m, a);
+                            });
+                });
+    }
+
+    private static Object call(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package app.bench;
+
+import app.model.MenuItem;
+import app.ui.BulkListModel;
+import app.ui.IncrementalFilter;
+import app.util.InsertionSort;
+import app.util.LinearSearch;
+
+import javax.swing.DefaultListModel;
+import javax.swing.JList;
+import javax.swing.SwingUtilities;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures EDT time per keystroke for the menu filter on a large synthetic menu,
+ * comparing the old clear-and-refill filter with {@link IncrementalFilter}.
+ * Runs headless: ant menu-filter -Dmenu-filter.args="[items] [gapMs]"
+ */
+public final class MenuFilterBenchmark {
+
+    private static final String TYPED = "iced caramel latte";
+
+    private MenuFilterBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        long gapMs = args.length > 1 ? Long.parseLong(args[1]) : 60;
+        List<MenuItem> menu = syntheticMenu(size);
+
+        System.out.println("Menu items: " + size + ", keystrokes: " + TYPED.length() + ", typing gap: " + gapMs + " ms");
+        runLegacy(menu, gapMs);
+        runIncremental(menu, gapMs);
+    }
+
+    // The previous CashierPanel.filterMenu: synchronous search + sort + one addElement per match.
+    private static void runLegacy(List<MenuItem> menu, long gapMs) throws Exception {
+        DefaultListModel<MenuItem> model = new DefaultListModel<>();
+        EventCounter events = new EventCounter();
+        SwingUtilities.invokeAndWait(() -> {
+            new JList<>(model);
+            model.addListDataListener(events);
+        });
+
+        long edtNanos = 0;
+        long worst = 0;
+        for (int i = 1; i <= TYPED.length(); i++) {
+            String q = TYPED.substring(0, i);
+            AtomicLong spent = new AtomicLong();
+            SwingUtilities.invokeAndWait(() -> {
+                long start = System.nanoTime();
+                model.clear();
+                List<MenuItem> results = LinearSearch.searchMenuByName(menu, q);
+                InsertionSort.sort(results, Comparator.comparing(MenuItem::getName));
+                for (MenuItem m : results) {
+                    model.addElement(m);
+                }
+                spent.set(System.nanoTime() - start);
+            });
+            edtNanos += spent.get();
+            worst = Math.max(worst, spent.get());
+            Thread.sleep(gapMs);
+        }
+        report("legacy clear+addElement", edtNanos, worst, events.count.get(), model.getSize());
+    }
+
+    private static void runIncremental(List<MenuItem> menu, long gapMs) throws Exception {
+        BulkListModel<MenuItem> model = new BulkListModel<>();
+        EventCounter events = new EventCounter();
+        AtomicLong applyNanos = new AtomicLong();
+        AtomicLong worstApply = new AtomicLong();
+        CountDownLatch finalResult = new CountDownLatch(1);
+
+        IncrementalFilter<MenuItem> filter = new IncrementalFilter<>(LinearSearch::menuItemMatches, results -> {
+            long start = System.nanoTime();
+            model.replaceAll(results);
+            long spent = System.nanoTime() - start;
+            applyNanos.addAndGet(spent);
+            worstApply.accumulateAndGet(spent, Math::max);
+            finalResult.countDown();
+        }, 120);
+
+        SwingUtilities.invokeAndWait(() -> {
+            new JList<>(model);
+            model.addListDataListener(events);
+            filter.setSource(menu);
+            filter.setSorter(results -> InsertionSort.sort(results, Comparator.comparing(MenuItem::getName)));
+        });
+
+        long keyNanos = 0;
+        long worstKey = 0;
+        for (int i = 1; i <= TYPED.length(); i++) {
+            String q = TYPED.substring(0, i);
+            AtomicLong spent = new AtomicLong();
+            SwingUtilities.invokeAndWait(() -> {
+                long start = System.nanoTime();
+                filter.request(q);
+                spent.set(System.nanoTime() - start);
+            });
+            keyNanos += spent.get();
+            worstKey = Math.max(worstKey, spent.get());
+            Thread.sleep(gapMs);
+        }
+        finalResult.await(5, TimeUnit.SECONDS);
+        Thread.sleep(300); // let any last debounced search land
+
+        long edtNanos = keyNanos + applyNanos.get();
+        report("incremental (debounced, bulk)", edtNanos, Math.max(worstKey, worstApply.get()),
+                events.count.get(), model.getSize());
+    }
+
+    private static void report(String label, long edtNanos, long worstNanos, long events, int visible) {
+        System.out.printf("%-30s EDT total %8.2f ms | per keystroke %6.3f ms | worst slice %6.3f ms | list events %6d | visible %d%n",
+                label,
+                edtNanos / 1e6,
+                edtNanos / 1e6 / TYPED.length(),
+                worstNanos / 1e6,
+                events,
+                visible);
+    }
+
+    private static List<MenuItem> syntheticMenu(int size) {
+        String[] temps = {"Hot", "Iced", "Blended"};
+        String[] flavors = {"Caramel", "Vanilla", "Mocha", "Hazelnut", "Matcha", "Spanish", "Salted", "Ube", "Chai", "Honey"};
+        String[] drinks = {"Latte", "Macchiato", "Americano", "Frappe", "Cold Brew", "Cappuccino", "Tea", "Espresso"};
+        String[] categories = {"Coffee", "Tea", "Iced", "Pastry"};
+        List<MenuItem> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String name = temps[i % temps.length] + " " + flavors[(i / 3) % flavors.length] + " "
+                    + drinks[(i / 30) % drinks.length] + " " + (i / 240);
+            out.add(new MenuItem(String.format("SK%05d", i), name, categories[i % categories.length],
+                    BigDecimal.valueOf(90 + (i % 120))));
+        }
+        out.sort(Comparator.comparing(MenuItem::getName));
+        return out;
+    }
+
+    private static final class EventCounter implements ListDataListener {
+        final AtomicLong count = new AtomicLong();
+        @Override public void intervalAdded(ListDataEvent e) { count.incrementAndGet(); }
+        @Override public void intervalRemoved(ListDataEvent e) { count.incrementAndGet(); }
+        @Override public void contentsChanged(ListDataEvent e) { count.incrementAndGet(); }
+    }
+}
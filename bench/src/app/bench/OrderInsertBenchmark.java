@@ -0,0 +1,80 @@
+package app.bench;
+
+import app.db.MenuItemDAO;
+import app.db.OrderDAO;
+import app.model.MenuItem;
+import app.model.Order;
+import app.model.OrderPricing;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * insertOrderWithItems latency by order size, with the order_items written either as a JDBC
+ * batch of single-row INSERTs or as hand-built multi-row INSERTs (-Ddb.itemInserts, see
+ * OrderItemInserts in app.db).
+ *
+ * Against the embedded H2 database a batch is not rewritten, so "batch" is one statement
+ * execution per line, as with MySQL before rewriteBatchedStatements; "values" is what the
+ * rewrite produces. There is no network here, so on a real server the gap per line is larger.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderInsertBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int lines;
+
+    @Param({"batch", "values"})
+    public String itemInserts;
+
+    private final OrderDAO orderDAO = new OrderDAO();
+    private final AtomicInteger inserted = new AtomicInteger();
+
+    private EmbeddedDatabase database;
+    private List<MenuItem> menu;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        System.setProperty("db.itemInserts", itemInserts);
+        database = EmbeddedDatabase.start();
+        menu = new MenuItemDAO().findAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        database.close();
+        System.clearProperty("db.itemInserts");
+    }
+
+    @Benchmark
+    public Order insertOrderWithItems() throws Exception {
+        Order order = new Order();
+        int n = inserted.incrementAndGet();
+        order.setCode("I" + n);
+        order.setCustomerName("Bench " + n);
+        order.setStatus("COMPLETED");
+        order.setPaid(true);
+        OrderPricing.applyLines(order, BenchFixtures.lines(menu, lines, new Random(n)));
+        return orderDAO.insertOrderWithItems(order);
+    }
+}
@@ -0,0 +1,109 @@
+package app.bench;
+
+import app.db.OrderDAO;
+import app.db.QueueOverflow;
+import app.model.Order;
+import app.model.OrderQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Linked-list queue operations behind checkout (enqueue), serve (dequeue), every queue
+ * refresh (traverse) and order edits (remove).
+ *
+ * Sizes up to MAX_SIZE use the plain in-memory queue. Larger ones need overflow storage, so they
+ * run with a QueueOverflow past the default hot window; the fixture orders are given no ids,
+ * which sends every spilled order through the local file (the slower of its two stores).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderQueueBenchmark {
+
+    @Param({"50", "5000"})
+    public int size;
+
+    private List<Order> orders;
+    private OrderQueue full;
+
+    @TearDown
+    public void tearDown() {
+        full.clear();
+    }
+
+    @Setup
+    public void setUp() {
+        orders = BenchFixtures.orders(size, BenchFixtures.menu(30, 1L), 2L);
+        if (size > OrderQueue.MAX_SIZE) {
+            for (Order order : orders) order.setId(null);
+        }
+        full = newQueue();
+        for (Order order : orders) full.enqueue(order);
+    }
+
+    private OrderQueue newQueue() {
+        OrderQueue queue = new OrderQueue();
+        if (size <= OrderQueue.MAX_SIZE) return queue;
+        return queue.spillTo(new QueueOverflow(new OrderDAO(), Paths.get("build", "overflow")), OrderQueue.MAX_SIZE);
+    }
+
+    @Benchmark
+    public int enqueueAll() {
+        OrderQueue queue = newQueue();
+        for (Order order : orders) queue.enqueue(order);
+        int queued = queue.size();
+        queue.clear();   // releases the overflow file of the larger sizes
+        return queued;
+    }
+
+    @Benchmark
+    public int enqueueThenDequeueAll() throws Exception {
+        OrderQueue queue = newQueue();
+        for (Order order : orders) queue.enqueue(order);
+        int served = 0;
+        while (true) {
+            if (queue.dequeue() != null) {
+                served++;
+                continue;
+            }
+            OrderQueue.Refill refill = queue.startRefill();
+            if (refill == null) return served;
+            refill.finish(refill.pull());
+        }
+    }
+
+    @Benchmark
+    public List<Order> traverse() {
+        return full.traverse();
+    }
+
+    @Benchmark
+    public boolean removeTailAndRequeue() throws Exception {
+        // Worst case for remove(): the target is the last node. Re-enqueue keeps the size constant.
+        // With overflow that is the last node of the hot window, which then refills from the store
+        // as the panels do; finding it walks only the window, so the lookup costs the same at every size.
+        Order last = full.spills() ? full.traverse().get(full.hotSize() - 1) : orders.get(orders.size() - 1);
+        boolean removed = full.remove(last);
+        OrderQueue.Refill refill = full.startRefill();
+        if (refill != null) refill.finish(refill.pull());
+        full.enqueue(last);
+        return removed;
+    }
+}
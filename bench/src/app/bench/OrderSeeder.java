@@ -0,0 +1,117 @@
+package app.bench;
+
+import app.db.DB;
+import app.model.MenuItem;
+import app.model.Order;
+import app.model.OrderItem;
+import app.model.OrderPricing;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills the orders/order_items tables of an {@link EmbeddedDatabase} with generated history.
+ *
+ * Orders are spread evenly over the last {@code days} days using the real menu rows, so
+ * dashboard and history queries see realistic dates and item codes. The newest
+ * {@code active} orders stay PENDING/IN_PROGRESS; everything older is COMPLETED and paid.
+ */
+final class OrderSeeder {
+
+    private static final int BATCH = 1_000;
+    private static final String[] CUSTOMERS = {"Ana", "Ben", "Carla", "Dino", "Ella", "Franz", "Gia", "Hugo", "Ivy", "Jomar"};
+
+    private OrderSeeder() {}
+
+    /**
+     * @return id of the first generated active order (the active ids are contiguous)
+     */
+    static int seed(int orders, int active, int days, long seed) throws SQLException {
+        Random rnd = new Random(seed);
+        List<MenuItem> menu = loadMenu();
+        long now = System.currentTimeMillis();
+        long spanMillis = Math.max(1, days) * 24L * 60 * 60 * 1000;
+
+        String orderSql = "INSERT INTO orders (id, code, customer_name, status, subtotal, tax, total, paid, created_at) VALUES (?,?,?,?,?,?,?,?,?)";
+        String itemSql = "INSERT INTO order_items (order_id, item_code, item_name, options, quantity, unit_price, line_total) VALUES (?,?,?,?,?,?,?)";
+
+        try (Connection con = DB.getConnection()) {
+            con.setAutoCommit(false);
+            int firstId = nextOrderId(con);
+            try (PreparedStatement ps = con.prepareStatement(orderSql);
+                 PreparedStatement psItem = con.prepareStatement(itemSql)) {
+                for (int i = 0; i < orders; i++) {
+                    int id = firstId + i;
+                    boolean isActive = i >= orders - active;
+                    Order order = new Order();
+                    OrderPricing.applyLines(order, BenchFixtures.lines(menu, 1 + rnd.nextInt(3), rnd));
+
+                    ps.setInt(1, id);
+                    ps.setString(2, "S" + id);
+                    ps.setString(3, CUSTOMERS[rnd.nextInt(CUSTOMERS.length)] + " " + (i % 500));
+                    ps.setString(4, isActive ? (rnd.nextInt(3) == 0 ? "IN_PROGRESS" : "PENDING") : "COMPLETED");
+                    ps.setBigDecimal(5, order.getSubtotal());
+                    ps.setBigDecimal(6, order.getTax());
+                    ps.setBigDecimal(7, order.getTotal());
+                    ps.setBoolean(8, !isActive);
+                    // Oldest first, newest at "now", so created_at order matches id order.
+                    ps.setTimestamp(9, new Timestamp(now - spanMillis + spanMillis * (i + 1L) / orders));
+                    ps.addBatch();
+
+                    for (OrderItem item : order.getItems()) {
+                        psItem.setInt(1, id);
+                        psItem.setString(2, item.getItemCode());
+                        psItem.setString(3, item.getItemName());
+                        psItem.setString(4, item.getOptionsLabel());
+                        psItem.setInt(5, item.getQuantity());
+                        psItem.setBigDecimal(6, item.getUnitPrice());
+                        psItem.setBigDecimal(7, item.getLineTotal());
+                        psItem.addBatch();
+                    }
+
+                    if ((i + 1) % BATCH == 0) {
+                        ps.executeBatch();
+                        psItem.executeBatch();
+                        con.commit();
+                    }
+                }
+                ps.executeBatch();
+                psItem.executeBatch();
+            }
+            try (Statement st = con.createStatement()) {
+                st.execute("ALTER TABLE orders ALTER COLUMN id RESTART WITH " + (firstId + orders));
+            }
+            con.commit();
+            return firstId + orders - active;
+        }
+    }
+
+    private static int nextOrderId(Connection con) throws SQLException {
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM orders")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static List<MenuItem> loadMenu() throws SQLException {
+        List<MenuItem> menu = new ArrayList<>();
+        try (Connection con = DB.getConnection();
+             Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT code, name, category, price FROM menu_items")) {
+            while (rs.next()) {
+                BigDecimal price = rs.getBigDecimal("price");
+                menu.add(new MenuItem(rs.getString("code"), rs.getString("name"), rs.getString("category"), price));
+            }
+        }
+        return menu;
+    }
+}
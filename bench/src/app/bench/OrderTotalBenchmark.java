@@ -0,0 +1,89 @@
+package app.bench;
+
+import app.model.MenuItem;
+import app.model.Order;
+import app.model.OrderItem;
+import app.model.OrderPricing;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkout pricing: per-line unit price with size/add-on surcharges, then subtotal/tax/total.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderTotalBenchmark {
+
+    // A typical cart has a few lines; 300 is the 100x case.
+    @Param({"3", "300"})
+    public int lines;
+
+    private List<MenuItem> cartItems;
+    private String[] sizes;
+    private boolean[] shots;
+    private boolean[] milks;
+    private int[] quantities;
+    private Order priced;
+
+    @Setup
+    public void setUp() {
+        Random rnd = new Random(4L);
+        List<MenuItem> menu = BenchFixtures.menu(30, 1L);
+        cartItems = new ArrayList<>(lines);
+        sizes = new String[lines];
+        shots = new boolean[lines];
+        milks = new boolean[lines];
+        quantities = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            cartItems.add(menu.get(rnd.nextInt(menu.size())));
+            sizes[i] = BenchFixtures.SIZES[rnd.nextInt(BenchFixtures.SIZES.length)];
+            shots[i] = rnd.nextBoolean();
+            milks[i] = rnd.nextBoolean();
+            quantities[i] = 1 + rnd.nextInt(3);
+        }
+        priced = new Order();
+        OrderPricing.applyLines(priced, buildLines());
+    }
+
+    @Benchmark
+    public Order priceCheckout() {
+        // What CashierPanel.checkout does with the cart: price each line, then total the order.
+        Order order = new Order();
+        OrderPricing.applyLines(order, buildLines());
+        return order;
+    }
+
+    @Benchmark
+    public Order recomputeTotals() {
+        OrderPricing.applyTotals(priced);
+        return priced;
+    }
+
+    private List<OrderItem> buildLines() {
+        List<OrderItem> out = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            MenuItem item = cartItems.get(i);
+            double unit = OrderPricing.unitPrice(item, sizes[i], shots[i], milks[i]);
+            out.add(OrderPricing.line(item, sizes[i], unit, quantities[i]));
+        }
+        return out;
+    }
+}
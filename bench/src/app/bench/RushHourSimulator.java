@@ -0,0 +1,412 @@
+package app.bench;
+
+import app.db.DB;
+import app.db.MenuItemDAO;
+import app.db.OrderDAO;
+import app.db.OrderWorkflow;
+import app.model.MenuItem;
+import app.model.Order;
+import app.model.OrderItem;
+import app.model.OrderPricing;
+import app.model.OrderQueue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless rush-hour load generator (the 7-9 AM rush: one cashier, two baristas).
+ *
+ * Customers arrive as a Poisson stream. One cashier thread builds each order with the same
+ * pricing and checkout steps as CashierPanel.checkout (OrderPricing + OrderWorkflow.checkout);
+ * barista threads serve the head of the queue through OrderWorkflow.serveHead, the body of
+ * BaristaPanel.serveNext, then spend the drink preparation time. Human times (ordering at the
+ * counter, making drinks) are simulated and compressed by --speedup; DB calls run for real.
+ *
+ * Usage (from bench/): ant rush -Drush.args="--rate=120 --minutes=120 --baristas=2"
+ * Options (defaults in brackets):
+ *   --rate=N            arrivals per hour [90]
+ *   --minutes=N         length of the rush [120]
+ *   --speedup=N         simulated seconds per real second [120]
+ *   --baristas=N        barista stations [2]
+ *   --order-seconds=N   mean time at the counter before checkout [35]
+ *   --prep-seconds=N    mean preparation time per drink [35]
+ *   --items-max=N       max lines per order [3]
+ *   --mix=CODE:W,...    menu mix weights by item code [uniform over the menu]
+ *   --sizes=S:W,...     size mix [Small:2,Medium:5,Large:3]
+ *   --shot=P --milk=P   add-on probabilities [0.2, 0.25]
+ *   --db=embedded|configured   H2 copy of docs/database.sql, or the DB from db.properties [embedded]
+ *   --seed-orders=N     history rows to seed in the embedded DB [5000]
+ *   --seed=N            random seed [7]
+ */
+public final class RushHourSimulator {
+
+    private final Map<String, String> opts;
+    private final Random rnd;
+    private final double speedup;
+
+    private final SharedQueue queue = new SharedQueue();
+    private final BlockingQueue<Arrival> counterLine = new LinkedBlockingQueue<>();
+    private final AtomicBoolean arrivalsClosed = new AtomicBoolean();
+    private final AtomicInteger rejected = new AtomicInteger();
+    private final AtomicInteger dbErrors = new AtomicInteger();
+
+    private final List<Long> checkoutNanos = new ArrayList<>();
+    private final List<Double> waitMinutes = new ArrayList<>();
+    private final List<int[]> depthSamples = new ArrayList<>();
+    private final Map<Order, Long> enqueuedAtNanos = new ConcurrentHashMap<>();
+    private long checkoutRoundTrips;
+    private long serveRoundTrips;
+    private int checkouts;
+    private int served;
+
+    private RushHourSimulator(Map<String, String> opts) {
+        this.opts = opts;
+        this.rnd = new Random(longOpt("seed", 7));
+        this.speedup = doubleOpt("speedup", 120);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) continue;
+            int eq = arg.indexOf('=');
+            opts.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+        new RushHourSimulator(opts).run();
+    }
+
+    private void run() throws Exception {
+        EmbeddedDatabase embedded = null;
+        if (!"configured".equals(opts.getOrDefault("db", "embedded"))) {
+            embedded = EmbeddedDatabase.start();
+            OrderSeeder.seed(intOpt("seed-orders", 5000), 0, 60, longOpt("seed", 7));
+        }
+        CountingDataSource counting = new CountingDataSource(DB.getDataSource());
+        DB.setDataSource(counting);
+
+        try {
+            List<MenuItem> menu = new MenuItemDAO().findAll();
+            if (menu.isEmpty()) throw new IllegalStateException("menu_items is empty");
+            simulate(menu, counting);
+        } finally {
+            DB.setDataSource(null);
+            if (embedded != null) embedded.close();
+        }
+    }
+
+    private void simulate(List<MenuItem> menu, CountingDataSource counting) throws Exception {
+        double rate = doubleOpt("rate", 90);
+        double minutes = doubleOpt("minutes", 120);
+        int baristas = intOpt("baristas", 2);
+        OrderWorkflow workflow = new OrderWorkflow(new OrderDAO(), true);
+        long runId = System.currentTimeMillis() % 100_000;
+
+        System.out.printf(Locale.ROOT, "[Rush] %.0f arrivals/h for %.0f min, %d barista(s), speedup x%.0f, DB %s%n",
+                rate, minutes, baristas, speedup, opts.getOrDefault("db", "embedded"));
+
+        long start = System.nanoTime();
+        CountDownLatch baristasDone = new CountDownLatch(baristas);
+        Thread arrivals = new Thread(() -> arrivals(start, rate, minutes), "rush-arrivals");
+        Thread cashier = new Thread(() -> cashier(menu, workflow, counting, runId), "rush-cashier");
+        List<Thread> stations = new ArrayList<>();
+        for (int i = 0; i < baristas; i++) {
+            stations.add(new Thread(() -> {
+                barista(workflow, counting);
+                baristasDone.countDown();
+            }, "rush-barista-" + (i + 1)));
+        }
+        Thread sampler = new Thread(() -> sampleDepth(start), "rush-sampler");
+        sampler.setDaemon(true);
+
+        arrivals.start();
+        cashier.start();
+        stations.forEach(Thread::start);
+        sampler.start();
+
+        arrivals.join();
+        cashier.join();
+        queue.closeForCheckout();
+        baristasDone.await();
+        double simulatedMinutes = simulatedSeconds(System.nanoTime() - start) / 60.0;
+
+        report(minutes, simulatedMinutes, counting);
+    }
+
+    // -------------------- Actors --------------------
+
+    private void arrivals(long startNanos, double perHour, double minutes) {
+        double meanGapSeconds = 3600.0 / perHour;
+        double at = 0;
+        while (true) {
+            at += -Math.log(1 - rnd.nextDouble()) * meanGapSeconds;
+            if (at > minutes * 60) break;
+            sleepSimulated(at - simulatedSeconds(System.nanoTime() - startNanos));
+            counterLine.add(new Arrival(System.nanoTime()));
+        }
+        arrivalsClosed.set(true);
+    }
+
+    private void cashier(List<MenuItem> menu, OrderWorkflow workflow, CountingDataSource counting, long runId) {
+        Random own = new Random(longOpt("seed", 7) + 1);
+        Map<MenuItem, Double> weights = menuWeights(menu);
+        Map<String, Double> sizes = weights(opts.getOrDefault("sizes", "Small:2,Medium:5,Large:3"));
+        double shot = doubleOpt("shot", 0.2);
+        double milk = doubleOpt("milk", 0.25);
+        int itemsMax = intOpt("items-max", 3);
+        double orderSeconds = doubleOpt("order-seconds", 35);
+        int n = 0;
+
+        while (true) {
+            Arrival arrival;
+            try {
+                arrival = counterLine.poll(50, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            if (arrival == null) {
+                if (arrivalsClosed.get() && counterLine.isEmpty()) return;
+                continue;
+            }
+            sleepSimulated(exponential(own, orderSeconds));
+
+            // Cart building mirrors CashierPanel: one line per drink with size/add-on pricing.
+            List<OrderItem> lines = new ArrayList<>();
+            int count = 1 + own.nextInt(Math.max(1, itemsMax));
+            for (int i = 0; i < count; i++) {
+                MenuItem item = pick(weights, own);
+                String size = pick(sizes, own);
+                boolean extraShot = own.nextDouble() < shot;
+                boolean altMilk = own.nextDouble() < milk;
+                String label = size + " • Hot" + (extraShot ? " • Extra Shot" : "") + (altMilk ? " • Alt Milk" : "");
+                lines.add(OrderPricing.line(item, label, OrderPricing.unitPrice(item, size, extraShot, altMilk), 1));
+            }
+
+            long trips = counting.currentThread();
+            long t0 = System.nanoTime();
+            Order order = new Order();
+            order.setCode("R" + runId + "-" + (++n));
+            OrderWorkflow.prepareCheckout(order, "Rush " + n, lines);
+            // Registered first: a barista may serve the order as soon as it is enqueued.
+            enqueuedAtNanos.put(order, arrival.nanos);
+            OrderWorkflow.StepResult result = workflow.checkout(order, false, queue);
+            if (!result.accepted) enqueuedAtNanos.remove(order);
+            long spent = System.nanoTime() - t0;
+
+            synchronized (this) {
+                checkoutNanos.add(spent);
+                checkoutRoundTrips += counting.currentThread() - trips;
+                checkouts++;
+            }
+            if (!result.saved()) dbErrors.incrementAndGet();
+            if (!result.accepted) rejected.incrementAndGet();
+        }
+    }
+
+    private void barista(OrderWorkflow workflow, CountingDataSource counting) {
+        Random own = new Random(longOpt("seed", 7) + Thread.currentThread().getName().hashCode());
+        double prepSeconds = doubleOpt("prep-seconds", 35);
+        while (true) {
+            OrderWorkflow.StepResult result;
+            long trips = counting.currentThread();
+            Long arrivedAt;
+            synchronized (queue) {
+                while (queue.isEmpty() && !queue.closed) {
+                    try {
+                        queue.wait(50);
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                }
+                if (queue.isEmpty()) return;
+                // Same steps as BaristaPanel.serveNext after the confirm dialog.
+                result = workflow.serveHead(queue);
+                arrivedAt = enqueuedAtNanos.remove(result.order);
+            }
+            synchronized (this) {
+                served++;
+                serveRoundTrips += counting.currentThread() - trips;
+                if (arrivedAt != null) waitMinutes.add(simulatedSeconds(System.nanoTime() - arrivedAt) / 60.0);
+            }
+            if (!result.saved()) dbErrors.incrementAndGet();
+
+            int drinks = result.order.getItems().stream().mapToInt(OrderItem::getQuantity).sum();
+            sleepSimulated(exponential(own, prepSeconds) * Math.max(1, drinks));
+        }
+    }
+
+    private void sampleDepth(long startNanos) {
+        int lastMinute = -1;
+        while (true) {
+            int minute = (int) (simulatedSeconds(System.nanoTime() - startNanos) / 60);
+            if (minute != lastMinute) {
+                synchronized (depthSamples) {
+                    depthSamples.add(new int[]{minute, queue.size(), counterLine.size()});
+                }
+                lastMinute = minute;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException ex) {
+                return;
+            }
+        }
+    }
+
+    // -------------------- Report --------------------
+
+    private synchronized void report(double rushMinutes, double totalMinutes, CountingDataSource counting) {
+        long[] lat = checkoutNanos.stream().mapToLong(Long::longValue).sorted().toArray();
+        double[] waits = waitMinutes.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+
+        System.out.println();
+        System.out.printf(Locale.ROOT, "Checked out        %d orders (%d rejected: queue full, %d DB errors)%n", checkouts, rejected.get(), dbErrors.get());
+        System.out.printf(Locale.ROOT, "Served             %d orders in %.1f simulated min (rush %.0f min + drain)%n", served, totalMinutes, rushMinutes);
+        System.out.printf(Locale.ROOT, "Throughput         %.2f orders/min checked out, %.2f orders/min served%n",
+                checkouts / rushMinutes, served / totalMinutes);
+        System.out.printf(Locale.ROOT, "Checkout latency   p50 %.2f ms | p99 %.2f ms | max %.2f ms (real time, DB included)%n",
+                percentile(lat, 50) / 1e6, percentile(lat, 99) / 1e6, lat.length == 0 ? 0 : lat[lat.length - 1] / 1e6);
+        System.out.printf(Locale.ROOT, "Arrival to served  p50 %.1f min | p99 %.1f min (simulated)%n", percentile(waits, 50), percentile(waits, 99));
+        System.out.printf(Locale.ROOT, "DB round trips     %.2f per order (checkout %.2f + serve %.2f), %d total%n",
+                (checkoutRoundTrips + serveRoundTrips) / (double) Math.max(1, checkouts),
+                checkoutRoundTrips / (double) Math.max(1, checkouts),
+                serveRoundTrips / (double) Math.max(1, served),
+                counting.total());
+
+        System.out.println();
+        System.out.println("Queue depth over time (every 5 simulated min; q = order queue, c = waiting at counter)");
+        synchronized (depthSamples) {
+            for (int[] s : depthSamples) {
+                if (s[0] % 5 != 0) continue;
+                System.out.printf(Locale.ROOT, "  %3d min  q=%3d c=%3d  %s%n", s[0], s[1], s[2], "#".repeat(Math.min(s[1], 80)));
+            }
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int idx = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, idx))];
+    }
+
+    private static double percentile(double[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int idx = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, idx))];
+    }
+
+    // -------------------- Helpers --------------------
+
+    private Map<MenuItem, Double> menuWeights(List<MenuItem> menu) {
+        Map<String, Double> byCode = weights(opts.getOrDefault("mix", ""));
+        Map<MenuItem, Double> out = new LinkedHashMap<>();
+        for (MenuItem item : menu) {
+            double w = byCode.isEmpty() ? 1.0 : byCode.getOrDefault(item.getCode(), 0.0);
+            if (w > 0) out.put(item, w);
+        }
+        if (out.isEmpty()) throw new IllegalArgumentException("--mix matches no menu item codes");
+        return out;
+    }
+
+    private static Map<String, Double> weights(String spec) {
+        Map<String, Double> out = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            if (part.isBlank()) continue;
+            String[] kv = part.trim().split(":");
+            out.put(kv[0], kv.length > 1 ? Double.parseDouble(kv[1]) : 1.0);
+        }
+        return out;
+    }
+
+    private static <T> T pick(Map<T, Double> weights, Random rnd) {
+        double total = 0;
+        for (double w : weights.values()) total += w;
+        double r = rnd.nextDouble() * total;
+        for (Map.Entry<T, Double> e : weights.entrySet()) {
+            r -= e.getValue();
+            if (r <= 0) return e.getKey();
+        }
+        return weights.keySet().iterator().next();
+    }
+
+    private static double exponential(Random rnd, double mean) {
+        return -Math.log(1 - rnd.nextDouble()) * mean;
+    }
+
+    private double simulatedSeconds(long realNanos) {
+        return realNanos / 1e9 * speedup;
+    }
+
+    private void sleepSimulated(double simulatedSeconds) {
+        if (simulatedSeconds <= 0) return;
+        long nanos = (long) (simulatedSeconds / speedup * 1e9);
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int intOpt(String key, int fallback) {
+        return opts.containsKey(key) ? Integer.parseInt(opts.get(key)) : fallback;
+    }
+
+    private long longOpt(String key, long fallback) {
+        return opts.containsKey(key) ? Long.parseLong(opts.get(key)) : fallback;
+    }
+
+    private double doubleOpt(String key, double fallback) {
+        return opts.containsKey(key) ? Double.parseDouble(opts.get(key)) : fallback;
+    }
+
+    private record Arrival(long nanos) {}
+
+    /**
+     * OrderQueue shared by the cashier and barista threads; all access is under its monitor.
+     */
+    private static final class SharedQueue extends OrderQueue {
+        boolean closed;
+
+        @Override
+        public synchronized boolean enqueue(Order order) {
+            boolean ok = super.enqueue(order);
+            notifyAll();
+            return ok;
+        }
+
+        @Override
+        public synchronized Order dequeue() {
+            return super.dequeue();
+        }
+
+        @Override
+        public synchronized Order peek() {
+            return super.peek();
+        }
+
+        @Override
+        public synchronized boolean isEmpty() {
+            return super.isEmpty();
+        }
+
+        @Override
+        public synchronized int size() {
+            return super.size();
+        }
+
+        synchronized void closeForCheckout() {
+            closed = true;
+            notifyAll();
+        }
+    }
+}
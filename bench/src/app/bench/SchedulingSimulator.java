@@ -0,0 +1,214 @@
+package app.bench;
+
+import app.model.MenuItem;
+import app.model.Order;
+import app.model.OrderItem;
+import app.model.OrderPricing;
+import app.model.OrderQueue;
+import app.model.PrepTime;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Compares the queue's scheduling modes on the same order streams: plain FIFO and SHORT_FIRST
+ * (short orders may pass long ones within the delay bound, see OrderQueue).
+ *
+ * Discrete-event simulation on a simulated clock, no DB and no sleeping, so thousands of orders
+ * take milliseconds. Customers arrive as a Poisson stream; a share of them are office orders
+ * with many drinks. Baristas take the head of the queue; the real preparation time is the
+ * PrepTime estimate times log-normal noise, drawn once per order so both modes see the same work.
+ * Reports customer wait (arrival to ready) for all orders and split by order size.
+ *
+ * Usage (from bench/): ant scheduling -Dscheduling.args="--rate=45 --baristas=2"
+ * Options (defaults in brackets):
+ *   --rate=N            arrivals per hour [45, about 85% busy for two baristas]
+ *   --hours=N           length of each run [2]
+ *   --runs=N            runs with consecutive seeds, pooled [20]
+ *   --baristas=N        stations taking the head [2]
+ *   --items-max=N       max lines of a regular order [3]
+ *   --office=P          share of office orders [0.05]
+ *   --office-drinks=N   drinks in an office order [10]
+ *   --max-delay=N       SHORT_FIRST delay bound in seconds [240]
+ *   --noise=S           sigma of the log-normal prep time noise [0.3]
+ *   --seed=N            first random seed [7]
+ */
+public final class SchedulingSimulator {
+
+    private static final List<MenuItem> MENU = List.of(
+            new MenuItem("CF001", "Espresso", "Coffee", new BigDecimal("95.00")),
+            new MenuItem("CF002", "Latte", "Coffee", new BigDecimal("125.00")),
+            new MenuItem("CF004", "Cold Brew", "Coffee", new BigDecimal("150.00")),
+            new MenuItem("FR001", "Caramel Frappe", "Frappe", new BigDecimal("90.00")),
+            new MenuItem("TE001", "Chai Tea", "Tea", new BigDecimal("110.00")),
+            new MenuItem("PA001", "Butter Croissant", "Pastry", new BigDecimal("85.00")),
+            new MenuItem("FD002", "Breakfast Sandwich", "Food", new BigDecimal("210.00")));
+
+    private final Map<String, String> opts;
+
+    private SchedulingSimulator(Map<String, String> opts) {
+        this.opts = opts;
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> opts = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) continue;
+            int eq = arg.indexOf('=');
+            opts.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+        new SchedulingSimulator(opts).run();
+    }
+
+    private void run() {
+        int runs = intOpt("runs", 20);
+        int maxDelay = intOpt("max-delay", 240);
+        System.out.printf(Locale.ROOT, "[Scheduling] %.0f arrivals/h, %d barista(s), %.0f%% office orders of %d drinks, %d x %.1f h, max delay %d s%n",
+                doubleOpt("rate", 45), intOpt("baristas", 2), doubleOpt("office", 0.05) * 100, intOpt("office-drinks", 10),
+                runs, doubleOpt("hours", 2), maxDelay);
+
+        Map<String, List<Double>> fifo = new LinkedHashMap<>();
+        Map<String, List<Double>> shortFirst = new LinkedHashMap<>();
+        long seed = longOpt("seed", 7);
+        int fifoRejected = 0;
+        int shortFirstRejected = 0;
+        for (int r = 0; r < runs; r++) {
+            List<Arrival> arrivals = arrivals(seed + r);
+            fifoRejected += simulate(arrivals, new Clock(), OrderQueue.Scheduling.FIFO, maxDelay, fifo);
+            shortFirstRejected += simulate(arrivals, new Clock(), OrderQueue.Scheduling.SHORT_FIRST, maxDelay, shortFirst);
+        }
+
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-12s %-16s %7s %8s %8s %8s %8s %8s%n", "mode", "orders", "count", "mean", "p50", "p90", "p99", "max");
+        for (String group : fifo.keySet()) {
+            print("fifo", group, fifo.get(group));
+            print("short-first", group, shortFirst.getOrDefault(group, List.of()));
+        }
+        System.out.println("(customer wait in minutes, arrival to ready)");
+        if (fifoRejected + shortFirstRejected > 0) {
+            System.out.printf(Locale.ROOT, "Queue full (%d): %d orders turned away with fifo, %d with short-first%n",
+                    OrderQueue.MAX_SIZE, fifoRejected, shortFirstRejected);
+        }
+    }
+
+    /**
+     * One run: baristas take the queue head whenever they are free; waits are added per group.
+     * Returns the orders the queue turned away.
+     */
+    private int simulate(List<Arrival> arrivals, Clock clock, OrderQueue.Scheduling mode, int maxDelay,
+                          Map<String, List<Double>> waits) {
+        OrderQueue queue = new OrderQueue(mode, maxDelay, () -> clock.now);
+        PriorityQueue<Long> free = new PriorityQueue<>();
+        for (int i = 0; i < intOpt("baristas", 2); i++) free.add(0L);
+        Map<Order, Arrival> byOrder = new IdentityHashMap<>();
+
+        int next = 0;
+        int rejected = 0;
+        while (next < arrivals.size() || !queue.isEmpty()) {
+            long arrivalAt = next < arrivals.size() ? arrivals.get(next).atMillis : Long.MAX_VALUE;
+            if (!queue.isEmpty() && free.peek() <= arrivalAt) {
+                clock.now = Math.max(clock.now, free.poll());
+                Arrival a = byOrder.get(queue.dequeue());
+                long ready = clock.now + a.prepMillis;
+                free.add(ready);
+                double minutes = (ready - a.atMillis) / 60_000.0;
+                waits.computeIfAbsent("all", k -> new ArrayList<>()).add(minutes);
+                waits.computeIfAbsent(a.drinks >= intOpt("office-drinks", 10) ? "office" : a.drinks <= 1 ? "single item" : "2+ items",
+                        k -> new ArrayList<>()).add(minutes);
+            } else {
+                Arrival a = arrivals.get(next++);
+                clock.now = a.atMillis;
+                // A fresh Order per run: the queue stamps nothing on it that the other mode would see.
+                Order order = new Order();
+                order.setCode("#" + next);
+                order.setStatus("PENDING");
+                order.setCreatedAt(new Date(a.atMillis));
+                OrderPricing.applyLines(order, a.lines);
+                byOrder.put(order, a);
+                if (!queue.enqueue(order)) rejected++;
+            }
+        }
+        return rejected;
+    }
+
+    private List<Arrival> arrivals(long seed) {
+        Random rnd = new Random(seed);
+        double meanGapMillis = 3_600_000.0 / doubleOpt("rate", 45);
+        double end = doubleOpt("hours", 2) * 3_600_000;
+        double office = doubleOpt("office", 0.05);
+        int officeDrinks = intOpt("office-drinks", 10);
+        int itemsMax = intOpt("items-max", 3);
+        double noise = doubleOpt("noise", 0.3);
+
+        List<Arrival> out = new ArrayList<>();
+        double at = 0;
+        while (true) {
+            at += -Math.log(1 - rnd.nextDouble()) * meanGapMillis;
+            if (at > end) break;
+            List<OrderItem> lines = new ArrayList<>();
+            if (rnd.nextDouble() < office) {
+                // Office runs: a few kinds of coffee, several of each.
+                int left = officeDrinks;
+                while (left > 0) {
+                    int qty = Math.min(left, 1 + rnd.nextInt(4));
+                    MenuItem item = MENU.get(rnd.nextInt(3));
+                    lines.add(OrderPricing.line(item, "Medium • Hot", OrderPricing.unitPrice(item, "Medium", false, false), qty));
+                    left -= qty;
+                }
+            } else {
+                int count = 1 + rnd.nextInt(Math.max(1, itemsMax));
+                for (int i = 0; i < count; i++) {
+                    MenuItem item = MENU.get(rnd.nextInt(MENU.size()));
+                    String size = BenchFixtures.SIZES[rnd.nextInt(BenchFixtures.SIZES.length)];
+                    boolean shot = rnd.nextInt(5) == 0;
+                    String label = size + " • Hot" + (shot ? " • Extra Shot" : "");
+                    lines.add(OrderPricing.line(item, label, OrderPricing.unitPrice(item, size, shot, false), 1));
+                }
+            }
+            int drinks = lines.stream().mapToInt(OrderItem::getQuantity).sum();
+            long prep = Math.round(PrepTime.seconds(lines) * 1000 * Math.exp(rnd.nextGaussian() * noise));
+            out.add(new Arrival((long) at, lines, drinks, prep));
+        }
+        return out;
+    }
+
+    private static void print(String mode, String group, List<Double> waits) {
+        double[] sorted = waits.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+        double mean = waits.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+        System.out.printf(Locale.ROOT, "%-12s %-16s %7d %8.1f %8.1f %8.1f %8.1f %8.1f%n", mode, group, sorted.length, mean,
+                percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1]);
+    }
+
+    private static double percentile(double[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int idx = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, idx))];
+    }
+
+    private int intOpt(String key, int fallback) {
+        return opts.containsKey(key) ? Integer.parseInt(opts.get(key)) : fallback;
+    }
+
+    private long longOpt(String key, long fallback) {
+        return opts.containsKey(key) ? Long.parseLong(opts.get(key)) : fallback;
+    }
+
+    private double doubleOpt(String key, double fallback) {
+        return opts.containsKey(key) ? Double.parseDouble(opts.get(key)) : fallback;
+    }
+
+    private static final class Clock {
+        long now;
+    }
+
+    private record Arrival(long atMillis, List<OrderItem> lines, int drinks, long prepMillis) {}
+}
@@ -0,0 +1,76 @@
+package app.bench;
+
+import app.model.MenuItem;
+import app.model.Order;
+import app.util.LinearSearch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Linear searches used by the cashier menu filter and the queue/history search buttons.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class MenuState {
+        @Param({BenchFixtures.MENU_REALISTIC, BenchFixtures.MENU_100X})
+        public int menuSize;
+
+        List<MenuItem> menu;
+
+        @Setup
+        public void setUp() {
+            menu = BenchFixtures.menu(menuSize, 1L);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class OrderState {
+        @Param({BenchFixtures.ORDERS_REALISTIC, BenchFixtures.ORDERS_100X})
+        public int orderSize;
+
+        List<Order> orders;
+
+        @Setup
+        public void setUp() {
+            orders = BenchFixtures.orders(orderSize, BenchFixtures.menu(30, 1L), 2L);
+        }
+    }
+
+    @Benchmark
+    public List<MenuItem> searchMenuByName(MenuState state) {
+        return LinearSearch.searchMenuByName(state.menu, "caramel latte");
+    }
+
+    @Benchmark
+    public List<MenuItem> searchMenuByNameNoMatch(MenuState state) {
+        return LinearSearch.searchMenuByName(state.menu, "zzz");
+    }
+
+    @Benchmark
+    public List<Order> searchOrdersByCustomer(OrderState state) {
+        return LinearSearch.searchOrders(state.orders, "ella", "");
+    }
+
+    @Benchmark
+    public List<Order> searchOrdersByCustomerAndCode(OrderState state) {
+        return LinearSearch.searchOrders(state.orders, "ella", "#11");
+    }
+}
@@ -0,0 +1,86 @@
+package app.bench;
+
+import app.model.MenuItem;
+import app.util.InsertionSort;
+import app.util.SelectionSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The hand-written sorts behind the menu sort combo (by name / by price).
+ * Each invocation sorts a fresh copy of the shuffled menu, so the copy is part of the score.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SortBenchmark {
+
+    private static final Comparator<MenuItem> BY_NAME = Comparator.comparing(MenuItem::getName);
+    private static final Comparator<MenuItem> BY_PRICE = Comparator.comparing(MenuItem::getPrice);
+
+    @Param({BenchFixtures.MENU_REALISTIC, BenchFixtures.MENU_100X})
+    public int menuSize;
+
+    private List<MenuItem> shuffled;
+    private List<MenuItem> sortedByName;
+
+    @Setup
+    public void setUp() {
+        shuffled = BenchFixtures.menu(menuSize, 3L);
+        sortedByName = new ArrayList<>(shuffled);
+        sortedByName.sort(BY_NAME);
+    }
+
+    @Benchmark
+    public List<MenuItem> insertionSortByName() {
+        List<MenuItem> copy = new ArrayList<>(shuffled);
+        InsertionSort.sort(copy, BY_NAME);
+        return copy;
+    }
+
+    @Benchmark
+    public List<MenuItem> insertionSortByPrice() {
+        List<MenuItem> copy = new ArrayList<>(shuffled);
+        InsertionSort.sort(copy, BY_PRICE);
+        return copy;
+    }
+
+    @Benchmark
+    public List<MenuItem> insertionSortAlreadySorted() {
+        // Filter results usually arrive nearly sorted; insertion sort's best case.
+        List<MenuItem> copy = new ArrayList<>(sortedByName);
+        InsertionSort.sort(copy, BY_NAME);
+        return copy;
+    }
+
+    @Benchmark
+    public List<MenuItem> selectionSortByName() {
+        List<MenuItem> copy = new ArrayList<>(shuffled);
+        SelectionSort.sort(copy, BY_NAME);
+        return copy;
+    }
+
+    @Benchmark
+    public List<MenuItem> selectionSortByPrice() {
+        List<MenuItem> copy = new ArrayList<>(shuffled);
+        SelectionSort.sort(copy, BY_PRICE);
+        return copy;
+    }
+}
@@ -0,0 +1,283 @@
+package app.bench;
+
+import app.db.MenuItemDAO;
+import app.db.OrderDAO;
+import app.db.OrderWorkflow;
+import app.db.StationDispatcher;
+import app.model.MenuItem;
+import app.model.Order;
+import app.model.OrderItem;
+import app.model.OrderPricing;
+import app.model.OrderQueue;
+import app.util.Metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Multi-station barista simulation: 1-4 stations work through the same stream of orders, each
+ * with its own view of the queue reloaded from the DB every few seconds, as separate
+ * BaristaPanels are. Every station count is run twice:
+ *
+ *   head      each station makes and serves its view's head (BaristaPanel.serveNext before the
+ *             dispatcher); stale views make stations duplicate each other's drinks
+ *   dispatch  each station goes through StationDispatcher (claim, start, serve)
+ *
+ * Orders are inserted straight through OrderDAO as they arrive (Poisson); drink preparation is
+ * simulated and compressed by --speedup, the DB calls run for real on an embedded H2 copy of
+ * docs/database.sql, recreated for every run.
+ *
+ * Usage (from bench/): ant stations -Dstations.args="--rate=180 --minutes=30"
+ * Options (defaults in brackets):
+ *   --stations=N,...    station counts to run [1,2,3,4]
+ *   --modes=M,...       head and/or dispatch [head,dispatch]
+ *   --rate=N            arrivals per hour [180]
+ *   --minutes=N         length of the rush [30]
+ *   --speedup=N         simulated seconds per real second [240]
+ *   --prep-seconds=N    mean preparation time per drink [30]
+ *   --items-max=N       max lines per order [3]
+ *   --sync-seconds=N    how often a station reloads its queue view [10]
+ *   --seed=N            random seed [7]
+ */
+public final class StationSimulator {
+
+    private final Map<String, String> opts;
+    private final double speedup;
+
+    private StationSimulator(Map<String, String> opts) {
+        this.opts = opts;
+        this.speedup = doubleOpt("speedup", 240);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) continue;
+            int eq = arg.indexOf('=');
+            opts.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+        new StationSimulator(opts).run();
+    }
+
+    private void run() throws Exception {
+        System.out.printf(Locale.ROOT, "[Stations] %.0f arrivals/h for %.0f min, prep %.0f s/drink, view reload every %.0f s, speedup x%.0f%n",
+                doubleOpt("rate", 180), doubleOpt("minutes", 30), doubleOpt("prep-seconds", 30),
+                doubleOpt("sync-seconds", 10), speedup);
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-9s %8s %7s %10s %9s %9s %11s %11s %7s %14s%n",
+                "mode", "stations", "served", "orders/min", "p50 wait", "p99 wait", "made twice", "lost claims", "steals", "per station");
+
+        for (String count : opts.getOrDefault("stations", "1,2,3,4").split(",")) {
+            for (String mode : opts.getOrDefault("modes", "head,dispatch").split(",")) {
+                EmbeddedDatabase embedded = EmbeddedDatabase.start();
+                try {
+                    new Run(mode.trim(), Integer.parseInt(count.trim())).execute();
+                } finally {
+                    embedded.close();
+                }
+            }
+        }
+    }
+
+    /** One simulation with a fresh database. */
+    private final class Run {
+        final String mode;
+        final int stations;
+        final OrderDAO orderDAO = new OrderDAO();
+        final AtomicBoolean arrivalsClosed = new AtomicBoolean();
+        final Map<Integer, Long> arrivedAtNanos = new ConcurrentHashMap<>();
+        final Map<Integer, AtomicInteger> made = new ConcurrentHashMap<>();
+        final List<Double> waitMinutes = new ArrayList<>();
+        final int[] servedBy;
+        final AtomicInteger errors = new AtomicInteger();
+
+        Run(String mode, int stations) {
+            this.mode = mode;
+            this.stations = stations;
+            this.servedBy = new int[stations];
+        }
+
+        void execute() throws Exception {
+            List<MenuItem> menu = new MenuItemDAO().findAll();
+            long lostBefore = Metrics.counter("StationDispatcher.claims.lost");
+            long stealsBefore = Metrics.counter("StationDispatcher.steals");
+
+            long start = System.nanoTime();
+            Thread arrivals = new Thread(() -> arrivals(menu, start), "stations-arrivals");
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < stations; i++) {
+                int index = i;
+                threads.add(new Thread(() -> station(index), "station-" + (i + 1)));
+            }
+            arrivals.start();
+            threads.forEach(Thread::start);
+            arrivals.join();
+            for (Thread t : threads) t.join();
+            double minutes = simulatedSeconds(System.nanoTime() - start) / 60.0;
+
+            double[] waits;
+            synchronized (this) {
+                waits = waitMinutes.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+            }
+            long twice = made.values().stream().filter(n -> n.get() > 1).count();
+            int served = Arrays.stream(servedBy).sum();
+            System.out.printf(Locale.ROOT, "%-9s %8d %7d %10.2f %7.1f m %7.1f m %11d %11d %7d %14s%s%n",
+                    mode, stations, served, served / minutes, percentile(waits, 50), percentile(waits, 99), twice,
+                    Metrics.counter("StationDispatcher.claims.lost") - lostBefore,
+                    Metrics.counter("StationDispatcher.steals") - stealsBefore,
+                    Arrays.toString(servedBy).replace(" ", ""),
+                    errors.get() == 0 ? "" : "  (" + errors.get() + " DB errors)");
+        }
+
+        void arrivals(List<MenuItem> menu, long startNanos) {
+            Random rnd = new Random(longOpt("seed", 7));
+            double meanGap = 3600.0 / doubleOpt("rate", 180);
+            double end = doubleOpt("minutes", 30) * 60;
+            int itemsMax = intOpt("items-max", 3);
+            double at = 0;
+            int n = 0;
+            while (true) {
+                at += exponential(rnd, meanGap);
+                if (at > end) break;
+                sleepSimulated(at - simulatedSeconds(System.nanoTime() - startNanos));
+
+                List<OrderItem> lines = new ArrayList<>();
+                int count = 1 + rnd.nextInt(Math.max(1, itemsMax));
+                for (int i = 0; i < count; i++) {
+                    MenuItem item = menu.get(rnd.nextInt(menu.size()));
+                    lines.add(OrderPricing.line(item, "Medium • Hot", OrderPricing.unitPrice(item, "Medium", false, false), 1));
+                }
+                Order order = new Order();
+                order.setCode("S" + stations + mode.charAt(0) + "-" + (++n));
+                OrderWorkflow.prepareCheckout(order, "Station run " + n, lines);
+                try {
+                    orderDAO.insertOrderWithItems(order);
+                    arrivedAtNanos.put(order.getId(), System.nanoTime());
+                } catch (Exception ex) {
+                    errors.incrementAndGet();
+                }
+            }
+            arrivalsClosed.set(true);
+        }
+
+        void station(int index) {
+            String name = "station-" + (index + 1);
+            Random rnd = new Random(longOpt("seed", 7) + 31L * (index + 1));
+            StationDispatcher dispatcher = new StationDispatcher(orderDAO, true);
+            double prepSeconds = doubleOpt("prep-seconds", 30);
+            double syncSeconds = doubleOpt("sync-seconds", 10);
+            OrderQueue view = new OrderQueue();
+            long nextSync = 0;
+
+            while (true) {
+                if (System.nanoTime() >= nextSync) {
+                    boolean closed = arrivalsClosed.get();
+                    try {
+                        view = reload();
+                    } catch (Exception ex) {
+                        errors.incrementAndGet();
+                    }
+                    if (closed && view.isEmpty()) return;
+                    nextSync = System.nanoTime() + (long) (syncSeconds / speedup * 1e9);
+                }
+
+                Order order;
+                if ("head".equals(mode)) {
+                    order = view.peek();
+                } else {
+                    OrderWorkflow.StepResult claimed = dispatcher.next(name, view);
+                    order = claimed.order;
+                    if (order != null) {
+                        OrderWorkflow.StepResult started = dispatcher.start(name, order, view);
+                        if (!started.accepted) {
+                            if (!started.saved()) {
+                                errors.incrementAndGet();
+                                sleepSimulated(1);
+                            }
+                            continue;
+                        }
+                    }
+                }
+                if (order == null) {
+                    sleepSimulated(1);
+                    continue;
+                }
+
+                made.computeIfAbsent(order.getId(), k -> new AtomicInteger()).incrementAndGet();
+                sleepSimulated(exponential(rnd, prepSeconds) * Math.max(1, order.getItems().size()));
+
+                boolean served;
+                if ("head".equals(mode)) {
+                    try {
+                        orderDAO.updateStatusToCompleted(order.getId());
+                    } catch (Exception ex) {
+                        errors.incrementAndGet();
+                    }
+                    view.remove(order);
+                    served = true;   // only the first station to finish counts, see below
+                } else {
+                    served = dispatcher.serve(name, order, view).accepted;
+                }
+                Long arrived = served ? arrivedAtNanos.remove(order.getId()) : null;
+                if (arrived != null) {
+                    synchronized (this) {
+                        servedBy[index]++;
+                        waitMinutes.add(simulatedSeconds(System.nanoTime() - arrived) / 60.0);
+                    }
+                }
+            }
+        }
+
+        OrderQueue reload() throws Exception {
+            OrderQueue queue = new OrderQueue();
+            for (Order o : orderDAO.loadActiveOrders(OrderQueue.MAX_SIZE)) queue.enqueue(o);
+            return queue;
+        }
+    }
+
+    // -------------------- Helpers --------------------
+
+    private static double percentile(double[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int idx = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, idx))];
+    }
+
+    private static double exponential(Random rnd, double mean) {
+        return -Math.log(1 - rnd.nextDouble()) * mean;
+    }
+
+    private double simulatedSeconds(long realNanos) {
+        return realNanos / 1e9 * speedup;
+    }
+
+    private void sleepSimulated(double simulatedSeconds) {
+        if (simulatedSeconds <= 0) return;
+        try {
+            TimeUnit.NANOSECONDS.sleep((long) (simulatedSeconds / speedup * 1e9));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int intOpt(String key, int fallback) {
+        return opts.containsKey(key) ? Integer.parseInt(opts.get(key)) : fallback;
+    }
+
+    private long longOpt(String key, long fallback) {
+        return opts.containsKey(key) ? Long.parseLong(opts.get(key)) : fallback;
+    }
+
+    private double doubleOpt(String key, double fallback) {
+        return opts.containsKey(key) ? Double.parseDouble(opts.get(key)) : fallback;
+    }
+}
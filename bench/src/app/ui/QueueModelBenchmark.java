@@ -0,0 +1,173 @@
+package app.ui;
+
+import app.model.Order;
+
+import javax.swing.DefaultListModel;
+import javax.swing.JComponent;
+import javax.swing.JList;
+import javax.swing.ListModel;
+import javax.swing.RepaintManager;
+import javax.swing.SwingUtilities;
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Repaint requests and EDT time per queue mutation (enqueue, serve, status change) for the old
+ * clear-and-refill queue list versus {@link OrderQueueListModel}, at 50 and 1,000 active orders.
+ * Runs headless: ant queue-model -Dqueue-model.args="[rounds]". It stays in app.ui, under bench/,
+ * because the list model is package-private.
+ */
+public final class QueueModelBenchmark {
+
+    private static final int[] SIZES = {50, 1_000};
+    private static final int ROW_HEIGHT = 20;
+    private static final NumberFormat MONEY_PH = NumberFormat.getCurrencyInstance(Locale.of("en", "PH"));
+
+    private QueueModelBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        CountingRepaintManager repaints = new CountingRepaintManager();
+        SwingUtilities.invokeAndWait(() -> RepaintManager.setCurrentManager(repaints));
+
+        for (int size : SIZES) {
+            System.out.println("Active orders: " + size + ", rounds: " + rounds);
+            run(new LegacyView(), size, rounds, repaints);
+            run(new DiffView(), size, rounds, repaints);
+        }
+    }
+
+    private static void run(QueueView view, int size, int rounds, CountingRepaintManager repaints) throws Exception {
+        List<Order> queue = new ArrayList<>();
+        for (int i = 0; i < size; i++) queue.add(order(i));
+        SwingUtilities.invokeAndWait(() -> view.show(queue));
+
+        Stats enqueue = new Stats();
+        Stats serve = new Stats();
+        Stats status = new Stats();
+        int next = size;
+        for (int r = 0; r < rounds; r++) {
+            // Cashier checkout: one order appended at the tail.
+            queue.add(order(next++));
+            measure(view, queue, enqueue, repaints);
+
+            // Barista marks the middle order IN_PROGRESS.
+            Order mid = queue.get(queue.size() / 2);
+            mid.setStatus("IN_PROGRESS".equals(mid.getStatus()) ? "PENDING" : "IN_PROGRESS");
+            measure(view, queue, status, repaints);
+
+            // Barista serves the head of the queue.
+            queue.remove(0);
+            measure(view, queue, serve, repaints);
+        }
+        System.out.printf("  %-22s %s | %s | %s%n", view.label(),
+                enqueue.format("enqueue"), status.format("status"), serve.format("serve"));
+    }
+
+    private static void measure(QueueView view, List<Order> queue, Stats stats, CountingRepaintManager repaints) throws Exception {
+        AtomicLong spent = new AtomicLong();
+        SwingUtilities.invokeAndWait(() -> {
+            repaints.reset();
+            long start = System.nanoTime();
+            view.show(queue);
+            spent.set(System.nanoTime() - start);
+        });
+        stats.add(spent.get(), repaints.requests, repaints.area);
+    }
+
+    private static Order order(int n) {
+        Order o = new Order();
+        o.setCode(String.format("ORD-%05d", n));
+        o.setCustomerName("Customer " + n);
+        o.setStatus("PENDING");
+        o.setTotal(BigDecimal.valueOf(120 + (n % 9) * 15));
+        return o;
+    }
+
+    private static String formatLine(Order order) {
+        return order.getCode() + " • " + order.getCustomerName() + " • "
+                + MONEY_PH.format(order.getTotal()) + " • " + order.getStatus();
+    }
+
+    private static JList<String> sizedList(ListModel<String> model) {
+        JList<String> list = new JList<>(model);
+        list.setFixedCellHeight(ROW_HEIGHT);
+        list.setSize(320, 400);
+        return list;
+    }
+
+    private interface QueueView {
+        String label();
+        void show(List<Order> orders);
+    }
+
+    // The previous BaristaPanel.rebuildQueueList: clear, re-add every line, reselect the head.
+    private static final class LegacyView implements QueueView {
+        private final DefaultListModel<String> model = new DefaultListModel<>();
+        private final JList<String> list = sizedList(model);
+
+        @Override public String label() { return "legacy clear+refill"; }
+
+        @Override
+        public void show(List<Order> orders) {
+            model.clear();
+            for (Order o : orders) model.addElement(formatLine(o));
+            if (!orders.isEmpty()) list.setSelectedIndex(0);
+        }
+    }
+
+    private static final class DiffView implements QueueView {
+        private final OrderQueueListModel model = new OrderQueueListModel(QueueModelBenchmark::formatLine);
+        private final JList<String> list = sizedList(model);
+
+        @Override public String label() { return "diff model"; }
+
+        @Override
+        public void show(List<Order> orders) {
+            model.sync(orders);
+            if (!orders.isEmpty() && list.getSelectedIndex() < 0) list.setSelectedIndex(0);
+        }
+    }
+
+    private static final class Stats {
+        long nanos;
+        long worst;
+        long requests;
+        long area;
+        int samples;
+
+        void add(long spent, long repaintRequests, long dirtyArea) {
+            nanos += spent;
+            worst = Math.max(worst, spent);
+            requests += repaintRequests;
+            area += dirtyArea;
+            samples++;
+        }
+
+        String format(String what) {
+            return String.format("%s %.3f ms (worst %.3f) %5.1f repaints %8.0f px",
+                    what, nanos / 1e6 / samples, worst / 1e6, (double) requests / samples, (double) area / samples);
+        }
+    }
+
+    private static final class CountingRepaintManager extends RepaintManager {
+        long requests;
+        long area;
+
+        void reset() {
+            requests = 0;
+            area = 0;
+        }
+
+        @Override
+        public void addDirtyRegion(JComponent c, int x, int y, int w, int h) {
+            requests++;
+            area += (long) Math.max(0, w) * Math.max(0, h);
+            super.addDirtyRegion(c, x, y, w, h);
+        }
+    }
+}
@@ -39,7 +39,11 @@ CREATE TABLE `orders` (
   `tax` decimal(10,2) NOT NULL,
   `total` decimal(10,2) NOT NULL,
   `paid` tinyint(1) NOT NULL DEFAULT 0,
-  `created_at` datetime NOT NULL DEFAULT current_timestamp()
+  `created_at` datetime NOT NULL DEFAULT current_timestamp(),
+  `assigned_to` varchar(50) DEFAULT NULL,
+  `claimed_at` datetime(3) DEFAULT NULL,
+  `updated_at` datetime(3) NOT NULL DEFAULT current_timestamp(3) ON UPDATE current_timestamp(3),
+  `request_id` varchar(36) DEFAULT NULL
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 INSERT INTO `orders` (`id`, `code`, `customer_name`, `status`, `subtotal`, `tax`, `total`, `paid`, `created_at`) VALUES
@@ -69,6 +73,24 @@ INSERT INTO `order_items` (`id`, `order_id`, `item_code`, `item_name`, `options`
 (49, 15, 'CF005', 'Mocha', 'Medium • Iced', 1, 175.00, 175.00),
 (50, 16, 'TE003', 'Matcha Latte', 'Medium • Hot', 1, 155.00, 155.00);
 
+CREATE TABLE `item_daily_sales` (
+  `sale_date` date NOT NULL,
+  `item_code` varchar(20) NOT NULL,
+  `item_name` varchar(100) NOT NULL,
+  `quantity` int(11) NOT NULL DEFAULT 0,
+  `revenue` decimal(12,2) NOT NULL DEFAULT 0.00,
+  `drink_quantity` int(11) NOT NULL DEFAULT 0,
+  `extra_shot_quantity` int(11) NOT NULL DEFAULT 0,
+  `alt_milk_quantity` int(11) NOT NULL DEFAULT 0
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE `order_status_log` (
+  `id` int(11) NOT NULL,
+  `order_id` int(11) NOT NULL,
+  `status` varchar(20) NOT NULL,
+  `changed_at` datetime NOT NULL DEFAULT current_timestamp()
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 CREATE TABLE `system_assets` (
   `asset_key` varchar(64) NOT NULL,
   `asset_blob` longblob NOT NULL
@@ -118,15 +140,27 @@ CREATE ALGORITHM=UNDEFINED DEFINER=`root`@`localhost` SQL SECURITY DEFINER VIEW
 ALTER TABLE `menu_items`
   ADD PRIMARY KEY (`code`);
 
+ALTER TABLE `item_daily_sales`
+  ADD PRIMARY KEY (`sale_date`,`item_code`);
+
 ALTER TABLE `orders`
   ADD PRIMARY KEY (`id`),
-  ADD UNIQUE KEY `code` (`code`);
+  ADD UNIQUE KEY `code` (`code`),
+  ADD KEY `created_at` (`created_at`),
+  ADD KEY `status_assigned` (`status`,`assigned_to`),
+  ADD KEY `updated_at` (`updated_at`),
+  ADD UNIQUE KEY `request_id` (`request_id`);
 
 ALTER TABLE `order_items`
   ADD PRIMARY KEY (`id`),
   ADD KEY `fk_order` (`order_id`),
   ADD KEY `fk_item` (`item_code`);
 
+ALTER TABLE `order_status_log`
+  ADD PRIMARY KEY (`id`),
+  ADD KEY `fk_status_log_order` (`order_id`),
+  ADD KEY `changed_at` (`changed_at`);
+
 ALTER TABLE `users`
   ADD PRIMARY KEY (`id`),
   ADD UNIQUE KEY `username` (`username`);
@@ -140,6 +174,9 @@ ALTER TABLE `orders`
 ALTER TABLE `order_items`
   MODIFY `id` int(11) NOT NULL AUTO_INCREMENT, AUTO_INCREMENT=51;
 
+ALTER TABLE `order_status_log`
+  MODIFY `id` int(11) NOT NULL AUTO_INCREMENT;
+
 ALTER TABLE `users`
   MODIFY `id` int(11) NOT NULL AUTO_INCREMENT, AUTO_INCREMENT=5;
 
@@ -147,6 +184,9 @@ ALTER TABLE `order_items`
   ADD CONSTRAINT `fk_item` FOREIGN KEY (`item_code`) REFERENCES `menu_items` (`code`),
   ADD CONSTRAINT `fk_order` FOREIGN KEY (`order_id`) REFERENCES `orders` (`id`) ON DELETE CASCADE;
 
+ALTER TABLE `order_status_log`
+  ADD CONSTRAINT `fk_status_log_order` FOREIGN KEY (`order_id`) REFERENCES `orders` (`id`) ON DELETE CASCADE;
+
 ALTER TABLE `user_security`
   ADD CONSTRAINT `fk_user_security_user` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE CASCADE;
 COMMIT;
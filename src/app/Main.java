@@ -1,11 +1,21 @@
 package app;
 
+import app.ui.EdtWatchdog;
 import app.ui.LoginFrame;
+import app.ui.TimedEventQueue;
+import app.util.Metrics;
+import app.util.StartupTimer;
 
 import javax.swing.SwingUtilities;
 
 public class Main {
     public static void main(String[] args) {
+        StartupTimer.begin("launch");
+        Runtime runtime = Runtime.getRuntime();
+        Metrics.gauge("jvm.heap.usedMB", () -> (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+        Metrics.gauge("jvm.heap.maxMB", () -> runtime.maxMemory() >> 20);
+        Metrics.startPeriodicDump();
+        EdtWatchdog.start(TimedEventQueue.install());
         SwingUtilities.invokeLater(() -> new LoginFrame().setVisible(true));
     }
 }
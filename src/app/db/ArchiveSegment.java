@@ -0,0 +1,239 @@
+package app.db;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One file of archived orders, stored column by column.
+ *
+ * Layout: a header (magic, version, order and line counts, created_at range, column directory)
+ * followed by the columns. Each column is compressed on its own: ids and created_at as zig-zag
+ * varint deltas, amounts and counts as varints, item codes as a dictionary plus varint indexes.
+ * Readers map the file read-only and decode only the columns a query asks for; the created_at
+ * range in the header lets whole files be skipped.
+ *
+ * Order columns: order_id, created_at (epoch seconds, wall clock), total (centavos), line_count.
+ * Line columns, grouped by order in the same order: item_code, quantity, line_total (centavos).
+ */
+final class ArchiveSegment {
+
+    static final String ORDER_ID = "order_id";
+    static final String CREATED_AT = "created_at";
+    static final String TOTAL = "total";
+    static final String LINE_COUNT = "line_count";
+    static final String ITEM_CODE = "item_code";
+    static final String QUANTITY = "quantity";
+    static final String LINE_TOTAL = "line_total";
+
+    private static final int MAGIC = 0x434F4131;   // "COA1"
+    private static final int VERSION = 1;
+
+    final Path file;
+    final int orderCount;
+    final int lineCount;
+    final long minCreated;
+    final long maxCreated;
+    private final ByteBuffer data;
+    private final Map<String, long[]> columns;   // name -> {offset, length}
+
+    private ArchiveSegment(Path file, ByteBuffer data) throws IOException {
+        this.file = file;
+        this.data = data;
+        ByteBuffer in = data.duplicate();
+        if (in.getInt() != MAGIC) throw new IOException("Not an order archive: " + file);
+        int version = in.getInt();
+        if (version != VERSION) throw new IOException("Unsupported archive version " + version + ": " + file);
+        orderCount = in.getInt();
+        lineCount = in.getInt();
+        minCreated = in.getLong();
+        maxCreated = in.getLong();
+        int n = in.getInt();
+        columns = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            byte[] name = new byte[in.getShort()];
+            in.get(name);
+            columns.put(new String(name, StandardCharsets.UTF_8), new long[]{in.getLong(), in.getLong()});
+        }
+    }
+
+    static ArchiveSegment open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed.
+            return new ArchiveSegment(file, ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        }
+    }
+
+    /**
+     * Reads the whole file onto the heap instead of mapping it, for a file that is about to be
+     * renamed or deleted: Windows refuses both while a mapping of the file is alive, and a
+     * mapping is only released when the buffer is garbage collected.
+     */
+    static ArchiveSegment read(Path file) throws IOException {
+        return new ArchiveSegment(file, ByteBuffer.wrap(Files.readAllBytes(file)));
+    }
+
+    /** Sequential reader over one column. */
+    Cursor column(String name) throws IOException {
+        long[] at = columns.get(name);
+        if (at == null) throw new IOException("Column " + name + " missing in " + file);
+        ByteBuffer slice = data.duplicate();
+        slice.position((int) at[0]);
+        slice.limit((int) (at[0] + at[1]));
+        return new Cursor(slice.slice());
+    }
+
+    /** Dictionary-encoded column: the dictionary, then the cursor is positioned on the indexes. */
+    String[] dictionary(Cursor c) {
+        String[] dict = new String[(int) c.nextVarLong()];
+        for (int i = 0; i < dict.length; i++) {
+            byte[] bytes = new byte[(int) c.nextVarLong()];
+            c.in.get(bytes);
+            dict[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return dict;
+    }
+
+    static final class Cursor {
+        private final ByteBuffer in;
+        private long previous;
+
+        private Cursor(ByteBuffer in) {
+            this.in = in;
+        }
+
+        long nextVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = in.get();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+
+        long nextSigned() {
+            long z = nextVarLong();
+            return (z >>> 1) ^ -(z & 1);
+        }
+
+        long nextDelta() {
+            previous += nextSigned();
+            return previous;
+        }
+    }
+
+    // -------------------- writing --------------------
+
+    /** One order as it goes into the archive; amounts in centavos. */
+    static final class Row {
+        final long orderId;
+        final long createdAt;
+        final long total;
+        final List<String> itemCodes;
+        final List<Integer> quantities;
+        final List<Long> lineTotals;
+
+        Row(long orderId, long createdAt, long total, List<String> itemCodes, List<Integer> quantities, List<Long> lineTotals) {
+            this.orderId = orderId;
+            this.createdAt = createdAt;
+            this.total = total;
+            this.itemCodes = itemCodes;
+            this.quantities = quantities;
+            this.lineTotals = lineTotals;
+        }
+    }
+
+    /** Writes the rows to {@code file} and forces it to disk. */
+    static void write(Path file, List<Row> rows) throws IOException {
+        Map<String, Encoder> cols = new LinkedHashMap<>();
+        for (String name : new String[]{ORDER_ID, CREATED_AT, TOTAL, LINE_COUNT, ITEM_CODE, QUANTITY, LINE_TOTAL}) {
+            cols.put(name, new Encoder());
+        }
+        Map<String, Integer> dict = new LinkedHashMap<>();
+        Encoder codes = new Encoder();
+
+        int lines = 0;
+        long minCreated = Long.MAX_VALUE;
+        long maxCreated = Long.MIN_VALUE;
+        for (Row r : rows) {
+            cols.get(ORDER_ID).delta(r.orderId);
+            cols.get(CREATED_AT).delta(r.createdAt);
+            cols.get(TOTAL).signed(r.total);
+            cols.get(LINE_COUNT).varLong(r.itemCodes.size());
+            for (int i = 0; i < r.itemCodes.size(); i++) {
+                codes.varLong(dict.computeIfAbsent(r.itemCodes.get(i), k -> dict.size()));
+                cols.get(QUANTITY).varLong(r.quantities.get(i));
+                cols.get(LINE_TOTAL).signed(r.lineTotals.get(i));
+                lines++;
+            }
+            minCreated = Math.min(minCreated, r.createdAt);
+            maxCreated = Math.max(maxCreated, r.createdAt);
+        }
+        Encoder itemCode = cols.get(ITEM_CODE);
+        itemCode.varLong(dict.size());
+        for (String code : dict.keySet()) {
+            byte[] bytes = code.getBytes(StandardCharsets.UTF_8);
+            itemCode.varLong(bytes.length);
+            itemCode.write(bytes, 0, bytes.length);
+        }
+        codes.writeTo(itemCode);
+
+        int headerSize = 4 + 4 + 4 + 4 + 8 + 8 + 4;
+        for (String name : cols.keySet()) headerSize += 2 + name.getBytes(StandardCharsets.UTF_8).length + 8 + 8;
+        ByteBuffer header = ByteBuffer.allocate(headerSize);
+        header.putInt(MAGIC).putInt(VERSION).putInt(rows.size()).putInt(lines)
+                .putLong(rows.isEmpty() ? 0 : minCreated).putLong(rows.isEmpty() ? 0 : maxCreated)
+                .putInt(cols.size());
+        long offset = headerSize;
+        for (Map.Entry<String, Encoder> e : cols.entrySet()) {
+            byte[] name = e.getKey().getBytes(StandardCharsets.UTF_8);
+            header.putShort((short) name.length).put(name).putLong(offset).putLong(e.getValue().size());
+            offset += e.getValue().size();
+        }
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            header.flip();
+            while (header.hasRemaining()) ch.write(header);
+            try (OutputStream out = Channels.newOutputStream(ch)) {
+                for (Encoder e : cols.values()) e.writeTo(out);
+                out.flush();
+                ch.force(true);
+            }
+        }
+    }
+
+    private static final class Encoder extends ByteArrayOutputStream {
+        private long previous;
+
+        void varLong(long v) {
+            while ((v & ~0x7FL) != 0) {
+                write((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            write((int) v);
+        }
+
+        void signed(long v) {
+            varLong((v << 1) ^ (v >> 63));
+        }
+
+        void delta(long v) {
+            signed(v - previous);
+            previous = v;
+        }
+    }
+}
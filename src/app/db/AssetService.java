@@ -1,5 +1,7 @@
 package app.db;
 
+import app.util.Metrics;
+
 import java.awt.Color;
 import java.awt.Image;
 import java.io.ByteArrayInputStream;
@@ -75,6 +77,7 @@ public class AssetService {
             }
         } catch (Exception ex) {
             // for student simplicity: just return null
+            Metrics.increment("AssetService.readErrors");
         }
         return null;
     }
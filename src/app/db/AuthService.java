@@ -1,5 +1,7 @@
 package app.db;
 
+import app.util.Metrics;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -68,6 +70,7 @@ public class AuthService {
                 return UserAuthResult.error("Invalid username or password.");
             }
         } catch (Exception ex) {
+            Metrics.increment("AuthService.authenticate.dbErrors");
             return UserAuthResult.error("Database error: " + ex.getMessage());
         }
     }
@@ -0,0 +1,285 @@
+package app.db;
+
+import app.util.Metrics;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Small connection pool in front of the configured DataSource, with a prepared-statement cache
+ * on every pooled connection.
+ *
+ * DAOs keep their "open, use, close" shape: closing a pooled connection hands it back (with any
+ * open transaction rolled back and auto-commit restored), and closing a cached statement only
+ * clears its parameters. Statements are cached per connection by SQL text (plus the generated
+ * keys flag) in LRU order, so a hot statement is parsed once per connection instead of on every
+ * call. Hits, misses and evictions are counted under DB.statementCache.* in {@link Metrics}.
+ */
+final class ConnectionPool {
+
+    private static final long VALIDATE_AFTER_IDLE_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final int VALIDATE_TIMEOUT_SECONDS = 2;
+
+    private final DataSource source;
+    private final int maxIdle;
+    private final int statementCacheSize;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private boolean closed;
+
+    ConnectionPool(DataSource source, int maxIdle, int statementCacheSize) {
+        this.source = source;
+        this.maxIdle = Math.max(0, maxIdle);
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+        Metrics.gauge("DB.pool.idle", this::idleCount);
+    }
+
+    Connection getConnection() throws SQLException {
+        PooledConnection pc;
+        while ((pc = takeIdle()) != null) {
+            if (usable(pc)) {
+                Metrics.increment("DB.pool.reused");
+                return pc.lease();
+            }
+            closeQuietly(pc.physical);
+        }
+        Metrics.increment("DB.pool.opened");
+        return new PooledConnection(source.getConnection()).lease();
+    }
+
+    synchronized int idleCount() {
+        return idle.size();
+    }
+
+    /** Closes the idle connections; connections still in use are closed when they come back. */
+    void close() {
+        Deque<PooledConnection> toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = new ArrayDeque<>(idle);
+            idle.clear();
+        }
+        for (PooledConnection pc : toClose) closeQuietly(pc.physical);
+    }
+
+    private synchronized PooledConnection takeIdle() {
+        // LIFO: the most recently used connection is the least likely to have timed out.
+        return idle.pollFirst();
+    }
+
+    private boolean usable(PooledConnection pc) {
+        try {
+            if (pc.physical.isClosed()) return false;
+            return System.nanoTime() - pc.idleSince < VALIDATE_AFTER_IDLE_NANOS
+                    || pc.physical.isValid(VALIDATE_TIMEOUT_SECONDS);
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pc) {
+        if (pc.broken) {
+            closeQuietly(pc.physical);
+            return;
+        }
+        try {
+            if (pc.physical.isClosed()) return;
+            if (!pc.physical.getAutoCommit()) {
+                pc.physical.rollback();
+                pc.physical.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            closeQuietly(pc.physical);
+            return;
+        }
+
+        synchronized (this) {
+            if (!closed && idle.size() < maxIdle) {
+                pc.idleSince = System.nanoTime();
+                idle.addFirst(pc);
+                return;
+            }
+        }
+        closeQuietly(pc.physical);
+    }
+
+    private static void closeQuietly(AutoCloseable c) {
+        try {
+            c.close();
+        } catch (Exception ignored) {
+            // already broken or closed
+        }
+    }
+
+    /**
+     * Calls through to the physical object; a connection-class SQL error (SQLState 08xxx) marks
+     * the pooled connection broken so it is closed instead of going back to the pool.
+     */
+    private static Object invoke(PooledConnection owner, Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08")) {
+                owner.broken = true;
+            }
+            throw cause;
+        }
+    }
+
+    private final class PooledConnection {
+        private final Connection physical;
+        private final Map<String, CachedStatement> statements;
+        private long idleSince;
+        private volatile boolean broken;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                    if (size() <= statementCacheSize) return false;
+                    Metrics.increment("DB.statementCache.evictions");
+                    eldest.getValue().evicted();
+                    return true;
+                }
+            };
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new LeaseHandler(this));
+        }
+
+        /**
+         * Cached statement for the SQL, or a new one; one that is still open elsewhere on this
+         * connection (same SQL used twice at once) is not shared.
+         */
+        PreparedStatement prepare(String sql, int generatedKeys) throws SQLException {
+            if (statementCacheSize == 0) return prepareUncached(sql, generatedKeys);
+
+            String key = generatedKeys + "|" + sql;
+            CachedStatement cached = statements.get(key);
+            if (cached != null && !cached.inUse) {
+                Metrics.increment("DB.statementCache.hits");
+                return cached.checkOut();
+            }
+            Metrics.increment("DB.statementCache.misses");
+            if (cached != null) return prepareUncached(sql, generatedKeys);
+
+            CachedStatement created = new CachedStatement(this, prepareUncached(sql, generatedKeys));
+            statements.put(key, created);
+            return created.checkOut();
+        }
+
+        private PreparedStatement prepareUncached(String sql, int generatedKeys) throws SQLException {
+            return generatedKeys == -1 ? physical.prepareStatement(sql) : physical.prepareStatement(sql, generatedKeys);
+        }
+    }
+
+    /** What the DAO sees as its connection; close() returns the physical connection to the pool. */
+    private final class LeaseHandler implements InvocationHandler {
+        private PooledConnection pc;
+
+        LeaseHandler(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (pc != null) {
+                        PooledConnection done = pc;
+                        pc = null;
+                        release(done);
+                    }
+                    return null;
+                case "isClosed":
+                    return pc == null || pc.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + (pc == null ? "closed" : pc.physical) + "]";
+                default:
+                    break;
+            }
+            if (pc == null) throw new SQLException("Connection is closed");
+
+            if (name.equals("prepareStatement") && args.length <= 2 && (args.length == 1 || method.getParameterTypes()[1] == int.class)) {
+                return pc.prepare((String) args[0], args.length == 1 ? -1 : (Integer) args[1]);
+            }
+            return ConnectionPool.invoke(pc, pc.physical, method, args);
+        }
+    }
+
+    /** A cached physical statement; the proxy handed to DAOs resets it on close instead of closing it. */
+    private static final class CachedStatement {
+        private final PooledConnection owner;
+        private final PreparedStatement physical;
+        private boolean inUse;
+        private boolean evicted;
+
+        CachedStatement(PooledConnection owner, PreparedStatement physical) {
+            this.owner = owner;
+            this.physical = physical;
+        }
+
+        PreparedStatement checkOut() {
+            inUse = true;
+            InvocationHandler handler = new InvocationHandler() {
+                private boolean closed;
+
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    String name = method.getName();
+                    if (name.equals("close")) {
+                        if (!closed) {
+                            closed = true;
+                            checkIn();
+                        }
+                        return null;
+                    }
+                    if (name.equals("isClosed")) return closed || physical.isClosed();
+                    if (closed) throw new SQLException("Statement is closed");
+                    return ConnectionPool.invoke(owner, physical, method, args);
+                }
+            };
+            return (PreparedStatement) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, handler);
+        }
+
+        private void checkIn() throws SQLException {
+            inUse = false;
+            if (evicted) {
+                physical.close();
+                return;
+            }
+            physical.clearParameters();
+            physical.clearBatch();
+        }
+
+        void evicted() {
+            evicted = true;
+            if (!inUse) closeQuietly(physical);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPool[" + source + ", idle=" + idleCount() + "]";
+    }
+}
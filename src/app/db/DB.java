@@ -1,17 +1,210 @@
 package app.db;
 
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Properties;
+import java.util.logging.Logger;
 
+/**
+ * Connection entry point for every DAO.
+ *
+ * The connection settings default to the local MySQL server and can be overridden, in order of
+ * precedence, by system properties (-Ddb.url=..., -Ddb.user=..., -Ddb.password=...) or by the
+ * same keys in db.properties (working directory, or the file named by -Ddb.config=...).
+ * Tools and benchmarks can also install their own DataSource with {@link #setDataSource}.
+ *
+ * Connections come from a small {@link ConnectionPool} (db.pool.size idle connections, default 4)
+ * that caches up to db.statementCache.size prepared statements per connection (default 32);
+ * either set to 0 turns it off. MySQL URLs get useServerPrepStmts=true unless they set it, so
+ * the cached statements are server-side and skip parsing on reuse, and
+ * rewriteBatchedStatements=true, so a batch of INSERTs goes out as one multi-row INSERT (see
+ * OrderItemInserts).
+ */
 public final class DB {
-    private static final String URL = "jdbc:mysql://localhost:3306/coffee_shop?useSSL=false&serverTimezone=UTC";
-    private static final String USER = "root";
-    private static final String PASS = "";
+    private static final String DEFAULT_URL = "jdbc:mysql://localhost:3306/coffee_shop?useSSL=false&serverTimezone=UTC&useServerPrepStmts=true&rewriteBatchedStatements=true";
+    private static final String DEFAULT_USER = "root";
+    private static final String DEFAULT_PASS = "";
+    private static final String CONFIG_FILE = "db.properties";
+    private static final int DEFAULT_POOL_SIZE = 4;
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 32;
+
+    private static volatile DataSource dataSource;
+    private static volatile ConnectionPool pool;
 
     private DB() {}
 
+    /**
+     * Every statement on the returned connection is timed into {@link SqlStats} (and reported
+     * to JFR while a recording is running).
+     */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASS);
+        return InstrumentedJdbc.wrap(getPool().getConnection());
+    }
+
+    private static ConnectionPool getPool() {
+        ConnectionPool p = pool;
+        if (p == null) {
+            synchronized (DB.class) {
+                p = pool;
+                if (p == null) {
+                    Properties file = loadConfigFile();
+                    p = new ConnectionPool(getDataSource(),
+                            intSetting("db.pool.size", file, DEFAULT_POOL_SIZE),
+                            intSetting("db.statementCache.size", file, DEFAULT_STATEMENT_CACHE_SIZE));
+                    pool = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    public static DataSource getDataSource() {
+        DataSource ds = dataSource;
+        if (ds == null) {
+            synchronized (DB.class) {
+                ds = dataSource;
+                if (ds == null) {
+                    ds = fromConfiguration();
+                    dataSource = ds;
+                }
+            }
+        }
+        return ds;
+    }
+
+    /**
+     * Routes all DAOs to {@code ds}; {@code null} goes back to the configured URL.
+     */
+    public static void setDataSource(DataSource ds) {
+        ConnectionPool old;
+        synchronized (DB.class) {
+            dataSource = ds;
+            old = pool;
+            pool = null;
+        }
+        if (old != null) old.close();
+    }
+
+    /**
+     * Plain DriverManager-backed DataSource for a JDBC URL.
+     */
+    public static DataSource forUrl(String url, String user, String password) {
+        return new DriverManagerDataSource(url, user, password);
+    }
+
+    private static DataSource fromConfiguration() {
+        Properties file = loadConfigFile();
+        String url = setting("db.url", file, DEFAULT_URL);
+        String user = setting("db.user", file, DEFAULT_USER);
+        String pass = setting("db.password", file, DEFAULT_PASS);
+        if (url.startsWith("jdbc:mysql:") && !url.contains("useServerPrepStmts")) {
+            url += (url.contains("?") ? "&" : "?") + "useServerPrepStmts=true";
+        }
+        if (url.startsWith("jdbc:mysql:") && !url.contains("rewriteBatchedStatements")) {
+            url += (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+        }
+        return forUrl(url, user, pass);
+    }
+
+    private static String setting(String key, Properties file, String fallback) {
+        String value = System.getProperty(key);
+        if (value == null) value = file.getProperty(key);
+        return value == null ? fallback : value;
+    }
+
+    private static int intSetting(String key, Properties file, int fallback) {
+        String value = setting(key, file, null);
+        if (value == null) return fallback;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException ex) {
+            System.err.println("[DB] Ignoring " + key + "=" + value + ": not a number");
+            return fallback;
+        }
+    }
+
+    private static Properties loadConfigFile() {
+        Properties props = new Properties();
+        Path path = Path.of(System.getProperty("db.config", CONFIG_FILE));
+        if (!Files.isRegularFile(path)) return props;
+        try (InputStream in = Files.newInputStream(path)) {
+            props.load(in);
+        } catch (IOException ex) {
+            System.err.println("[DB] Could not read " + path + ": " + ex.getMessage());
+        }
+        return props;
+    }
+
+    private static final class DriverManagerDataSource implements DataSource {
+        private final String url;
+        private final String user;
+        private final String password;
+        private PrintWriter logWriter;
+        private int loginTimeout;
+
+        DriverManagerDataSource(String url, String user, String password) {
+            this.url = url;
+            this.user = user;
+            this.password = password;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return DriverManager.getConnection(url, user, password);
+        }
+
+        @Override
+        public Connection getConnection(String username, String pass) throws SQLException {
+            return DriverManager.getConnection(url, username, pass);
+        }
+
+        @Override
+        public PrintWriter getLogWriter() {
+            return logWriter;
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) {
+            this.logWriter = out;
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) {
+            this.loginTimeout = seconds;
+        }
+
+        @Override
+        public int getLoginTimeout() {
+            return loginTimeout;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            if (iface.isInstance(this)) return iface.cast(this);
+            throw new SQLException("Not a wrapper for " + iface.getName());
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) {
+            return iface.isInstance(this);
+        }
+
+        @Override
+        public String toString() {
+            return url;
+        }
     }
 }
@@ -2,11 +2,20 @@ package app.db;
 
 import app.model.DailySalesRow;
 import app.model.DashboardSummary;
+import app.model.ItemSalesReport;
+import app.model.SalesHeatmap;
+import app.model.SalesWindow;
+import app.model.ServiceTimeStats;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 public class DashboardDAO {
 
@@ -75,40 +84,108 @@ public class DashboardDAO {
         return s;
     }
 
-    /** Uses your DB view v_daily_sales if present. */
+    /**
+     * Daily sales for the last {@code days} days by the database's date, live and archived
+     * orders together (see {@link #loadDailySalesHistory}).
+     */
     public List<DailySalesRow> loadRecentDailySales(int days) throws SQLException {
-        List<DailySalesRow> out = new ArrayList<>();
+        LocalDate today;
+        try (Connection con = DB.getConnection()) {
+            today = currentDate(con);
+        }
+        // The cutoff counts back from the database's date, as "CURDATE() - INTERVAL ? DAY"
+        // did, but is bound as a date: the embedded benchmark database cannot
+        // parameterize an interval.
+        return loadDailySalesHistory(today.minusDays(Math.max(days, 1)), today);
+    }
+
+    /**
+     * Daily sales for {@code from}..{@code to} from the live tables (view v_daily_sales) plus the
+     * columnar archive of old completed orders ({@link OrderArchive}), newest first. A day the
+     * archiver split between the two is summed.
+     */
+    public List<DailySalesRow> loadDailySalesHistory(LocalDate from, LocalDate to) throws SQLException {
+        Map<Date, DailySalesRow> byDay = new TreeMap<>(Comparator.reverseOrder());
 
         String sql = """
             SELECT sale_date, gross_total, paid_total, order_count
             FROM v_daily_sales
-            WHERE sale_date >= (CURDATE() - INTERVAL ? DAY)
-            ORDER BY sale_date DESC
+            WHERE sale_date >= ? AND sale_date <= ?
         """;
-
         try (Connection con = DB.getConnection();
              PreparedStatement ps = con.prepareStatement(sql)) {
-
-            ps.setInt(1, Math.max(days, 1));
-
+            ps.setDate(1, Date.valueOf(from));
+            ps.setDate(2, Date.valueOf(to));
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    Date d = rs.getDate("sale_date");
                     BigDecimal gross = rs.getBigDecimal("gross_total");
                     BigDecimal paid = rs.getBigDecimal("paid_total");
-                    long count = rs.getLong("order_count");
-
-                    out.add(new DailySalesRow(
-                            d,
+                    DailySalesRow r = new DailySalesRow(rs.getDate("sale_date"),
                             gross == null ? BigDecimal.ZERO : gross,
                             paid == null ? BigDecimal.ZERO : paid,
-                            count
-                    ));
+                            rs.getLong("order_count"));
+                    byDay.put(r.saleDate, r);
                 }
             }
         }
-        return out;
-        
+
+        List<DailySalesRow> archived;
+        try {
+            archived = OrderArchive.shared().dailySales(from, to);
+        } catch (IOException ex) {
+            throw new SQLException("Could not read the order archive: " + ex.getMessage(), ex);
+        }
+        for (DailySalesRow a : archived) {
+            DailySalesRow live = byDay.get(a.saleDate);
+            if (live == null) {
+                byDay.put(a.saleDate, a);
+            } else {
+                live.grossTotal = live.grossTotal.add(a.grossTotal);
+                live.paidTotal = live.paidTotal.add(a.paidTotal);
+                live.orderCount += a.orderCount;
+            }
+        }
+        return new ArrayList<>(byDay.values());
+    }
+
+    /**
+     * Wait-to-start and start-to-serve percentiles by hour of day and by menu item over the last
+     * {@code days} days. Kept up to date incrementally: after the first call only status changes
+     * logged since the previous call are read (see {@link ServiceTimeAnalytics}).
+     */
+    public ServiceTimeStats loadServiceTimes(int days) throws SQLException {
+        return ServiceTimeAnalytics.shared().refresh(days);
+    }
+
+    /**
+     * Top {@code limit} items by quantity and by revenue, category mix and add-on attach rates
+     * for {@code from}..{@code to} inclusive. Finished days come from the item_daily_sales
+     * rollup and results are cached per range (see {@link ItemSalesAnalytics}).
+     */
+    public ItemSalesReport loadItemSales(LocalDate from, LocalDate to, int limit) throws SQLException {
+        return ItemSalesAnalytics.shared().report(from, to, limit);
+    }
+
+    /**
+     * Gross sales by weekday and hour of day over the last {@code weeks} weeks, answered from the
+     * in-memory hourly series (see {@link SalesTimeSeries}).
+     */
+    public SalesHeatmap loadSalesHeatmap(int weeks) throws SQLException {
+        return SalesTimeSeries.shared().heatmap(weeks);
+    }
+
+    /** Sales over the last {@code hours} hours next to the same hours last week. */
+    public SalesWindow loadRollingSales(int hours) throws SQLException {
+        return SalesTimeSeries.shared().window(hours);
+    }
+
+    /** Today by the database's clock, which is what the sales views group by. */
+    private static LocalDate currentDate(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT CURRENT_DATE");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getDate(1).toLocalDate();
+        }
     }
     
 }
@@ -0,0 +1,72 @@
+package app.db;
+
+import app.util.Metrics;
+
+import java.awt.EventQueue;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bounded retry for writes that are safe to run twice, when what failed was the connection (or
+ * a lock wait) and not the statement: SQLState 08xxx, SQLTransientException (timeouts, deadlock
+ * victims, a connection that could not be had) and SQLRecoverableException (MySQL's
+ * "communications link failure"). The pool has already dropped the broken connection, so the
+ * next attempt gets a fresh one.
+ *
+ * At most -Ddb.retry.attempts tries in all (default 3, 1 turns retrying off), sleeping
+ * -Ddb.retry.backoffMillis (default 200) before the second, doubling up to MAX_BACKOFF_MILLIS,
+ * each with jitter so a station full of tills does not retry in step. Any other error, and
+ * the last transient one, goes to the caller unchanged.
+ *
+ * Only for idempotent work: a commit whose reply was lost may have happened, and the retry
+ * runs again on top of it. New orders qualify through their request id (OrderDAO).
+ *
+ * Not on the EDT: the panels still save checkouts and status changes there, and retrying a dead
+ * link would freeze the UI for several connect timeouts plus the backoff. There the work runs
+ * once and the error goes to the panel, whose user can simply try again.
+ */
+final class DbRetry {
+
+    static final String ATTEMPTS_PROPERTY = "db.retry.attempts";
+    static final String BACKOFF_PROPERTY = "db.retry.backoffMillis";
+    static final int DEFAULT_ATTEMPTS = 3;
+    static final int DEFAULT_BACKOFF_MILLIS = 200;
+    static final long MAX_BACKOFF_MILLIS = 2_000;
+
+    private DbRetry() {}
+
+    static <T> T call(String name, Callable<T> work) throws Exception {
+        int attempts = EventQueue.isDispatchThread() ? 1 : Math.max(1, Integer.getInteger(ATTEMPTS_PROPERTY, DEFAULT_ATTEMPTS));
+        long backoff = Math.max(0, Integer.getInteger(BACKOFF_PROPERTY, DEFAULT_BACKOFF_MILLIS));
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return work.call();
+            } catch (SQLException ex) {
+                if (attempt >= attempts || !isTransient(ex)) throw ex;
+                long delay = Math.min(MAX_BACKOFF_MILLIS, backoff << (attempt - 1));
+                delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+                Metrics.increment(name + ".retries");
+                System.err.println("[DB] " + name + " failed (" + ex.getSQLState() + ": " + ex.getMessage()
+                        + "), retry " + attempt + "/" + (attempts - 1) + " in " + delay + " ms");
+                Thread.sleep(delay);
+            }
+        }
+    }
+
+    static void run(String name, Metrics.TimedRun<Exception> work) throws Exception {
+        call(name, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /** True for failures of the connection or transaction rather than of the statement. */
+    static boolean isTransient(SQLException ex) {
+        if (ex instanceof SQLTransientException || ex instanceof SQLRecoverableException) return true;
+        String state = ex.getSQLState();
+        return state != null && state.startsWith("08");
+    }
+}
@@ -0,0 +1,220 @@
+package app.db;
+
+import app.model.Order;
+import app.util.Metrics;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group commit for new orders: checkouts that arrive within a few milliseconds of each other
+ * are inserted by one writer thread in one transaction, so a rush costs one connection and one
+ * commit per group instead of per order.
+ *
+ * {@link #submit} puts the order on a bounded queue (-Ddb.groupCommit.capacity, default 256) and
+ * returns a future for its id. The writer takes everything waiting (at most MAX_GROUP orders),
+ * so the orders that came in while the previous group was being committed go out together,
+ * and writes them under one commit. -Ddb.groupCommit.windowMillis (default 0) makes it wait
+ * that much longer for more; with callers that each wait for their own order that only adds
+ * latency. Each order gets its own savepoint, so one failing insert fails only its own future;
+ * a failed commit fails them all. Futures complete after the commit. The writer only reads the
+ * Order: its id is published through the future, and only the waiting caller sets it.
+ *
+ * Groups only form inside one process. Tills on separate machines never share a group, and a
+ * till's single checkout caller waits for each order, so in the app every group is one order;
+ * the writer pays off only for several concurrent callers in one JVM (see GroupCommitBenchmark).
+ *
+ * Off by default; -Ddb.groupCommit=true routes OrderDAO.insertOrderWithItems through
+ * {@link #shared}. A full queue is not waited on, and a caller waits at most
+ * -Ddb.groupCommit.timeoutMillis (default 2000) for its group: either way it writes the order on
+ * its own instead, which the order's request id keeps to one row.
+ */
+public final class GroupCommitWriter implements AutoCloseable {
+
+    public static final String ENABLED_PROPERTY = "db.groupCommit";
+    public static final String WINDOW_PROPERTY = "db.groupCommit.windowMillis";
+    public static final String CAPACITY_PROPERTY = "db.groupCommit.capacity";
+    public static final String TIMEOUT_PROPERTY = "db.groupCommit.timeoutMillis";
+    public static final int DEFAULT_WINDOW_MILLIS = 0;
+    public static final int DEFAULT_CAPACITY = 256;
+    public static final int DEFAULT_TIMEOUT_MILLIS = 2_000;
+    static final int MAX_GROUP = 64;
+
+    private static volatile GroupCommitWriter shared;
+
+    private final OrderDAO orderDAO;
+    private final BlockingQueue<Pending> queue;
+    private final long windowNanos;
+    private final long timeoutMillis;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    public GroupCommitWriter(OrderDAO orderDAO, int windowMillis, int capacity) {
+        this.orderDAO = orderDAO;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, windowMillis));
+        this.timeoutMillis = Math.max(1, Integer.getInteger(TIMEOUT_PROPERTY, DEFAULT_TIMEOUT_MILLIS));
+        this.writer = new Thread(this::run, "group-commit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /** The process-wide writer, started on first use; null unless -Ddb.groupCommit=true. */
+    public static GroupCommitWriter shared() {
+        if (!Boolean.getBoolean(ENABLED_PROPERTY)) return null;
+        GroupCommitWriter w = shared;
+        if (w == null) {
+            synchronized (GroupCommitWriter.class) {
+                w = shared;
+                if (w == null) {
+                    w = new GroupCommitWriter(new OrderDAO(),
+                            Integer.getInteger(WINDOW_PROPERTY, DEFAULT_WINDOW_MILLIS),
+                            Integer.getInteger(CAPACITY_PROPERTY, DEFAULT_CAPACITY));
+                    shared = w;
+                }
+            }
+        }
+        return w;
+    }
+
+    /**
+     * Queues the order for the next group. The future completes with its generated id once the
+     * group committed, or exceptionally: with RejectedExecutionException when the queue is full
+     * or the writer closed, otherwise with the SQL error.
+     */
+    public CompletableFuture<Integer> submit(Order order) {
+        Pending pending = new Pending(order);
+        if (closed || !queue.offer(pending)) {
+            Metrics.increment("GroupCommitWriter.rejected");
+            pending.future.completeExceptionally(new RejectedExecutionException("Group commit queue full"));
+        }
+        return pending.future;
+    }
+
+    /**
+     * Waits for a submitted order and returns its id. Returns null when it was rejected or its
+     * group did not commit within the timeout (the caller should write it itself) and rethrows
+     * the cause when the write failed.
+     */
+    Integer await(CompletableFuture<Integer> future) throws Exception {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            // A stuck writer must not hang the checkout. Withdrawn, the order is never written
+            // by it; if the writer already holds it, the request id makes both writes one row.
+            future.cancel(false);
+            queue.removeIf(p -> p.future == future);
+            Metrics.increment("GroupCommitWriter.timeouts");
+            return null;
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RejectedExecutionException) return null;
+            if (ex.getCause() instanceof Exception cause) throw cause;
+            throw ex;
+        }
+    }
+
+    /** Stops the writer; orders still queued fail with RejectedExecutionException. */
+    @Override
+    public void close() {
+        closed = true;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        Pending left;
+        while ((left = queue.poll()) != null) {
+            left.future.completeExceptionally(new RejectedExecutionException("Group commit writer closed"));
+        }
+    }
+
+    private void run() {
+        List<Pending> group = new ArrayList<>(MAX_GROUP);
+        while (!closed) {
+            try {
+                group.add(queue.take());
+                long deadline = System.nanoTime() + windowNanos;
+                while (group.size() < MAX_GROUP) {
+                    long left = deadline - System.nanoTime();
+                    Pending next = left > 0 ? queue.poll(left, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    group.add(next);
+                }
+            } catch (InterruptedException ex) {
+                // close(): whatever was collected is still written.
+            }
+            try {
+                if (!group.isEmpty()) write(group);
+            } catch (Throwable t) {
+                // Anything write() lets through (an Error) fails this group, not the writer, so
+                // later callers are not left waiting on a dead thread.
+                Metrics.increment("GroupCommitWriter.failures");
+                System.err.println("[GroupCommit] Writer failed: " + t);
+                for (Pending p : group) {
+                    if (!p.future.isDone()) p.future.completeExceptionally(t);
+                }
+            }
+            group.clear();
+        }
+    }
+
+    private void write(List<Pending> group) {
+        long start = System.nanoTime();
+        List<Pending> written = new ArrayList<>(group.size());
+        try (Connection con = DB.getConnection()) {
+            OrderColumns.ensure(con);
+            con.setAutoCommit(false);
+            for (Pending p : group) {
+                // Timed out: its caller is writing it already.
+                if (p.future.isCancelled()) continue;
+                Savepoint savepoint = con.setSavepoint();
+                try {
+                    p.id = orderDAO.insertRows(con, p.order);
+                    written.add(p);
+                } catch (SQLException ex) {
+                    con.rollback(savepoint);
+                    p.future.completeExceptionally(ex);
+                }
+            }
+            con.commit();
+        } catch (Exception ex) {
+            Metrics.timer("GroupCommitWriter.commit").record(System.nanoTime() - start, false);
+            for (Pending p : group) {
+                if (!p.future.isDone()) p.future.completeExceptionally(ex);
+            }
+            return;
+        }
+
+        long now = System.nanoTime();
+        Metrics.timer("GroupCommitWriter.commit").record(now - start, true);
+        Metrics.increment("GroupCommitWriter.commits");
+        Metrics.add("GroupCommitWriter.orders", written.size());
+        for (Pending p : written) {
+            if (!p.future.complete(p.id)) continue;
+            SalesTimeSeries.shared().orderSaved();
+            Metrics.timer("GroupCommitWriter.latency").record(now - p.submitted, true);
+        }
+    }
+
+    private static final class Pending {
+        final Order order;
+        final long submitted = System.nanoTime();
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+        Integer id;   // writer thread only
+
+        Pending(Order order) {
+            this.order = order;
+        }
+    }
+}
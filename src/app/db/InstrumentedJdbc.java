@@ -0,0 +1,257 @@
+package app.db;
+
+import app.util.FlightEvents;
+import app.util.Metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Connection decorator that times every statement execution. Each one is fed to {@link SqlStats}
+ * (fingerprint, counts, slow-query log) and, while a recording has it enabled, reported as a JFR
+ * {@link FlightEvents.JdbcStatement} event with its SQL text and row count.
+ *
+ * Statements handed out by the wrapped connection are wrapped as well. A query stays open until
+ * its result set (or statement) is closed, so its time and row count cover the rows the DAO
+ * actually read. Bind parameters are remembered so slow statements can be logged with them.
+ *
+ * The connection itself is timed from checkout to close under the Class.method that asked for
+ * it ({@link Metrics}, owner Diagnostics page), failed if any call on it threw. Private helpers
+ * and lambdas count towards the method of the same class that called them, so
+ * OrderDAO.claimOrder is one timer though compareAndSet opens the connection. A method that
+ * opens several connections (one per order for the lines) records one sample per connection.
+ */
+final class InstrumentedJdbc {
+
+    private static final StackWalker STACK = StackWalker.getInstance();
+    private static final Set<String> PLUMBING = Set.of(
+            InstrumentedJdbc.class.getName(), DB.class.getName(), DbRetry.class.getName());
+
+    private InstrumentedJdbc() {}
+
+    static Connection wrap(Connection con) {
+        return proxy(Connection.class, new ConnectionHandler(con, caller()));
+    }
+
+    /** Class.method that is getting a connection, skipping DB and retry plumbing. */
+    private static String caller() {
+        return STACK.walk(frames -> {
+            String type = null;
+            String method = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames.limit(64)::iterator) {
+                String cls = frame.getClassName();
+                if (PLUMBING.contains(cls)) continue;
+                if (type != null && !type.equals(cls)) break;
+                type = cls;
+                method = frame.getMethodName();
+            }
+            if (type == null) return "DB.connection";
+            if (method.startsWith("lambda$")) method = method.substring(7, Math.max(7, method.indexOf('$', 7)));
+            return type.substring(type.lastIndexOf('.') + 1).replace('$', '.') + "." + method;
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(InstrumentedJdbc.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final String operation;
+        private final long start = System.nanoTime();
+        private boolean failed;
+        private boolean closed;
+
+        ConnectionHandler(Connection target, String operation) {
+            this.target = target;
+            this.operation = operation;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            Object result;
+            try {
+                result = InstrumentedJdbc.invoke(target, method, args);
+            } catch (Throwable ex) {
+                failed = true;
+                throw ex;
+            } finally {
+                if (name.equals("close") && !closed) {
+                    closed = true;
+                    Metrics.timer(operation).record(System.nanoTime() - start, !failed);
+                }
+            }
+            if (result instanceof PreparedStatement ps && (name.equals("prepareStatement") || name.equals("prepareCall"))) {
+                Class<? extends Statement> type = method.getReturnType().asSubclass(Statement.class);
+                return proxy(type, new StatementHandler(this, ps, (String) args[0]));
+            }
+            if (result instanceof Statement st && name.equals("createStatement")) {
+                return proxy(Statement.class, new StatementHandler(this, st, null));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final ConnectionHandler connection;
+        private final Statement target;
+        private final String preparedSql;
+        private final StringBuilder batchSql = new StringBuilder();
+        private Object[] binds = new Object[0];
+        private OpenQuery openQuery;
+
+        StatementHandler(ConnectionHandler connection, Statement target, String preparedSql) {
+            this.connection = connection;
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && preparedSql != null && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bind(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                Arrays.fill(binds, null);
+            } else if (name.equals("close")) {
+                finishQuery();
+            } else if (name.equals("addBatch") && preparedSql == null && args != null) {
+                if (batchSql.length() > 0) batchSql.append(";\n");
+                batchSql.append(args[0]);
+            }
+            if (!name.startsWith("execute")) {
+                return InstrumentedJdbc.invoke(target, method, args);
+            }
+
+            finishQuery();
+            String sql = preparedSql != null ? preparedSql
+                    : name.equals("executeBatch") ? batchSql.toString()
+                    : args != null && args.length > 0 ? String.valueOf(args[0]) : null;
+            String kind = kindOf(name);
+            FlightEvents.JdbcStatement event = new FlightEvents.JdbcStatement();
+            event.begin();
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = InstrumentedJdbc.invoke(target, method, args);
+            } catch (Throwable ex) {
+                connection.failed = true;
+                finish(event, start, sql, kind, -1, true, binds);
+                throw ex;
+            }
+
+            if (result instanceof ResultSet rs) {
+                openQuery = new OpenQuery(event, start, sql, binds);
+                return proxy(ResultSet.class, openQuery.handler(rs));
+            }
+            if (name.equals("executeBatch")) batchSql.setLength(0);
+            finish(event, start, sql, kind, rowsOf(result), false, binds);
+            return result;
+        }
+
+        private void bind(int index, Object value) {
+            if (index < 1) return;
+            if (index > binds.length) binds = Arrays.copyOf(binds, Math.max(index, binds.length * 2));
+            binds[index - 1] = value;
+        }
+
+        private void finishQuery() {
+            if (openQuery != null) {
+                openQuery.finish();
+                openQuery = null;
+            }
+        }
+    }
+
+    /** A query whose time and row count are recorded once its result set is closed. */
+    private static final class OpenQuery {
+        private final FlightEvents.JdbcStatement event;
+        private final long start;
+        private final String sql;
+        private final Object[] binds;
+        private long rows;
+        private boolean done;
+
+        OpenQuery(FlightEvents.JdbcStatement event, long start, String sql, Object[] binds) {
+            this.event = event;
+            this.start = start;
+            this.sql = sql;
+            this.binds = binds.clone();
+        }
+
+        InvocationHandler handler(ResultSet rs) {
+            return (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.equals("close")) finish();
+                Object result = InstrumentedJdbc.invoke(rs, method, args);
+                if (name.equals("next") && Boolean.TRUE.equals(result)) rows++;
+                return result;
+            };
+        }
+
+        void finish() {
+            if (done) return;
+            done = true;
+            InstrumentedJdbc.finish(event, start, sql, "query", rows, false, binds);
+        }
+    }
+
+    private static void finish(FlightEvents.JdbcStatement event, long start, String sql, String kind,
+                               long rows, boolean failed, Object[] binds) {
+        SqlStats.record(sql, System.nanoTime() - start, rows, failed, binds);
+        event.end();
+        if (event.shouldCommit()) {
+            event.sql = sql;
+            event.kind = kind;
+            event.rows = rows;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+
+    private static String kindOf(String method) {
+        return switch (method) {
+            case "executeQuery" -> "query";
+            case "executeUpdate", "executeLargeUpdate" -> "update";
+            case "executeBatch", "executeLargeBatch" -> "batch";
+            default -> "execute";
+        };
+    }
+
+    private static long rowsOf(Object result) {
+        if (result instanceof Integer n) return n;
+        if (result instanceof Long n) return n;
+        if (result instanceof int[] counts) {
+            long sum = 0;
+            for (int c : counts) {
+                if (c > 0) sum += c;
+            }
+            return sum;
+        }
+        if (result instanceof long[] counts) {
+            long sum = 0;
+            for (long c : counts) {
+                if (c > 0) sum += c;
+            }
+            return sum;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,348 @@
+package app.db;
+
+import app.model.CategorySalesRow;
+import app.model.ItemSalesReport;
+import app.model.ItemSalesRow;
+import app.util.Metrics;
+import app.util.TopK;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Item analytics over item_daily_sales(sale_date, item_code, item_name, quantity, revenue,
+ * drink_quantity, extra_shot_quantity, alt_milk_quantity), one row per item per day.
+ *
+ * Finished days are rolled up from order_items (and the archive of old orders) once and kept in
+ * that table; only today (and any day not rolled up yet) is read from order_items at query time. A range query sums both per
+ * item and streams the item rows through two bounded {@link TopK} heaps (quantity, revenue) and
+ * the category totals, so memory stays at K rows however long the menu or range. Reports are
+ * cached per range: ranges that end before today for good, ranges that include today for
+ * {@link #LIVE_TTL_SECONDS}.
+ */
+final class ItemSalesAnalytics {
+
+    static final long LIVE_TTL_SECONDS = 60;
+    private static final int MAX_CACHED_RANGES = 32;
+    private static final ItemSalesAnalytics SHARED = new ItemSalesAnalytics();
+
+    // Same wording as the cashier's option label; food lines are "Standard • N/A".
+    private static final String DRINK_LINE = "oi.options NOT LIKE '%N/A%'";
+    private static final String EXTRA_SHOT = "oi.options LIKE '%Extra Shot%'";
+    private static final String ALT_MILK = "oi.options LIKE '%Alt Milk%'";
+
+    private static final Comparator<ItemSalesRow> BY_QUANTITY = Comparator
+            .comparingLong((ItemSalesRow r) -> r.quantity)
+            .thenComparing(r -> r.revenue)
+            .thenComparing(r -> r.itemCode, Comparator.reverseOrder());
+    private static final Comparator<ItemSalesRow> BY_REVENUE = Comparator
+            .comparing((ItemSalesRow r) -> r.revenue)
+            .thenComparingLong(r -> r.quantity)
+            .thenComparing(r -> r.itemCode, Comparator.reverseOrder());
+
+    private final Map<String, Cached> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+            return size() > MAX_CACHED_RANGES;
+        }
+    };
+    private DataSource source;
+    private LocalDate rolledUpTo;   // first day that is not in item_daily_sales yet
+    private boolean tableChecked;
+
+    private ItemSalesAnalytics() {}
+
+    static ItemSalesAnalytics shared() {
+        return SHARED;
+    }
+
+    synchronized ItemSalesReport report(LocalDate from, LocalDate to, int limit) throws SQLException {
+        checkSource();
+
+        String key = from + "|" + to + "|" + limit;
+        Cached hit = cache.get(key);
+        if (hit != null && (hit.expiresAt == 0 || System.nanoTime() < hit.expiresAt)) {
+            Metrics.increment("ItemSalesAnalytics.cache.hits");
+            return hit.report;
+        }
+        Metrics.increment("ItemSalesAnalytics.cache.misses");
+
+        ItemSalesReport report;
+        try (Connection con = DB.getConnection()) {
+            ensureTable(con);
+            rollUp(con, currentDate(con));
+            report = compute(con, from, to, limit);
+        }
+        long expiresAt = to.isBefore(rolledUpTo) ? 0 : System.nanoTime() + TimeUnit.SECONDS.toNanos(LIVE_TTL_SECONDS);
+        cache.put(key, new Cached(report, expiresAt));
+        return report;
+    }
+
+    /**
+     * Rolls the finished days up now. {@link OrderArchiver} calls this before deleting orders, so
+     * their options still count towards the attach rates, which the archive does not keep.
+     */
+    synchronized void rollUpFinishedDays() throws SQLException {
+        checkSource();
+        try (Connection con = DB.getConnection()) {
+            ensureTable(con);
+            rollUp(con, currentDate(con));
+        }
+    }
+
+    private void checkSource() {
+        DataSource current = DB.getDataSource();
+        if (current != source) {
+            source = current;
+            rolledUpTo = null;
+            tableChecked = false;
+            cache.clear();
+        }
+    }
+
+    /**
+     * Today by the database's clock, on the connection the rollup runs on: a day is only rolled
+     * up once the database has finished it, whatever this PC's clock says.
+     */
+    private static LocalDate currentDate(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT CURRENT_DATE");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getDate(1).toLocalDate();
+        }
+    }
+
+    private void ensureTable(Connection con) throws SQLException {
+        if (tableChecked) return;
+        String sql = "CREATE TABLE IF NOT EXISTS item_daily_sales ("
+                + "sale_date DATE NOT NULL, "
+                + "item_code VARCHAR(20) NOT NULL, "
+                + "item_name VARCHAR(100) NOT NULL, "
+                + "quantity INT NOT NULL DEFAULT 0, "
+                + "revenue DECIMAL(12,2) NOT NULL DEFAULT 0, "
+                + "drink_quantity INT NOT NULL DEFAULT 0, "
+                + "extra_shot_quantity INT NOT NULL DEFAULT 0, "
+                + "alt_milk_quantity INT NOT NULL DEFAULT 0, "
+                + "PRIMARY KEY (sale_date, item_code)"
+                + ")";
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.executeUpdate();
+        }
+        tableChecked = true;
+    }
+
+    /**
+     * Rolls every finished day after the last one in item_daily_sales into the table (one
+     * INSERT ... SELECT), plus the lines of those days' archived orders ({@link OrderArchive});
+     * {@code today} is the database's CURRENT_DATE and stays live. Runs at most once per day per process. The rolled days' rows are
+     * deleted first in the same transaction, so a rollup another owner screen ran meanwhile is
+     * replaced rather than added to.
+     */
+    private void rollUp(Connection con, LocalDate today) throws SQLException {
+        if (rolledUpTo != null && !rolledUpTo.isBefore(today)) return;
+
+        LocalDate start = rolledUpTo;
+        if (start == null) {
+            try (PreparedStatement ps = con.prepareStatement("SELECT MAX(sale_date) FROM item_daily_sales");
+                 ResultSet rs = ps.executeQuery()) {
+                Date last = rs.next() ? rs.getDate(1) : null;
+                if (last != null) start = last.toLocalDate().plusDays(1);
+            }
+        }
+        if (start == null) {
+            try (PreparedStatement ps = con.prepareStatement("SELECT MIN(created_at) FROM orders");
+                 ResultSet rs = ps.executeQuery()) {
+                Timestamp first = rs.next() ? rs.getTimestamp(1) : null;
+                start = first == null ? today : first.toLocalDateTime().toLocalDate();
+            }
+            LocalDate archived = firstArchivedDay();
+            if (archived != null && archived.isBefore(start)) start = archived;
+        }
+
+        if (start.isBefore(today)) {
+            String sql = "INSERT INTO item_daily_sales (sale_date, item_code, item_name, quantity, revenue, "
+                    + "drink_quantity, extra_shot_quantity, alt_milk_quantity) "
+                    + "SELECT CAST(o.created_at AS DATE), oi.item_code, " + lineAggregates()
+                    + " FROM order_items oi JOIN orders o ON o.id = oi.order_id"
+                    + " WHERE o.created_at >= ? AND o.created_at < ?"
+                    + " GROUP BY CAST(o.created_at AS DATE), oi.item_code"
+                    + " ON DUPLICATE KEY UPDATE item_name = VALUES(item_name), quantity = VALUES(quantity),"
+                    + " revenue = VALUES(revenue), drink_quantity = VALUES(drink_quantity),"
+                    + " extra_shot_quantity = VALUES(extra_shot_quantity), alt_milk_quantity = VALUES(alt_milk_quantity)";
+            con.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = con.prepareStatement(
+                        "DELETE FROM item_daily_sales WHERE sale_date >= ? AND sale_date < ?")) {
+                    ps.setDate(1, Date.valueOf(start));
+                    ps.setDate(2, Date.valueOf(today));
+                    ps.executeUpdate();
+                }
+                int rows;
+                try (PreparedStatement ps = con.prepareStatement(sql)) {
+                    ps.setTimestamp(1, Timestamp.valueOf(start.atStartOfDay()));
+                    ps.setTimestamp(2, Timestamp.valueOf(today.atStartOfDay()));
+                    rows = ps.executeUpdate();
+                }
+                rows += addArchived(con, start, today);
+                con.commit();
+                Metrics.increment("ItemSalesAnalytics.rollups");
+                Metrics.add("ItemSalesAnalytics.rollup.rows", rows);
+            } catch (SQLException ex) {
+                con.rollback();
+                throw ex;
+            } finally {
+                con.setAutoCommit(true);
+            }
+        }
+        rolledUpTo = today;
+    }
+
+    /**
+     * Adds the archived lines of {@code start}..{@code end} (exclusive) to item_daily_sales, day
+     * by day. The archive keeps no names or options: the name comes from the menu (the code if
+     * the item is gone) and the lines count as neither drinks nor add-ons.
+     */
+    private static int addArchived(Connection con, LocalDate start, LocalDate end) throws SQLException {
+        LocalDate first = firstArchivedDay();
+        if (first == null) return 0;
+        if (first.isAfter(start)) start = first;
+
+        String sql = "INSERT INTO item_daily_sales (sale_date, item_code, item_name, quantity, revenue) "
+                + "VALUES (?, ?, COALESCE((SELECT name FROM menu_items WHERE code = ?), ?), ?, ?) "
+                + "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity), revenue = revenue + VALUES(revenue)";
+        int rows = 0;
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            for (LocalDate day = start; day.isBefore(end); day = day.plusDays(1)) {
+                List<ItemSalesRow> archived;
+                try {
+                    archived = OrderArchive.shared().itemSales(day, day);
+                } catch (IOException ex) {
+                    throw new SQLException("Could not read the order archive: " + ex.getMessage(), ex);
+                }
+                for (ItemSalesRow r : archived) {
+                    ps.setDate(1, Date.valueOf(day));
+                    ps.setString(2, r.itemCode);
+                    ps.setString(3, r.itemCode);
+                    ps.setString(4, r.itemCode);
+                    ps.setLong(5, r.quantity);
+                    ps.setBigDecimal(6, r.revenue);
+                    ps.addBatch();
+                    rows++;
+                }
+                if (!archived.isEmpty()) ps.executeBatch();
+            }
+        }
+        return rows;
+    }
+
+    private static LocalDate firstArchivedDay() throws SQLException {
+        try {
+            return OrderArchive.shared().firstDay();
+        } catch (IOException ex) {
+            throw new SQLException("Could not read the order archive: " + ex.getMessage(), ex);
+        }
+    }
+
+    private static String lineAggregates() {
+        return "MAX(oi.item_name), SUM(oi.quantity), SUM(oi.line_total), "
+                + "SUM(CASE WHEN " + DRINK_LINE + " THEN oi.quantity ELSE 0 END), "
+                + "SUM(CASE WHEN " + EXTRA_SHOT + " THEN oi.quantity ELSE 0 END), "
+                + "SUM(CASE WHEN " + ALT_MILK + " THEN oi.quantity ELSE 0 END)";
+    }
+
+    private ItemSalesReport compute(Connection con, LocalDate from, LocalDate to, int limit) throws SQLException {
+        // Rolled-up days come from the aggregate, the rest (today) from order_items; an empty
+        // live range when the request ends before today.
+        LocalDate liveFrom = from.isAfter(rolledUpTo) ? from : rolledUpTo;
+        LocalDate liveTo = to.plusDays(1);
+        if (!liveFrom.isBefore(liveTo)) liveFrom = liveTo;
+
+        String sql = "SELECT x.item_code, MAX(x.item_name) AS item_name, MAX(m.category) AS category, "
+                + "SUM(x.quantity) AS quantity, SUM(x.revenue) AS revenue, SUM(x.drink_quantity) AS drink_quantity, "
+                + "SUM(x.extra_shot_quantity) AS extra_shot_quantity, SUM(x.alt_milk_quantity) AS alt_milk_quantity "
+                + "FROM ("
+                + " SELECT d.item_code, d.item_name, d.quantity, d.revenue, d.drink_quantity, d.extra_shot_quantity, d.alt_milk_quantity"
+                + " FROM item_daily_sales d WHERE d.sale_date >= ? AND d.sale_date <= ?"
+                + " UNION ALL"
+                + " SELECT oi.item_code, " + lineAggregates()
+                + " FROM order_items oi JOIN orders o ON o.id = oi.order_id"
+                + " WHERE o.created_at >= ? AND o.created_at < ?"
+                + " GROUP BY oi.item_code"
+                + ") x "
+                + "LEFT JOIN menu_items m ON m.code = x.item_code "
+                + "GROUP BY x.item_code "
+                + "ORDER BY x.item_code";
+
+        ItemSalesReport report = new ItemSalesReport();
+        report.from = from;
+        report.to = to;
+        TopK<ItemSalesRow> byQuantity = new TopK<>(limit, BY_QUANTITY);
+        TopK<ItemSalesRow> byRevenue = new TopK<>(limit, BY_REVENUE);
+        Map<String, CategorySalesRow> categories = new HashMap<>();
+
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setDate(1, Date.valueOf(from));
+            ps.setDate(2, Date.valueOf(to));
+            ps.setTimestamp(3, Timestamp.valueOf(liveFrom.atStartOfDay()));
+            ps.setTimestamp(4, Timestamp.valueOf(liveTo.atStartOfDay()));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String category = rs.getString("category");
+                    ItemSalesRow row = new ItemSalesRow(rs.getString("item_code"), rs.getString("item_name"),
+                            category == null ? "Other" : category);
+                    row.quantity = rs.getLong("quantity");
+                    BigDecimal revenue = rs.getBigDecimal("revenue");
+                    row.revenue = revenue == null ? BigDecimal.ZERO : revenue;
+                    row.drinkQuantity = rs.getLong("drink_quantity");
+                    row.extraShotQuantity = rs.getLong("extra_shot_quantity");
+                    row.altMilkQuantity = rs.getLong("alt_milk_quantity");
+
+                    byQuantity.offer(row);
+                    byRevenue.offer(row);
+                    CategorySalesRow c = categories.computeIfAbsent(row.category, CategorySalesRow::new);
+                    c.quantity += row.quantity;
+                    c.revenue = c.revenue.add(row.revenue);
+
+                    ItemSalesRow t = report.totals;
+                    t.quantity += row.quantity;
+                    t.revenue = t.revenue.add(row.revenue);
+                    t.drinkQuantity += row.drinkQuantity;
+                    t.extraShotQuantity += row.extraShotQuantity;
+                    t.altMilkQuantity += row.altMilkQuantity;
+                    report.itemsSold++;
+                }
+            }
+        }
+
+        report.topByQuantity = byQuantity.result();
+        report.topByRevenue = byRevenue.result();
+        report.categories = new ArrayList<>(categories.values());
+        report.categories.sort(Comparator.comparing((CategorySalesRow c) -> c.revenue).reversed());
+        return report;
+    }
+
+    private static final class Cached {
+        final ItemSalesReport report;
+        final long expiresAt;   // System.nanoTime() deadline, 0 = never
+
+        Cached(ItemSalesReport report, long expiresAt) {
+            this.report = report;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package app.db;
+
+import app.model.DailySalesRow;
+import app.model.ItemSalesRow;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Read side of the columnar archive written by {@link OrderArchiver}: every archive/*.col file
+ * (or -Darchive.dir=...), memory-mapped on first use.
+ *
+ * The queries mirror the DashboardDAO ones but decode only the columns they need; daily sales
+ * reads created_at and total, item sales reads created_at, line_count, item_code, quantity and
+ * line_total. Files whose created_at range misses the requested dates are skipped unread.
+ * Files still named .col.pending are not read: their orders may not be deleted from the live
+ * tables yet.
+ */
+public final class OrderArchive {
+
+    public static final String DIR_PROPERTY = "archive.dir";
+    static final String SEGMENT_SUFFIX = ".col";
+
+    private static final OrderArchive SHARED = new OrderArchive(Paths.get(System.getProperty(DIR_PROPERTY, "archive")));
+
+    private final Path dir;
+    private final Map<Path, ArchiveSegment> open = new HashMap<>();
+
+    OrderArchive(Path dir) {
+        this.dir = dir;
+    }
+
+    public static OrderArchive shared() {
+        return SHARED;
+    }
+
+    Path dir() {
+        return dir;
+    }
+
+    /** Archived orders per day for {@code from}..{@code to} inclusive; every archived order is paid. */
+    public List<DailySalesRow> dailySales(LocalDate from, LocalDate to) throws IOException {
+        long start = epochSecond(from);
+        long end = epochSecond(to.plusDays(1));
+        Map<Long, long[]> byDay = new TreeMap<>(Comparator.reverseOrder());   // epoch day -> {centavos, orders}
+
+        for (ArchiveSegment seg : segments(start, end)) {
+            ArchiveSegment.Cursor created = seg.column(ArchiveSegment.CREATED_AT);
+            ArchiveSegment.Cursor total = seg.column(ArchiveSegment.TOTAL);
+            for (int i = 0; i < seg.orderCount; i++) {
+                long at = created.nextDelta();
+                long centavos = total.nextSigned();
+                if (at < start || at >= end) continue;
+                long[] day = byDay.computeIfAbsent(Math.floorDiv(at, 86_400), k -> new long[2]);
+                day[0] += centavos;
+                day[1]++;
+            }
+        }
+
+        List<DailySalesRow> out = new ArrayList<>(byDay.size());
+        byDay.forEach((day, v) -> {
+            BigDecimal gross = BigDecimal.valueOf(v[0], 2);
+            out.add(new DailySalesRow(Date.valueOf(LocalDate.ofEpochDay(day)), gross, gross, v[1]));
+        });
+        return out;
+    }
+
+    /** Units and revenue per item code for {@code from}..{@code to}; names and categories are not archived. */
+    public List<ItemSalesRow> itemSales(LocalDate from, LocalDate to) throws IOException {
+        long start = epochSecond(from);
+        long end = epochSecond(to.plusDays(1));
+        Map<String, long[]> byItem = new HashMap<>();   // code -> {quantity, centavos}
+
+        for (ArchiveSegment seg : segments(start, end)) {
+            ArchiveSegment.Cursor created = seg.column(ArchiveSegment.CREATED_AT);
+            ArchiveSegment.Cursor lineCounts = seg.column(ArchiveSegment.LINE_COUNT);
+            ArchiveSegment.Cursor codes = seg.column(ArchiveSegment.ITEM_CODE);
+            String[] dict = seg.dictionary(codes);
+            ArchiveSegment.Cursor quantity = seg.column(ArchiveSegment.QUANTITY);
+            ArchiveSegment.Cursor lineTotal = seg.column(ArchiveSegment.LINE_TOTAL);
+
+            for (int i = 0; i < seg.orderCount; i++) {
+                long at = created.nextDelta();
+                boolean inRange = at >= start && at < end;
+                long lines = lineCounts.nextVarLong();
+                for (long j = 0; j < lines; j++) {
+                    String code = dict[(int) codes.nextVarLong()];
+                    long qty = quantity.nextVarLong();
+                    long centavos = lineTotal.nextSigned();
+                    if (!inRange) continue;
+                    long[] item = byItem.computeIfAbsent(code, k -> new long[2]);
+                    item[0] += qty;
+                    item[1] += centavos;
+                }
+            }
+        }
+
+        List<ItemSalesRow> out = new ArrayList<>(byItem.size());
+        byItem.forEach((code, v) -> {
+            ItemSalesRow row = new ItemSalesRow(code, code, null);
+            row.quantity = v[0];
+            row.revenue = BigDecimal.valueOf(v[1], 2);
+            out.add(row);
+        });
+        out.sort(Comparator.comparingLong((ItemSalesRow r) -> r.quantity).reversed());
+        return out;
+    }
+
+    /** Day of the oldest archived order, or null when nothing is archived. */
+    public LocalDate firstDay() throws IOException {
+        long first = Long.MAX_VALUE;
+        for (ArchiveSegment seg : segments(Long.MIN_VALUE, Long.MAX_VALUE)) first = Math.min(first, seg.minCreated);
+        return first == Long.MAX_VALUE ? null : LocalDate.ofEpochDay(Math.floorDiv(first, 86_400));
+    }
+
+    /**
+     * Archive files overlapping [start, end) in epoch seconds, mapping any that appeared since
+     * the last call.
+     */
+    synchronized List<ArchiveSegment> segments(long start, long end) throws IOException {
+        List<ArchiveSegment> out = new ArrayList<>();
+        if (!Files.isDirectory(dir)) return out;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                ArchiveSegment seg = open.get(file);
+                if (seg == null) {
+                    seg = ArchiveSegment.open(file);
+                    open.put(file, seg);
+                }
+                if (seg.orderCount > 0 && seg.maxCreated >= start && seg.minCreated < end) out.add(seg);
+            }
+        }
+        return out;
+    }
+
+    static long epochSecond(LocalDate date) {
+        return date.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,245 @@
+package app.db;
+
+import app.util.Metrics;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves COMPLETED orders older than -Darchive.days out of orders and order_items into
+ * {@link OrderArchive} files, keeping the live tables small. The owner's daily sales and item
+ * reports read the archive back. Off unless archive.days is set: the files stay on the PC that
+ * ran the job, so only that PC's reports see the archived orders. Finished days are rolled up
+ * into item_daily_sales before anything is deleted.
+ *
+ * Each batch is written as archive/orders-firstId-lastId.col.pending and forced to disk, then
+ * the orders are deleted (their items and status log rows cascade), then the file is renamed to
+ * .col. A run interrupted between those steps is finished by the next one: the ids in a leftover
+ * .pending file are deleted again (a no-op if they are already gone) before it is renamed.
+ *
+ * {@link #startNightly()} runs it once a day at -Darchive.hour (default 3, local time).
+ */
+public final class OrderArchiver {
+
+    public static final String DAYS_PROPERTY = "archive.days";
+    public static final String HOUR_PROPERTY = "archive.hour";
+    private static final int DEFAULT_DAYS = 0;
+    private static final int DEFAULT_HOUR = 3;
+    private static final int BATCH_ORDERS = 20_000;
+    private static final int IN_CHUNK = 500;
+    private static final String PENDING_SUFFIX = ".pending";
+
+    private static ScheduledExecutorService scheduler;
+
+    private final OrderArchive archive;
+
+    public OrderArchiver() {
+        this(OrderArchive.shared());
+    }
+
+    OrderArchiver(OrderArchive archive) {
+        this.archive = archive;
+    }
+
+    /** Schedules the nightly run (idempotent); does nothing unless archive.days is set. */
+    public static synchronized void startNightly() {
+        if (scheduler != null) return;
+        int days = Integer.getInteger(DAYS_PROPERTY, DEFAULT_DAYS);
+        if (days <= 0) return;
+        int hour = Math.floorMod(Integer.getInteger(HOUR_PROPERTY, DEFAULT_HOUR), 24);
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next = now.toLocalDate().atTime(hour, 0);
+        if (!next.isAfter(now)) next = next.plusDays(1);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "order-archiver");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                new OrderArchiver().archiveCompletedOlderThan(days);
+            } catch (Exception ex) {
+                System.err.println("[OrderArchiver] Nightly run failed: " + ex.getMessage());
+            }
+        }, Duration.between(now, next).toMinutes(), TimeUnit.DAYS.toMinutes(1), TimeUnit.MINUTES);
+    }
+
+    /**
+     * Archives every COMPLETED order created more than {@code days} days ago.
+     *
+     * @return number of orders moved
+     */
+    public int archiveCompletedOlderThan(int days) throws SQLException, IOException {
+        // Timed by hand: Metrics.timed would widen the two checked exceptions to Exception.
+        Metrics.Timer timer = Metrics.timer("OrderArchiver.archiveCompletedOlderThan");
+        long started = System.nanoTime();
+        boolean ok = false;
+        try {
+            synchronized (OrderArchiver.class) {
+                Files.createDirectories(archive.dir());
+                finishPending();
+
+                ItemSalesAnalytics.shared().rollUpFinishedDays();
+
+                int moved = 0;
+                List<ArchiveSegment.Row> batch;
+                while (!(batch = loadBatch(Math.max(days, 1))).isEmpty()) {
+                    long first = batch.get(0).orderId;
+                    long last = batch.get(batch.size() - 1).orderId;
+                    Path done = archive.dir().resolve("orders-" + first + "-" + last + OrderArchive.SEGMENT_SUFFIX);
+                    Path pending = done.resolveSibling(done.getFileName() + PENDING_SUFFIX);
+                    Path tmp = done.resolveSibling(done.getFileName() + ".tmp");
+
+                    Files.deleteIfExists(tmp);
+                    ArchiveSegment.write(tmp, batch);
+                    Files.move(tmp, pending, StandardCopyOption.ATOMIC_MOVE);
+                    deleteOrders(ids(batch));
+                    Files.move(pending, done, StandardCopyOption.ATOMIC_MOVE);
+
+                    moved += batch.size();
+                    Metrics.add("OrderArchiver.orders", batch.size());
+                    System.err.println("[OrderArchiver] Archived " + batch.size() + " orders to " + done.getFileName());
+                }
+                ok = true;
+                return moved;
+            }
+        } finally {
+            timer.record(System.nanoTime() - started, ok);
+        }
+    }
+
+    /** Completes runs that stopped after writing a .pending file. */
+    private void finishPending() throws IOException, SQLException {
+        List<Path> leftovers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(archive.dir(), "*" + OrderArchive.SEGMENT_SUFFIX + PENDING_SUFFIX)) {
+            files.forEach(leftovers::add);
+        }
+        for (Path pending : leftovers) {
+            ArchiveSegment seg = ArchiveSegment.read(pending);
+            List<Long> ids = new ArrayList<>(seg.orderCount);
+            ArchiveSegment.Cursor c = seg.column(ArchiveSegment.ORDER_ID);
+            for (int i = 0; i < seg.orderCount; i++) ids.add(c.nextDelta());
+            deleteOrders(ids);
+
+            String name = pending.getFileName().toString();
+            Files.move(pending, pending.resolveSibling(name.substring(0, name.length() - PENDING_SUFFIX.length())),
+                    StandardCopyOption.ATOMIC_MOVE);
+            System.err.println("[OrderArchiver] Finished interrupted archive " + name);
+        }
+    }
+
+    /** The next batch of COMPLETED orders older than {@code days} days by the database's clock. */
+    private List<ArchiveSegment.Row> loadBatch(int days) throws SQLException {
+        // TIMESTAMPADD rather than "NOW() - INTERVAL ? DAY": the embedded benchmark database
+        // cannot parameterize an interval.
+        String orderSql = "SELECT id, created_at, total FROM orders WHERE status = 'COMPLETED'"
+                + " AND created_at < TIMESTAMPADD(DAY, ?, CURRENT_TIMESTAMP) ORDER BY id LIMIT ?";
+        Map<Long, long[]> orders = new LinkedHashMap<>();   // id -> {created_at, total}
+        try (Connection con = DB.getConnection()) {
+            try (PreparedStatement ps = con.prepareStatement(orderSql)) {
+                ps.setInt(1, -days);
+                ps.setInt(2, BATCH_ORDERS);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        long created = rs.getTimestamp("created_at").toLocalDateTime().toEpochSecond(ZoneOffset.UTC);
+                        orders.put(rs.getLong("id"), new long[]{created, centavos(rs.getBigDecimal("total"))});
+                    }
+                }
+            }
+
+            Map<Long, List<Object[]>> lines = new HashMap<>();
+            List<Long> ids = new ArrayList<>(orders.keySet());
+            for (int from = 0; from < ids.size(); from += IN_CHUNK) {
+                List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + IN_CHUNK));
+                String sql = "SELECT order_id, item_code, quantity, line_total FROM order_items WHERE order_id IN ("
+                        + placeholders(chunk.size()) + ") ORDER BY id";
+                try (PreparedStatement ps = con.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) ps.setLong(i + 1, chunk.get(i));
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            lines.computeIfAbsent(rs.getLong("order_id"), k -> new ArrayList<>()).add(new Object[]{
+                                    rs.getString("item_code"), rs.getInt("quantity"), centavos(rs.getBigDecimal("line_total"))});
+                        }
+                    }
+                }
+            }
+
+            List<ArchiveSegment.Row> rows = new ArrayList<>(orders.size());
+            orders.forEach((id, o) -> {
+                List<String> codes = new ArrayList<>();
+                List<Integer> quantities = new ArrayList<>();
+                List<Long> totals = new ArrayList<>();
+                for (Object[] line : lines.getOrDefault(id, List.of())) {
+                    codes.add((String) line[0]);
+                    quantities.add((Integer) line[1]);
+                    totals.add((Long) line[2]);
+                }
+                rows.add(new ArchiveSegment.Row(id, o[0], o[1], codes, quantities, totals));
+            });
+            return rows;
+        }
+    }
+
+    private static void deleteOrders(List<Long> ids) throws SQLException {
+        try (Connection con = DB.getConnection()) {
+            OrderStatusLog.ensureTable(con);
+            con.setAutoCommit(false);
+            for (int from = 0; from < ids.size(); from += IN_CHUNK) {
+                List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + IN_CHUNK));
+                // Items are deleted explicitly too, for databases created without the cascading foreign key.
+                for (String table : new String[]{"order_items", "order_status_log"}) {
+                    try (PreparedStatement ps = con.prepareStatement(
+                            "DELETE FROM " + table + " WHERE order_id IN (" + placeholders(chunk.size()) + ")")) {
+                        for (int i = 0; i < chunk.size(); i++) ps.setLong(i + 1, chunk.get(i));
+                        ps.executeUpdate();
+                    }
+                }
+                try (PreparedStatement ps = con.prepareStatement(
+                        "DELETE FROM orders WHERE id IN (" + placeholders(chunk.size()) + ")")) {
+                    for (int i = 0; i < chunk.size(); i++) ps.setLong(i + 1, chunk.get(i));
+                    ps.executeUpdate();
+                }
+            }
+            con.commit();
+        }
+    }
+
+    private static List<Long> ids(List<ArchiveSegment.Row> rows) {
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (ArchiveSegment.Row r : rows) ids.add(r.orderId);
+        return ids;
+    }
+
+    private static String placeholders(int n) {
+        StringBuilder sb = new StringBuilder(n * 2);
+        for (int i = 0; i < n; i++) sb.append(i == 0 ? "?" : ",?");
+        return sb.toString();
+    }
+
+    private static long centavos(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+}
@@ -0,0 +1,91 @@
+package app.db;
+
+import app.model.Order;
+import app.model.OrderItem;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Compact binary form of an order with its lines, for local files that hold whole orders
+ * (queue overflow). Amounts are written as plain decimal strings so nothing is rounded.
+ */
+final class OrderCodec {
+
+    private OrderCodec() {}
+
+    static void write(DataOutput out, Order order) throws IOException {
+        out.writeInt(order.getId() == null ? 0 : order.getId());
+        writeString(out, order.getCode());
+        writeString(out, order.getCustomerName());
+        writeString(out, order.getStatus());
+        writeDecimal(out, order.getSubtotal());
+        writeDecimal(out, order.getTax());
+        writeDecimal(out, order.getTotal());
+        out.writeBoolean(order.isPaid());
+        out.writeLong(order.getCreatedAt() == null ? -1 : order.getCreatedAt().getTime());
+        writeString(out, order.getAssignedTo());
+        writeString(out, order.getRequestId());
+
+        out.writeShort(order.getItems().size());
+        for (OrderItem item : order.getItems()) {
+            writeString(out, item.getItemCode());
+            writeString(out, item.getItemName());
+            writeString(out, item.getOptionsLabel());
+            out.writeInt(item.getQuantity());
+            writeDecimal(out, item.getUnitPrice());
+            writeDecimal(out, item.getLineTotal());
+        }
+    }
+
+    static Order read(DataInput in) throws IOException {
+        Order order = new Order();
+        int id = in.readInt();
+        order.setId(id == 0 ? null : id);
+        order.setCode(readString(in));
+        order.setCustomerName(readString(in));
+        order.setStatus(readString(in));
+        order.setSubtotal(readDecimal(in));
+        order.setTax(readDecimal(in));
+        order.setTotal(readDecimal(in));
+        order.setPaid(in.readBoolean());
+        long created = in.readLong();
+        order.setCreatedAt(created < 0 ? null : new Date(created));
+        order.setAssignedTo(readString(in));
+        order.setRequestId(readString(in));
+
+        int lines = in.readUnsignedShort();
+        for (int i = 0; i < lines; i++) {
+            OrderItem item = new OrderItem();
+            item.setItemCode(readString(in));
+            item.setItemName(readString(in));
+            item.setOptionsLabel(readString(in));
+            item.setQuantity(in.readInt());
+            item.setUnitPrice(readDecimal(in));
+            item.setLineTotal(readDecimal(in));
+            order.addItem(item);
+        }
+        return order;
+    }
+
+    private static void writeString(DataOutput out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) out.writeUTF(s);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeDecimal(DataOutput out, BigDecimal d) throws IOException {
+        writeString(out, d == null ? null : d.toPlainString());
+    }
+
+    private static BigDecimal readDecimal(DataInput in) throws IOException {
+        String s = readString(in);
+        return s == null ? null : new BigDecimal(s);
+    }
+}
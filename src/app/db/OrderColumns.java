@@ -0,0 +1,93 @@
+package app.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Columns added to orders after the original schema (see docs/database.sql), created on
+ * databases set up before them:
+ *  - assigned_to: barista station that claimed the order ({@link StationDispatcher})
+ *  - claimed_at: when assigned_to was last set, so a claim left behind can be taken over;
+ *    existing claims have none
+ *  - updated_at: ON UPDATE CURRENT_TIMESTAMP(3), so every write to the order moves it and
+ *    readers can fetch just what changed (OrderDAO.loadOrderChanges); existing rows get the
+ *    time the column is added, and a column created without the ON UPDATE clause gets it
+ *  - request_id: the client's idempotency key for the insert (OrderDAO.insertOrderWithItems),
+ *    unique; existing rows have none
+ */
+final class OrderColumns {
+
+    private static final String UPDATED_AT = "DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3)";
+
+    private static volatile boolean checked;
+
+    private OrderColumns() {}
+
+    /**
+     * Adds whatever is missing; checked once per process. Call it before opening a transaction,
+     * since MySQL commits implicitly on DDL.
+     */
+    static void ensure(Connection con) throws SQLException {
+        if (checked) return;
+        Set<String> present = new HashSet<>();
+        try (PreparedStatement ps = con.prepareStatement("SELECT * FROM orders WHERE 1 = 0");
+             ResultSet rs = ps.executeQuery()) {
+            ResultSetMetaData md = rs.getMetaData();
+            for (int i = 1; i <= md.getColumnCount(); i++) {
+                present.add(md.getColumnName(i).toLowerCase(Locale.ROOT));
+            }
+        }
+        if (!present.contains("assigned_to")) {
+            execute(con, "ALTER TABLE orders ADD COLUMN assigned_to VARCHAR(50) NULL");
+            execute(con, "CREATE INDEX status_assigned ON orders (status, assigned_to)");
+            System.err.println("[OrderColumns] Added orders.assigned_to");
+        }
+        if (!present.contains("claimed_at")) {
+            execute(con, "ALTER TABLE orders ADD COLUMN claimed_at DATETIME(3) NULL");
+            System.err.println("[OrderColumns] Added orders.claimed_at");
+        }
+        if (!present.contains("updated_at")) {
+            execute(con, "ALTER TABLE orders ADD COLUMN updated_at " + UPDATED_AT);
+            execute(con, "CREATE INDEX updated_at ON orders (updated_at)");
+            System.err.println("[OrderColumns] Added orders.updated_at");
+        } else if (updatedAtNeedsOnUpdate(con)) {
+            execute(con, "ALTER TABLE orders MODIFY updated_at " + UPDATED_AT);
+            System.err.println("[OrderColumns] orders.updated_at now stamps itself on update");
+        }
+        if (!present.contains("request_id")) {
+            execute(con, "ALTER TABLE orders ADD COLUMN request_id VARCHAR(36) NULL");
+            execute(con, "CREATE UNIQUE INDEX request_id ON orders (request_id)");
+            System.err.println("[OrderColumns] Added orders.request_id");
+        }
+        checked = true;
+    }
+
+    /**
+     * True when MySQL/MariaDB report orders.updated_at without its ON UPDATE clause. Databases
+     * without information_schema.COLUMNS.EXTRA (H2 in the benchmarks) are left as they are.
+     */
+    private static boolean updatedAtNeedsOnUpdate(Connection con) {
+        String sql = "SELECT EXTRA FROM information_schema.COLUMNS"
+                + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'orders' AND COLUMN_NAME = 'updated_at'";
+        try (PreparedStatement ps = con.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            if (!rs.next()) return false;
+            String extra = rs.getString(1);
+            return extra == null || !extra.toLowerCase(Locale.ROOT).contains("on update");
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    private static void execute(Connection con, String sql) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.executeUpdate();
+        }
+    }
+}
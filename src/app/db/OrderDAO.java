@@ -1,60 +1,118 @@
 package app.db;
 
 import app.model.Order;
+import app.model.OrderChanges;
 import app.model.OrderItem;
+import app.util.Metrics;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * Expects tables:
- *  - orders(id PK AUTO, code, customer_name, status, subtotal, tax, total, paid, created_at)
+ *  - orders(id PK AUTO, code, customer_name, status, subtotal, tax, total, paid, created_at, assigned_to, claimed_at, updated_at, request_id)
  *  - order_items(id PK AUTO, order_id FK -> orders.id, item_code, item_name, options, quantity, unit_price, line_total)
- * Status values follow PENDING / IN_PROGRESS / COMPLETED.
+ *  - order_status_log(id PK AUTO, order_id FK -> orders.id, status, changed_at), created if missing
+ * Status values follow PENDING / IN_PROGRESS / COMPLETED. Columns and tables added after the
+ * original schema are created if missing (OrderColumns, OrderStatusLog). orders.updated_at is
+ * ON UPDATE CURRENT_TIMESTAMP(3), so any write to an orders row moves it, and
+ * {@link #loadOrderChanges} reads changes by it. The writers below still set it themselves,
+ * which also covers an edit that only changes the lines and leaves the orders row as it was.
  */
 public class OrderDAO {
 
+    /** How far loadOrderChanges reads back past its watermark, see there. */
+    public static final long CHANGE_LOOKBACK_MILLIS = 5_000;
+    private static final int IDS_PER_STATEMENT = 500;
+
+    /**
+     * Saves a new order with its lines and sets its id. With -Ddb.groupCommit=true the write is
+     * handed to the {@link GroupCommitWriter} and shares a transaction with the checkouts that
+     * arrive alongside it; this call still returns only once that transaction committed.
+     *
+     * The order is given a request id (a random UUID) unless it has one, and keeps it, so saving
+     * the same Order object again is idempotent: the unique orders.request_id turns the second
+     * insert into a lookup of the first. That is what lets a transient connection failure be
+     * retried here (DbRetry) and a failed checkout be retried later without doubling the order.
+     * On failure the id is left null.
+     */
     public Order insertOrderWithItems(Order order) throws Exception {
-        String orderSql = "INSERT INTO orders (code, customer_name, status, subtotal, tax, total, paid, created_at) VALUES (?,?,?,?,?,?,?,NOW())";
-        String itemSql = "INSERT INTO order_items (order_id, item_code, item_name, options, quantity, unit_price, line_total) VALUES (?,?,?,?,?,?,?)";
+        if (order.getRequestId() == null) order.setRequestId(UUID.randomUUID().toString());
+        return DbRetry.call("OrderDAO.insertOrderWithItems", () -> {
+            GroupCommitWriter writer = GroupCommitWriter.shared();
+            Integer grouped = writer == null ? null : writer.await(writer.submit(order));
+            if (grouped != null) {
+                order.setId(grouped);
+                return order;
+            }
 
-        try (Connection con = DB.getConnection()) {
-            con.setAutoCommit(false);
+            try (Connection con = DB.getConnection()) {
+                OrderColumns.ensure(con);
+                con.setAutoCommit(false);
+                Integer id = insertRows(con, order);
+                con.commit();
+                order.setId(id);
+                SalesTimeSeries.shared().orderSaved();
+                return order;
+            } catch (Exception ex) {
+                order.setId(null);
+                throw ex;
+            }
+        });
+    }
 
-            try (PreparedStatement ps = con.prepareStatement(orderSql, Statement.RETURN_GENERATED_KEYS)) {
-                ps.setString(1, order.getCode());
-                ps.setString(2, order.getCustomerName());
-                ps.setString(3, order.getStatus());
-                ps.setBigDecimal(4, order.getSubtotal());
-                ps.setBigDecimal(5, order.getTax());
-                ps.setBigDecimal(6, order.getTotal());
-                ps.setBoolean(7, order.isPaid());
-                ps.executeUpdate();
+    /**
+     * The INSERTs of insertOrderWithItems, inside the caller's transaction; returns the order's
+     * id without setting it, as the group-commit writer must not touch its caller's Order. An
+     * order whose request id is already stored was saved before (its reply lost, or a retried
+     * checkout): that row's id is returned and nothing is written.
+     */
+    Integer insertRows(Connection con, Order order) throws SQLException {
+        Integer id = null;
+        String orderSql = "INSERT INTO orders (code, customer_name, status, subtotal, tax, total, paid, created_at, updated_at, request_id) VALUES (?,?,?,?,?,?,?,NOW(),CURRENT_TIMESTAMP(3),?)";
+        try (PreparedStatement ps = con.prepareStatement(orderSql, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, order.getCode());
+            ps.setString(2, order.getCustomerName());
+            ps.setString(3, order.getStatus());
+            ps.setBigDecimal(4, order.getSubtotal());
+            ps.setBigDecimal(5, order.getTax());
+            ps.setBigDecimal(6, order.getTotal());
+            ps.setBoolean(7, order.isPaid());
+            ps.setString(8, order.getRequestId());
+            ps.executeUpdate();
 
-                try (ResultSet keys = ps.getGeneratedKeys()) {
-                    if (keys.next()) {
-                        order.setId(keys.getInt(1));
-                    }
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (keys.next()) {
+                    id = keys.getInt(1);
                 }
             }
+        } catch (SQLException ex) {
+            // 23xxx: a unique key. The code's unique too, so only a stored request id is a replay.
+            Integer saved = ex.getSQLState() != null && ex.getSQLState().startsWith("23")
+                    ? findIdByRequestId(con, order.getRequestId()) : null;
+            if (saved == null) throw ex;
+            Metrics.increment("OrderDAO.insertOrderWithItems.replayed");
+            return saved;
+        }
 
-            try (PreparedStatement psItem = con.prepareStatement(itemSql)) {
-                for (OrderItem item : order.getItems()) {
-                    psItem.setInt(1, order.getId());
-                    psItem.setString(2, item.getItemCode());
-                    psItem.setString(3, item.getItemName());
-                    psItem.setString(4, item.getOptionsLabel());
-                    psItem.setInt(5, item.getQuantity());
-                    psItem.setBigDecimal(6, item.getUnitPrice());
-                    psItem.setBigDecimal(7, item.getLineTotal());
-                    psItem.addBatch();
-                }
-                psItem.executeBatch();
-            }
+        OrderItemInserts.insert(con, id, order.getItems());
+        return id;
+    }
 
-            con.commit();
-            return order;
+    private static Integer findIdByRequestId(Connection con, String requestId) throws SQLException {
+        if (requestId == null) return null;
+        try (PreparedStatement ps = con.prepareStatement("SELECT id FROM orders WHERE request_id = ?")) {
+            ps.setString(1, requestId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
         }
     }
 
@@ -66,26 +124,232 @@ public class OrderDAO {
         updateStatus(orderId, "IN_PROGRESS", false);
     }
 
+    /**
+     * Sets the status and logs the transition (order_status_log) in one transaction. Setting the
+     * status an order already has is a no-op, so repeated clicks don't add log rows, and a
+     * transient connection failure is retried (DbRetry).
+     */
     private void updateStatus(int orderId, String status, boolean paid) throws Exception {
-        String sql = "UPDATE orders SET status = ?, paid = ? WHERE id = ?";
-        try (Connection con = DB.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+        DbRetry.run("OrderDAO.updateStatus", () -> writeStatus(orderId, status, paid));
+    }
 
-            ps.setString(1, status);
-            ps.setBoolean(2, paid);
-            ps.setInt(3, orderId);
-            ps.executeUpdate();
+    private void writeStatus(int orderId, String status, boolean paid) throws Exception {
+        String sql = "UPDATE orders SET status = ?, paid = ?, updated_at = CURRENT_TIMESTAMP(3) WHERE id = ? AND status <> ?";
+        try (Connection con = DB.getConnection()) {
+            OrderColumns.ensure(con);
+            OrderStatusLog.ensureTable(con);
+            con.setAutoCommit(false);
+
+            int changed;
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                ps.setString(1, status);
+                ps.setBoolean(2, paid);
+                ps.setInt(3, orderId);
+                ps.setString(4, status);
+                changed = ps.executeUpdate();
+            }
+            if (changed > 0) {
+                OrderStatusLog.record(con, orderId, status);
+            }
+
+            con.commit();
+        }
+    }
+
+    // -------------------- Station claims (StationDispatcher) --------------------
+    // Each call is one conditional UPDATE: the WHERE clause holds the status/assignee the caller
+    // expects, so of two stations racing for the same order exactly one gets the row.
+
+    /** Claims an unassigned PENDING order for {@code station}; false if someone else got it first. */
+    public boolean claimOrder(int orderId, String station) throws Exception {
+        return compareAndSet(
+                "UPDATE orders SET assigned_to = ?, claimed_at = CURRENT_TIMESTAMP(3), updated_at = CURRENT_TIMESTAMP(3) WHERE id = ? AND status = 'PENDING' AND assigned_to IS NULL",
+                orderId, null, station, orderId);
+    }
+
+    /** Moves a PENDING order from {@code fromStation}'s backlog to {@code toStation}. */
+    public boolean stealOrder(int orderId, String fromStation, String toStation) throws Exception {
+        return compareAndSet(
+                "UPDATE orders SET assigned_to = ?, claimed_at = CURRENT_TIMESTAMP(3), updated_at = CURRENT_TIMESTAMP(3) WHERE id = ? AND status = 'PENDING' AND assigned_to = ?",
+                orderId, null, toStation, orderId, fromStation);
+    }
+
+    /**
+     * {@link #stealOrder}, but only if {@code fromStation} claimed the order more than
+     * {@code minAgeSeconds} ago (by the database clock). Claims from before claimed_at existed
+     * count as old.
+     */
+    public boolean takeOverStaleClaim(int orderId, String fromStation, String toStation, int minAgeSeconds) throws Exception {
+        return compareAndSet(
+                "UPDATE orders SET assigned_to = ?, claimed_at = CURRENT_TIMESTAMP(3), updated_at = CURRENT_TIMESTAMP(3) WHERE id = ? AND status = 'PENDING' AND assigned_to = ?"
+                        + " AND (claimed_at IS NULL OR claimed_at < TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP(3)))",
+                orderId, null, toStation, orderId, fromStation, -minAgeSeconds);
+    }
+
+    /**
+     * Gives all of {@code station}'s PENDING claims back to the shared queue; IN_PROGRESS orders
+     * stay with it. Returns how many were released.
+     */
+    public int releaseClaims(String station) throws SQLException {
+        try (Connection con = DB.getConnection()) {
+            OrderColumns.ensure(con);
+            try (PreparedStatement ps = con.prepareStatement(
+                    "UPDATE orders SET assigned_to = NULL, claimed_at = NULL, updated_at = CURRENT_TIMESTAMP(3) WHERE status = 'PENDING' AND assigned_to = ?")) {
+                ps.setString(1, station);
+                return ps.executeUpdate();
+            }
+        }
+    }
+
+    /** PENDING to IN_PROGRESS, only while the order is still claimed by {@code station}. */
+    public boolean startClaimedOrder(int orderId, String station) throws Exception {
+        return compareAndSet(
+                "UPDATE orders SET status = 'IN_PROGRESS', updated_at = CURRENT_TIMESTAMP(3) WHERE id = ? AND assigned_to = ? AND status = 'PENDING'",
+                orderId, "IN_PROGRESS", orderId, station);
+    }
+
+    /** Marks a claimed order COMPLETED/paid; false if it was served already or taken over. */
+    public boolean completeClaimedOrder(int orderId, String station) throws Exception {
+        return compareAndSet(
+                "UPDATE orders SET status = 'COMPLETED', paid = ?, updated_at = CURRENT_TIMESTAMP(3) WHERE id = ? AND assigned_to = ? AND status IN ('PENDING','IN_PROGRESS')",
+                orderId, "COMPLETED", true, orderId, station);
+    }
+
+    /**
+     * Runs one guarded UPDATE of order {@code orderId} with {@code params} bound in order and, if
+     * it matched, logs {@code loggedStatus} (when not null) in the same transaction.
+     */
+    private boolean compareAndSet(String sql, int orderId, String loggedStatus, Object... params) throws SQLException {
+        try (Connection con = DB.getConnection()) {
+            OrderColumns.ensure(con);
+            OrderStatusLog.ensureTable(con);
+            con.setAutoCommit(false);
+
+            int changed;
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    ps.setObject(i + 1, params[i]);
+                }
+                changed = ps.executeUpdate();
+            }
+            if (changed > 0 && loggedStatus != null) {
+                OrderStatusLog.record(con, orderId, loggedStatus);
+            }
+
+            con.commit();
+            return changed > 0;
+        }
+    }
+
+    // -------------------- Bulk status changes --------------------
+
+    /** What {@link #transitionStatuses} did with one order. */
+    public enum Transition {
+        CHANGED,
+        /** Already had the target status and is not another station's; nothing written. */
+        ALREADY,
+        /** Its status is not one the change may start from (e.g. served meanwhile). */
+        NOT_ALLOWED,
+        /** Held by another station, whatever its status. */
+        CLAIMED_ELSEWHERE,
+        MISSING
+    }
+
+    /**
+     * Moves many orders to {@code status} in one transaction, each only from one of the
+     * {@code from} statuses and, when {@code station} is not null, only while unassigned (it is
+     * then claimed for the station) or held by that station. COMPLETED also marks them paid.
+     *
+     * The rows are locked and read first, which gives every order its outcome; the eligible ones
+     * are then changed by a single UPDATE (guards repeated in its WHERE) and logged in one batch.
+     * Returns the outcome per id, in the order given.
+     */
+    public Map<Integer, Transition> transitionStatuses(List<Integer> orderIds, String status, Set<String> from,
+                                                       String station) throws Exception {
+        Map<Integer, Transition> outcomes = new LinkedHashMap<>();
+        for (Integer id : orderIds) outcomes.put(id, Transition.MISSING);
+        if (orderIds.isEmpty()) return outcomes;
+
+        try (Connection con = DB.getConnection()) {
+            OrderColumns.ensure(con);
+            OrderStatusLog.ensureTable(con);
+            con.setAutoCommit(false);
+            try {
+                List<Integer> ids = new ArrayList<>(outcomes.keySet());
+                for (int start = 0; start < ids.size(); start += IDS_PER_STATEMENT) {
+                    List<Integer> chunk = ids.subList(start, Math.min(ids.size(), start + IDS_PER_STATEMENT));
+                    transitionChunk(con, chunk, status, from, station, outcomes);
+                }
+                con.commit();
+            } catch (SQLException ex) {
+                con.rollback();
+                throw ex;
+            }
+        }
+        Metrics.add("OrderDAO.transitionStatuses.orders", orderIds.size());
+        return outcomes;
+    }
+
+    private static void transitionChunk(Connection con, List<Integer> ids, String status, Set<String> from,
+                                        String station, Map<Integer, Transition> outcomes) throws SQLException {
+        String idList = placeholders(ids.size());
+        List<Integer> eligible = new ArrayList<>();
+        try (PreparedStatement ps = con.prepareStatement(
+                "SELECT id, status, assigned_to FROM orders WHERE id IN (" + idList + ") FOR UPDATE")) {
+            for (int i = 0; i < ids.size(); i++) ps.setInt(i + 1, ids.get(i));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int id = rs.getInt("id");
+                    String current = rs.getString("status");
+                    String assignee = rs.getString("assigned_to");
+                    Transition outcome;
+                    // Ownership first: another station's order is never this station's success,
+                    // even when it already has the target status.
+                    if (station != null && assignee != null && !station.equals(assignee)) outcome = Transition.CLAIMED_ELSEWHERE;
+                    else if (status.equals(current)) outcome = Transition.ALREADY;
+                    else if (!from.contains(current)) outcome = Transition.NOT_ALLOWED;
+                    else outcome = Transition.CHANGED;
+                    outcomes.put(id, outcome);
+                    if (outcome == Transition.CHANGED) eligible.add(id);
+                }
+            }
+        }
+        if (eligible.isEmpty()) return;
+
+        String sql = "UPDATE orders SET status = ?, updated_at = CURRENT_TIMESTAMP(3)"
+                + ("COMPLETED".equals(status) ? ", paid = TRUE" : "")
+                + (station != null ? ", assigned_to = COALESCE(assigned_to, ?)" : "")
+                + " WHERE id IN (" + placeholders(eligible.size()) + ")"
+                + " AND status IN (" + placeholders(from.size()) + ")"
+                + (station != null ? " AND (assigned_to IS NULL OR assigned_to = ?)" : "");
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            int p = 1;
+            ps.setString(p++, status);
+            if (station != null) ps.setString(p++, station);
+            for (int id : eligible) ps.setInt(p++, id);
+            for (String s : from) ps.setString(p++, s);
+            if (station != null) ps.setString(p++, station);
+            int changed = ps.executeUpdate();
+            // The rows are locked, so the guards cannot have moved since the read.
+            if (changed != eligible.size()) {
+                throw new SQLException("Bulk status change matched " + changed + " of " + eligible.size() + " locked orders");
+            }
         }
+        OrderStatusLog.recordAll(con, eligible, status);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
     }
 
     public void updateOrderWithItems(Order order) throws Exception {
         if (order.getId() == null) throw new IllegalArgumentException("Order id is required for update");
 
-        String orderSql = "UPDATE orders SET customer_name = ?, status = ?, subtotal = ?, tax = ?, total = ?, paid = ? WHERE id = ?";
+        String orderSql = "UPDATE orders SET customer_name = ?, status = ?, subtotal = ?, tax = ?, total = ?, paid = ?, updated_at = CURRENT_TIMESTAMP(3) WHERE id = ?";
         String deleteItems = "DELETE FROM order_items WHERE order_id = ?";
-        String itemSql = "INSERT INTO order_items (order_id, item_code, item_name, options, quantity, unit_price, line_total) VALUES (?,?,?,?,?,?,?)";
 
         try (Connection con = DB.getConnection()) {
+            OrderColumns.ensure(con);
             con.setAutoCommit(false);
 
             try (PreparedStatement ps = con.prepareStatement(orderSql)) {
@@ -104,34 +368,23 @@ public class OrderDAO {
                 del.executeUpdate();
             }
 
-            try (PreparedStatement psItem = con.prepareStatement(itemSql)) {
-                for (OrderItem item : order.getItems()) {
-                    psItem.setInt(1, order.getId());
-                    psItem.setString(2, item.getItemCode());
-                    psItem.setString(3, item.getItemName());
-                    psItem.setString(4, item.getOptionsLabel());
-                    psItem.setInt(5, item.getQuantity());
-                    psItem.setBigDecimal(6, item.getUnitPrice());
-                    psItem.setBigDecimal(7, item.getLineTotal());
-                    psItem.addBatch();
-                }
-                psItem.executeBatch();
-            }
+            OrderItemInserts.insert(con, order.getId(), order.getItems());
 
             con.commit();
         }
     }
 
     public List<Order> loadActiveOrders(int limit) throws Exception {
-        String sql = "SELECT id, code, customer_name, status, subtotal, tax, total, paid, created_at FROM orders WHERE status IN ('PENDING','IN_PROGRESS') ORDER BY created_at ASC LIMIT ?";
+        String sql = "SELECT id, code, customer_name, status, subtotal, tax, total, paid, created_at, assigned_to FROM orders WHERE status IN ('PENDING','IN_PROGRESS') ORDER BY created_at ASC, id ASC LIMIT ?";
         List<Order> out = new ArrayList<>();
-        try (Connection con = DB.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
-
-            ps.setInt(1, limit);
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    out.add(mapOrder(rs));
+        try (Connection con = DB.getConnection()) {
+            OrderColumns.ensure(con);
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                ps.setInt(1, limit);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        out.add(mapOrder(rs));
+                    }
                 }
             }
         }
@@ -142,22 +395,133 @@ public class OrderDAO {
         return out;
     }
 
+    /**
+     * Active orders after the first {@code offset} (same order as loadActiveOrders), without
+     * their lines: what a queue spilling past its hot window needs to remember them.
+     */
+    public List<Order> loadActiveOrderHeaders(int offset) throws Exception {
+        String sql = "SELECT id, code, customer_name, status, subtotal, tax, total, paid, created_at, assigned_to FROM orders WHERE status IN ('PENDING','IN_PROGRESS') ORDER BY created_at ASC, id ASC LIMIT ? OFFSET ?";
+        List<Order> out = new ArrayList<>();
+        try (Connection con = DB.getConnection()) {
+            OrderColumns.ensure(con);
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                ps.setInt(1, Integer.MAX_VALUE);
+                ps.setInt(2, Math.max(0, offset));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        out.add(mapOrder(rs));
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * The given orders with their lines, in the order of {@code ids}; orders that are no longer
+     * active (served meanwhile) are left out.
+     */
+    public List<Order> loadActiveOrdersByIds(List<Integer> ids) throws Exception {
+        List<Order> out = new ArrayList<>();
+        if (ids.isEmpty()) return out;
+        String sql = "SELECT id, code, customer_name, status, subtotal, tax, total, paid, created_at, assigned_to FROM orders WHERE status IN ('PENDING','IN_PROGRESS') AND id IN ("
+                + String.join(",", Collections.nCopies(ids.size(), "?")) + ")";
+        Map<Integer, Order> byId = new HashMap<>();
+        try (Connection con = DB.getConnection()) {
+            OrderColumns.ensure(con);
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                for (int i = 0; i < ids.size(); i++) ps.setInt(i + 1, ids.get(i));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Order order = mapOrder(rs);
+                        byId.put(order.getId(), order);
+                    }
+                }
+            }
+        }
+
+        for (Integer id : ids) {
+            Order order = byId.get(id);
+            if (order == null) continue;
+            order.getItems().addAll(loadItems(order.getId()));
+            out.add(order);
+        }
+        return out;
+    }
+
+    /** Latest updated_at over all orders (epoch millis, 0 on an empty table): where a full load starts watching from. */
+    public long loadChangeWatermark() throws Exception {
+        try (Connection con = DB.getConnection()) {
+            OrderColumns.ensure(con);
+            try (PreparedStatement ps = con.prepareStatement("SELECT MAX(updated_at) FROM orders");
+                 ResultSet rs = ps.executeQuery()) {
+                Timestamp max = rs.next() ? rs.getTimestamp(1) : null;
+                return max == null ? 0L : max.getTime();
+            }
+        }
+    }
+
+    /**
+     * Orders written since {@code watermark} (from loadChangeWatermark or a previous call): the
+     * ones still PENDING/IN_PROGRESS with their lines, plus tombstones (ids) for the ones that
+     * left those states. The result carries the watermark for the next call.
+     *
+     * A row is stamped when its transaction writes it but only seen once it commits, so it can
+     * turn up with a time just below a watermark already handed out. While the watermark is
+     * within CHANGE_LOOKBACK_MILLIS of the database clock, that last stretch is therefore read
+     * again; callers apply changes by id, so seeing one twice is harmless.
+     */
+    public OrderChanges loadOrderChanges(long watermark) throws Exception {
+        String sql = "SELECT id, code, customer_name, status, subtotal, tax, total, paid, created_at, assigned_to, updated_at FROM orders WHERE updated_at > ? ORDER BY updated_at ASC, id ASC";
+        OrderChanges changes = new OrderChanges();
+        changes.watermark = watermark;
+        try (Connection con = DB.getConnection()) {
+            OrderColumns.ensure(con);
+            long since = watermark;
+            try (PreparedStatement ps = con.prepareStatement("SELECT CURRENT_TIMESTAMP(3)");
+                 ResultSet rs = ps.executeQuery()) {
+                // The database clock, not ours: updated_at is stamped by it.
+                if (rs.next()) since = Math.min(watermark, rs.getTimestamp(1).getTime() - CHANGE_LOOKBACK_MILLIS);
+            }
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                ps.setTimestamp(1, new Timestamp(Math.max(0, since)));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Order order = mapOrder(rs);
+                        if ("PENDING".equals(order.getStatus()) || "IN_PROGRESS".equals(order.getStatus())) {
+                            changes.active.add(order);
+                        } else {
+                            changes.removed.add(order.getId());
+                        }
+                        changes.watermark = Math.max(changes.watermark, rs.getTimestamp("updated_at").getTime());
+                    }
+                }
+            }
+        }
+
+        for (Order order : changes.active) {
+            order.getItems().addAll(loadItems(order.getId()));
+        }
+        return changes;
+    }
+
     public List<Order> searchOrders(String customer, String orderCode, int limit) throws Exception {
         customer = customer == null ? "" : customer;
         orderCode = orderCode == null ? "" : orderCode;
-        String sql = "SELECT id, code, customer_name, status, subtotal, tax, total, paid, created_at FROM orders WHERE customer_name LIKE ? AND (? = '' OR code LIKE ?) ORDER BY created_at DESC LIMIT ?";
+        String sql = "SELECT id, code, customer_name, status, subtotal, tax, total, paid, created_at, assigned_to FROM orders WHERE customer_name LIKE ? AND (? = '' OR code LIKE ?) ORDER BY created_at DESC LIMIT ?";
         List<Order> out = new ArrayList<>();
-        try (Connection con = DB.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
-
-            ps.setString(1, "%" + customer + "%");
-            ps.setString(2, orderCode);
-            ps.setString(3, "%" + orderCode + "%");
-            ps.setInt(4, limit);
-
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    out.add(mapOrder(rs));
+        try (Connection con = DB.getConnection()) {
+            OrderColumns.ensure(con);
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                ps.setString(1, "%" + customer + "%");
+                ps.setString(2, orderCode);
+                ps.setString(3, "%" + orderCode + "%");
+                ps.setInt(4, limit);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        out.add(mapOrder(rs));
+                    }
                 }
             }
         }
@@ -195,6 +559,7 @@ public class OrderDAO {
         order.setTotal(rs.getBigDecimal("total"));
         order.setPaid(rs.getBoolean("paid"));
         order.setCreatedAt(rs.getTimestamp("created_at"));
+        order.setAssignedTo(rs.getString("assigned_to"));
         return order;
     }
 
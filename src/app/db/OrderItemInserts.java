@@ -0,0 +1,94 @@
+package app.db;
+
+import app.model.OrderItem;
+import app.util.Metrics;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Writes an order's lines to order_items in as few statements as the driver allows.
+ *
+ * A JDBC batch of single-row INSERTs is only one round trip when the driver rewrites it into a
+ * multi-row INSERT (MySQL Connector/J with rewriteBatchedStatements=true, which DB adds to MySQL
+ * URLs). Other drivers, or a MySQL URL that turns rewriting off, get the same statement built by
+ * hand: INSERT ... VALUES (...), (...), up to ROWS_PER_STATEMENT rows each.
+ *
+ * -Ddb.itemInserts=batch or =values forces one path (benchmarks compare them); the default, auto,
+ * checks the connection's driver and URL once per URL.
+ */
+final class OrderItemInserts {
+
+    static final String MODE_PROPERTY = "db.itemInserts";
+    static final int ROWS_PER_STATEMENT = 100;
+
+    private static final String INSERT = "INSERT INTO order_items (order_id, item_code, item_name, options, quantity, unit_price, line_total) VALUES ";
+    private static final String ROW = "(?,?,?,?,?,?,?)";
+
+    private static volatile String checkedUrl;
+    private static volatile boolean checkedRewrites;
+
+    private OrderItemInserts() {}
+
+    static void insert(Connection con, int orderId, List<OrderItem> items) throws SQLException {
+        if (items.isEmpty()) return;
+        if (useBatch(con)) {
+            try (PreparedStatement ps = con.prepareStatement(INSERT + ROW)) {
+                for (OrderItem item : items) {
+                    bind(ps, 1, orderId, item);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            Metrics.increment("OrderItemInserts.batch");
+            return;
+        }
+
+        for (int start = 0; start < items.size(); start += ROWS_PER_STATEMENT) {
+            List<OrderItem> chunk = items.subList(start, Math.min(items.size(), start + ROWS_PER_STATEMENT));
+            try (PreparedStatement ps = con.prepareStatement(INSERT + String.join(",", Collections.nCopies(chunk.size(), ROW)))) {
+                int p = 1;
+                for (OrderItem item : chunk) {
+                    p = bind(ps, p, orderId, item);
+                }
+                ps.executeUpdate();
+            }
+        }
+        Metrics.increment("OrderItemInserts.values");
+    }
+
+    private static boolean useBatch(Connection con) throws SQLException {
+        String mode = System.getProperty(MODE_PROPERTY, "auto");
+        if ("batch".equalsIgnoreCase(mode)) return true;
+        if ("values".equalsIgnoreCase(mode)) return false;
+        return driverRewrites(con);
+    }
+
+    /** True when the driver turns a batch of INSERTs into one multi-row INSERT. */
+    static boolean driverRewrites(Connection con) throws SQLException {
+        DatabaseMetaData meta = con.getMetaData();
+        String url = String.valueOf(meta.getURL());
+        if (url.equals(checkedUrl)) return checkedRewrites;
+
+        boolean rewrites = meta.getDriverName().contains("MySQL") && url.contains("rewriteBatchedStatements=true");
+        checkedRewrites = rewrites;
+        checkedUrl = url;
+        System.err.println("[DB] order_items inserts: " + (rewrites ? "driver-rewritten batches" : "multi-row VALUES"));
+        return rewrites;
+    }
+
+    private static int bind(PreparedStatement ps, int p, int orderId, OrderItem item) throws SQLException {
+        ps.setInt(p++, orderId);
+        ps.setString(p++, item.getItemCode());
+        ps.setString(p++, item.getItemName());
+        ps.setString(p++, item.getOptionsLabel());
+        ps.setInt(p++, item.getQuantity());
+        ps.setBigDecimal(p++, item.getUnitPrice());
+        ps.setBigDecimal(p++, item.getLineTotal());
+        return p;
+    }
+}
@@ -0,0 +1,84 @@
+package app.db;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * order_status_log(id PK AUTO, order_id FK -> orders.id, status, changed_at): one row per status
+ * change, written in the same transaction as the change itself. Together with orders.created_at
+ * it gives the wait-to-start and start-to-serve times read by {@link ServiceTimeAnalytics}.
+ */
+final class OrderStatusLog {
+
+    private static volatile boolean tableChecked;
+
+    private OrderStatusLog() {}
+
+    /**
+     * Creates the table, and the changed_at index ServiceTimeAnalytics reads by, on databases set
+     * up before them; checked once per process. Call it before opening a transaction, since MySQL
+     * commits implicitly on DDL.
+     */
+    static void ensureTable(Connection con) throws SQLException {
+        if (tableChecked) return;
+        String sql = "CREATE TABLE IF NOT EXISTS order_status_log ("
+                + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                + "order_id INT NOT NULL, "
+                + "status VARCHAR(20) NOT NULL, "
+                + "changed_at DATETIME NOT NULL, "
+                + "CONSTRAINT fk_status_log_order FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE"
+                + ")";
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.executeUpdate();
+        }
+        if (!hasChangedAtIndex(con)) {
+            try (PreparedStatement ps = con.prepareStatement("CREATE INDEX changed_at ON order_status_log (changed_at)")) {
+                ps.executeUpdate();
+            }
+            System.err.println("[OrderStatusLog] Added index order_status_log.changed_at");
+        }
+        tableChecked = true;
+    }
+
+    private static boolean hasChangedAtIndex(Connection con) throws SQLException {
+        DatabaseMetaData meta = con.getMetaData();
+        for (String table : new String[]{"order_status_log", "ORDER_STATUS_LOG"}) {
+            try (ResultSet rs = meta.getIndexInfo(con.getCatalog(), null, table, false, false)) {
+                while (rs.next()) {
+                    if ("changed_at".equalsIgnoreCase(rs.getString("COLUMN_NAME")) && rs.getShort("ORDINAL_POSITION") == 1) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Stamps with NOW() so the log uses the same clock as orders.created_at. */
+    static void record(Connection con, int orderId, String status) throws SQLException {
+        String sql = "INSERT INTO order_status_log (order_id, status, changed_at) VALUES (?, ?, NOW())";
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setInt(1, orderId);
+            ps.setString(2, status);
+            ps.executeUpdate();
+        }
+    }
+
+    /** {@link #record} for many orders moved to the same status, as one JDBC batch. */
+    static void recordAll(Connection con, List<Integer> orderIds, String status) throws SQLException {
+        if (orderIds.isEmpty()) return;
+        String sql = "INSERT INTO order_status_log (order_id, status, changed_at) VALUES (?, ?, NOW())";
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            for (int orderId : orderIds) {
+                ps.setInt(1, orderId);
+                ps.setString(2, status);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+}
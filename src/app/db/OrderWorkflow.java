@@ -0,0 +1,159 @@
+package app.db;
+
+import app.model.Order;
+import app.model.OrderItem;
+import app.model.OrderPricing;
+import app.model.OrderQueue;
+import app.util.FlightEvents;
+
+import java.util.List;
+
+/**
+ * The checkout and serve steps behind CashierPanel and BaristaPanel, without any Swing.
+ * The panels keep their dialogs and status messages; headless tools (the rush-hour
+ * simulator in bench/) drive exactly the same order, queue and DAO calls through here.
+ */
+public class OrderWorkflow {
+
+    private final OrderDAO orderDAO;
+    private final boolean persist;
+
+    /**
+     * @param persist false in preview mode: orders only move through the in-memory queue
+     */
+    public OrderWorkflow(OrderDAO orderDAO, boolean persist) {
+        this.orderDAO = orderDAO;
+        this.persist = persist;
+    }
+
+    /**
+     * Fills in what checkout owns: customer, status, paid flag, lines and totals.
+     * The order code is left alone (new codes come from the caller).
+     */
+    public static void prepareCheckout(Order order, String customerName, List<OrderItem> lines) {
+        order.setCustomerName(customerName == null || customerName.isBlank() ? "Walk-in" : customerName.trim());
+        if (order.getStatus() == null || "IN_PROGRESS".equalsIgnoreCase(order.getStatus())) {
+            order.setStatus("PENDING");
+        }
+        order.setPaid(false);
+        OrderPricing.applyLines(order, lines);
+    }
+
+    /**
+     * Saves the order (insert, or update when editing) and appends it to the queue.
+     * A DB failure does not stop the enqueue; the order is kept locally and the error reported.
+     */
+    public StepResult checkout(Order order, boolean editing, OrderQueue queue) {
+        FlightEvents.OrderTransition event = new FlightEvents.OrderTransition();
+        event.begin();
+        Exception dbError = null;
+        if (persist) {
+            try {
+                if (editing && order.getId() == null) {
+                    Integer existingId = orderDAO.findIdByCode(order.getCode());
+                    if (existingId != null) {
+                        order.setId(existingId);
+                    }
+                }
+                if (editing && order.getId() != null) {
+                    orderDAO.updateOrderWithItems(order);
+                } else {
+                    orderDAO.insertOrderWithItems(order);
+                }
+            } catch (Exception ex) {
+                dbError = ex;
+            }
+        }
+
+        // Enqueue happens here when the cashier checks out and adds a new order to FIFO.
+        // The new order becomes the tail so earlier orders remain at the head.
+        boolean accepted = queue.enqueue(order);
+        commit(event, order, editing ? "EDITED" : "NEW", order.getStatus(), persist && dbError == null);
+        return new StepResult(order, accepted, dbError);
+    }
+
+    /**
+     * Marks the head of the queue COMPLETED/paid and dequeues it.
+     * A DB failure is reported but the order still leaves the queue, as at the counter.
+     */
+    public StepResult serveHead(OrderQueue queue) {
+        Order next = queue.peek();
+        if (next == null) return new StepResult(null, false, null);
+
+        FlightEvents.OrderTransition event = new FlightEvents.OrderTransition();
+        event.begin();
+        String from = next.getStatus();
+        Exception dbError = null;
+        if (persist && next.getId() != null) {
+            try {
+                orderDAO.updateStatusToCompleted(next.getId());
+                next.setStatus("COMPLETED");
+                next.setPaid(true);
+            } catch (Exception ex) {
+                dbError = ex;
+            }
+        }
+
+        // Dequeue happens here after the barista confirms serving the next order.
+        // This removes the head of the linked-list queue (FIFO: oldest order first).
+        queue.dequeue();
+        commit(event, next, from, "COMPLETED", persist && dbError == null);
+        return new StepResult(next, true, dbError);
+    }
+
+    /**
+     * Moves a PENDING order to IN_PROGRESS. Unlike serving, a DB failure leaves the order unchanged.
+     */
+    public StepResult markInProgress(Order order) {
+        FlightEvents.OrderTransition event = new FlightEvents.OrderTransition();
+        event.begin();
+        String from = order.getStatus();
+        if (persist && order.getId() != null) {
+            try {
+                orderDAO.updateStatusToInProgress(order.getId());
+            } catch (Exception ex) {
+                return new StepResult(order, false, ex);
+            }
+        }
+        order.setStatus("IN_PROGRESS");
+        commit(event, order, from, "IN_PROGRESS", persist);
+        return new StepResult(order, true, null);
+    }
+
+    /**
+     * Emits the JFR transition event (only does work while a recording is running).
+     */
+    static void commit(FlightEvents.OrderTransition event, Order order, String from, String to, boolean saved) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.orderId = order.getId() == null ? -1 : order.getId();
+            event.code = order.getCode();
+            event.fromStatus = from;
+            event.toStatus = to;
+            event.items = order.getItems().size();
+            event.saved = saved;
+            event.commit();
+        }
+    }
+
+    public static final class StepResult {
+        public final Order order;
+        /**
+         * Checkout: the queue took the order. Serve/progress: the step went through. Station
+         * steps (StationDispatcher): false when another station holds or already served the order.
+         */
+        public final boolean accepted;
+        /** Set when the DB call failed; null when saved or when running without persistence. */
+        public final Exception dbError;
+
+        StepResult(Order order, boolean accepted, Exception dbError) {
+            this.order = order;
+            this.accepted = accepted;
+            this.dbError = dbError;
+        }
+
+        public boolean saved() {
+            return dbError == null;
+        }
+    }
+}
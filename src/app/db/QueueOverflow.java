@@ -0,0 +1,198 @@
+package app.db;
+
+import app.model.Order;
+import app.model.OrderQueue;
+import app.util.Metrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spill store for an {@link OrderQueue} past its hot window. Orders the database already holds
+ * are remembered by id only and read back with their lines when the window has room, skipping
+ * any another station served meanwhile. Orders that could not be saved (DB down, preview mode)
+ * are written whole to a local file under cache/ (-Dqueue.overflowDir) and read back from there.
+ * Both kinds keep one arrival order.
+ *
+ * {@link #pull} runs on a background thread (see OrderQueue.startRefill) while the panel keeps
+ * pushing on the EDT, so the bookkeeping is locked but the database read is not; a pull that
+ * races {@link #clear} returns nothing.
+ *
+ * On by default; -Dqueue.overflow=false brings back the MAX_SIZE limit. The hot window is
+ * -Dqueue.hotWindow (default OrderQueue.MAX_SIZE).
+ */
+public final class QueueOverflow implements OrderQueue.Spill {
+
+    public static final String ENABLED_PROPERTY = "queue.overflow";
+    public static final String DIR_PROPERTY = "queue.overflowDir";
+
+    private final OrderDAO orderDAO;
+    private final Path dir;
+    // Arrival order: a DB id (> 0), or -(file offset + 1) for an order stored in the file.
+    private final ArrayDeque<Long> entries = new ArrayDeque<>();
+    private Path path;
+    private RandomAccessFile file;
+    private long fileEnd;
+    private int inFile;
+    private long generation;   // bumped by clear
+
+    public QueueOverflow(OrderDAO orderDAO, Path dir) {
+        this.orderDAO = orderDAO;
+        this.dir = dir;
+    }
+
+    /** The configured queue (OrderQueue.configured) with overflow attached unless turned off. */
+    public static OrderQueue configuredQueue(OrderDAO orderDAO) {
+        OrderQueue queue = OrderQueue.configured();
+        if (!Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"))) return queue;
+        Path dir = Paths.get(System.getProperty(DIR_PROPERTY, "cache"));
+        return queue.spillTo(new QueueOverflow(orderDAO, dir),
+                Integer.getInteger(OrderQueue.HOT_WINDOW_PROPERTY, OrderQueue.MAX_SIZE));
+    }
+
+    @Override
+    public synchronized boolean push(Order order) {
+        try {
+            if (order.getId() != null && order.getId() > 0) {
+                entries.add((long) order.getId());
+            } else {
+                entries.add(-(append(order) + 1));
+            }
+        } catch (IOException ex) {
+            System.err.println("[QueueOverflow] Could not spill order " + order.getCode() + ": " + ex.getMessage());
+            return false;
+        }
+        Metrics.increment("QueueOverflow.spilled");
+        return true;
+    }
+
+    @Override
+    public List<Order> pull(int max) throws Exception {
+        return Metrics.timed("QueueOverflow.pull", () -> {
+            List<Long> taken = new ArrayList<>();
+            long gen;
+            synchronized (this) {
+                gen = generation;
+                for (long entry : entries) {
+                    if (taken.size() == max) break;
+                    taken.add(entry);
+                }
+            }
+
+            List<Order> out = new ArrayList<>();
+            List<Integer> ids = new ArrayList<>();
+            for (long entry : taken) {
+                if (entry > 0) {
+                    ids.add((int) entry);
+                    continue;
+                }
+                // A file entry ends the run of ids; load those first to keep arrival order.
+                out.addAll(orderDAO.loadActiveOrdersByIds(ids));
+                ids.clear();
+                synchronized (this) {
+                    if (gen != generation) return new ArrayList<Order>();
+                    out.add(read(-entry - 1));
+                }
+            }
+            out.addAll(orderDAO.loadActiveOrdersByIds(ids));
+
+            // Dropped only once everything was read, so a failed DB call leaves them spilled.
+            synchronized (this) {
+                if (gen != generation) return new ArrayList<Order>();
+                for (long entry : taken) {
+                    entries.poll();
+                    if (entry < 0) inFile--;
+                }
+                // Records are read once, so the file goes when the last one is out.
+                if (inFile == 0) dropFile();
+            }
+            return out;
+        });
+    }
+
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized List<Order> contents() throws IOException {
+        List<Order> out = new ArrayList<>(entries.size());
+        for (long entry : entries) {
+            if (entry > 0) {
+                Order header = new Order();
+                header.setId((int) entry);
+                out.add(header);
+            } else {
+                out.add(read(-entry - 1));
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        inFile = 0;
+        generation++;
+        try {
+            dropFile();
+        } catch (IOException ex) {
+            System.err.println("[QueueOverflow] Could not delete " + path + ": " + ex.getMessage());
+        }
+    }
+
+    private long append(Order order) throws IOException {
+        if (file == null) {
+            Files.createDirectories(dir);
+            path = Files.createTempFile(dir, "queue-overflow-", ".bin");
+            path.toFile().deleteOnExit();
+            file = new RandomAccessFile(path.toFile(), "rw");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0);   // record length, patched below
+            OrderCodec.write(out, order);
+        }
+        byte[] record = bytes.toByteArray();
+        int length = record.length - 4;
+        record[0] = (byte) (length >>> 24);
+        record[1] = (byte) (length >>> 16);
+        record[2] = (byte) (length >>> 8);
+        record[3] = (byte) length;
+
+        long offset = fileEnd;
+        file.seek(offset);
+        file.write(record);
+        fileEnd += record.length;
+        inFile++;
+        return offset;
+    }
+
+    private void dropFile() throws IOException {
+        if (file == null) return;
+        file.close();
+        file = null;
+        fileEnd = 0;
+        Files.deleteIfExists(path);
+    }
+
+    private Order read(long offset) throws IOException {
+        file.seek(offset);
+        byte[] record = new byte[file.readInt()];
+        file.readFully(record);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            return OrderCodec.read(in);
+        }
+    }
+}
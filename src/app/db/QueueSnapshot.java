@@ -0,0 +1,269 @@
+package app.db;
+
+import app.model.Order;
+import app.model.OrderChanges;
+import app.model.OrderQueue;
+import app.util.Metrics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local copy of a panel's order queue, so a restart shows the queue at once (and at all while
+ * the database is down) instead of waiting for a full reload.
+ *
+ * The file (cache/queue-NAME.bin, -Dqueue.snapshotDir) holds a format version, the database it
+ * came from, the change watermark the queue was last synced to (orders.updated_at, see
+ * OrderDAO.loadOrderChanges) and the queued orders: the hot window whole, spilled ones as ids.
+ * A restore reads it without touching the database; {@link #fetchDelta} then reads only the
+ * orders written since the watermark, and {@link #apply} merges them, dropping orders that left
+ * the active states. The same fetch and merge keep a running queue in sync between full loads.
+ * Snapshots of another database, of another format or older than 12 hours are ignored in
+ * favour of a full {@link #load}.
+ *
+ * Panels fetch a delta every few seconds (-Dqueue.pollSeconds, default 5) and save on a timer
+ * (-Dqueue.snapshotSeconds, default 30); an unchanged queue is not rewritten. Not thread safe: use it from the thread that owns the queue, except fetchDelta.
+ * {@link #save} encodes the queue there but writes the file on a virtual thread.
+ */
+public final class QueueSnapshot {
+
+    public static final String DIR_PROPERTY = "queue.snapshotDir";
+    public static final String INTERVAL_PROPERTY = "queue.snapshotSeconds";
+    public static final int DEFAULT_INTERVAL_SECONDS = 30;
+    public static final String POLL_PROPERTY = "queue.pollSeconds";
+    public static final int DEFAULT_POLL_SECONDS = 5;
+    private static final int MAGIC = 0x43515331;   // "CQS1"
+    private static final int FORMAT = 3;
+    private static final long MAX_AGE_MILLIS = TimeUnit.HOURS.toMillis(12);
+    private static final int IDS_PER_QUERY = 500;
+
+    private final OrderDAO orderDAO;
+    private final Path file;
+    // Written on the queue's thread, read by fetchDelta on a background one.
+    private volatile long watermark;
+    private volatile int generation;   // bumped by load, so deltas fetched before it are dropped
+    private volatile byte[] lastSaved;   // cleared by a failed write, so the next save retries
+    private long saves;                  // queue's thread
+    private long written;                // guarded by this
+
+    public QueueSnapshot(OrderDAO orderDAO, Path file) {
+        this.orderDAO = orderDAO;
+        this.file = file;
+    }
+
+    /** Snapshot named after the panel (and station), in the configured directory. */
+    public static QueueSnapshot configured(OrderDAO orderDAO, String name) {
+        String safe = name.replaceAll("[^A-Za-z0-9_-]", "_");
+        return new QueueSnapshot(orderDAO, Paths.get(System.getProperty(DIR_PROPERTY, "cache"), "queue-" + safe + ".bin"));
+    }
+
+    public static int intervalMillis() {
+        return (int) TimeUnit.SECONDS.toMillis(Math.max(1, Integer.getInteger(INTERVAL_PROPERTY, DEFAULT_INTERVAL_SECONDS)));
+    }
+
+    /** How often panels fetch a delta while running; 0 (-Dqueue.pollSeconds=0) turns polling off. */
+    public static int pollMillis() {
+        return (int) TimeUnit.SECONDS.toMillis(Math.max(0, Integer.getInteger(POLL_PROPERTY, DEFAULT_POLL_SECONDS)));
+    }
+
+    /**
+     * Full load into an empty queue: the hot window with lines, the rest as headers for the spill
+     * store. The watermark is read first, so a change racing the load comes again with the next
+     * delta.
+     * Returns the orders loaded, spilled headers included.
+     */
+    public List<Order> load(OrderQueue queue) throws Exception {
+        return Metrics.timed("QueueSnapshot.load", () -> {
+            long mark = orderDAO.loadChangeWatermark();
+            List<Order> active = orderDAO.loadActiveOrders(queue.hotWindow());
+            List<Order> loaded = new ArrayList<>(active);
+            for (Order order : active) queue.enqueue(order);
+            if (queue.spills() && active.size() >= queue.hotWindow()) {
+                // Past the hot window only ids are kept; lines are read when an order moves up.
+                for (Order header : orderDAO.loadActiveOrderHeaders(active.size())) {
+                    queue.spill(header);
+                    loaded.add(header);
+                }
+            }
+            watermark = mark;
+            generation++;
+            return loaded;
+        });
+    }
+
+    /**
+     * Fills an empty queue from the file. Returns false, leaving the queue empty, when there is
+     * no usable snapshot.
+     */
+    public boolean restore(OrderQueue queue) {
+        if (!Files.isRegularFile(file)) return false;
+        long start = System.nanoTime();
+        List<Order> hot = new ArrayList<>();
+        List<Order> spilled = new ArrayList<>();
+        long savedWatermark;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT) return false;
+            if (!String.valueOf(DB.getDataSource()).equals(in.readUTF())) return false;
+            if (System.currentTimeMillis() - in.readLong() > MAX_AGE_MILLIS) return false;
+            savedWatermark = in.readLong();
+            int hotCount = in.readInt();
+            for (int i = 0; i < hotCount; i++) hot.add(OrderCodec.read(in));
+            int spilledCount = in.readInt();
+            for (int i = 0; i < spilledCount; i++) spilled.add(OrderCodec.read(in));
+        } catch (IOException | RuntimeException ex) {
+            System.err.println("[QueueSnapshot] Ignoring " + file + ": " + ex.getMessage());
+            return false;
+        }
+
+        for (Order order : hot) queue.enqueue(order);
+        for (Order order : spilled) queue.spill(order);
+        watermark = savedWatermark;
+        generation++;
+        Metrics.timer("QueueSnapshot.restore").record(System.nanoTime() - start, true);
+        return true;
+    }
+
+    /**
+     * Orders written since the watermark: the ones still active with their lines, the rest as
+     * tombstones. Reads the database only; safe off the queue's thread.
+     */
+    public Delta fetchDelta() throws Exception {
+        int fetchedFor = generation;
+        return new Delta(fetchedFor, orderDAO.loadOrderChanges(watermark));
+    }
+
+    /**
+     * Merges a delta into the queue: tombstoned orders leave it, known orders take the fresh
+     * status and lines, new ones are appended. Returns the orders appended. A delta fetched
+     * before the last load or restore is dropped; it may predate what the queue now shows.
+     */
+    public List<Order> apply(OrderQueue queue, Delta delta) {
+        if (delta.generation != generation) return new ArrayList<>();
+        OrderChanges changes = delta.changes;
+        Map<Integer, Order> hot = new HashMap<>();
+        for (Order order : queue.traverse()) {
+            if (order.getId() != null) hot.put(order.getId(), order);
+        }
+        Set<Integer> spilled = new HashSet<>();
+        try {
+            for (Order order : queue.spilledOrders()) {
+                if (order.getId() != null) spilled.add(order.getId());
+            }
+        } catch (Exception ex) {
+            System.err.println("[QueueSnapshot] Could not list spilled orders: " + ex.getMessage());
+        }
+
+        for (Integer id : changes.removed) {
+            Order order = hot.get(id);
+            if (order != null) queue.remove(order);
+        }
+        List<Order> added = new ArrayList<>();
+        for (Order fresh : changes.active) {
+            Order current = hot.get(fresh.getId());
+            if (current != null) {
+                copy(fresh, current);
+            } else if (!spilled.contains(fresh.getId())) {
+                // Spilled orders are re-read when they move up, so only new ones are added.
+                queue.enqueue(fresh);
+                added.add(fresh);
+            }
+        }
+        watermark = Math.max(watermark, changes.watermark);
+        return added;
+    }
+
+    /**
+     * Saves the queue if it changed since the last save. The queue is encoded on the calling
+     * thread, which owns it; the file is written on a virtual thread, so the EDT never waits on
+     * the disk. Failures are logged, not thrown.
+     */
+    public void save(OrderQueue queue) {
+        byte[] content;
+        try {
+            // Watermark and orders first, so an unchanged queue can be told apart from the header.
+            ByteArrayOutputStream body = new ByteArrayOutputStream(8192);
+            try (DataOutputStream out = new DataOutputStream(body)) {
+                List<Order> hot = queue.traverse();
+                List<Order> spilled = queue.spilledOrders();
+                out.writeLong(watermark);
+                out.writeInt(hot.size());
+                for (Order order : hot) OrderCodec.write(out, order);
+                out.writeInt(spilled.size());
+                for (Order order : spilled) OrderCodec.write(out, order);
+            }
+            content = body.toByteArray();
+        } catch (Exception ex) {
+            System.err.println("[QueueSnapshot] Could not encode the queue for " + file + ": " + ex.getMessage());
+            return;
+        }
+        if (Arrays.equals(content, lastSaved)) return;
+        lastSaved = content;
+        long seq = ++saves;
+        Thread.ofVirtual().name("queue-snapshot-save").start(() -> write(content, seq));
+    }
+
+    /** Writes one encoded queue; a write that lost the race to a newer one is skipped. */
+    private synchronized void write(byte[] content, long seq) {
+        if (seq <= written) return;
+        long start = System.nanoTime();
+        try {
+            // Temp file and rename, so a crash never leaves half a snapshot.
+            Path dir = file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, "queue", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeUTF(String.valueOf(DB.getDataSource()));
+                out.writeLong(System.currentTimeMillis());
+                out.write(content);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            written = seq;
+            Metrics.timer("QueueSnapshot.save").record(System.nanoTime() - start, true);
+        } catch (Exception ex) {
+            lastSaved = null;
+            Metrics.timer("QueueSnapshot.save").record(System.nanoTime() - start, false);
+            System.err.println("[QueueSnapshot] Could not write " + file + ": " + ex.getMessage());
+        }
+    }
+
+    private static void copy(Order from, Order to) {
+        to.setCustomerName(from.getCustomerName());
+        to.setStatus(from.getStatus());
+        to.setSubtotal(from.getSubtotal());
+        to.setTax(from.getTax());
+        to.setTotal(from.getTotal());
+        to.setPaid(from.isPaid());
+        to.setAssignedTo(from.getAssignedTo());
+        to.getItems().clear();
+        to.getItems().addAll(from.getItems());
+    }
+
+    /** What changed in the database since the watermark, see {@link #fetchDelta}. */
+    public static final class Delta {
+        final int generation;
+        public final OrderChanges changes;
+
+        Delta(int generation, OrderChanges changes) {
+            this.generation = generation;
+            this.changes = changes;
+        }
+    }
+}
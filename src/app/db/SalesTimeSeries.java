@@ -0,0 +1,250 @@
+package app.db;
+
+import app.model.SalesHeatmap;
+import app.model.SalesWindow;
+import app.util.HourlySeries;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gross sales per hour ({@link HourlySeries}, centavos + order count) kept in memory for the
+ * heatmap and rolling-window queries.
+ *
+ * Built once from orders, then kept current by fetching orders created since the watermark: at
+ * most every few seconds, or at the next query after {@link #orderSaved}. An order commits a
+ * moment after its created_at is stamped, so the fetch reads back LOOKBACK_MILLIS past the
+ * watermark and skips the ids it has counted. Every time here is the database's: orders are
+ * only counted by the fetch, at their created_at, and "this hour" is this PC's clock corrected
+ * by the offset to CURRENT_TIMESTAMP seen at the last fetch. The series is written
+ * to cache/sales-hourly.bin (or -Dsales.snapshot=...) so a restart only fetches the orders
+ * placed since; a snapshot for another database, or older than a day, is rebuilt from scratch
+ * so edited totals are picked up.
+ */
+final class SalesTimeSeries {
+
+    public static final String SNAPSHOT_PROPERTY = "sales.snapshot";
+    private static final int MAGIC = 0x43534832;   // "CSH2"
+    /** Longer than a checkout takes to commit; created_at also has whole seconds only. */
+    static final long LOOKBACK_MILLIS = 10_000;
+    private static final long HOURS_PER_WEEK = 7 * 24;
+    private static final long DELTA_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final long SAVE_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(10);
+    private static final long REBUILD_AFTER_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final SalesTimeSeries SHARED = new SalesTimeSeries();
+
+    private final Path file = Paths.get(System.getProperty(SNAPSHOT_PROPERTY, "cache/sales-hourly.bin"));
+    private HourlySeries series;
+    private String sourceKey;
+    private long watermark;                                   // latest created_at fetched, database clock
+    private final Map<Long, Long> counted = new HashMap<>();  // order id -> created_at, back to the lookback
+    private long clockOffsetMillis;                           // database clock minus ours, at the last fetch
+    // Set by orderSaved on the checkout thread, so the next query fetches without waiting.
+    private volatile boolean ordersSaved;
+    private long builtAtMillis;
+    private long fetchedAtNanos;
+    private long savedAtNanos;
+    private boolean dirty;
+    private boolean hookInstalled;
+
+    private SalesTimeSeries() {}
+
+    static SalesTimeSeries shared() {
+        return SHARED;
+    }
+
+    /** Weekday x hour grid over the last {@code weeks} whole weeks, up to and including this hour. */
+    synchronized SalesHeatmap heatmap(int weeks) throws SQLException {
+        HourlySeries s = current();
+        SalesHeatmap map = new SalesHeatmap();
+        map.weeks = Math.max(weeks, 1);
+        long end = currentHour() + 1;
+        s.heatmap(end - map.weeks * HOURS_PER_WEEK, end, map.grossCentavos, map.orderCounts);
+        return map;
+    }
+
+    /** The last {@code hours} hours (this one included) and the same hours a week earlier. */
+    synchronized SalesWindow window(int hours) throws SQLException {
+        HourlySeries s = current();
+        SalesWindow w = new SalesWindow();
+        w.hours = Math.max(hours, 1);
+        long end = currentHour() + 1;
+        long start = end - w.hours;
+        w.grossCentavos = s.sum(start, end);
+        w.orderCount = s.count(start, end);
+        w.lastWeekGrossCentavos = s.sum(start - HOURS_PER_WEEK, end - HOURS_PER_WEEK);
+        w.lastWeekOrderCount = s.count(start - HOURS_PER_WEEK, end - HOURS_PER_WEEK);
+        return w;
+    }
+
+    /** The series, brought up to date first. */
+    private HourlySeries current() throws SQLException {
+        String key = String.valueOf(DB.getDataSource());
+        if (series == null || !key.equals(sourceKey)) {
+            sourceKey = key;
+            if (loadSnapshot(key)) {
+                fetchNewOrders();
+            } else {
+                rebuild();
+            }
+            installShutdownSave();
+        } else if (System.currentTimeMillis() - builtAtMillis > REBUILD_AFTER_MILLIS) {
+            rebuild();
+        }
+
+        if (ordersSaved || System.nanoTime() - fetchedAtNanos > DELTA_INTERVAL_NANOS) {
+            fetchNewOrders();
+        }
+        if (dirty && System.nanoTime() - savedAtNanos > SAVE_INTERVAL_NANOS) {
+            save();
+        }
+        return series;
+    }
+
+    /**
+     * Makes the next query fetch at once, so an order this process just committed shows without
+     * waiting for DELTA_INTERVAL_NANOS. Called on the checkout path, so it only sets a flag: the
+     * lock may be held by a rebuild. The order itself is counted by the fetch, at the created_at
+     * the database stamped.
+     */
+    void orderSaved() {
+        ordersSaved = true;
+    }
+
+    /** This hour by the database's clock, as of the offset seen at the last fetch. */
+    private long currentHour() {
+        return HourlySeries.hourOf(new Timestamp(System.currentTimeMillis() + clockOffsetMillis).toLocalDateTime());
+    }
+
+    private void rebuild() throws SQLException {
+        long start = System.nanoTime();
+        series = new HourlySeries();
+        watermark = 0;
+        counted.clear();
+        builtAtMillis = System.currentTimeMillis();
+        int rows = fetchNewOrders();
+        System.err.println("[SalesTimeSeries] Built from " + rows + " orders in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        save();
+    }
+
+    private int fetchNewOrders() throws SQLException {
+        String sql = "SELECT id, created_at, total FROM orders WHERE created_at >= ? ORDER BY created_at, id";
+        int rows = 0;
+        ordersSaved = false;
+        try (Connection con = DB.getConnection()) {
+            long from = watermark;
+            try (PreparedStatement ps = con.prepareStatement("SELECT CURRENT_TIMESTAMP");
+                 ResultSet rs = ps.executeQuery()) {
+                // The database clock, not ours: created_at is stamped by it.
+                if (rs.next()) {
+                    long now = rs.getTimestamp(1).getTime();
+                    clockOffsetMillis = now - System.currentTimeMillis();
+                    if (watermark > 0) from = Math.min(watermark, now - LOOKBACK_MILLIS);
+                }
+            }
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                ps.setTimestamp(1, new Timestamp(Math.max(0, from)));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Timestamp created = rs.getTimestamp("created_at");
+                        if (created == null) continue;
+                        watermark = Math.max(watermark, created.getTime());
+                        if (counted.putIfAbsent(rs.getLong("id"), created.getTime()) != null) continue;
+                        series.add(HourlySeries.hourOf(created.toLocalDateTime()), centavos(rs.getBigDecimal("total")), 1);
+                        rows++;
+                    }
+                }
+            }
+        }
+        // Later fetches start at most LOOKBACK_MILLIS before the watermark.
+        long keep = watermark - LOOKBACK_MILLIS;
+        counted.values().removeIf(created -> created < keep);
+        fetchedAtNanos = System.nanoTime();
+        if (rows > 0) dirty = true;
+        return rows;
+    }
+
+    private static long centavos(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private boolean loadSnapshot(String key) {
+        if (!Files.isRegularFile(file)) return false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) return false;
+            if (!key.equals(in.readUTF())) return false;
+            long mark = in.readLong();
+            long builtAt = in.readLong();
+            if (System.currentTimeMillis() - builtAt > REBUILD_AFTER_MILLIS) return false;
+            Map<Long, Long> ids = new HashMap<>();
+            int idCount = in.readInt();
+            for (int i = 0; i < idCount; i++) ids.put(in.readLong(), in.readLong());
+            series = HourlySeries.readFrom(in);
+            watermark = mark;
+            counted.clear();
+            counted.putAll(ids);
+            builtAtMillis = builtAt;
+            savedAtNanos = System.nanoTime();
+            dirty = false;
+            return true;
+        } catch (IOException ex) {
+            System.err.println("[SalesTimeSeries] Ignoring snapshot " + file + ": " + ex.getMessage());
+            return false;
+        }
+    }
+
+    /** Writes to a temp file and renames it, so a crash never leaves half a snapshot. */
+    private void save() {
+        savedAtNanos = System.nanoTime();
+        if (series == null) return;
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, "sales-hourly", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeUTF(sourceKey);
+                out.writeLong(watermark);
+                out.writeLong(builtAtMillis);
+                out.writeInt(counted.size());
+                for (Map.Entry<Long, Long> e : counted.entrySet()) {
+                    out.writeLong(e.getKey());
+                    out.writeLong(e.getValue());
+                }
+                series.writeTo(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+        } catch (IOException ex) {
+            System.err.println("[SalesTimeSeries] Could not write " + file + ": " + ex.getMessage());
+        }
+    }
+
+    private void installShutdownSave() {
+        if (hookInstalled) return;
+        hookInstalled = true;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            synchronized (this) {
+                if (dirty) save();
+            }
+        }, "sales-snapshot"));
+    }
+}
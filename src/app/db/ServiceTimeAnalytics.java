@@ -0,0 +1,253 @@
+package app.db;
+
+import app.model.ServiceTimeRow;
+import app.model.ServiceTimeStats;
+import app.util.LatencyHistogram;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Running service-time percentiles built from order_status_log.
+ *
+ * The first refresh reads the last {@code historyDays} of transitions (by the database clock);
+ * every later one only reads log rows stamped since the latest changed_at seen, so a dashboard
+ * polling during the rush costs one small indexed query instead of a scan of all history. A row
+ * can commit after rows stamped later than it were read, so while the watermark is within
+ * LOOKBACK_MILLIS of the database clock that stretch is read again, and ids already folded in
+ * are skipped. Each IN_PROGRESS row adds a
+ * wait-to-start sample (created_at to start) and each COMPLETED row that has an earlier
+ * IN_PROGRESS row adds a start-to-serve sample. An order served straight from PENDING has no
+ * start: its COMPLETED row adds created_at to completion as the wait-to-start sample, the whole
+ * time the customer waited, and no start-to-serve sample. Samples go into log-linear histograms per hour
+ * the order was placed and per menu item on the order (an order counts once for every distinct
+ * item on it).
+ */
+final class ServiceTimeAnalytics {
+
+    private static final int BATCH_ROWS = 500;
+    /** Longer than a status change takes to commit; changed_at also has whole seconds only. */
+    static final long LOOKBACK_MILLIS = 10_000;
+    private static final ServiceTimeAnalytics SHARED = new ServiceTimeAnalytics();
+
+    private Slice overall;
+    private final Slice[] byHour = new Slice[24];
+    private final Map<String, Slice> byItem = new HashMap<>();
+    private DataSource source;
+    private int historyDays;
+    private long since;
+    private long watermark;                                   // latest changed_at folded in
+    private final Map<Long, Long> folded = new HashMap<>();   // log id -> changed_at, back to the re-read bound
+    private long cursorTime;                                  // last row read in this refresh
+    private long cursorId;
+
+    private ServiceTimeAnalytics() {}
+
+    static ServiceTimeAnalytics shared() {
+        return SHARED;
+    }
+
+    /**
+     * Folds in the transitions logged since the previous call and returns the current percentiles.
+     * Starts over when the data source or the history window changes.
+     */
+    synchronized ServiceTimeStats refresh(int historyDays) throws SQLException {
+        DataSource current = DB.getDataSource();
+        try (Connection con = DB.getConnection()) {
+            OrderStatusLog.ensureTable(con);
+            long now = databaseTime(con);
+            if (current != source || historyDays != this.historyDays) {
+                reset(current, historyDays, now);
+            }
+            long from = Math.max(since, Math.min(watermark, now - LOOKBACK_MILLIS));
+            folded.values().removeIf(changed -> changed < from);
+            cursorTime = from;
+            cursorId = 0;
+            while (readBatch(con) == BATCH_ROWS) {
+                // keep going until the log is caught up
+            }
+        }
+        return snapshot();
+    }
+
+    private void reset(DataSource current, int days, long now) {
+        source = current;
+        historyDays = Math.max(days, 1);
+        since = now - TimeUnit.DAYS.toMillis(historyDays);
+        watermark = since;
+        folded.clear();
+        overall = new Slice(null);
+        for (int h = 0; h < byHour.length; h++) byHour[h] = new Slice(String.format("%02d:00", h));
+        byItem.clear();
+    }
+
+    /** The database clock, which stamps changed_at. */
+    private static long databaseTime(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT CURRENT_TIMESTAMP");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getTimestamp(1).getTime();
+        }
+    }
+
+    private int readBatch(Connection con) throws SQLException {
+        String sql = """
+            SELECT l.id, l.order_id, l.status, l.changed_at, o.created_at,
+                   (SELECT MAX(s.changed_at) FROM order_status_log s
+                     WHERE s.order_id = l.order_id AND s.status = 'IN_PROGRESS' AND s.id < l.id) AS started_at
+            FROM order_status_log l
+            JOIN orders o ON o.id = l.order_id
+            WHERE l.changed_at >= ? AND (l.changed_at > ? OR l.id > ?)
+            ORDER BY l.changed_at, l.id
+            LIMIT ?
+        """;
+
+        List<Sample> samples = new ArrayList<>();
+        int read = 0;
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setTimestamp(1, new Timestamp(cursorTime));
+            ps.setTimestamp(2, new Timestamp(cursorTime));
+            ps.setLong(3, cursorId);
+            ps.setInt(4, BATCH_ROWS);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    read++;
+                    long id = rs.getLong("id");
+                    Timestamp changed = rs.getTimestamp("changed_at");
+                    cursorTime = changed.getTime();
+                    cursorId = id;
+                    if (folded.putIfAbsent(id, cursorTime) != null) continue;
+                    watermark = Math.max(watermark, cursorTime);
+                    Timestamp created = rs.getTimestamp("created_at");
+                    Timestamp started = rs.getTimestamp("started_at");
+                    String status = rs.getString("status");
+
+                    long wait = -1;
+                    long serve = -1;
+                    if ("IN_PROGRESS".equalsIgnoreCase(status) && created != null) {
+                        wait = changed.getTime() - created.getTime();
+                    } else if ("COMPLETED".equalsIgnoreCase(status) && started != null) {
+                        serve = changed.getTime() - started.getTime();
+                    } else if ("COMPLETED".equalsIgnoreCase(status) && created != null) {
+                        wait = changed.getTime() - created.getTime();
+                    }
+                    if (wait < 0 && serve < 0) continue;
+
+                    int hour = created == null ? -1 : created.toLocalDateTime().getHour();
+                    samples.add(new Sample(rs.getInt("order_id"), hour, wait, serve));
+                }
+            }
+        }
+        if (samples.isEmpty()) return read;
+
+        Map<Integer, Map<String, String>> items = loadItems(con, samples);
+        for (Sample s : samples) {
+            overall.add(s);
+            if (s.hour >= 0) byHour[s.hour].add(s);
+            Map<String, String> onOrder = items.get(s.orderId);
+            if (onOrder == null) continue;
+            onOrder.forEach((code, name) -> {
+                Slice slice = byItem.computeIfAbsent(code, k -> new Slice(name));
+                slice.label = name;
+                slice.add(s);
+            });
+        }
+        return read;
+    }
+
+    /** Distinct item code -> name per order, for the orders in one batch. */
+    private static Map<Integer, Map<String, String>> loadItems(Connection con, List<Sample> samples) throws SQLException {
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(samples.stream().map(s -> s.orderId).toList()));
+
+        StringBuilder sql = new StringBuilder("SELECT order_id, item_code, item_name FROM order_items WHERE order_id IN (");
+        for (int i = 0; i < ids.size(); i++) sql.append(i == 0 ? "?" : ",?");
+        sql.append(")");
+
+        Map<Integer, Map<String, String>> out = new HashMap<>();
+        try (PreparedStatement ps = con.prepareStatement(sql.toString())) {
+            for (int i = 0; i < ids.size(); i++) ps.setInt(i + 1, ids.get(i));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    out.computeIfAbsent(rs.getInt("order_id"), k -> new LinkedHashMap<>())
+                            .put(rs.getString("item_code"), rs.getString("item_name"));
+                }
+            }
+        }
+        return out;
+    }
+
+    private ServiceTimeStats snapshot() {
+        ServiceTimeStats stats = new ServiceTimeStats();
+        stats.historyDays = historyDays;
+        stats.overall = overall.toRow("All orders");
+        for (Slice slice : byHour) {
+            if (slice.hasData()) stats.byHour.add(slice.toRow(slice.label));
+        }
+        List<Slice> items = new ArrayList<>(byItem.values());
+        items.sort(Comparator.comparingLong(Slice::orders).reversed());
+        for (Slice slice : items) stats.byItem.add(slice.toRow(slice.label));
+        return stats;
+    }
+
+    private static final class Sample {
+        final int orderId;
+        final int hour;
+        final long waitMillis;
+        final long serveMillis;
+
+        Sample(int orderId, int hour, long waitMillis, long serveMillis) {
+            this.orderId = orderId;
+            this.hour = hour;
+            this.waitMillis = waitMillis;
+            this.serveMillis = serveMillis;
+        }
+    }
+
+    private static final class Slice {
+        String label;
+        final LatencyHistogram wait = new LatencyHistogram();
+        final LatencyHistogram serve = new LatencyHistogram();
+
+        Slice(String label) {
+            this.label = label;
+        }
+
+        void add(Sample s) {
+            if (s.waitMillis >= 0) wait.record(s.waitMillis);
+            if (s.serveMillis >= 0) serve.record(s.serveMillis);
+        }
+
+        boolean hasData() {
+            return orders() > 0;
+        }
+
+        long orders() {
+            return Math.max(wait.count(), serve.count());
+        }
+
+        ServiceTimeRow toRow(String rowLabel) {
+            ServiceTimeRow row = new ServiceTimeRow(rowLabel);
+            row.startedCount = wait.count();
+            row.waitP50Millis = wait.percentile(50);
+            row.waitP90Millis = wait.percentile(90);
+            row.waitP99Millis = wait.percentile(99);
+            row.servedCount = serve.count();
+            row.serveP50Millis = serve.percentile(50);
+            row.serveP90Millis = serve.percentile(90);
+            row.serveP99Millis = serve.percentile(99);
+            return row;
+        }
+    }
+}
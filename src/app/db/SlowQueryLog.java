@@ -0,0 +1,95 @@
+package app.db;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Size-rotated log of slow statements: logs/slow-query.log, rolled to slow-query.log.1 .. .3 once
+ * it passes -Ddb.slowlog.kb (default 1024). Each entry carries the fingerprint, the SQL as sent,
+ * a sample of the bind parameters and the row count.
+ */
+final class SlowQueryLog {
+
+    public static final String MAX_KB_PROPERTY = "db.slowlog.kb";
+    private static final long DEFAULT_MAX_KB = 1024;
+    private static final int KEEP_FILES = 3;
+    private static final int MAX_BIND_CHARS = 64;
+
+    private static final Path FILE = Paths.get("logs", "slow-query.log");
+    private static final long maxBytes = Long.getLong(MAX_KB_PROPERTY, DEFAULT_MAX_KB) * 1024;
+    private static boolean warned;
+
+    private SlowQueryLog() {}
+
+    static synchronized void write(String fingerprint, String sql, long nanos, long rows, boolean failed, Object[] binds) {
+        StringBuilder entry = new StringBuilder(256);
+        entry.append(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .append(String.format(Locale.ROOT, "  %.1f ms  rows=%d%s  [%s]%n",
+                        nanos / 1e6, rows, failed ? "  FAILED" : "", Thread.currentThread().getName()))
+                .append("  fingerprint: ").append(fingerprint).append('\n');
+        if (!fingerprint.equals(sql)) {
+            entry.append("  sql: ").append(sql.replaceAll("\\s+", " ").trim()).append('\n');
+        }
+        if (binds != null && binds.length > 0) {
+            entry.append("  binds: ").append(formatBinds(binds)).append('\n');
+        }
+
+        try {
+            Files.createDirectories(FILE.getParent());
+            rotateIfNeeded();
+            try (Writer w = Files.newBufferedWriter(FILE, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                w.write(entry.toString());
+            }
+        } catch (IOException ex) {
+            if (!warned) {
+                warned = true;
+                System.err.println("[SlowQueryLog] Could not write " + FILE + ": " + ex.getMessage());
+            }
+        }
+    }
+
+    private static void rotateIfNeeded() throws IOException {
+        if (!Files.exists(FILE) || Files.size(FILE) < maxBytes) return;
+        for (int i = KEEP_FILES - 1; i >= 1; i--) {
+            Path from = rolled(i);
+            if (Files.exists(from)) Files.move(from, rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(FILE, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static Path rolled(int n) {
+        return FILE.resolveSibling(FILE.getFileName() + "." + n);
+    }
+
+    static String formatBinds(Object[] binds) {
+        int last = binds.length;
+        while (last > 0 && binds[last - 1] == null) last--;
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < last; i++) {
+            if (i > 0) sb.append(", ");
+            Object v = binds[i];
+            if (v == null) {
+                sb.append("NULL");
+            } else if (v instanceof byte[] bytes) {
+                sb.append("<").append(bytes.length).append(" bytes>");
+            } else if (v instanceof CharSequence || v instanceof java.util.Date) {
+                String s = v.toString();
+                if (s.length() > MAX_BIND_CHARS) s = s.substring(0, MAX_BIND_CHARS) + "...";
+                sb.append('\'').append(s).append('\'');
+            } else {
+                sb.append(v);
+            }
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,174 @@
+package app.db;
+
+import app.util.LatencyHistogram;
+import app.util.Metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-statement statistics for everything that goes through {@link DB#getConnection()}.
+ *
+ * Statements are grouped by fingerprint: the SQL with string and number literals replaced by
+ * "?", IN lists collapsed and whitespace normalized, so the same query with different values is
+ * one entry. Executions slower than -Ddb.slow.ms (default 200) also go to the
+ * {@link SlowQueryLog} together with their bind parameters.
+ */
+public final class SqlStats {
+
+    public static final String SLOW_MS_PROPERTY = "db.slow.ms";
+    private static final long DEFAULT_SLOW_MS = 200;
+    private static final int MAX_CACHED_FINGERPRINTS = 2_000;
+
+    private static final long slowNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong(SLOW_MS_PROPERTY, DEFAULT_SLOW_MS));
+    private static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private static final Map<String, String> fingerprintCache = new ConcurrentHashMap<>();
+
+    static {
+        Metrics.section("Top SQL by total time", () -> report(10));
+    }
+
+    private SqlStats() {}
+
+    static void record(String sql, long nanos, long rows, boolean failed, Object[] binds) {
+        if (sql == null) return;
+        String fingerprint = fingerprintOf(sql);
+        Entry entry = entries.computeIfAbsent(fingerprint, Entry::new);
+        entry.calls.increment();
+        entry.totalNanos.add(nanos);
+        entry.histogram.record(nanos);
+        if (rows > 0) entry.rows.add(rows);
+        if (failed) entry.errors.increment();
+        if (nanos >= slowNanos) {
+            entry.slow.increment();
+            SlowQueryLog.write(fingerprint, sql, nanos, rows, failed, binds);
+        }
+    }
+
+    private static String fingerprintOf(String sql) {
+        String cached = fingerprintCache.get(sql);
+        if (cached != null) return cached;
+        String fingerprint = fingerprint(sql);
+        // Only statements built from fixed SQL text are worth remembering; stop caching if text keeps varying.
+        if (fingerprintCache.size() < MAX_CACHED_FINGERPRINTS) fingerprintCache.put(sql, fingerprint);
+        return fingerprint;
+    }
+
+    /**
+     * SQL with literals stripped: 'text' and numbers become ?, "IN (?, ?, ?)" becomes "IN (?+)",
+     * runs of whitespace become one space. Identifiers such as order_items or v2 are left alone.
+     */
+    public static String fingerprint(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        int n = sql.length();
+        int i = 0;
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                i++;
+                while (i < n) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < n && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                i++;
+                out.append('?');
+            } else if (Character.isDigit(c) && (out.length() == 0 || !isIdentifierPart(out.charAt(out.length() - 1)))) {
+                while (i < n && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) i++;
+                out.append('?');
+            } else if (Character.isWhitespace(c)) {
+                while (i < n && Character.isWhitespace(sql.charAt(i))) i++;
+                if (out.length() > 0 && i < n) out.append(' ');
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return out.toString().replaceAll("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)", "(?+)").trim();
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '`';
+    }
+
+    /** Entries by total time spent, highest first. */
+    public static List<Entry> top(int limit) {
+        List<Entry> all = new ArrayList<>(entries.values());
+        all.sort(Comparator.comparingLong(Entry::totalNanos).reversed());
+        return all.size() > limit ? new ArrayList<>(all.subList(0, limit)) : all;
+    }
+
+    public static String report(int limit) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%8s %10s %8s %8s %6s %6s  %s%n",
+                "calls", "total ms", "mean ms", "p99 ms", "slow", "errors", "statement"));
+        for (Entry e : top(limit)) {
+            sb.append(String.format(Locale.ROOT, "%8d %10.1f %8.2f %8.2f %6d %6d  %s%n",
+                    e.calls(), Metrics.millis(e.totalNanos()), e.meanMillis(), Metrics.millis(e.histogram.percentile(99)),
+                    e.slow(), e.errors(), e.fingerprint));
+        }
+        return sb.toString();
+    }
+
+    public static long slowThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowNanos);
+    }
+
+    public static void reset() {
+        entries.clear();
+    }
+
+    public static final class Entry {
+        public final String fingerprint;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder slow = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        public long calls() {
+            return calls.sum();
+        }
+
+        public long totalNanos() {
+            return totalNanos.sum();
+        }
+
+        public double meanMillis() {
+            long c = calls();
+            return c == 0 ? 0 : Metrics.millis(totalNanos()) / c;
+        }
+
+        public long p99Nanos() {
+            return histogram.percentile(99);
+        }
+
+        public long rows() {
+            return rows.sum();
+        }
+
+        public long slow() {
+            return slow.sum();
+        }
+
+        public long errors() {
+            return errors.sum();
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package app.db;
+
+import app.model.Order;
+import app.model.OrderQueue;
+import app.util.FlightEvents;
+import app.util.Metrics;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shares the order queue between several barista stations (one per BaristaPanel, possibly on
+ * different machines) instead of every station serving the same head.
+ *
+ * Before a station makes or serves an order it claims it in the database with a compare-and-set
+ * on orders.status/assigned_to (see the claim methods in {@link OrderDAO}). Whoever loses the
+ * UPDATE moves on, so no order is made or served twice.
+ *
+ * {@link #next} hands a station, in this order: its own oldest claimed order (topping its
+ * backlog up to claimAhead orders from the unclaimed ones), else the oldest unclaimed order,
+ * else the newest waiting order of the station with the longest backlog (work stealing). The
+ * order a station has in hand - its oldest claim - is only taken over once it has been claimed
+ * for -Dbarista.claimTimeoutSeconds (default 600, 0 = never), and IN_PROGRESS orders never are.
+ * {@link #release} gives a station's waiting claims back when its panel closes.
+ * {@link #startAll} and {@link #serveAll} move a multi-selection in one transaction, with an
+ * outcome per order.
+ *
+ * The queue passed in is the station's own view of the active orders. Orders lost to another
+ * station are dropped from it and come back with their real assignee on the next reload.
+ */
+public class StationDispatcher {
+
+    /** Station name for this process; defaults to the logged-in barista's username. */
+    public static final String STATION_PROPERTY = "barista.station";
+    public static final int DEFAULT_CLAIM_AHEAD = 2;
+    public static final String CLAIM_TIMEOUT_PROPERTY = "barista.claimTimeoutSeconds";
+    public static final int DEFAULT_CLAIM_TIMEOUT_SECONDS = 600;
+
+    private final OrderDAO orderDAO;
+    private final boolean persist;
+    private final int claimAhead;
+    private final int claimTimeoutSeconds;
+
+    /**
+     * @param persist    false in preview mode: claims are only recorded on the in-memory orders
+     * @param claimAhead orders a station holds at once, the one in hand included (at least 1)
+     */
+    public StationDispatcher(OrderDAO orderDAO, boolean persist, int claimAhead) {
+        this.orderDAO = orderDAO;
+        this.persist = persist;
+        this.claimAhead = Math.max(1, claimAhead);
+        this.claimTimeoutSeconds = Integer.getInteger(CLAIM_TIMEOUT_PROPERTY, DEFAULT_CLAIM_TIMEOUT_SECONDS);
+    }
+
+    public StationDispatcher(OrderDAO orderDAO, boolean persist) {
+        this(orderDAO, persist, DEFAULT_CLAIM_AHEAD);
+    }
+
+    /**
+     * Claims (if needed) and returns the order {@code station} should work on next; the result's
+     * order is null when every queued order belongs to a busy station. When a claim fails on a
+     * DB error the order stays unclaimed: it is still handed out (serving works offline too) with
+     * the error in the result, and {@link #start} or {@link #serve} try the claim again.
+     */
+    public OrderWorkflow.StepResult next(String station, OrderQueue queue) {
+        List<Order> view = queue.traverse();
+        List<Order> own = new ArrayList<>();
+        for (Order o : view) {
+            if (station.equals(o.getAssignedTo())) own.add(o);
+        }
+
+        Exception dbError = null;
+        Order unclaimed = null;
+        for (Order o : view) {
+            if (own.size() >= claimAhead) break;
+            if (o.getAssignedTo() != null) continue;
+            try {
+                if (claim(station, o, queue)) own.add(o);
+            } catch (Exception ex) {
+                unclaimed = o;
+                dbError = ex;
+                break;
+            }
+        }
+        if (!own.isEmpty()) return new OrderWorkflow.StepResult(own.get(0), true, dbError);
+        if (unclaimed != null) return new OrderWorkflow.StepResult(unclaimed, true, dbError);
+
+        try {
+            return new OrderWorkflow.StepResult(steal(station, queue, view), true, null);
+        } catch (Exception ex) {
+            return new OrderWorkflow.StepResult(null, false, ex);
+        }
+    }
+
+    /**
+     * Gives {@code station}'s PENDING claims back so other stations can take them; its
+     * IN_PROGRESS orders stay with it. Returns how many were released (none in preview mode).
+     */
+    public int release(String station) throws Exception {
+        if (!persist) return 0;
+        int released = orderDAO.releaseClaims(station);
+        Metrics.add("StationDispatcher.released", released);
+        return released;
+    }
+
+    /**
+     * PENDING to IN_PROGRESS for {@code station}, claiming the order first if nobody has it.
+     * Not accepted when another station holds it.
+     */
+    public OrderWorkflow.StepResult start(String station, Order order, OrderQueue queue) {
+        FlightEvents.OrderTransition event = new FlightEvents.OrderTransition();
+        event.begin();
+        String from = order.getStatus();
+        try {
+            if (!holds(station, order, queue)) return new OrderWorkflow.StepResult(order, false, null);
+            if ("IN_PROGRESS".equalsIgnoreCase(from)) return new OrderWorkflow.StepResult(order, true, null);
+            if (persist && order.getId() != null && !orderDAO.startClaimedOrder(order.getId(), station)) {
+                lost(order, queue);
+                return new OrderWorkflow.StepResult(order, false, null);
+            }
+        } catch (Exception ex) {
+            // Like OrderWorkflow.markInProgress: a DB failure leaves the order unchanged.
+            return new OrderWorkflow.StepResult(order, false, ex);
+        }
+        order.setStatus("IN_PROGRESS");
+        OrderWorkflow.commit(event, order, from, "IN_PROGRESS", persist);
+        return new OrderWorkflow.StepResult(order, true, null);
+    }
+
+    /**
+     * Marks the order COMPLETED/paid for {@code station} and removes it from the queue. Not
+     * accepted (and dropped from the view) when another station served or took it meanwhile. A
+     * DB failure is reported but the order still leaves the queue, as in OrderWorkflow.serveHead.
+     */
+    public OrderWorkflow.StepResult serve(String station, Order order, OrderQueue queue) {
+        FlightEvents.OrderTransition event = new FlightEvents.OrderTransition();
+        event.begin();
+        String from = order.getStatus();
+        Exception dbError = null;
+        try {
+            if (!holds(station, order, queue)) return new OrderWorkflow.StepResult(order, false, null);
+            if (persist && order.getId() != null && !orderDAO.completeClaimedOrder(order.getId(), station)) {
+                lost(order, queue);
+                return new OrderWorkflow.StepResult(order, false, null);
+            }
+        } catch (Exception ex) {
+            dbError = ex;
+        }
+        order.setStatus("COMPLETED");
+        order.setPaid(true);
+        queue.remove(order);
+        OrderWorkflow.commit(event, order, from, "COMPLETED", persist && dbError == null);
+        return new OrderWorkflow.StepResult(order, true, dbError);
+    }
+
+    /** {@link #start} for several orders at once, in one DB transaction (OrderDAO.transitionStatuses). */
+    public BulkResult startAll(String station, List<Order> orders, OrderQueue queue) {
+        return transitionAll(station, orders, "IN_PROGRESS", Set.of("PENDING"), queue);
+    }
+
+    /** {@link #serve} for several orders at once, in one DB transaction (OrderDAO.transitionStatuses). */
+    public BulkResult serveAll(String station, List<Order> orders, OrderQueue queue) {
+        return transitionAll(station, orders, "COMPLETED", Set.of("PENDING", "IN_PROGRESS"), queue);
+    }
+
+    /**
+     * Moves the orders the station may move and drops the rest from the view, like the single
+     * steps do with an order lost to another station. On a DB failure a start changes nothing,
+     * while a serve still goes through locally for the orders this station could serve.
+     */
+    private BulkResult transitionAll(String station, List<Order> orders, String to, Set<String> from, OrderQueue queue) {
+        Map<Order, FlightEvents.OrderTransition> events = new IdentityHashMap<>();
+        Map<Order, OrderDAO.Transition> outcomes = new LinkedHashMap<>();
+        List<Integer> ids = new ArrayList<>();
+        for (Order o : orders) {
+            FlightEvents.OrderTransition event = new FlightEvents.OrderTransition();
+            event.begin();
+            events.put(o, event);
+            outcomes.put(o, localOutcome(station, o, to, from));
+            if (persist && o.getId() != null) ids.add(o.getId());
+        }
+
+        Exception dbError = null;
+        if (!ids.isEmpty()) {
+            try {
+                Map<Integer, OrderDAO.Transition> saved = orderDAO.transitionStatuses(ids, to, from, station);
+                for (Order o : orders) {
+                    if (o.getId() != null) outcomes.put(o, saved.get(o.getId()));
+                }
+            } catch (Exception ex) {
+                if (!"COMPLETED".equals(to)) return new BulkResult(new LinkedHashMap<>(), ex);
+                dbError = ex;
+            }
+        }
+
+        for (Map.Entry<Order, OrderDAO.Transition> e : outcomes.entrySet()) {
+            Order o = e.getKey();
+            String was = o.getStatus();
+            switch (e.getValue()) {
+                case CHANGED, ALREADY -> {
+                    o.setStatus(to);
+                    if (o.getAssignedTo() == null) o.setAssignedTo(station);
+                    if ("COMPLETED".equals(to)) {
+                        o.setPaid(true);
+                        queue.remove(o);
+                    }
+                    if (e.getValue() == OrderDAO.Transition.CHANGED) {
+                        OrderWorkflow.commit(events.get(o), o, was, to, persist && dbError == null);
+                    }
+                }
+                default -> lost(o, queue);
+            }
+        }
+        return new BulkResult(outcomes, dbError);
+    }
+
+    /** The outcome from what this station's view knows; used when the order is not in the DB. */
+    private static OrderDAO.Transition localOutcome(String station, Order order, String to, Set<String> from) {
+        String status = order.getStatus() == null ? "PENDING" : order.getStatus().toUpperCase(Locale.ROOT);
+        if (order.getAssignedTo() != null && !station.equals(order.getAssignedTo())) {
+            return OrderDAO.Transition.CLAIMED_ELSEWHERE;
+        }
+        if (to.equals(status)) return OrderDAO.Transition.ALREADY;
+        if (!from.contains(status)) return OrderDAO.Transition.NOT_ALLOWED;
+        return OrderDAO.Transition.CHANGED;
+    }
+
+    /** True when {@code station} holds the order, claiming it first if it is unassigned. */
+    private boolean holds(String station, Order order, OrderQueue queue) throws Exception {
+        if (station.equals(order.getAssignedTo())) return true;
+        if (order.getAssignedTo() != null) return false;
+        return claim(station, order, queue);
+    }
+
+    private boolean claim(String station, Order order, OrderQueue queue) throws Exception {
+        if (persist && order.getId() != null && !orderDAO.claimOrder(order.getId(), station)) {
+            lost(order, queue);
+            return false;
+        }
+        order.setAssignedTo(station);
+        Metrics.increment("StationDispatcher.claims");
+        return true;
+    }
+
+    /**
+     * Takes the newest stealable order from the station with the longest backlog. Tries the
+     * next candidate when a steal loses its race, and takes over a stale in-hand order when
+     * nothing else is left.
+     */
+    private Order steal(String station, OrderQueue queue, List<Order> view) throws Exception {
+        Map<String, List<Order>> backlogs = new LinkedHashMap<>();
+        for (Order o : view) {
+            if (o.getAssignedTo() != null && !station.equals(o.getAssignedTo())) {
+                backlogs.computeIfAbsent(o.getAssignedTo(), k -> new ArrayList<>()).add(o);
+            }
+        }
+        while (true) {
+            String victim = null;
+            Order target = null;
+            int longest = 0;
+            for (Map.Entry<String, List<Order>> e : backlogs.entrySet()) {
+                List<Order> backlog = e.getValue();
+                Order candidate = null;
+                // Index 0 is the order the victim has in hand.
+                for (int i = backlog.size() - 1; i >= 1 && candidate == null; i--) {
+                    if ("PENDING".equalsIgnoreCase(backlog.get(i).getStatus())) candidate = backlog.get(i);
+                }
+                if (candidate != null && backlog.size() > longest) {
+                    longest = backlog.size();
+                    victim = e.getKey();
+                    target = candidate;
+                }
+            }
+            if (target == null) return takeOverStale(station, backlogs);
+
+            backlogs.get(victim).remove(target);
+            if (!persist || target.getId() == null || orderDAO.stealOrder(target.getId(), victim, station)) {
+                target.setAssignedTo(station);
+                Metrics.increment("StationDispatcher.steals");
+                return target;
+            }
+            lost(target, queue);
+        }
+    }
+
+    /**
+     * The first in-hand order whose claim is older than the timeout, for a station that went
+     * away without releasing it. A refusal only means the claim is still fresh (or gone), so the
+     * order stays in the view until the next reload says otherwise.
+     */
+    private Order takeOverStale(String station, Map<String, List<Order>> backlogs) throws Exception {
+        if (!persist || claimTimeoutSeconds <= 0) return null;
+        for (Map.Entry<String, List<Order>> e : backlogs.entrySet()) {
+            if (e.getValue().isEmpty()) continue;
+            Order inHand = e.getValue().get(0);
+            if (inHand.getId() == null || !"PENDING".equalsIgnoreCase(inHand.getStatus())) continue;
+            if (orderDAO.takeOverStaleClaim(inHand.getId(), e.getKey(), station, claimTimeoutSeconds)) {
+                inHand.setAssignedTo(station);
+                Metrics.increment("StationDispatcher.takeovers");
+                return inHand;
+            }
+        }
+        return null;
+    }
+
+    private static void lost(Order order, OrderQueue queue) {
+        queue.remove(order);
+        Metrics.increment("StationDispatcher.claims.lost");
+    }
+
+    /** Outcome of a bulk step per order, in the order given. */
+    public static final class BulkResult {
+        public final Map<Order, OrderDAO.Transition> outcomes;
+        /** Set when the DB call failed; null when saved or when running without persistence. */
+        public final Exception dbError;
+
+        BulkResult(Map<Order, OrderDAO.Transition> outcomes, Exception dbError) {
+            this.outcomes = outcomes;
+            this.dbError = dbError;
+        }
+
+        public int count(OrderDAO.Transition outcome) {
+            int n = 0;
+            for (OrderDAO.Transition t : outcomes.values()) {
+                if (t == outcome) n++;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package app.model;
+
+import java.math.BigDecimal;
+
+public class CategorySalesRow {
+    public String category;
+    public long quantity = 0;
+    public BigDecimal revenue = BigDecimal.ZERO;
+
+    public CategorySalesRow(String category) {
+        this.category = category;
+    }
+}
@@ -0,0 +1,148 @@
+package app.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * "Make together" suggestions for the barista: the same item at the same temperature, wanted by
+ * two or more of the next orders, e.g. three hot lattes whose shots and milk can be done at once.
+ * Sizes and add-ons may differ inside a batch; {@link Batch#identical} says when they don't.
+ *
+ * Fairness window: only the first {@code window} orders of the queue are looked at
+ * (-Dbatch.window, default 6), so batching never pulls a drink forward past more than that many
+ * orders. The window is kept incrementally: {@link #sync} rescans only the orders that entered
+ * it, left it or had their lines replaced since the previous call.
+ */
+public class DrinkBatcher {
+
+    public static final String WINDOW_PROPERTY = "batch.window";
+    public static final int DEFAULT_WINDOW = 6;
+
+    private final int window;
+    private List<Order> current = new ArrayList<>();
+    // Lines each windowed order was scanned with; a cashier edit replaces them.
+    private final Map<Order, List<OrderItem>> scanned = new IdentityHashMap<>();
+    private final Map<String, List<Entry>> groups = new HashMap<>();
+
+    public DrinkBatcher(int window) {
+        this.window = Math.max(2, window);
+    }
+
+    public static DrinkBatcher configured() {
+        return new DrinkBatcher(Integer.getInteger(WINDOW_PROPERTY, DEFAULT_WINDOW));
+    }
+
+    public int window() {
+        return window;
+    }
+
+    /** Moves the window onto the first orders of {@code queue} (queue order). */
+    public void sync(List<Order> queue) {
+        List<Order> next = new ArrayList<>(queue.subList(0, Math.min(window, queue.size())));
+        Set<Order> keep = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Order o : next) {
+            if (scanned.containsKey(o) && scanned.get(o).equals(o.getItems())) keep.add(o);
+        }
+        for (Order o : current) {
+            if (!keep.contains(o)) remove(o);
+        }
+        for (Order o : next) {
+            if (!keep.contains(o)) add(o);
+        }
+        current = next;
+    }
+
+    /** Batches spanning at least two orders, the one touching the earliest order first. */
+    public List<Batch> plan() {
+        Map<Order, Integer> position = new IdentityHashMap<>();
+        for (int i = 0; i < current.size(); i++) position.put(current.get(i), i);
+
+        List<Batch> out = new ArrayList<>();
+        for (List<Entry> entries : groups.values()) {
+            Set<Order> orders = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Entry e : entries) orders.add(e.order);
+            if (orders.size() < 2) continue;
+
+            List<Entry> sorted = new ArrayList<>(entries);
+            sorted.sort(Comparator.comparingInt(e -> position.get(e.order)));
+            Entry first = sorted.get(0);
+            Batch b = new Batch(first.item.getItemName(), temperature(first.item.getOptionsLabel()), sorted);
+            b.firstPosition = position.get(first.order);
+            out.add(b);
+        }
+        out.sort(Comparator.comparingInt((Batch b) -> b.firstPosition).thenComparing(b -> -b.quantity));
+        return out;
+    }
+
+    private void add(Order order) {
+        List<OrderItem> lines = new ArrayList<>(order.getItems());
+        scanned.put(order, lines);
+        for (OrderItem item : lines) {
+            groups.computeIfAbsent(key(item), k -> new ArrayList<>()).add(new Entry(order, item));
+        }
+    }
+
+    private void remove(Order order) {
+        List<OrderItem> lines = scanned.remove(order);
+        if (lines == null) return;
+        for (OrderItem item : lines) {
+            String key = key(item);
+            List<Entry> entries = groups.get(key);
+            if (entries == null) continue;
+            entries.removeIf(e -> e.order == order);
+            if (entries.isEmpty()) groups.remove(key);
+        }
+    }
+
+    private static String key(OrderItem item) {
+        return item.getItemCode() + "|" + temperature(item.getOptionsLabel());
+    }
+
+    /** Hot / Iced from the cashier's option label ("Medium • Iced • Extra Shot"); "" for food. */
+    static String temperature(String options) {
+        if (options.contains("Iced")) return "Iced";
+        if (options.contains("Hot")) return "Hot";
+        return "";
+    }
+
+    /** One line of one order inside a batch. */
+    public static final class Entry {
+        public final Order order;
+        public final OrderItem item;
+
+        Entry(Order order, OrderItem item) {
+            this.order = order;
+            this.item = item;
+        }
+    }
+
+    public static final class Batch {
+        public final String itemName;
+        public final String temperature;
+        public final List<Entry> entries;     // queue order
+        public final int quantity;
+        public final boolean identical;       // same options label on every line
+        int firstPosition;
+
+        Batch(String itemName, String temperature, List<Entry> entries) {
+            this.itemName = itemName;
+            this.temperature = temperature;
+            this.entries = entries;
+            int qty = 0;
+            Set<String> labels = new HashSet<>();
+            for (Entry e : entries) {
+                qty += e.item.getQuantity();
+                labels.add(e.item.getOptionsLabel());
+            }
+            this.quantity = qty;
+            this.identical = labels.size() == 1;
+        }
+    }
+}
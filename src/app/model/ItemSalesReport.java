@@ -0,0 +1,18 @@
+package app.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Item-level sales for one date range (both ends inclusive).
+ */
+public class ItemSalesReport {
+    public LocalDate from;
+    public LocalDate to;
+    public List<ItemSalesRow> topByQuantity = new ArrayList<>();
+    public List<ItemSalesRow> topByRevenue = new ArrayList<>();
+    public List<CategorySalesRow> categories = new ArrayList<>();   // highest revenue first
+    public ItemSalesRow totals = new ItemSalesRow(null, "All items", null);
+    public long itemsSold = 0;                                      // distinct items with sales
+}
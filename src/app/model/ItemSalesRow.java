@@ -0,0 +1,34 @@
+package app.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Units and revenue of one menu item over a date range. Drink units are lines that took drink
+ * options (not the "Standard • N/A" label food gets); the add-on counts are among those.
+ */
+public class ItemSalesRow {
+    public String itemCode;
+    public String itemName;
+    public String category;
+    public long quantity = 0;
+    public BigDecimal revenue = BigDecimal.ZERO;
+    public long drinkQuantity = 0;
+    public long extraShotQuantity = 0;
+    public long altMilkQuantity = 0;
+
+    public ItemSalesRow(String itemCode, String itemName, String category) {
+        this.itemCode = itemCode;
+        this.itemName = itemName;
+        this.category = category;
+    }
+
+    /** Share of drink units with an extra shot, 0..1. */
+    public double extraShotRate() {
+        return drinkQuantity == 0 ? 0 : (double) extraShotQuantity / drinkQuantity;
+    }
+
+    /** Share of drink units with alternative milk, 0..1. */
+    public double altMilkRate() {
+        return drinkQuantity == 0 ? 0 : (double) altMilkQuantity / drinkQuantity;
+    }
+}
@@ -15,6 +15,9 @@ public class Order {
     private BigDecimal total = BigDecimal.ZERO;
     private boolean paid;
     private Date createdAt;
+    private String assignedTo;   // barista station that claimed the order, null while unassigned
+    private long readyEtaMillis; // estimated ready time (OrderQueue.estimateReadyTimes), 0 if unknown
+    private String requestId;    // idempotency key of the insert (orders.request_id), set on first save
     private final List<OrderItem> items = new ArrayList<>();
 
     public Integer getId() {
@@ -89,6 +92,30 @@ public class Order {
         this.createdAt = createdAt;
     }
 
+    public String getAssignedTo() {
+        return assignedTo;
+    }
+
+    public void setAssignedTo(String assignedTo) {
+        this.assignedTo = assignedTo;
+    }
+
+    public long getReadyEtaMillis() {
+        return readyEtaMillis;
+    }
+
+    public void setReadyEtaMillis(long readyEtaMillis) {
+        this.readyEtaMillis = readyEtaMillis;
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public void setRequestId(String requestId) {
+        this.requestId = requestId;
+    }
+
     public List<OrderItem> getItems() {
         return items;
     }
@@ -0,0 +1,18 @@
+package app.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Orders written since a watermark (OrderDAO.loadOrderChanges): the ones still active with their
+ * lines, and tombstones for the ones that left the active states (served, archived).
+ */
+public class OrderChanges {
+    public final List<Order> active = new ArrayList<>();
+    public final List<Integer> removed = new ArrayList<>();
+    public long watermark;   // epoch millis of the newest change seen; pass to the next call
+
+    public int size() {
+        return active.size() + removed.size();
+    }
+}
@@ -0,0 +1,71 @@
+package app.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Price and total rules used at checkout, kept outside the Swing panel so the same
+ * numbers can be reproduced by tools that build orders without a UI.
+ */
+public final class OrderPricing {
+
+    // VAT is not charged at the counter yet; kept as a named rate so totals stay explicit.
+    public static final BigDecimal TAX_RATE = BigDecimal.ZERO;
+
+    private OrderPricing() {}
+
+    /**
+     * Unit price of one drink: base menu price plus size and add-on surcharges.
+     */
+    public static double unitPrice(MenuItem item, String size, boolean extraShot, boolean altMilk) {
+        double price = item.getPrice().doubleValue();
+        switch (size == null ? "" : size) {
+            case "Medium" -> price += 10;
+            case "Large" -> price += 20;
+            default -> { /* Small keeps base */ }
+        }
+        if (extraShot) price += 20;
+        if (altMilk) price += 25;
+        return price;
+    }
+
+    /**
+     * One priced order line.
+     */
+    public static OrderItem line(MenuItem item, String optionsLabel, double unitPrice, int qty) {
+        OrderItem line = new OrderItem();
+        line.setItemCode(item.getCode());
+        line.setItemName(item.getName());
+        line.setOptionsLabel(optionsLabel);
+        line.setQuantity(qty);
+        BigDecimal unit = BigDecimal.valueOf(unitPrice);
+        line.setUnitPrice(unit);
+        line.setLineTotal(unit.multiply(BigDecimal.valueOf(qty)));
+        return line;
+    }
+
+    /**
+     * Replaces the order lines and recomputes subtotal, tax and total from them.
+     */
+    public static void applyLines(Order order, List<OrderItem> lines) {
+        order.getItems().clear();
+        for (OrderItem line : lines) {
+            order.addItem(line);
+        }
+        applyTotals(order);
+    }
+
+    /**
+     * Subtotal is the sum of line totals; tax is {@link #TAX_RATE} of the subtotal.
+     */
+    public static void applyTotals(Order order) {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (OrderItem line : order.getItems()) {
+            subtotal = subtotal.add(line.getLineTotal());
+        }
+        BigDecimal tax = subtotal.multiply(TAX_RATE);
+        order.setSubtotal(subtotal);
+        order.setTax(tax);
+        order.setTotal(subtotal.add(tax));
+    }
+}
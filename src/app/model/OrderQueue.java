@@ -1,23 +1,197 @@
 package app.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
 
 /**
  * Linked-list backed FIFO queue for active orders.
+ *
+ * Optional SHORT_FIRST scheduling (-Dqueue.scheduling=short-first): a new order goes in ahead of
+ * queued orders with a longer estimated prep time ({@link PrepTime}), so single espressos don't
+ * wait behind a ten-drink office order. Fairness bound: reordering may delay a queued order by at
+ * most maxDelaySeconds of other orders' prep time in total (-Dqueue.maxDelaySeconds, default 240).
+ * An order whose budget is spent, or that has waited maxDelaySeconds since it was created, is not
+ * passed again, so it ages back into plain FIFO; the age check also holds across queue reloads.
+ * Orders already IN_PROGRESS or claimed by a station are never passed.
+ *
+ * Capacity: on its own the queue holds at most MAX_SIZE orders and refuses the rest. With a
+ * {@link Spill} attached ({@link #spillTo}) it has no limit: only the first hotWindow orders are
+ * kept in memory (and listed by traverse), later ones go to the spill store and are pulled back
+ * in arrival order by an explicit {@link #startRefill}, whose read may do I/O and so is left to
+ * the caller's background thread. {@link #peek}, {@link #dequeue} and {@link #isEmpty} see the
+ * hot window only, so the queue can be empty while {@link #size} still counts spilled orders
+ * waiting for a refill. Short-first reordering only happens inside the hot window. Either way
+ * {@link #pressure} reports how loaded the queue is against the warn and overload thresholds
+ * (-Dqueue.warnAt, default 40; -Dqueue.overloadAt, default 120), which the cashier is shown
+ * instead of a refusal.
  */
 public class OrderQueue {
     public static final int MAX_SIZE = 50;
 
+    public static final String HOT_WINDOW_PROPERTY = "queue.hotWindow";
+    public static final String WARN_AT_PROPERTY = "queue.warnAt";
+    public static final String OVERLOAD_AT_PROPERTY = "queue.overloadAt";
+    public static final int DEFAULT_WARN_AT = 40;
+    public static final int DEFAULT_OVERLOAD_AT = 120;
+
+    public static final String SCHEDULING_PROPERTY = "queue.scheduling";
+    public static final String MAX_DELAY_PROPERTY = "queue.maxDelaySeconds";
+    public static final String BARISTAS_PROPERTY = "queue.baristas";
+    public static final int DEFAULT_MAX_DELAY_SECONDS = 240;
+
+    public enum Scheduling { FIFO, SHORT_FIRST }
+
+    public enum Pressure { NORMAL, BUSY, OVERLOADED }
+
+    /**
+     * Storage for the orders behind the hot window, handed back oldest first. {@link #pull} may
+     * run on another thread than the other calls, one pull at a time.
+     */
+    public interface Spill {
+        /** False when the store could not take the order; the queue then keeps it in memory. */
+        boolean push(Order order);
+
+        /** Up to {@code max} of the oldest stored orders, removed from the store. */
+        List<Order> pull(int max) throws Exception;
+
+        int size();
+
+        /**
+         * The stored orders, oldest first, left in the store. Orders the store can reload by id
+         * may come back as id-only headers.
+         */
+        List<Order> contents() throws Exception;
+
+        /** Drops everything stored; the queue is being discarded. */
+        void clear();
+    }
+
     private Node<Order> head;
     private Node<Order> tail;
-    private int size;
+    private int size;   // linked (hot) orders; spilled ones are counted by the spill store
+
+    private Spill spill;
+    private int hotWindow = MAX_SIZE;
+    private Refill refill;   // pull from the spill store in flight, if any
+    private final int warnAt = Integer.getInteger(WARN_AT_PROPERTY, DEFAULT_WARN_AT);
+    private final int overloadAt = Integer.getInteger(OVERLOAD_AT_PROPERTY, DEFAULT_OVERLOAD_AT);
+
+    private final Scheduling scheduling;
+    private final int maxDelaySeconds;
+    private final LongSupplier clock;
+    // SHORT_FIRST only: per queued order {estimated prep seconds, seconds delayed by reordering}.
+    private final Map<Order, int[]> slots = new IdentityHashMap<>();
+
+    public OrderQueue() {
+        this(Scheduling.FIFO, 0);
+    }
+
+    public OrderQueue(Scheduling scheduling, int maxDelaySeconds) {
+        this(scheduling, maxDelaySeconds, System::currentTimeMillis);
+    }
+
+    /** @param clock epoch millis compared with Order.createdAt; simulations pass their own */
+    public OrderQueue(Scheduling scheduling, int maxDelaySeconds, LongSupplier clock) {
+        this.scheduling = scheduling;
+        this.maxDelaySeconds = Math.max(0, maxDelaySeconds);
+        this.clock = clock;
+    }
+
+    /** Queue in the mode chosen with -Dqueue.scheduling (fifo | short-first), FIFO by default. */
+    public static OrderQueue configured() {
+        String mode = System.getProperty(SCHEDULING_PROPERTY, "fifo").trim().toLowerCase(Locale.ROOT);
+        if (mode.equals("short-first")) {
+            return new OrderQueue(Scheduling.SHORT_FIRST, Integer.getInteger(MAX_DELAY_PROPERTY, DEFAULT_MAX_DELAY_SECONDS));
+        }
+        return new OrderQueue();
+    }
+
+    /** Baristas assumed by the ETA estimate (-Dqueue.baristas, default 2). */
+    public static int etaBaristas() {
+        return Math.max(1, Integer.getInteger(BARISTAS_PROPERTY, 2));
+    }
+
+    public Scheduling scheduling() {
+        return scheduling;
+    }
+
+    /**
+     * Lifts the MAX_SIZE limit: orders past the first {@code hotWindow} go to {@code spill}.
+     * Call on an empty queue.
+     */
+    public OrderQueue spillTo(Spill spill, int hotWindow) {
+        this.spill = spill;
+        this.hotWindow = Math.max(1, hotWindow);
+        return this;
+    }
+
+    public boolean spills() {
+        return spill != null;
+    }
+
+    /** Orders kept in memory; with no spill store, the MAX_SIZE limit. */
+    public int hotWindow() {
+        return hotWindow;
+    }
+
+    /** Queued orders not in memory right now. */
+    public int spilled() {
+        return spill == null ? 0 : spill.size();
+    }
+
+    public Pressure pressure() {
+        int n = size();
+        if (n >= overloadAt) return Pressure.OVERLOADED;
+        if (n >= warnAt) return Pressure.BUSY;
+        return Pressure.NORMAL;
+    }
 
     // Enqueue (FIFO): used when a new order is placed (CashierPanel checkout).
     // Implementation detail: append to the tail so earlier orders stay at the head.
+    // In SHORT_FIRST mode the order may instead be linked in ahead of longer ones (see insertAhead).
     public boolean enqueue(Order order) {
-        if (size >= MAX_SIZE) return false;
-        Node<Order> node = new Node<>(order);
+        if (spill == null) {
+            if (size >= MAX_SIZE) return false;
+        } else if (size >= hotWindow || spill.size() > 0 || refill != null) {
+            // Behind the window, or behind orders already spilled: FIFO through the store.
+            if (spill.push(order)) return true;
+            // The store failed; holding the order in memory beats losing it.
+        }
+        link(new Node<>(order));
+        return true;
+    }
+
+    /**
+     * Appends an order straight to the spill store, behind everything queued. Queue loaders use
+     * this for orders past the hot window so their lines never have to be read; a store that
+     * can reload orders by id (see QueueOverflow) accepts them without items.
+     */
+    public void spill(Order order) {
+        if (spill == null || !spill.push(order)) enqueue(order);
+    }
+
+    /**
+     * Starts pulling spilled orders back into the hot window, or returns null when it is full,
+     * nothing is spilled or a refill is already out. {@link Refill#pull} reads the store and
+     * belongs off the EDT; {@link Refill#finish} links the orders back on the queue's thread.
+     * Orders enqueued in between wait behind them in the store.
+     */
+    public Refill startRefill() {
+        if (spill == null || refill != null || size >= hotWindow || spill.size() == 0) return null;
+        refill = new Refill(spill, hotWindow - size);
+        return refill;
+    }
+
+    private void link(Node<Order> node) {
+        if (scheduling == Scheduling.SHORT_FIRST && insertAhead(node)) {
+            size++;
+            return;
+        }
         if (head == null) {
             head = node;
             tail = node;
@@ -26,7 +200,45 @@ public class OrderQueue {
             tail = node;
         }
         size++;
-        return true;
+    }
+
+    /**
+     * Links the node in before the first queued order that takes longer to make, provided no
+     * order from there to the tail would exceed its delay budget and no pinned order (started,
+     * claimed or aged) would be passed. Returns false when the node belongs at the tail.
+     */
+    private boolean insertAhead(Node<Order> node) {
+        int prep = PrepTime.seconds(node.data);
+        slots.put(node.data, new int[]{prep, 0});
+        if (head == null) return false;
+
+        List<Node<Order>> nodes = new ArrayList<>(size);
+        for (Node<Order> n = head; n != null; n = n.next) nodes.add(n);
+
+        // Remaining delay budget of the tightest order from i to the tail.
+        int[] budget = new int[nodes.size() + 1];
+        budget[nodes.size()] = Integer.MAX_VALUE;
+        int firstMovable = 0;
+        long agedBefore = clock.getAsLong() - maxDelaySeconds * 1000L;
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            Order o = nodes.get(i).data;
+            int[] slot = slots.get(o);
+            boolean pinned = slot == null || o.getAssignedTo() != null || "IN_PROGRESS".equalsIgnoreCase(o.getStatus())
+                    || (o.getCreatedAt() != null && o.getCreatedAt().getTime() <= agedBefore);
+            if (pinned && firstMovable == 0) firstMovable = i + 1;
+            budget[i] = Math.min(budget[i + 1], pinned ? -1 : maxDelaySeconds - slot[1]);
+        }
+
+        for (int i = firstMovable; i < nodes.size(); i++) {
+            if (budget[i] < prep) continue;
+            if (slots.get(nodes.get(i).data)[0] <= prep) continue;
+            for (int j = i; j < nodes.size(); j++) slots.get(nodes.get(j).data)[1] += prep;
+            node.next = nodes.get(i);
+            if (i == 0) head = node;
+            else nodes.get(i - 1).next = node;
+            return true;
+        }
+        return false;
     }
 
     // Dequeue (FIFO): used when the barista serves the next order (BaristaPanel serve).
@@ -37,6 +249,7 @@ public class OrderQueue {
         head = head.next;
         if (head == null) tail = null;
         size--;
+        slots.remove(data);
         return data;
     }
 
@@ -44,8 +257,9 @@ public class OrderQueue {
         return head == null ? null : head.data;
     }
 
+    /** No order in memory, as {@link #peek} and {@link #dequeue} see it; spilled ones may still wait. */
     public boolean isEmpty() {
-        return size == 0;
+        return head == null;
     }
 
     public boolean remove(Order target) {
@@ -64,6 +278,7 @@ public class OrderQueue {
                     tail = prev;
                 }
                 size--;
+                slots.remove(target);
                 return true;
             }
             prev = current;
@@ -72,12 +287,55 @@ public class OrderQueue {
         return false;
     }
 
+    /** Spilled orders, oldest first, as the store lists them (see {@link Spill#contents}). */
+    public List<Order> spilledOrders() throws Exception {
+        return spill == null ? new ArrayList<>() : spill.contents();
+    }
+
+    /** Empties the queue, releasing whatever the spill store holds. */
+    public void clear() {
+        head = null;
+        tail = null;
+        size = 0;
+        slots.clear();
+        refill = null;
+        if (spill != null) spill.clear();
+    }
+
+    /** All queued orders, spilled ones included. */
     public int size() {
+        return size + spilled();
+    }
+
+    /** Orders held in memory, the ones traverse lists. */
+    public int hotSize() {
         return size;
     }
 
+    /**
+     * Stamps every queued order with an estimated ready time: {@code baristas} stations take
+     * orders in queue order, each needing its {@link PrepTime} estimate; IN_PROGRESS orders are
+     * counted as half done.
+     */
+    public void estimateReadyTimes(int baristas, long nowMillis) {
+        long[] free = new long[Math.max(1, baristas)];
+        Arrays.fill(free, nowMillis);
+        for (Node<Order> n = head; n != null; n = n.next) {
+            int[] slot = slots.get(n.data);
+            long prepMillis = (slot == null ? PrepTime.seconds(n.data) : slot[0]) * 1000L;
+            if ("IN_PROGRESS".equalsIgnoreCase(n.data.getStatus())) prepMillis /= 2;
+            int station = 0;
+            for (int i = 1; i < free.length; i++) {
+                if (free[i] < free[station]) station = i;
+            }
+            free[station] += prepMillis;
+            n.data.setReadyEtaMillis(free[station]);
+        }
+    }
+
     // Traversal: used to list all current orders in the queue UI panels.
     // Implementation detail: walk linked nodes from head -> tail and collect into a List.
+    // Spilled orders are not listed; the panels show how many there are.
     public List<Order> traverse() {
         List<Order> out = new ArrayList<>();
         Node<Order> current = head;
@@ -87,4 +345,30 @@ public class OrderQueue {
         }
         return out;
     }
+
+    /** One pull from the spill store, see {@link #startRefill}. */
+    public final class Refill {
+        private final Spill from;
+        private final int max;
+
+        private Refill(Spill from, int max) {
+            this.from = from;
+            this.max = max;
+        }
+
+        /** Reads up to the free room of the hot window from the store; may block on I/O. */
+        public List<Order> pull() throws Exception {
+            return from.pull(max);
+        }
+
+        /**
+         * Links the pulled orders behind the hot ones; pass an empty list after a failed pull.
+         * Ignored when the queue was cleared since the refill started.
+         */
+        public void finish(List<Order> pulled) {
+            if (refill != this) return;
+            refill = null;
+            for (Order o : pulled) link(new Node<>(o));
+        }
+    }
 }
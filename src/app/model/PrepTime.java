@@ -0,0 +1,74 @@
+package app.model;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Estimated preparation time of an order from its item mix, used to schedule the queue and to
+ * show ETAs. The numbers are bar estimates, not measurements: seconds per unit by item-code
+ * prefix (the menu codes are category prefixed), plus surcharges for the add-ons in the
+ * cashier's option label. Override with -Dprep.seconds=CF:50,FR:80,...
+ */
+public final class PrepTime {
+
+    public static final String SECONDS_PROPERTY = "prep.seconds";
+
+    private static final int DEFAULT_SECONDS = 45;
+    private static final int LARGE_SECONDS = 10;
+    private static final int EXTRA_SHOT_SECONDS = 15;
+    private static final int ALT_MILK_SECONDS = 10;
+    // Repeats of the same line are made together (shots pulled in pairs, one milk pitcher).
+    private static final double REPEAT_FACTOR = 0.6;
+
+    private static final Map<String, Integer> BY_PREFIX = new HashMap<>(Map.of(
+            "CF", 60,   // coffee bar
+            "TE", 50,   // tea
+            "FR", 90,   // blended
+            "FD", 40,   // kitchen food
+            "PA", 15    // pastry case
+    ));
+
+    static {
+        for (String part : System.getProperty(SECONDS_PROPERTY, "").split(",")) {
+            String[] kv = part.trim().split(":");
+            if (kv.length != 2) continue;
+            try {
+                BY_PREFIX.put(kv[0].trim().toUpperCase(Locale.ROOT), Integer.parseInt(kv[1].trim()));
+            } catch (NumberFormatException ex) {
+                // A typo in one entry must not take every queue down with ExceptionInInitializerError.
+                System.err.println("[PrepTime] Ignoring " + SECONDS_PROPERTY + " entry '" + part.trim() + "': not a number of seconds");
+            }
+        }
+    }
+
+    private PrepTime() {}
+
+    /** Seconds for one unit of the line. */
+    public static int unitSeconds(OrderItem item) {
+        String code = item.getItemCode() == null ? "" : item.getItemCode();
+        int seconds = BY_PREFIX.getOrDefault(code.length() >= 2 ? code.substring(0, 2).toUpperCase(Locale.ROOT) : code, DEFAULT_SECONDS);
+        String options = item.getOptionsLabel();
+        if (options.contains("Large")) seconds += LARGE_SECONDS;
+        if (options.contains("Extra Shot")) seconds += EXTRA_SHOT_SECONDS;
+        if (options.contains("Alt Milk")) seconds += ALT_MILK_SECONDS;
+        return seconds;
+    }
+
+    public static int seconds(OrderItem item) {
+        int unit = unitSeconds(item);
+        return unit + (int) Math.round(unit * REPEAT_FACTOR * Math.max(0, item.getQuantity() - 1));
+    }
+
+    /** Whole order, one barista; at least one second so an empty order still has a slot. */
+    public static int seconds(Order order) {
+        return seconds(order.getItems());
+    }
+
+    public static int seconds(List<OrderItem> items) {
+        int total = 0;
+        for (OrderItem item : items) total += seconds(item);
+        return Math.max(1, total);
+    }
+}
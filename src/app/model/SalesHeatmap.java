@@ -0,0 +1,10 @@
+package app.model;
+
+/**
+ * Gross sales and order counts by weekday (0 = Monday) and hour of day over the last few weeks.
+ */
+public class SalesHeatmap {
+    public long[][] grossCentavos = new long[7][24];
+    public long[][] orderCounts = new long[7][24];
+    public int weeks = 0;
+}
@@ -0,0 +1,12 @@
+package app.model;
+
+/**
+ * Sales over the last few hours, next to the same hours one week earlier.
+ */
+public class SalesWindow {
+    public int hours = 0;
+    public long grossCentavos = 0;
+    public long orderCount = 0;
+    public long lastWeekGrossCentavos = 0;
+    public long lastWeekOrderCount = 0;
+}
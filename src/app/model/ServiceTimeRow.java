@@ -0,0 +1,23 @@
+package app.model;
+
+/**
+ * Service-time percentiles for one slice of orders (an hour of the day, a menu item, or all).
+ * Times are in milliseconds; counts are the number of orders behind each set of percentiles.
+ */
+public class ServiceTimeRow {
+    public String label;
+
+    public long startedCount = 0;      // orders that went PENDING -> IN_PROGRESS
+    public long waitP50Millis = 0;     // created_at -> IN_PROGRESS
+    public long waitP90Millis = 0;
+    public long waitP99Millis = 0;
+
+    public long servedCount = 0;       // orders that went IN_PROGRESS -> COMPLETED
+    public long serveP50Millis = 0;    // IN_PROGRESS -> COMPLETED
+    public long serveP90Millis = 0;
+    public long serveP99Millis = 0;
+
+    public ServiceTimeRow(String label) {
+        this.label = label;
+    }
+}
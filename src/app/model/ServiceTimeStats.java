@@ -0,0 +1,11 @@
+package app.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ServiceTimeStats {
+    public ServiceTimeRow overall = new ServiceTimeRow("All orders");
+    public List<ServiceTimeRow> byHour = new ArrayList<>();   // hour the order was placed, only hours with data
+    public List<ServiceTimeRow> byItem = new ArrayList<>();   // busiest items first
+    public int historyDays = 0;                               // how far back the figures reach
+}
@@ -1,6 +1,7 @@
 package app.ui;
 
 import app.db.AssetService;
+import app.util.StartupTimer;
 
 import javax.swing.*;
 import java.awt.*;
@@ -12,12 +13,13 @@ public class BaristaFrame extends JFrame {
         setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
         setExtendedState(JFrame.MAXIMIZED_BOTH);
         setContentPane(buildUI(username));
+        StartupTimer.markConstructed("BaristaFrame");
     }
 
     private JComponent buildUI(String username) {
         AssetService assets = new AssetService();
 
-        JPanel root = new JPanel(new BorderLayout());
+        JPanel root = new TimedRootPanel(new BorderLayout(), "BaristaFrame");
         root.setBackground(new Color(245, 247, 250));
         root.add(buildTopBar(username, assets), BorderLayout.NORTH);
         root.add(new BaristaPanel(false, username, assets.getShopNameOrDefault()), BorderLayout.CENTER);
@@ -2,10 +2,16 @@ package app.ui;
 
 import app.db.AssetService;
 import app.db.OrderDAO;
+import app.db.OrderWorkflow;
+import app.db.QueueOverflow;
+import app.db.QueueSnapshot;
+import app.db.StationDispatcher;
+import app.model.DrinkBatcher;
 import app.model.Order;
 import app.model.OrderItem;
 import app.model.OrderQueue;
 import app.util.LinearSearch;
+import app.util.Metrics;
 
 import javax.swing.*;
 import javax.swing.border.Border;
@@ -14,6 +20,8 @@ import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import javax.swing.table.TableCellRenderer;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.List;
@@ -27,12 +35,24 @@ public class BaristaPanel extends JPanel {
     private final boolean previewMode;
     private final String username;
     private final String shopName;
+    private final String station;
 
     private final OrderDAO orderDAO = new OrderDAO();
-    private OrderQueue orderQueue = new OrderQueue();
+    private final StationDispatcher dispatcher;
+    private final QueueSnapshot snapshot;
+    private boolean syncing;   // a delta fetch is in flight (EDT only)
+    private Window host;       // window the claims are released on closing of, while shown
+    private final WindowAdapter releaseOnClose = new WindowAdapter() {
+        @Override
+        public void windowClosing(WindowEvent e) {
+            // EXIT_ON_CLOSE frames exit without disposing, so removeNotify never runs.
+            releaseClaims();
+        }
+    };
+    private OrderQueue orderQueue = QueueOverflow.configuredQueue(orderDAO);
 
-    private final DefaultListModel<String> queueModel = new DefaultListModel<>();
-    private final List<Order> currentQueueView = new ArrayList<>();
+    private final OrderQueueListModel queueModel = new OrderQueueListModel(this::formatQueueLine);
+    private final DrinkBatcher batcher = DrinkBatcher.configured();
 
     private JList<String> queueList;
     private JLabel lblQueueCount;
@@ -43,10 +63,12 @@ public class BaristaPanel extends JPanel {
     private JLabel lblOrderStatus;
     private JLabel lblCreated;
     private DefaultTableModel itemsModel;
+    private JTextArea batchPlan;
     private JTextField searchCustomer;
     private JTextField searchCode;
     private JButton btnInProgress;
     private JButton btnServe;
+    private JButton btnServeSelected;
     private JButton btnDetails;
 
     private static final Color BG = new Color(243, 245, 249);
@@ -64,11 +86,32 @@ public class BaristaPanel extends JPanel {
     private final Color tableSelection = tint(primary, 0.74);
 
     private static final NumberFormat MONEY_PH = NumberFormat.getCurrencyInstance(new Locale("en", "PH"));
+    private static volatile BaristaPanel gauged;
+    private static boolean gaugeRegistered;   // guarded by BaristaPanel.class
+
+    /**
+     * One queue-size gauge per role, registered by the first live panel and reading the latest
+     * one, so rebuilt pages neither replace it nor stay reachable through it. Preview panels are
+     * not measured.
+     */
+    private static synchronized void measureQueue(BaristaPanel panel) {
+        gauged = panel;
+        if (gaugeRegistered) return;
+        gaugeRegistered = true;
+        Metrics.gauge("BaristaPanel.queue.size", () -> {
+            BaristaPanel p = gauged;
+            return p == null ? 0 : p.orderQueue.size();
+        });
+    }
 
     public BaristaPanel(boolean previewMode, String username, String shopName) {
         this.previewMode = previewMode;
+        this.dispatcher = new StationDispatcher(orderDAO, !previewMode);
+        if (!previewMode) measureQueue(this);
         this.username = username == null ? "barista" : username;
         this.shopName = shopName == null ? "Coffee Shop" : shopName;
+        // Two stations must not share a name: claims are per station.
+        this.station = System.getProperty(StationDispatcher.STATION_PROPERTY, this.username);
 
         setLayout(new BorderLayout(12, 12));
         setBackground(BG);
@@ -77,7 +120,8 @@ public class BaristaPanel extends JPanel {
         add(buildHeader(), BorderLayout.NORTH);
         add(buildWorkspace(), BorderLayout.CENTER);
 
-        loadActiveQueueFromDatabase();
+        this.snapshot = QueueSnapshot.configured(orderDAO, "barista-" + station);
+        startQueue();
     }
 
     private JComponent buildHeader() {
@@ -104,7 +148,8 @@ public class BaristaPanel extends JPanel {
         titles.add(Box.createVerticalStrut(2));
         titles.add(subtitle);
 
-        JLabel user = new JLabel(shopName + "  •  Logged in as: " + this.username + (previewMode ? " (read-only preview)" : ""));
+        JLabel user = new JLabel(shopName + "  •  Logged in as: " + this.username + "  •  Station: " + station
+                + (previewMode ? " (read-only preview)" : ""));
         user.setFont(new Font("SansSerif", Font.PLAIN, 12));
         user.setForeground(MUTED);
 
@@ -123,7 +168,7 @@ public class BaristaPanel extends JPanel {
 
         JPanel queueHeader = new JPanel(new BorderLayout());
         queueHeader.setOpaque(false);
-        JLabel queueTitle = new JLabel("Active Order Queue (FIFO)");
+        JLabel queueTitle = new JLabel("Active Order Queue (" + (orderQueue.scheduling() == OrderQueue.Scheduling.SHORT_FIRST ? "short orders first" : "FIFO") + ")");
         queueTitle.setFont(new Font("SansSerif", Font.BOLD, 14));
         queueTitle.setForeground(TEXT);
         lblQueueCount = new JLabel("0 in queue");
@@ -146,7 +191,7 @@ public class BaristaPanel extends JPanel {
         JButton btnSearch = ghost("Search");
         btnSearch.addActionListener(e -> searchActiveOrders());
         JButton btnRefresh = ghost("Refresh queue");
-        btnRefresh.addActionListener(e -> loadActiveQueueFromDatabase());
+        btnRefresh.addActionListener(e -> Metrics.timedRun("BaristaPanel.refresh", this::loadActiveQueueFromDatabase));
 
         JPanel queueActions = new JPanel(new GridLayout(1, 2, 8, 8));
         queueActions.setOpaque(false);
@@ -155,19 +200,21 @@ public class BaristaPanel extends JPanel {
 
         queueList = new JList<>(queueModel);
         queueList.setBorder(BorderFactory.createEmptyBorder(4, 4, 4, 4));
+        // Ctrl/Shift-click picks several orders for Mark In Progress / Serve Selected.
+        queueList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         queueList.addListSelectionListener(e -> {
-            int idx = queueList.getSelectedIndex();
-            if (idx >= 0 && idx < currentQueueView.size()) {
-                renderDetails(currentQueueView.get(idx));
+            Order selected = queueModel.getOrderAt(queueList.getSelectedIndex());
+            if (selected != null) {
+                renderDetails(selected);
             }
         });
         queueList.addMouseListener(new java.awt.event.MouseAdapter() {
             @Override
             public void mouseClicked(java.awt.event.MouseEvent e) {
                 if (e.getClickCount() >= 2) {
-                    int idx = queueList.locationToIndex(e.getPoint());
-                    if (idx >= 0 && idx < currentQueueView.size()) {
-                        showOrderModal(currentQueueView.get(idx));
+                    Order clicked = queueModel.getOrderAt(queueList.locationToIndex(e.getPoint()));
+                    if (clicked != null) {
+                        showOrderModal(clicked);
                     }
                 }
             }
@@ -177,10 +224,13 @@ public class BaristaPanel extends JPanel {
         queueScroll.setBorder(BorderFactory.createLineBorder(BORDER, 1));
 
         btnInProgress = primaryOutline("Mark In Progress");
-        btnInProgress.addActionListener(e -> markInProgress());
+        btnInProgress.addActionListener(e -> Metrics.timedRun("BaristaPanel.markInProgress", this::markInProgress));
 
         btnServe = primary("Serve Next");
-        btnServe.addActionListener(e -> serveNext());
+        btnServe.addActionListener(e -> Metrics.timedRun("BaristaPanel.serveNext", this::serveNext));
+
+        btnServeSelected = primaryOutline("Serve Selected");
+        btnServeSelected.addActionListener(e -> Metrics.timedRun("BaristaPanel.serveSelected", this::serveSelected));
 
         btnDetails = ghost("View Details");
         btnDetails.addActionListener(e -> {
@@ -198,6 +248,7 @@ public class BaristaPanel extends JPanel {
 
         detailPanel.add(buildDetailHeader(), BorderLayout.NORTH);
         detailPanel.add(buildItemsTable(), BorderLayout.CENTER);
+        detailPanel.add(buildBatchPlan(), BorderLayout.SOUTH);
 
         lblStatus = new JLabel(" ");
         lblStatus.setFont(new Font("SansSerif", Font.PLAIN, 12));
@@ -247,6 +298,30 @@ public class BaristaPanel extends JPanel {
         return sp;
     }
 
+    private JComponent buildBatchPlan() {
+        JPanel panel = new JPanel(new BorderLayout(6, 6));
+        panel.setOpaque(false);
+
+        JLabel title = new JLabel("Make together (next " + batcher.window() + " orders)");
+        title.setFont(new Font("SansSerif", Font.BOLD, 13));
+        title.setForeground(TEXT);
+
+        batchPlan = new JTextArea(4, 20);
+        batchPlan.setEditable(false);
+        batchPlan.setLineWrap(true);
+        batchPlan.setWrapStyleWord(true);
+        batchPlan.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        batchPlan.setForeground(TEXT);
+        batchPlan.setBorder(new EmptyBorder(6, 8, 6, 8));
+
+        JScrollPane sp = new JScrollPane(batchPlan);
+        sp.setBorder(BorderFactory.createLineBorder(BORDER, 1));
+
+        panel.add(title, BorderLayout.NORTH);
+        panel.add(sp, BorderLayout.CENTER);
+        return panel;
+    }
+
     private JPanel buildStack(JComponent searchRow, JComponent actions, JComponent serveButton) {
         JPanel stack = new JPanel();
         stack.setOpaque(false);
@@ -260,10 +335,11 @@ public class BaristaPanel extends JPanel {
     }
 
     private JPanel buildActionRow() {
-        JPanel row = new JPanel(new GridLayout(1, 3, 8, 8));
+        JPanel row = new JPanel(new GridLayout(2, 2, 8, 8));
         row.setOpaque(false);
         row.add(btnDetails);
         row.add(btnInProgress);
+        row.add(btnServeSelected);
         row.add(btnServe);
         return row;
     }
@@ -272,12 +348,32 @@ public class BaristaPanel extends JPanel {
 
     private void serveNext() {
         if (orderQueue.isEmpty()) {
+            if (orderQueue.size() > 0) {
+                // Only spilled orders are left; serve once the refill has brought them in.
+                refillQueue();
+                setStatus("Loading queued orders, try again in a moment", WARN);
+                return;
+            }
             setStatus("No orders to serve", WARN);
             return;
         }
 
-        Order next = orderQueue.peek();
+        // The dispatcher hands out this station's oldest claim, else claims the oldest free order
+        // (or steals from the busiest station); another station can never get the same order.
+        OrderWorkflow.StepResult claimed = dispatcher.next(station, orderQueue);
+        if (claimed.order == null) {
+            refreshQueueList();
+            setStatus(claimed.saved() ? "All queued orders are claimed by other stations"
+                    : "DB error while claiming an order: " + claimed.dbError.getMessage(), WARN);
+            return;
+        }
+        Order next = claimed.order;
+        refreshQueueList();
+        selectOrder(next);
         renderDetails(next);
+        if (!claimed.saved()) {
+            setStatus("DB error while claiming (not claimed yet): " + claimed.dbError.getMessage(), WARN);
+        }
 
         String summary = "Serve this order?\n" +
                 "Order: " + next.getCode() + "\n" +
@@ -285,28 +381,37 @@ public class BaristaPanel extends JPanel {
                 "Total: " + MONEY_PH.format(next.getTotal());
         int choice = JOptionPane.showConfirmDialog(this, summary, "Confirm Serve", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
         if (choice != JOptionPane.OK_OPTION) {
-            setStatus("Serve cancelled", WARN);
+            setStatus("Serve cancelled; " + label(next)
+                    + (station.equals(next.getAssignedTo()) ? " stays with this station" : " is still unclaimed"), WARN);
             return;
         }
 
-        if (!previewMode && next.getId() != null) {
-            try {
-                orderDAO.updateStatusToCompleted(next.getId());
-                next.setStatus("COMPLETED");
-                next.setPaid(true);
-            } catch (Exception ex) {
-                setStatus("DB error while marking order complete: " + ex.getMessage(), WARN);
-            }
+        // The order leaves the queue inside serve once the DB confirms this station still holds it.
+        OrderWorkflow.StepResult result = dispatcher.serve(station, next, orderQueue);
+        if (!result.accepted) {
+            refreshQueueList();
+            setStatus(label(next) + " was already served or taken by another station", WARN);
+            return;
+        }
+        if (!result.saved()) {
+            setStatus("DB error while marking order complete: " + result.dbError.getMessage(), WARN);
         }
-
-        // Dequeue happens here after the barista confirms serving the next order.
-        // This removes the head of the linked-list queue (FIFO: oldest order first).
-        orderQueue.dequeue();
         refreshQueueList();
-        setStatus("Served " + (next.getCode() == null ? "order" : next.getCode()), SUCCESS);
+        if (result.saved()) setStatus("Served " + label(next), SUCCESS);
     }
 
     private void markInProgress() {
+        List<Order> selected = getSelectedOrders();
+        if (selected.size() > 1) {
+            StationDispatcher.BulkResult result = dispatcher.startAll(station, selected, orderQueue);
+            refreshQueueList();
+            if (result.dbError != null) {
+                setStatus("DB error while marking in progress: " + result.dbError.getMessage(), WARN);
+                return;
+            }
+            reportBulk("Marked", "as IN_PROGRESS", result);
+            return;
+        }
         Order order = getSelectedOrder();
         if (order == null) {
             setStatus("Select an order to update", WARN);
@@ -322,20 +427,58 @@ public class BaristaPanel extends JPanel {
             return;
         }
 
-        if (!previewMode && order.getId() != null) {
-            try {
-                orderDAO.updateStatusToInProgress(order.getId());
-            } catch (Exception ex) {
-                setStatus("DB error while marking in progress: " + ex.getMessage(), WARN);
-                return;
-            }
+        OrderWorkflow.StepResult result = dispatcher.start(station, order, orderQueue);
+        if (!result.accepted) {
+            refreshQueueList();
+            setStatus(result.saved() ? label(order) + " is claimed by another station"
+                    : "DB error while marking in progress: " + result.dbError.getMessage(), WARN);
+            return;
         }
 
-        order.setStatus("IN_PROGRESS");
         refreshQueueList();
         setStatus("Marked " + (order.getCode() == null ? "order" : order.getCode()) + " as IN_PROGRESS", SUCCESS);
     }
 
+    /** Serves every selected order after one confirmation, in one DB transaction. */
+    private void serveSelected() {
+        List<Order> selected = getSelectedOrders();
+        if (selected.isEmpty()) {
+            setStatus("Select orders to serve (Ctrl/Shift-click for several)", WARN);
+            return;
+        }
+
+        StringBuilder summary = new StringBuilder("Serve " + selected.size() + " order(s)?\n");
+        for (Order order : selected.subList(0, Math.min(10, selected.size()))) {
+            summary.append(label(order)).append(" • ").append(order.getCustomerName()).append('\n');
+        }
+        if (selected.size() > 10) summary.append("and ").append(selected.size() - 10).append(" more");
+        int choice = JOptionPane.showConfirmDialog(this, summary.toString(), "Confirm Serve", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (choice != JOptionPane.OK_OPTION) {
+            setStatus("Serve cancelled", WARN);
+            return;
+        }
+
+        StationDispatcher.BulkResult result = dispatcher.serveAll(station, selected, orderQueue);
+        refreshQueueList();
+        if (result.dbError != null) {
+            setStatus("DB error while marking orders complete: " + result.dbError.getMessage(), WARN);
+            return;
+        }
+        reportBulk("Served", "", result);
+    }
+
+    /** e.g. "Served 4 of 5 order(s); 1 taken by another station". */
+    private void reportBulk(String verb, String suffix, StationDispatcher.BulkResult result) {
+        int changed = result.count(OrderDAO.Transition.CHANGED) + result.count(OrderDAO.Transition.ALREADY);
+        int elsewhere = result.count(OrderDAO.Transition.CLAIMED_ELSEWHERE);
+        int gone = result.outcomes.size() - changed - elsewhere;
+        StringBuilder msg = new StringBuilder(verb + " " + changed + " of " + result.outcomes.size() + " order(s)"
+                + (suffix.isEmpty() ? "" : " " + suffix));
+        if (elsewhere > 0) msg.append("; ").append(elsewhere).append(" taken by another station");
+        if (gone > 0) msg.append("; ").append(gone).append(" already served or removed");
+        setStatus(msg.toString(), changed == result.outcomes.size() ? SUCCESS : WARN);
+    }
+
     private void searchActiveOrders() {
         String customerQ = searchCustomer.getText() == null ? "" : searchCustomer.getText();
         String codeQ = searchCode.getText() == null ? "" : searchCode.getText();
@@ -353,7 +496,7 @@ public class BaristaPanel extends JPanel {
         }
 
         Order first = matches.get(0);
-        int idx = currentQueueView.indexOf(first);
+        int idx = queueModel.indexOf(first);
         if (idx >= 0) {
             queueList.setSelectedIndex(idx);
             queueList.ensureIndexIsVisible(idx);
@@ -361,15 +504,97 @@ public class BaristaPanel extends JPanel {
         setStatus("Highlighted " + matches.size() + " matching order(s)", primary);
     }
 
-    private void loadActiveQueueFromDatabase() {
-        orderQueue = new OrderQueue();
+    /**
+     * Shows the queue saved by the last session at once when there is one and catches up with
+     * the database in the background; otherwise loads it. From then on polls for orders other
+     * screens changed and saves the queue, each on its own timer.
+     */
+    private void startQueue() {
+        if (previewMode || !snapshot.restore(orderQueue)) {
+            loadActiveQueueFromDatabase();
+        } else {
+            refreshQueueList();
+            setStatus("Queue restored, syncing with database...", primary);
+            syncQueue(true);
+        }
+        if (previewMode) return;
+
+        if (QueueSnapshot.pollMillis() > 0) {
+            Timer poll = new Timer(QueueSnapshot.pollMillis(), e -> {
+                if (!isDisplayable()) ((Timer) e.getSource()).stop();
+                else syncQueue(false);
+            });
+            poll.start();
+        }
+        Timer save = new Timer(QueueSnapshot.intervalMillis(), e -> {
+            snapshot.save(orderQueue);
+            if (!isDisplayable()) ((Timer) e.getSource()).stop();
+        });
+        save.start();
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        host = SwingUtilities.getWindowAncestor(this);
+        if (host != null) host.addWindowListener(releaseOnClose);
+    }
+
+    /** Logging out disposes the frame: this station's waiting claims go back to the others. */
+    @Override
+    public void removeNotify() {
+        if (host != null) host.removeWindowListener(releaseOnClose);
+        host = null;
+        Thread.ofVirtual().name("barista-release").start(this::releaseClaims);
+        super.removeNotify();
+    }
+
+    private void releaseClaims() {
         try {
-            List<Order> active = orderDAO.loadActiveOrders(OrderQueue.MAX_SIZE);
-            for (Order order : active) {
-                // Enqueue during DB sync: each active order is appended to the queue.
-                // This preserves the DB order so the UI shows oldest -> newest.
-                orderQueue.enqueue(order);
+            int released = dispatcher.release(station);
+            if (released > 0) System.err.println("[BaristaPanel] Released " + released + " claimed order(s) of station " + station);
+        } catch (Exception ex) {
+            System.err.println("[BaristaPanel] Could not release the claims of station " + station + ": " + ex.getMessage());
+        }
+    }
+
+    /** Fetches what changed since the last sync off the EDT and merges it; one fetch at a time. */
+    private void syncQueue(boolean restored) {
+        if (syncing) return;
+        syncing = true;
+        Thread.ofVirtual().name("barista-queue-delta").start(() -> {
+            try {
+                QueueSnapshot.Delta delta = snapshot.fetchDelta();
+                SwingUtilities.invokeLater(() -> {
+                    syncing = false;
+                    applyDelta(delta, restored);
+                });
+            } catch (Exception ex) {
+                SwingUtilities.invokeLater(() -> {
+                    syncing = false;
+                    if (restored) setStatus("Queue restored from last session (DB unavailable: " + ex.getMessage() + ")", WARN);
+                });
             }
+        });
+    }
+
+    private void applyDelta(QueueSnapshot.Delta delta, boolean restored) {
+        snapshot.apply(orderQueue, delta);
+        if (delta.changes.size() > 0) {
+            refreshQueueList();
+            snapshot.save(orderQueue);
+        }
+        if (restored) setStatus("Queue restored and synced (" + delta.changes.size() + " change(s) since last session)", primary);
+    }
+
+    private void loadActiveQueueFromDatabase() {
+        orderQueue.clear();
+        orderQueue = QueueOverflow.configuredQueue(orderDAO);
+        try {
+            // Enqueue during DB sync: each active order is appended to the queue.
+            // This preserves the DB order so the UI shows oldest -> newest.
+            snapshot.load(orderQueue);
+            if (!previewMode) snapshot.save(orderQueue);
             refreshQueueList();
             setStatus("Queue synced from database" + (previewMode ? " (preview mode)" : ""), primary);
         } catch (Exception ex) {
@@ -379,7 +604,7 @@ public class BaristaPanel extends JPanel {
     }
 
     public void refreshData() {
-        loadActiveQueueFromDatabase();
+        Metrics.timedRun("BaristaPanel.refreshData", this::loadActiveQueueFromDatabase);
     }
 
     // -------------------- UI updates --------------------
@@ -387,28 +612,77 @@ public class BaristaPanel extends JPanel {
     private void refreshQueueList() {
         // Traversal here rebuilds the UI list from the linked-list queue.
         // The linked nodes are copied into a List so Swing can render them.
+        orderQueue.estimateReadyTimes(OrderQueue.etaBaristas(), System.currentTimeMillis());
         rebuildQueueList(orderQueue.traverse());
+        refillQueue();
+    }
+
+    /**
+     * Pulls spilled orders back into the hot window once it has room. The store read (a DB
+     * query for saved orders) runs off the EDT; the list refreshes when they are linked in.
+     */
+    private void refillQueue() {
+        OrderQueue queue = orderQueue;
+        OrderQueue.Refill refill = queue.startRefill();
+        if (refill == null) return;
+        Thread.ofVirtual().name("barista-queue-refill").start(() -> {
+            try {
+                List<Order> pulled = refill.pull();
+                SwingUtilities.invokeLater(() -> {
+                    refill.finish(pulled);
+                    if (queue == orderQueue) refreshQueueList();
+                });
+            } catch (Exception ex) {
+                // No refresh here, so a dead DB is retried on the next change rather than in a loop.
+                SwingUtilities.invokeLater(() -> {
+                    refill.finish(List.of());
+                    setStatus("Could not load queued orders: " + ex.getMessage(), WARN);
+                });
+            }
+        });
     }
 
     private void rebuildQueueList(List<Order> orders) {
-        queueModel.clear();
-        currentQueueView.clear();
-        currentQueueView.addAll(orders);
-        for (Order o : orders) {
-            queueModel.addElement(formatQueueLine(o));
-        }
+        // Only the rows that actually changed are touched; selection follows its order.
+        queueModel.sync(orders);
         updateQueueBadge();
-        if (!orders.isEmpty()) {
+        updateBatchPlan(orders);
+        if (orders.isEmpty()) {
+            clearDetails();
+            return;
+        }
+        Order selected = getSelectedOrder();
+        if (selected == null) {
             queueList.setSelectedIndex(0);
         } else {
-            clearDetails();
+            // Same selection, possibly new status: keep the detail pane current.
+            renderDetails(selected);
         }
     }
 
     private String formatQueueLine(Order order) {
         String code = order.getCode() == null ? "Order" : order.getCode();
         String status = order.getStatus() == null ? "PENDING" : order.getStatus();
-        return code + " • " + order.getCustomerName() + " • " + MONEY_PH.format(order.getTotal()) + " • " + status;
+        String line = code + " • " + order.getCustomerName() + " • " + MONEY_PH.format(order.getTotal()) + " • " + status + eta(order);
+        if (order.getAssignedTo() == null) return line;
+        return line + " • " + (station.equals(order.getAssignedTo()) ? "this station" : "@" + order.getAssignedTo());
+    }
+
+    /** Estimated ready time from the last queue refresh, e.g. " • ready ~10:42". */
+    private static String eta(Order order) {
+        return order.getReadyEtaMillis() == 0 ? "" : String.format(" • ready ~%tR", order.getReadyEtaMillis());
+    }
+
+    private static String label(Order order) {
+        return order.getCode() == null ? "order" : order.getCode();
+    }
+
+    private void selectOrder(Order order) {
+        int idx = queueModel.indexOf(order);
+        if (idx >= 0) {
+            queueList.setSelectedIndex(idx);
+            queueList.ensureIndexIsVisible(idx);
+        }
     }
 
     private void renderDetails(Order order) {
@@ -430,9 +704,16 @@ public class BaristaPanel extends JPanel {
     }
 
     private Order getSelectedOrder() {
-        int idx = queueList.getSelectedIndex();
-        if (idx < 0 || idx >= currentQueueView.size()) return null;
-        return currentQueueView.get(idx);
+        return queueModel.getOrderAt(queueList.getSelectedIndex());
+    }
+
+    private List<Order> getSelectedOrders() {
+        List<Order> out = new ArrayList<>();
+        for (int idx : queueList.getSelectedIndices()) {
+            Order order = queueModel.getOrderAt(idx);
+            if (order != null) out.add(order);
+        }
+        return out;
     }
 
     private void showOrderModal(Order order) {
@@ -500,8 +781,31 @@ public class BaristaPanel extends JPanel {
         itemsModel.setRowCount(0);
     }
 
+    /** Shifts the batching window to the new queue head and lists what can be made together. */
+    private void updateBatchPlan(List<Order> orders) {
+        batcher.sync(orders);
+        StringBuilder sb = new StringBuilder();
+        for (DrinkBatcher.Batch batch : batcher.plan()) {
+            if (sb.length() > 0) sb.append('\n');
+            sb.append(batch.quantity).append(" × ").append(batch.itemName);
+            if (!batch.temperature.isEmpty()) sb.append(" (").append(batch.temperature).append(')');
+            sb.append(batch.identical ? ", all the same: " : ": ");
+            for (int i = 0; i < batch.entries.size(); i++) {
+                DrinkBatcher.Entry e = batch.entries.get(i);
+                if (i > 0) sb.append(", ");
+                sb.append(label(e.order));
+                if (e.item.getQuantity() > 1) sb.append(" ×").append(e.item.getQuantity());
+                if (!batch.identical) sb.append(" [").append(e.item.getOptionsLabel()).append(']');
+            }
+        }
+        batchPlan.setText(sb.length() == 0 ? "Nothing to batch in the next orders." : sb.toString());
+        batchPlan.setCaretPosition(0);
+    }
+
     private void updateQueueBadge() {
-        lblQueueCount.setText(orderQueue.size() + " in queue");
+        int spilled = orderQueue.spilled();
+        lblQueueCount.setText(orderQueue.size() + " in queue" + (spilled > 0 ? " (" + spilled + " not listed)" : ""));
+        lblQueueCount.setForeground(orderQueue.pressure() == OrderQueue.Pressure.NORMAL ? MUTED : WARN);
     }
 
     private void setStatus(String msg, Color color) {
@@ -0,0 +1,38 @@
+package app.ui;
+
+import javax.swing.AbstractListModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * List model whose contents are swapped in one step, firing a single list event
+ * instead of one event per element like DefaultListModel.clear() + addElement().
+ */
+public class BulkListModel<T> extends AbstractListModel<T> {
+    private List<T> items = new ArrayList<>();
+
+    public void replaceAll(List<? extends T> next) {
+        int oldSize = items.size();
+        items = new ArrayList<>(next);
+        int newSize = items.size();
+
+        if (oldSize == 0 && newSize == 0) return;
+        if (oldSize == 0) {
+            fireIntervalAdded(this, 0, newSize - 1);
+        } else if (newSize == 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        } else {
+            fireContentsChanged(this, 0, Math.max(oldSize, newSize) - 1);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return items.size();
+    }
+
+    @Override
+    public T getElementAt(int index) {
+        return items.get(index);
+    }
+}
@@ -3,12 +3,17 @@ package app.ui;
 import app.db.AssetService;
 import app.db.MenuItemDAO;
 import app.db.OrderDAO;
+import app.db.OrderWorkflow;
+import app.db.QueueOverflow;
+import app.db.QueueSnapshot;
 import app.model.MenuItem;
 import app.model.Order;
 import app.model.OrderItem;
+import app.model.OrderPricing;
 import app.model.OrderQueue;
 import app.util.InsertionSort;
 import app.util.LinearSearch;
+import app.util.Metrics;
 
 import javax.swing.*;
 import javax.swing.border.Border;
@@ -19,7 +24,6 @@ import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import javax.swing.table.TableCellRenderer;
 import java.awt.*;
-import java.math.BigDecimal;
 import java.net.URL;
 import java.text.NumberFormat;
 import java.util.ArrayList;
@@ -41,16 +45,22 @@ public class CashierPanel extends JPanel {
     private final String username;
     private final String shopName;
 
-    private final DefaultListModel<MenuItem> menuModel = new DefaultListModel<>();
+    private final BulkListModel<MenuItem> menuModel = new BulkListModel<>();
     private final List<MenuItem> allMenuItems = new ArrayList<>();
+    // Linear search entry point for the menu filter (triggered when typing/searching menu):
+    // each debounced query scans the menu items and keeps those whose code/name/category match.
+    private final IncrementalFilter<MenuItem> menuFilter =
+            new IncrementalFilter<>(LinearSearch::menuItemMatches, menuModel::replaceAll, MENU_FILTER_DEBOUNCE_MS);
 
     private final List<CartLine> cart = new ArrayList<>();
     private DefaultTableModel cartModel;
     private JTable cartTable;
 
-    private final DefaultListModel<String> queueModel = new DefaultListModel<>();
-    private OrderQueue orderQueue = new OrderQueue();
-    private final List<Order> currentQueueView = new ArrayList<>();
+    private final OrderQueueListModel queueModel = new OrderQueueListModel(this::formatQueueLine);
+    private final OrderDAO orderDAO = new OrderDAO();
+    private OrderQueue orderQueue = QueueOverflow.configuredQueue(orderDAO);
+    private final QueueSnapshot snapshot = QueueSnapshot.configured(orderDAO, "cashier");
+    private boolean syncing;   // a delta fetch is in flight (EDT only)
     private Order editingOrder;
     private JList<String> queueList;
     private JLabel lblSubtotal;
@@ -69,7 +79,7 @@ public class CashierPanel extends JPanel {
     private int orderCounter = 1000;
 
     private final MenuItemDAO menuItemDAO = new MenuItemDAO();
-    private final OrderDAO orderDAO = new OrderDAO();
+    private final OrderWorkflow orderWorkflow;
     private final Set<String> customizableCategories = Set.of("Coffee", "Tea", "Iced");
 
     private static final Color BG = new Color(243, 245, 249);
@@ -94,11 +104,31 @@ public class CashierPanel extends JPanel {
     private final Color menuAccent = primary;
 
     private static final NumberFormat MONEY_PH = NumberFormat.getCurrencyInstance(new Locale("en", "PH"));
+    private static volatile CashierPanel gauged;
+    private static boolean gaugeRegistered;   // guarded by CashierPanel.class
     private static final int MENU_IMAGE_SIZE = 150;
+    private static final int MENU_FILTER_DEBOUNCE_MS = 120;
     private final Map<String, ImageIcon> menuImageCache = new HashMap<>();
 
+    /**
+     * One queue-size gauge per role, registered by the first live panel and reading the latest
+     * one, so rebuilt pages neither replace it nor stay reachable through it. Preview panels are
+     * not measured.
+     */
+    private static synchronized void measureQueue(CashierPanel panel) {
+        gauged = panel;
+        if (gaugeRegistered) return;
+        gaugeRegistered = true;
+        Metrics.gauge("CashierPanel.queue.size", () -> {
+            CashierPanel p = gauged;
+            return p == null ? 0 : p.orderQueue.size();
+        });
+    }
+
     public CashierPanel(boolean previewMode, String username, String shopName) {
         this.previewMode = previewMode;
+        this.orderWorkflow = new OrderWorkflow(orderDAO, !previewMode);
+        if (!previewMode) measureQueue(this);
         this.username = username == null ? "cashier" : username;
         this.shopName = shopName == null ? "Coffee Shop" : shopName;
 
@@ -109,7 +139,7 @@ public class CashierPanel extends JPanel {
         add(buildHeader(), BorderLayout.NORTH);
         add(buildWorkspace(), BorderLayout.CENTER);
 
-        loadActiveQueueFromDatabase();
+        startQueue();
     }
 
     // -------------------- Header --------------------
@@ -170,12 +200,15 @@ public class CashierPanel extends JPanel {
         menuSortMode = new JComboBox<>(new String[]{"Name (A-Z)", "Price (Low-High)"});
         menuSortMode.setToolTipText("Selection sort: name or price");
         styleMenuField(menuSortMode);
-        menuSortMode.addActionListener(e -> filterMenu(menuSearchField.getText()));
+        menuSortMode.addActionListener(e -> {
+            updateMenuSorter();
+            menuFilter.requestNow(menuSearchField.getText());
+        });
 
         menuSearchField.getDocument().addDocumentListener(new DocumentListener() {
-            @Override public void insertUpdate(DocumentEvent e) { filterMenu(menuSearchField.getText()); }
-            @Override public void removeUpdate(DocumentEvent e) { filterMenu(menuSearchField.getText()); }
-            @Override public void changedUpdate(DocumentEvent e) { filterMenu(menuSearchField.getText()); }
+            @Override public void insertUpdate(DocumentEvent e) { menuFilter.request(menuSearchField.getText()); }
+            @Override public void removeUpdate(DocumentEvent e) { menuFilter.request(menuSearchField.getText()); }
+            @Override public void changedUpdate(DocumentEvent e) { menuFilter.request(menuSearchField.getText()); }
         });
 
         JPanel menuHeader = new JPanel();
@@ -282,7 +315,7 @@ public class CashierPanel extends JPanel {
         lblTotal = totalRow(totals, t, 2, "Grand Total");
 
         JButton btnCheckout = primary("Checkout & Queue");
-        btnCheckout.addActionListener(e -> checkout());
+        btnCheckout.addActionListener(e -> Metrics.timedRun("CashierPanel.checkout", this::checkout));
 
         t.gridy = 3; t.insets = new Insets(12, 0, 0, 0);
         totals.add(btnCheckout, t);
@@ -318,7 +351,8 @@ public class CashierPanel extends JPanel {
 
         JPanel queueHeader = new JPanel(new BorderLayout());
         queueHeader.setOpaque(false);
-        JLabel queueTitle = new JLabel("Order Queue (max 50)");
+        JLabel queueTitle = new JLabel("Order Queue (" + (orderQueue.spills() ? "no limit" : "max " + OrderQueue.MAX_SIZE)
+                + (orderQueue.scheduling() == OrderQueue.Scheduling.SHORT_FIRST ? ", short orders first)" : ")"));
         queueTitle.setFont(new Font("SansSerif", Font.BOLD, 14));
         queueTitle.setForeground(TEXT);
         lblQueueCount = new JLabel("0 in queue");
@@ -375,9 +409,8 @@ public class CashierPanel extends JPanel {
         queueList.setBorder(BorderFactory.createEmptyBorder(4, 4, 4, 4));
         queueList.addListSelectionListener(e -> {
             if (e.getValueIsAdjusting()) return;
-            int idx = queueList.getSelectedIndex();
-            if (idx >= 0 && idx < currentQueueView.size()) {
-                Order selected = currentQueueView.get(idx);
+            Order selected = queueModel.getOrderAt(queueList.getSelectedIndex());
+            if (selected != null) {
                 renderReceipt(selected);
                 setStatus("Previewing " + selected.getCode(), primary);
             }
@@ -516,69 +549,34 @@ public class CashierPanel extends JPanel {
             return;
         }
 
-        if (orderQueue.size() >= OrderQueue.MAX_SIZE) {
-            setStatus("Queue full (50). Serve some orders first.", WARN);
+        // Only a queue without overflow storage refuses orders; otherwise the cashier is warned.
+        if (!orderQueue.spills() && orderQueue.size() >= OrderQueue.MAX_SIZE) {
+            setStatus("Queue full (" + OrderQueue.MAX_SIZE + "). Serve some orders first.", WARN);
             return;
         }
 
-        double subtotalVal = cart.stream().mapToDouble(c -> priceWithOptions(c.item, c.options) * c.qty).sum();
-        double taxVal = 0;
-        double totalVal = subtotalVal;
-
         boolean editing = editingOrder != null;
 
         Order order = editing ? editingOrder : new Order();
         if (order.getCode() == null) {
             order.setCode(generateOrderCode());
         }
-        order.setCustomerName(customerField.getText().isBlank() ? "Walk-in" : customerField.getText().trim());
-        order.setSubtotal(BigDecimal.valueOf(subtotalVal));
-        order.setTax(BigDecimal.valueOf(taxVal));
-        order.setTotal(BigDecimal.valueOf(totalVal));
-        if (order.getStatus() == null || "IN_PROGRESS".equalsIgnoreCase(order.getStatus())) {
-            order.setStatus("PENDING");
-        }
-        order.setPaid(false);
 
-        order.getItems().clear();
+        List<OrderItem> lines = new ArrayList<>(cart.size());
         for (CartLine line : cart) {
-            OrderItem item = new OrderItem();
-            item.setItemCode(line.item.getCode());
-            item.setItemName(line.item.getName());
-            item.setOptionsLabel(line.options.label());
-            item.setQuantity(line.qty);
-            BigDecimal unit = BigDecimal.valueOf(priceWithOptions(line.item, line.options));
-            item.setUnitPrice(unit);
-            item.setLineTotal(unit.multiply(BigDecimal.valueOf(line.qty)));
-            order.addItem(item);
+            lines.add(OrderPricing.line(line.item, line.options.label(), priceWithOptions(line.item, line.options), line.qty));
         }
-
-        boolean dbOk = true;
-        if (!previewMode) {
-            try {
-                if (editing && order.getId() == null) {
-                    Integer existingId = orderDAO.findIdByCode(order.getCode());
-                    if (existingId != null) {
-                        order.setId(existingId);
-                    }
-                }
-                if (editing && order.getId() != null) {
-                    orderDAO.updateOrderWithItems(order);
-                } else {
-                    orderDAO.insertOrderWithItems(order);
-                }
-            } catch (Exception ex) {
-                dbOk = false;
-                logError("Failed to save order " + order.getCode(), ex);
-                setStatus("DB issue while saving order: " + ex.getMessage() + " (queued locally)", WARN);
-            }
+        OrderWorkflow.prepareCheckout(order, customerField.getText(), lines);
+
+        // Save, then enqueue (FIFO): the new order becomes the tail so earlier orders remain at the head.
+        OrderWorkflow.StepResult result = orderWorkflow.checkout(order, editing, orderQueue);
+        boolean dbOk = result.saved();
+        if (!dbOk) {
+            logError("Failed to save order " + order.getCode(), result.dbError);
+            setStatus("DB issue while saving order: " + result.dbError.getMessage() + " (queued locally)", WARN);
         }
-
-        // Enqueue happens here when the cashier checks out and adds a new order to FIFO.
-        // The new order becomes the tail so earlier orders remain at the head.
-        boolean accepted = orderQueue.enqueue(order);
-        if (!accepted) {
-            setStatus("Queue full (50). Serve some orders first.", WARN);
+        if (!result.accepted) {
+            setStatus("Queue full (" + OrderQueue.MAX_SIZE + "). Serve some orders first.", WARN);
             return;
         }
 
@@ -587,17 +585,27 @@ public class CashierPanel extends JPanel {
         cart.clear();
         refreshCartTable();
         editingOrder = null;
-        setStatus((previewMode ? "Preview: " : "") + (editing ? "Updated order " : "Queued order ") + order.getCode() + (dbOk ? "" : " (not saved to DB)"), dbOk ? SUCCESS : WARN);
+        String pressure = pressureNote();
+        setStatus((previewMode ? "Preview: " : "") + (editing ? "Updated order " : "Queued order ") + order.getCode() + (dbOk ? "" : " (not saved to DB)") + pressure,
+                dbOk && pressure.isEmpty() ? SUCCESS : WARN);
+    }
+
+    /** Backpressure warning for the status line, "" while the queue is below the warn threshold. */
+    private String pressureNote() {
+        return switch (orderQueue.pressure()) {
+            case OVERLOADED -> " • Queue overloaded: " + orderQueue.size() + " open orders, tell customers about the wait";
+            case BUSY -> " • Queue busy: " + orderQueue.size() + " open orders";
+            case NORMAL -> "";
+        };
     }
 
     private void editSelectedOrder() {
-        int idx = queueList.getSelectedIndex();
-        if (idx < 0 || idx >= currentQueueView.size()) {
+        Order target = queueModel.getOrderAt(queueList.getSelectedIndex());
+        if (target == null) {
             setStatus("Select an order to edit", WARN);
             return;
         }
 
-        Order target = currentQueueView.get(idx);
         String status = target.getStatus() == null ? "PENDING" : target.getStatus();
         if ("IN_PROGRESS".equalsIgnoreCase(status)) {
             setStatus("IN_PROGRESS orders can no longer be edited", WARN);
@@ -711,23 +719,51 @@ public class CashierPanel extends JPanel {
     private void refreshQueueList() {
         // Traversal used here to list all current orders in the cashier queue view.
         // The linked-list queue is converted to a List for the Swing JList model.
+        orderQueue.estimateReadyTimes(OrderQueue.etaBaristas(), System.currentTimeMillis());
         rebuildQueueList(orderQueue.traverse());
+        refillQueue();
+    }
+
+    /**
+     * Pulls spilled orders back into the hot window once it has room. The store read (a DB
+     * query for saved orders) runs off the EDT; the list refreshes when they are linked in.
+     */
+    private void refillQueue() {
+        OrderQueue queue = orderQueue;
+        OrderQueue.Refill refill = queue.startRefill();
+        if (refill == null) return;
+        Thread.ofVirtual().name("cashier-queue-refill").start(() -> {
+            try {
+                List<Order> pulled = refill.pull();
+                SwingUtilities.invokeLater(() -> {
+                    refill.finish(pulled);
+                    if (queue == orderQueue) refreshQueueList();
+                });
+            } catch (Exception ex) {
+                // No refresh here, so a dead DB is retried on the next change rather than in a loop.
+                SwingUtilities.invokeLater(() -> {
+                    refill.finish(List.of());
+                    setStatus("Could not load queued orders: " + ex.getMessage(), WARN);
+                });
+            }
+        });
     }
 
     private void rebuildQueueList(List<Order> orders) {
-        queueModel.clear();
-        currentQueueView.clear();
-        currentQueueView.addAll(orders);
-        for (Order o : orders) {
-            queueModel.addElement(formatQueueLine(o));
-        }
+        // Only the rows that actually changed are touched; selection follows its order.
+        queueModel.sync(orders);
         updateQueueBadge();
     }
 
     private String formatQueueLine(Order order) {
         String code = order.getCode() == null ? "Order" : order.getCode();
         String status = order.getStatus() == null ? "PENDING" : order.getStatus();
-        return code + " • " + order.getCustomerName() + " • " + MONEY_PH.format(order.getTotal()) + " • " + status;
+        return code + " • " + order.getCustomerName() + " • " + MONEY_PH.format(order.getTotal()) + " • " + status + eta(order);
+    }
+
+    /** Estimated ready time from the last queue refresh, e.g. " • ready ~10:42". */
+    private static String eta(Order order) {
+        return order.getReadyEtaMillis() == 0 ? "" : String.format(" • ready ~%tR", order.getReadyEtaMillis());
     }
 
     private void renderReceipt(Order order) {
@@ -816,15 +852,7 @@ public class CashierPanel extends JPanel {
     }
 
     private double priceWithOptions(MenuItem item, DrinkOptions options) {
-        double price = item.getPrice().doubleValue();
-        switch (options.size) {
-            case "Medium" -> price += 10;
-            case "Large" -> price += 20;
-            default -> { /* Small keeps base */ }
-        }
-        if (options.extraShot) price += 20;
-        if (options.altMilk) price += 25;
-        return price;
+        return OrderPricing.unitPrice(item, options.size, options.extraShot, options.altMilk);
     }
 
     private String generateOrderCode() {
@@ -844,7 +872,9 @@ public class CashierPanel extends JPanel {
     }
 
     private void updateQueueBadge() {
-        lblQueueCount.setText(orderQueue.size() + " in queue");
+        int spilled = orderQueue.spilled();
+        lblQueueCount.setText(orderQueue.size() + " in queue" + (spilled > 0 ? " (" + spilled + " not listed)" : ""));
+        lblQueueCount.setForeground(orderQueue.pressure() == OrderQueue.Pressure.NORMAL ? MUTED : WARN);
     }
 
     private JLabel totalRow(JPanel parent, GridBagConstraints g, int y, String label) {
@@ -867,22 +897,22 @@ public class CashierPanel extends JPanel {
     }
 
     private void filterMenu(String q) {
-        menuModel.clear();
-        // Linear search entry point for the menu filter (triggered when typing/searching menu).
-        // Iterates through allMenuItems and keeps those whose code/name/category match.
-        List<MenuItem> results = LinearSearch.searchMenuByName(allMenuItems, q);
+        // Full reload of the menu list: new source, current sort, applied immediately.
+        menuFilter.setSource(allMenuItems);
+        updateMenuSorter();
+        menuFilter.applyNow(q);
+    }
+
+    private void updateMenuSorter() {
         String mode = menuSortMode == null ? "Name (A-Z)" : String.valueOf(menuSortMode.getSelectedItem());
         if ("Price (Low-High)".equals(mode)) {
             // Insertion sort triggered when viewing menu sorted by price.
             // The filtered results are sorted in-place before rendering.
-            InsertionSort.sort(results, Comparator.comparing(MenuItem::getPrice));
+            menuFilter.setSorter(results -> InsertionSort.sort(results, Comparator.comparing(MenuItem::getPrice)));
         } else {
             // Insertion sort triggered when viewing menu sorted by name.
             // The filtered results are sorted in-place before rendering.
-            InsertionSort.sort(results, Comparator.comparing(MenuItem::getName));
-        }
-        for (MenuItem m : results) {
-            menuModel.addElement(m);
+            menuFilter.setSorter(results -> InsertionSort.sort(results, Comparator.comparing(MenuItem::getName)));
         }
     }
 
@@ -910,20 +940,83 @@ public class CashierPanel extends JPanel {
         }
     }
 
+    /**
+     * Shows the queue saved by the last session at once when there is one and catches up with
+     * the database in the background; otherwise loads it. From then on polls for orders other
+     * screens changed and saves the queue, each on its own timer.
+     */
+    private void startQueue() {
+        if (previewMode || !snapshot.restore(orderQueue)) {
+            loadActiveQueueFromDatabase();
+        } else {
+            for (Order order : orderQueue.traverse()) bumpOrderCounter(order);
+            refreshQueueList();
+            setStatus("Queue restored, syncing with database...", primary);
+            syncQueue(true);
+        }
+        if (previewMode) return;
+
+        if (QueueSnapshot.pollMillis() > 0) {
+            Timer poll = new Timer(QueueSnapshot.pollMillis(), e -> {
+                if (!isDisplayable()) ((Timer) e.getSource()).stop();
+                else syncQueue(false);
+            });
+            poll.start();
+        }
+        Timer save = new Timer(QueueSnapshot.intervalMillis(), e -> {
+            snapshot.save(orderQueue);
+            if (!isDisplayable()) ((Timer) e.getSource()).stop();
+        });
+        save.start();
+    }
+
+    /** Fetches what changed since the last sync off the EDT and merges it; one fetch at a time. */
+    private void syncQueue(boolean restored) {
+        if (syncing) return;
+        syncing = true;
+        Thread.ofVirtual().name("cashier-queue-delta").start(() -> {
+            try {
+                QueueSnapshot.Delta delta = snapshot.fetchDelta();
+                SwingUtilities.invokeLater(() -> {
+                    syncing = false;
+                    applyDelta(delta, restored);
+                });
+            } catch (Exception ex) {
+                SwingUtilities.invokeLater(() -> {
+                    syncing = false;
+                    if (restored) setStatus("Queue restored from last session (DB unavailable: " + ex.getMessage() + ")", WARN);
+                });
+            }
+        });
+    }
+
+    private void applyDelta(QueueSnapshot.Delta delta, boolean restored) {
+        List<Order> added = snapshot.apply(orderQueue, delta);
+        for (Order order : added) {
+            bumpOrderCounter(order);
+            // The order on the checkout form was taken out of the queue on purpose.
+            if (editingOrder != null && order.getId().equals(editingOrder.getId())) orderQueue.remove(order);
+        }
+        if (delta.changes.size() > 0) {
+            refreshQueueList();
+            snapshot.save(orderQueue);
+        }
+        if (restored) setStatus("Queue restored and synced (" + delta.changes.size() + " change(s) since last session)", primary);
+    }
+
     private void loadActiveQueueFromDatabase() {
-        orderQueue = new OrderQueue();
+        orderQueue.clear();
+        orderQueue = QueueOverflow.configuredQueue(orderDAO);
         if (previewMode) {
             refreshQueueList();
             setStatus("Queue refreshed (preview mode)", primary);
             return;
         }
         try {
-            List<Order> active = orderDAO.loadActiveOrders(OrderQueue.MAX_SIZE);
-            for (Order order : active) {
-                if (orderQueue.enqueue(order)) {
-                    bumpOrderCounter(order);
-                }
+            for (Order order : snapshot.load(orderQueue)) {
+                bumpOrderCounter(order);
             }
+            snapshot.save(orderQueue);
             refreshQueueList();
             setStatus("Queue synced from database", primary);
         } catch (Exception ex) {
@@ -933,10 +1026,12 @@ public class CashierPanel extends JPanel {
     }
 
     public void refreshData() {
-        loadMenuFromDatabaseOrFallback();
-        String query = menuSearchField == null ? "" : menuSearchField.getText();
-        filterMenu(query);
-        loadActiveQueueFromDatabase();
+        Metrics.timedRun("CashierPanel.refreshData", () -> {
+            loadMenuFromDatabaseOrFallback();
+            String query = menuSearchField == null ? "" : menuSearchField.getText();
+            filterMenu(query);
+            loadActiveQueueFromDatabase();
+        });
     }
 
     // -------------------- Helpers --------------------
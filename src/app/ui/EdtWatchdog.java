@@ -0,0 +1,211 @@
+package app.ui;
+
+import app.util.Metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detects UI freezes: a daemon thread watches the {@link TimedEventQueue} heartbeat and, whenever
+ * the EDT has been busy for longer than the budget without a beat, samples the EDT stack.
+ *
+ * Samples are grouped by where the EDT was stuck (the top frame plus the nearest app frames), so
+ * {@link #report} lists the blocking calls by how often they froze the UI. Every freeze is also
+ * timed under "EDT.freeze" in {@link Metrics}, which puts the count on the owner diagnostics page.
+ *
+ * Budget: -Dedt.watchdog.budget.ms (default 100); 0 turns the watchdog off.
+ */
+public final class EdtWatchdog {
+
+    public static final String BUDGET_PROPERTY = "edt.watchdog.budget.ms";
+    private static final long DEFAULT_BUDGET_MS = 100;
+    private static final int APP_FRAMES_IN_KEY = 3;
+    private static final int MAX_REPORT_FRAMES = 20;
+
+    private static volatile EdtWatchdog instance;
+
+    private final TimedEventQueue queue;
+    private final long budgetNanos;
+    private final Map<String, Hotspot> hotspots = new ConcurrentHashMap<>();
+    private final LongAdder freezes = new LongAdder();
+    private final AtomicLong longestNanos = new AtomicLong();
+
+    private EdtWatchdog(TimedEventQueue queue, long budgetMillis) {
+        this.queue = queue;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+
+    /**
+     * Starts watching the given queue with the configured budget; returns null when disabled.
+     */
+    public static synchronized EdtWatchdog start(TimedEventQueue queue) {
+        if (instance != null) return instance;
+        long budget = Long.getLong(BUDGET_PROPERTY, DEFAULT_BUDGET_MS);
+        if (budget <= 0 || queue == null) return null;
+
+        EdtWatchdog watchdog = new EdtWatchdog(queue, budget);
+        queue.setWatchdog(watchdog);
+        Metrics.gauge("EDT.freezes", watchdog::freezeCount);
+        Thread t = new Thread(watchdog::watch, "edt-watchdog");
+        t.setDaemon(true);
+        t.start();
+        instance = watchdog;
+        return watchdog;
+    }
+
+    /** The running watchdog, or null when it was not started. */
+    public static EdtWatchdog get() {
+        return instance;
+    }
+
+    public long freezeCount() {
+        return freezes.sum();
+    }
+
+    public long longestFreezeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(longestNanos.get());
+    }
+
+    public long budgetMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(budgetNanos);
+    }
+
+    /** Called on the EDT at the end of each busy stretch. */
+    void busyFor(long nanos) {
+        if (nanos < budgetNanos) return;
+        freezes.increment();
+        longestNanos.accumulateAndGet(nanos, Math::max);
+        Metrics.timer("EDT.freeze").record(nanos, true);
+    }
+
+    private void watch() {
+        long pollMillis = Math.max(10, budgetMillis() / 4);
+        long sampledBeat = -1;
+        long nextSampleAt = 0;
+        while (true) {
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            if (queue.isIdle()) continue;
+
+            long beat = queue.beats();
+            long now = System.nanoTime();
+            long busy = now - queue.lastBeatNanos();
+            if (busy < budgetNanos || beat != queue.beats()) continue;
+
+            // One sample as the budget is crossed, then one per budget while the EDT stays stuck.
+            boolean first = beat != sampledBeat;
+            if (first) {
+                sampledBeat = beat;
+                nextSampleAt = now;
+            }
+            if (now - nextSampleAt < 0) continue;
+            nextSampleAt = now + budgetNanos;
+            sample(first, busy);
+        }
+    }
+
+    private void sample(boolean firstOfFreeze, long busyNanos) {
+        Thread edt = queue.dispatchThread();
+        if (edt == null) return;
+        StackTraceElement[] stack = edt.getStackTrace();
+        if (stack.length == 0 || queue.isIdle()) return;
+
+        String key = keyOf(stack);
+        Hotspot spot = hotspots.computeIfAbsent(key, k -> new Hotspot(k, stack));
+        spot.samples.increment();
+        if (firstOfFreeze) {
+            spot.freezes.increment();
+            System.err.println("[EDT] UI blocked for " + TimeUnit.NANOSECONDS.toMillis(busyNanos) + " ms in " + key);
+        }
+    }
+
+    /**
+     * Top frame (the call that is blocking) followed by the nearest app.* frames that led to it.
+     * The event queue and metrics wrappers are skipped; they sit under every sample.
+     */
+    static String keyOf(StackTraceElement[] stack) {
+        StringBuilder key = new StringBuilder(frame(stack[0]));
+        int appFrames = isAppFrame(stack[0]) ? 1 : 0;
+        for (int i = 1; i < stack.length && appFrames < APP_FRAMES_IN_KEY; i++) {
+            if (!isAppFrame(stack[i])) continue;
+            key.append(" <- ").append(frame(stack[i]));
+            appFrames++;
+        }
+        return key.toString();
+    }
+
+    private static boolean isAppFrame(StackTraceElement e) {
+        String cls = e.getClassName();
+        return cls.startsWith("app.")
+                && !cls.equals(TimedEventQueue.class.getName())
+                && !cls.startsWith(Metrics.class.getName());
+    }
+
+    private static String frame(StackTraceElement e) {
+        String cls = e.getClassName();
+        return cls.substring(cls.lastIndexOf('.') + 1) + "." + e.getMethodName()
+                + (e.getLineNumber() > 0 ? ":" + e.getLineNumber() : "");
+    }
+
+    /** Hotspots ordered by sample count, most frequent first. */
+    public List<Hotspot> hotspots() {
+        List<Hotspot> out = new ArrayList<>(hotspots.values());
+        out.sort(Comparator.comparingLong(Hotspot::samples).reversed());
+        return out;
+    }
+
+    /**
+     * Frequency-ranked freeze report: one block per hotspot with its counts and a sample stack.
+     */
+    public String report(int top) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "EDT freezes over %d ms: %d (longest %d ms)%n",
+                budgetMillis(), freezeCount(), longestFreezeMillis()));
+        List<Hotspot> ranked = hotspots();
+        for (int i = 0; i < ranked.size() && i < top; i++) {
+            Hotspot h = ranked.get(i);
+            sb.append(String.format(Locale.ROOT, "%n#%d  %d sample(s), %d freeze(s)  %s%n",
+                    i + 1, h.samples(), h.freezes(), h.key));
+            for (int f = 0; f < h.stack.length && f < MAX_REPORT_FRAMES; f++) {
+                sb.append("      at ").append(h.stack[f]).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    public void reset() {
+        hotspots.clear();
+        freezes.reset();
+        longestNanos.set(0);
+    }
+
+    public static final class Hotspot {
+        public final String key;
+        private final StackTraceElement[] stack;
+        private final LongAdder samples = new LongAdder();
+        private final LongAdder freezes = new LongAdder();
+
+        private Hotspot(String key, StackTraceElement[] stack) {
+            this.key = key;
+            this.stack = stack;
+        }
+
+        public long samples() {
+            return samples.sum();
+        }
+
+        public long freezes() {
+            return freezes.sum();
+        }
+    }
+}
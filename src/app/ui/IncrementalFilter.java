@@ -0,0 +1,193 @@
+package app.ui;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Reusable as-you-type filter for Swing lists and tables.
+ *
+ * Keystrokes are debounced, the linear search runs on a background worker, results of
+ * superseded queries are dropped, and when the query only grows the search narrows the
+ * previous matches instead of rescanning the whole source. Each finished search is handed
+ * to the view once, so the view can apply it as a single bulk model update.
+ */
+public class IncrementalFilter<T> {
+
+    // Stop checking for cancellation on every item; every few hundred is plenty.
+    private static final int CANCEL_CHECK_INTERVAL = 256;
+
+    private final BiPredicate<T, String> matcher;
+    private final Consumer<List<T>> sink;
+    private final Timer debounce;
+    private final ExecutorService worker;
+    private final AtomicLong generation = new AtomicLong();
+
+    // EDT state
+    private List<T> source = Collections.emptyList();
+    private Predicate<T> scope = item -> true;
+    private Consumer<List<T>> sorter;
+    private String pendingQuery = "";
+    private Future<?> running;
+    private long sourceVersion;
+    private long lastApplyNanos;
+
+    // Worker state (only touched by the single worker thread)
+    private String narrowQuery;
+    private List<T> narrowMatches;
+    private long narrowVersion = -1;
+
+    /**
+     * @param matcher  tests one item against a trimmed, lower-case query
+     * @param sink     receives the final result on the EDT
+     * @param debounceMillis quiet period after the last keystroke before searching
+     */
+    public IncrementalFilter(BiPredicate<T, String> matcher, Consumer<List<T>> sink, int debounceMillis) {
+        this.matcher = matcher;
+        this.sink = sink;
+        this.debounce = new Timer(Math.max(0, debounceMillis), e -> runSearch(pendingQuery));
+        this.debounce.setRepeats(false);
+        this.worker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "incremental-filter");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Replaces the items being searched (EDT). Invalidates the narrowing cache.
+     */
+    public void setSource(List<T> items) {
+        source = items == null ? Collections.emptyList() : List.copyOf(items);
+        sourceVersion++;
+    }
+
+    /**
+     * Extra non-text criteria such as a category filter (EDT). Invalidates the narrowing cache.
+     */
+    public void setScope(Predicate<T> scope) {
+        this.scope = scope == null ? item -> true : scope;
+        sourceVersion++;
+    }
+
+    /**
+     * Optional in-place ordering applied to each result before it is handed to the view.
+     * The sorter runs on the worker thread; narrowing always works on the unsorted matches.
+     */
+    public void setSorter(Consumer<List<T>> sorter) {
+        this.sorter = sorter;
+    }
+
+    /**
+     * Keystroke entry point (EDT): restarts the debounce timer.
+     */
+    public void request(String query) {
+        pendingQuery = query == null ? "" : query;
+        generation.incrementAndGet();
+        debounce.restart();
+    }
+
+    /**
+     * Searches right away, skipping the debounce (initial load, sort or category changes).
+     */
+    public void requestNow(String query) {
+        debounce.stop();
+        pendingQuery = query == null ? "" : query;
+        runSearch(pendingQuery);
+    }
+
+    /**
+     * Searches and applies on the calling thread (EDT), dropping any search still in flight.
+     * Used after programmatic reloads where the caller needs the view updated before it
+     * continues (e.g. to re-select a row it just saved).
+     */
+    public void applyNow(String query) {
+        debounce.stop();
+        generation.incrementAndGet();
+        if (running != null) running.cancel(false);
+        pendingQuery = query == null ? "" : query;
+
+        List<T> result = scan(pendingQuery.trim().toLowerCase(Locale.ROOT), source, scope, false, -1);
+        if (sorter != null) sorter.accept(result);
+        long start = System.nanoTime();
+        sink.accept(result);
+        lastApplyNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Nanoseconds the last result spent in the view update on the EDT.
+     */
+    public long getLastApplyNanos() {
+        return lastApplyNanos;
+    }
+
+    private void runSearch(String rawQuery) {
+        long gen = generation.incrementAndGet();
+        if (running != null) running.cancel(false);
+
+        String query = rawQuery.trim().toLowerCase(Locale.ROOT);
+        List<T> items = source;
+        Predicate<T> currentScope = scope;
+        Consumer<List<T>> currentSorter = sorter;
+        long version = sourceVersion;
+
+        running = worker.submit(() -> {
+            List<T> matches = narrowingSearch(gen, query, items, currentScope, version);
+            if (matches == null) return; // superseded by a newer query
+
+            List<T> result = new ArrayList<>(matches);
+            if (currentSorter != null) currentSorter.accept(result);
+
+            SwingUtilities.invokeLater(() -> {
+                if (gen != generation.get()) return;
+                long start = System.nanoTime();
+                sink.accept(result);
+                lastApplyNanos = System.nanoTime() - start;
+            });
+        });
+    }
+
+    // Runs on the worker thread only.
+    private List<T> narrowingSearch(long gen, String query, List<T> items, Predicate<T> currentScope, long version) {
+        // Narrowing: "lat" -> "latt" can only drop matches, so rescan the previous result only.
+        boolean narrowing = narrowMatches != null
+                && narrowVersion == version
+                && narrowQuery != null
+                && query.startsWith(narrowQuery);
+        List<T> base = narrowing ? narrowMatches : items;
+
+        List<T> out = scan(query, base, currentScope, narrowing, gen);
+        if (out == null) return null;
+
+        narrowQuery = query;
+        narrowMatches = out;
+        narrowVersion = version;
+        return out;
+    }
+
+    // Linear scan; returns null when generation gen is superseded (gen < 0 never cancels).
+    private List<T> scan(String query, List<T> base, Predicate<T> currentScope, boolean scopeAlreadyApplied, long gen) {
+        List<T> out = new ArrayList<>();
+        int checked = 0;
+        for (T item : base) {
+            if (gen >= 0 && ++checked % CANCEL_CHECK_INTERVAL == 0 && gen != generation.get()) {
+                return null;
+            }
+            if (!scopeAlreadyApplied && !currentScope.test(item)) continue;
+            if (query.isEmpty() || matcher.test(item, query)) {
+                out.add(item);
+            }
+        }
+        return out;
+    }
+}
@@ -2,6 +2,7 @@ package app.ui;
 
 import app.db.AssetService;
 import app.db.AuthService;
+import app.util.StartupTimer;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -34,11 +35,12 @@ public class LoginFrame extends JFrame {
         setContentPane(buildUI());
         applyBrandingFromDB();
         wireEvents();
+        StartupTimer.markConstructed("LoginFrame");
     }
 
     private JComponent buildUI() {
         // Root: full-screen soft background, center the card.
-        JPanel root = new JPanel(new GridBagLayout());
+        JPanel root = new TimedRootPanel(new GridBagLayout(), "LoginFrame");
         root.setBackground(new Color(245, 247, 250));
 
         ModernCard card = new ModernCard(22);
@@ -256,8 +258,13 @@ public class LoginFrame extends JFrame {
             return;
         }
 
+        // Restart the startup clock so each role frame reports time-to-first-paint from login.
+        StartupTimer.begin("login");
+
         if ("OWNER".equalsIgnoreCase(result.role)) {
-            new OwnerFrame(user).setVisible(true);
+            // Kick off the owner page queries in parallel before the frame is even constructed.
+            OwnerWarmup warmup = OwnerWarmup.start();
+            new OwnerFrame(user, warmup).setVisible(true);
             dispose();
             return;
         }
@@ -0,0 +1,200 @@
+package app.ui;
+
+import app.model.Order;
+
+import javax.swing.AbstractListModel;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Order-backed list model for the queue views.
+ *
+ * Instead of clearing and re-adding every line after each enqueue/dequeue/status change,
+ * {@link #sync(List)} diffs the new queue traversal against the rows already shown and fires
+ * only the matching remove/insert/change events. JList shifts its selection with those events,
+ * so the selected order and the scroll position stay put. Each row keeps its formatted line
+ * until one of the fields it was built from changes.
+ */
+class OrderQueueListModel extends AbstractListModel<String> {
+
+    private final Function<Order, String> formatter;
+    private final List<Row> rows = new ArrayList<>();
+
+    OrderQueueListModel(Function<Order, String> formatter) {
+        this.formatter = formatter;
+    }
+
+    @Override
+    public int getSize() {
+        return rows.size();
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        return rows.get(index).line;
+    }
+
+    Order getOrderAt(int index) {
+        return index < 0 || index >= rows.size() ? null : rows.get(index).order;
+    }
+
+    int indexOf(Order order) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i).order == order) return i;
+        }
+        return -1;
+    }
+
+    List<Order> orders() {
+        List<Order> out = new ArrayList<>(rows.size());
+        for (Row row : rows) out.add(row.order);
+        return out;
+    }
+
+    /**
+     * Brings the model in line with {@code next} (usually a fresh queue traversal).
+     */
+    void sync(List<Order> next) {
+        Map<Order, Integer> nextIndex = new IdentityHashMap<>();
+        for (int i = 0; i < next.size(); i++) nextIndex.put(next.get(i), i);
+
+        removeMissing(nextIndex);
+
+        if (!survivorsKeepOrder(nextIndex)) {
+            // Reordered queue (e.g. a scheduler moved orders around): one change event for everything.
+            replaceAll(next);
+            return;
+        }
+
+        insertNew(next);
+        refreshChanged();
+    }
+
+    private void removeMissing(Map<Order, Integer> nextIndex) {
+        // Walk backwards so indexes of pending runs stay valid; fire one event per contiguous run.
+        int runEnd = -1;
+        for (int i = rows.size() - 1; i >= -1; i--) {
+            boolean gone = i >= 0 && !nextIndex.containsKey(rows.get(i).order);
+            if (gone) {
+                if (runEnd < 0) runEnd = i;
+                continue;
+            }
+            if (runEnd >= 0) {
+                int runStart = i + 1;
+                rows.subList(runStart, runEnd + 1).clear();
+                fireIntervalRemoved(this, runStart, runEnd);
+                runEnd = -1;
+            }
+        }
+    }
+
+    private boolean survivorsKeepOrder(Map<Order, Integer> nextIndex) {
+        int last = -1;
+        for (Row row : rows) {
+            int idx = nextIndex.get(row.order);
+            if (idx < last) return false;
+            last = idx;
+        }
+        return true;
+    }
+
+    private void insertNew(List<Order> next) {
+        int i = 0;
+        while (i < next.size()) {
+            if (i < rows.size() && rows.get(i).order == next.get(i)) {
+                i++;
+                continue;
+            }
+            int runStart = i;
+            List<Row> added = new ArrayList<>();
+            while (i < next.size() && (i - added.size() >= rows.size() || rows.get(i - added.size()).order != next.get(i))) {
+                added.add(new Row(next.get(i), formatter));
+                i++;
+            }
+            rows.addAll(runStart, added);
+            fireIntervalAdded(this, runStart, runStart + added.size() - 1);
+        }
+    }
+
+    private void refreshChanged() {
+        int runStart = -1;
+        for (int i = 0; i <= rows.size(); i++) {
+            boolean changed = i < rows.size() && rows.get(i).refreshIfStale(formatter);
+            if (changed) {
+                if (runStart < 0) runStart = i;
+                continue;
+            }
+            if (runStart >= 0) {
+                fireContentsChanged(this, runStart, i - 1);
+                runStart = -1;
+            }
+        }
+    }
+
+    private void replaceAll(List<Order> next) {
+        int oldSize = rows.size();
+        Map<Order, Row> existing = new IdentityHashMap<>();
+        for (Row row : rows) existing.put(row.order, row);
+
+        rows.clear();
+        for (Order order : next) {
+            Row row = existing.get(order);
+            if (row == null) {
+                row = new Row(order, formatter);
+            } else {
+                row.refreshIfStale(formatter);
+            }
+            rows.add(row);
+        }
+        // Survivors are never dropped here, so the size can only grow.
+        if (oldSize > 0) fireContentsChanged(this, 0, oldSize - 1);
+        if (rows.size() > oldSize) fireIntervalAdded(this, oldSize, rows.size() - 1);
+    }
+
+    /**
+     * One visible line plus the order fields it was formatted from.
+     */
+    private static final class Row {
+        final Order order;
+        String line;
+        String code;
+        String customer;
+        String status;
+        BigDecimal total;
+        String assignedTo;
+        long etaMinute;
+
+        Row(Order order, Function<Order, String> formatter) {
+            this.order = order;
+            capture(formatter);
+        }
+
+        boolean refreshIfStale(Function<Order, String> formatter) {
+            if (Objects.equals(code, order.getCode())
+                    && Objects.equals(customer, order.getCustomerName())
+                    && Objects.equals(status, order.getStatus())
+                    && Objects.equals(total, order.getTotal())
+                    && Objects.equals(assignedTo, order.getAssignedTo())
+                    && etaMinute == order.getReadyEtaMillis() / 60_000) {
+                return false;
+            }
+            capture(formatter);
+            return true;
+        }
+
+        private void capture(Function<Order, String> formatter) {
+            code = order.getCode();
+            customer = order.getCustomerName();
+            status = order.getStatus();
+            total = order.getTotal();
+            assignedTo = order.getAssignedTo();
+            etaMinute = order.getReadyEtaMillis() / 60_000;
+            line = formatter.apply(order);
+        }
+    }
+}
@@ -3,12 +3,24 @@ package app.ui;
 import app.db.AssetService;
 import app.db.DashboardDAO;
 import app.db.MenuItemDAO;
+import app.db.OrderArchiver;
+import app.db.SqlStats;
 import app.db.UserDAO;
+import app.model.CategorySalesRow;
 import app.model.DailySalesRow;
 import app.model.DashboardSummary;
+import app.model.ItemSalesReport;
+import app.model.ItemSalesRow;
 import app.model.MenuItem;
+import app.model.SalesHeatmap;
+import app.model.SalesWindow;
+import app.model.ServiceTimeRow;
+import app.model.ServiceTimeStats;
 import app.model.User;
 import app.util.InsertionSort;
+import app.util.LatencyHistogram;
+import app.util.Metrics;
+import app.util.StartupTimer;
 
 import javax.swing.*;
 import javax.swing.border.Border;
@@ -30,9 +42,13 @@ import java.nio.file.StandardCopyOption;
 import java.text.NumberFormat;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class OwnerFrame extends JFrame {
 
@@ -43,10 +59,21 @@ public class OwnerFrame extends JFrame {
     private static final String PAGE_CASHIER = "cashier";
     private static final String PAGE_BARISTA = "barista";
     private static final String PAGE_SETTINGS = "settings";
+    private static final String PAGE_DIAGNOSTICS = "diagnostics";
+    private static final int DIAGNOSTICS_REFRESH_MS = 2000;
+    private static final int SERVICE_TIMES_DAYS = 30;
+    private static final int SERVICE_TIMES_REFRESH_MS = 30_000;
+    private static final int TOP_ITEMS_LIMIT = 10;
+    private static final int ROLLING_SALES_HOURS = 3;
 
     private final CardLayout cardLayout = new CardLayout();
     private final JPanel content = new JPanel(cardLayout);
 
+    // Pages are built on first navigation; the builders are registered up front.
+    private final Map<String, Supplier<JComponent>> pageBuilders = new LinkedHashMap<>();
+    private final Map<String, JComponent> builtPages = new HashMap<>();
+    private final OwnerWarmup warmup;
+
     // DAOs
     private final UserDAO userDAO = new UserDAO();
     private final DashboardDAO dashboardDAO = new DashboardDAO();
@@ -75,6 +102,12 @@ public class OwnerFrame extends JFrame {
     private final java.util.List<MenuItem> menuItemsCache = new java.util.ArrayList<>();
     private final Map<String, ImageIcon> menuImageCache = new HashMap<>();
     private static final int MENU_IMAGE_SIZE = 56;
+    private static final int MENU_FILTER_DEBOUNCE_MS = 120;
+    private final IncrementalFilter<MenuItem> menuFilter = new IncrementalFilter<>(
+            (item, q) -> item.getCode().toLowerCase(Locale.ROOT).contains(q)
+                    || item.getName().toLowerCase(Locale.ROOT).contains(q),
+            this::replaceMenuRows,
+            MENU_FILTER_DEBOUNCE_MS);
 
     // DASHBOARD: metric labels + table
     private JLabel lblTodaySales;
@@ -83,6 +116,20 @@ public class OwnerFrame extends JFrame {
     private JLabel lblTotalUsers;
     private DefaultTableModel dailySalesModel;
     private JComboBox<String> salesSortMode;
+    private DefaultTableModel serviceTimesModel;
+    private JComboBox<String> serviceTimesView;
+    private JLabel serviceTimesSummary;
+    private ServiceTimeStats serviceTimes;
+    private DefaultTableModel topItemsModel;
+    private DefaultTableModel categoryMixModel;
+    private JComboBox<String> topItemsRange;
+    private JComboBox<String> topItemsRank;
+    private JLabel topItemsSummary;
+    private ItemSalesReport itemSales;
+    private SalesHeatmapView salesHeatmapView;
+    private JComboBox<String> heatmapWeeks;
+    private JLabel heatmapSummary;
+    private boolean heatmapLoaded;
 
     private final NumberFormat moneyPH = NumberFormat.getCurrencyInstance(new Locale("en", "PH"));
 
@@ -97,6 +144,14 @@ public class OwnerFrame extends JFrame {
     private CashierPanel cashierPanel;
     private BaristaPanel baristaPanel;
 
+    // DIAGNOSTICS: metrics tables
+    private DefaultTableModel diagnosticsTimersModel;
+    private DefaultTableModel diagnosticsValuesModel;
+    private JLabel diagnosticsHint;
+    private JLabel diagnosticsFreezes;
+    private JTextArea diagnosticsFreezeReport;
+    private DefaultTableModel diagnosticsSqlModel;
+
     // Theme
     private static final Color BG = new Color(243, 245, 249);
     private static final Color SURFACE = Color.WHITE;
@@ -108,35 +163,45 @@ public class OwnerFrame extends JFrame {
     private static final Color TABLE_HEADER_TEXT = new Color(226, 232, 240);
     private static final Color TABLE_ROW_ALT = new Color(248, 250, 252);
     private final AssetService assetService = new AssetService();
-    private final Color primary = assetService.getAccentColorOrDefault();
-    private final Color primaryDark = shade(primary, 0.2);
-    private final Color primarySoft = tint(primary, 0.86);
-    private final Color tableSelection = tint(primary, 0.72);
+    private final Color primary;
+    private final Color primaryDark;
+    private final Color primarySoft;
+    private final Color tableSelection;
     private final String ownerUsername;
 
     public OwnerFrame(String ownerUsername) {
+        this(ownerUsername, OwnerWarmup.start());
+    }
+
+    OwnerFrame(String ownerUsername, OwnerWarmup warmup) {
         this.ownerUsername = ownerUsername;
+        this.warmup = warmup;
+
+        // The accent color query was started with the warm-up right after login.
+        primary = OwnerWarmup.await(warmup.accentColor, new Color(32, 85, 197));
+        primaryDark = shade(primary, 0.2);
+        primarySoft = tint(primary, 0.86);
+        tableSelection = tint(primary, 0.72);
+
         setTitle("Owner Panel");
         setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
         setExtendedState(JFrame.MAXIMIZED_BOTH);
 
         setContentPane(buildUI(ownerUsername));
-
-        // Load data after UI mounts
-        SwingUtilities.invokeLater(() -> {
-            refreshDashboardSafe();
-            refreshUsersTableSafe();
-            refreshMenuTableSafe();
-        });
+        // Old completed orders move to the columnar archive overnight, only with -Darchive.days=N.
+        OrderArchiver.startNightly();
+        StartupTimer.markConstructed("OwnerFrame");
     }
 
     private JComponent buildUI(String ownerUsername) {
-        JPanel root = new JPanel(new BorderLayout());
+        JPanel root = new TimedRootPanel(new BorderLayout(), "OwnerFrame");
         root.setBackground(BG);
 
+        // Main area first: it registers the page builders the sidebar's default selection needs.
+        JComponent main = buildMainArea();
         root.add(buildTopBar(ownerUsername), BorderLayout.NORTH);
         root.add(buildSidebar(), BorderLayout.WEST);
-        root.add(buildMainArea(), BorderLayout.CENTER);
+        root.add(main, BorderLayout.CENTER);
 
         return root;
     }
@@ -203,11 +268,16 @@ public class OwnerFrame extends JFrame {
         NavItem users = new NavItem("User Management", UIManager.getIcon("FileView.directoryIcon"), primary, primarySoft, primaryDark);
         NavItem menu = new NavItem("Products", UIManager.getIcon("FileView.fileIcon"), primary, primarySoft, primaryDark);
         NavItem settings = new NavItem("System Settings", UIManager.getIcon("FileView.computerIcon"), primary, primarySoft, primaryDark);
+        NavItem diagnostics = new NavItem("Diagnostics", UIManager.getIcon("FileView.hardDriveIcon"), primary, primarySoft, primaryDark);
+        NavItem cashier = new NavItem("Cashier View", UIManager.getIcon("FileView.fileIcon"), primary, primarySoft, primaryDark);
+        NavItem barista = new NavItem("Barista View", UIManager.getIcon("FileView.fileIcon"), primary, primarySoft, primaryDark);
+        NavItem[] all = {dash, users, menu, settings, diagnostics, cashier, barista};
 
-        dash.addActionListener(e -> selectPage(PAGE_DASHBOARD, dash, dash, users, menu, settings, null, null));
-        users.addActionListener(e -> selectPage(PAGE_USERS, users, dash, users, menu, settings, null, null));
-        menu.addActionListener(e -> selectPage(PAGE_MENU, menu, dash, users, menu, settings, null, null));
-        settings.addActionListener(e -> selectPage(PAGE_SETTINGS, settings, dash, users, menu, settings, null, null));
+        dash.addActionListener(e -> selectPage(PAGE_DASHBOARD, dash, all));
+        users.addActionListener(e -> selectPage(PAGE_USERS, users, all));
+        menu.addActionListener(e -> selectPage(PAGE_MENU, menu, all));
+        settings.addActionListener(e -> selectPage(PAGE_SETTINGS, settings, all));
+        diagnostics.addActionListener(e -> selectPage(PAGE_DIAGNOSTICS, diagnostics, all));
 
         side.add(dash);
         side.add(Box.createVerticalStrut(8));
@@ -216,15 +286,14 @@ public class OwnerFrame extends JFrame {
         side.add(menu);
         side.add(Box.createVerticalStrut(8));
         side.add(settings);
+        side.add(Box.createVerticalStrut(8));
+        side.add(diagnostics);
 
         side.add(Box.createVerticalStrut(18));
         side.add(sectionLabel("ROLE PREVIEWS"));
 
-        NavItem cashier = new NavItem("Cashier View", UIManager.getIcon("FileView.fileIcon"), primary, primarySoft, primaryDark);
-        NavItem barista = new NavItem("Barista View", UIManager.getIcon("FileView.fileIcon"), primary, primarySoft, primaryDark);
-
-        cashier.addActionListener(e -> selectPage(PAGE_CASHIER, cashier, dash, users, menu, settings, cashier, barista));
-        barista.addActionListener(e -> selectPage(PAGE_BARISTA, barista, dash, users, menu, settings, cashier, barista));
+        cashier.addActionListener(e -> selectPage(PAGE_CASHIER, cashier, all));
+        barista.addActionListener(e -> selectPage(PAGE_BARISTA, barista, all));
 
         side.add(cashier);
         side.add(Box.createVerticalStrut(8));
@@ -233,7 +302,7 @@ public class OwnerFrame extends JFrame {
         side.add(Box.createVerticalGlue());
 
         // Default selection
-        selectPage(PAGE_DASHBOARD, dash, dash, users, menu, settings, cashier, barista);
+        selectPage(PAGE_DASHBOARD, dash, all);
 
         return side;
     }
@@ -244,8 +313,12 @@ public class OwnerFrame extends JFrame {
         }
         selected.setSelected(true);
 
+        boolean firstVisit = ensurePage(page);
         cardLayout.show(content, page);
 
+        // A page that was just built loads its own data (from the warm-up when still fresh).
+        if (firstVisit) return;
+
         // IMPORTANT: Only refresh if dashboard components already exist
         if (PAGE_DASHBOARD.equals(page)) {
             if (lblTodaySales != null) refreshDashboardSafe();
@@ -262,6 +335,9 @@ public class OwnerFrame extends JFrame {
         if (PAGE_BARISTA.equals(page)) {
             if (baristaPanel != null) baristaPanel.refreshData();
         }
+        if (PAGE_DIAGNOSTICS.equals(page)) {
+            if (diagnosticsTimersModel != null) refreshDiagnostics();
+        }
     }
 
     private JLabel sectionLabel(String text) {
@@ -280,17 +356,52 @@ public class OwnerFrame extends JFrame {
         wrapper.setBorder(new EmptyBorder(18, 18, 18, 18));
 
         content.setBackground(BG);
-        content.add(buildDashboardPage(), PAGE_DASHBOARD);
-        content.add(buildUsersPage(), PAGE_USERS);
-        content.add(buildMenuItemsPage(), PAGE_MENU);
-        content.add(buildSystemPage(), PAGE_SETTINGS);
-        content.add(buildCashierPage(), PAGE_CASHIER);
-        content.add(buildBaristaPage(), PAGE_BARISTA);
+        pageBuilders.put(PAGE_DASHBOARD, this::buildDashboardPage);
+        pageBuilders.put(PAGE_USERS, this::buildUsersPage);
+        pageBuilders.put(PAGE_MENU, this::buildMenuItemsPage);
+        pageBuilders.put(PAGE_SETTINGS, this::buildSystemPage);
+        pageBuilders.put(PAGE_DIAGNOSTICS, this::buildDiagnosticsPage);
+        pageBuilders.put(PAGE_CASHIER, this::buildCashierPage);
+        pageBuilders.put(PAGE_BARISTA, this::buildBaristaPage);
 
         wrapper.add(content, BorderLayout.CENTER);
         return wrapper;
     }
 
+    /**
+     * Builds a page the first time it is shown. Returns true when the page was just created.
+     */
+    private boolean ensurePage(String page) {
+        if (builtPages.containsKey(page)) return false;
+        Supplier<JComponent> builder = pageBuilders.get(page);
+        if (builder == null) return false;
+
+        long start = System.nanoTime();
+        JComponent built = builder.get();
+        builtPages.put(page, built);
+        content.add(built, page);
+        StartupTimer.record("OwnerFrame page '" + page + "' build", start);
+        return true;
+    }
+
+    /**
+     * Applies a warm-up result once it arrives (on the EDT), or falls back to a regular reload
+     * when the warm-up failed or is too old to trust.
+     */
+    private <T> void useWarmup(CompletableFuture<T> future, Consumer<T> apply, Runnable reload) {
+        if (!warmup.isFresh()) {
+            SwingUtilities.invokeLater(reload);
+            return;
+        }
+        future.whenComplete((value, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null || value == null) {
+                reload.run();
+            } else {
+                apply.accept(value);
+            }
+        }));
+    }
+
     // -------------------- DASHBOARD (DB connected) --------------------
 
     private JComponent buildDashboardPage() {
@@ -356,26 +467,65 @@ public class OwnerFrame extends JFrame {
         tableBox.add(salesHeader, BorderLayout.NORTH);
         tableBox.add(sp, BorderLayout.CENTER);
 
+        JComponent serviceBox = buildServiceTimesBox();
+        JComponent itemsBox = buildTopItemsBox();
+        JComponent heatmapBox = buildHeatmapBox();
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Daily Sales", tableBox);
+        tabs.addTab("Service Times", serviceBox);
+        tabs.addTab("Top Items", itemsBox);
+        tabs.addTab("Hourly Heatmap", heatmapBox);
+        // Service times and the heatmap load when first shown, then poll while on screen (each poll only reads new rows).
+        tabs.addChangeListener(e -> {
+            if (tabs.getSelectedComponent() == serviceBox && serviceTimes == null) refreshServiceTimes();
+            if (tabs.getSelectedComponent() == itemsBox && itemSales == null) refreshTopItems();
+            if (tabs.getSelectedComponent() == heatmapBox && !heatmapLoaded) refreshHeatmap();
+        });
+        Timer dashboardPoll = new Timer(SERVICE_TIMES_REFRESH_MS, e -> {
+            if (serviceBox.isShowing()) {
+                refreshServiceTimes();
+            } else if (heatmapBox.isShowing()) {
+                refreshHeatmap();
+            } else if (!isDisplayable()) {
+                ((Timer) e.getSource()).stop();
+            }
+        });
+        dashboardPoll.start();
+
         JPanel center = new JPanel(new BorderLayout(12, 12));
         center.setOpaque(false);
         center.add(cards, BorderLayout.NORTH);
-        center.add(tableBox, BorderLayout.CENTER);
+        center.add(tabs, BorderLayout.CENTER);
 
         page.add(center, BorderLayout.CENTER);
+
+        useWarmup(warmup.summary.thenCombine(warmup.dailySales, DashboardData::new),
+                data -> applyDashboard(data.summary, data.rows),
+                this::refreshDashboardSafe);
         return page;
     }
 
+    private record DashboardData(DashboardSummary summary, List<DailySalesRow> rows) {}
+
     private void refreshDashboardSafe() {
         try {
             refreshDashboard();
         } catch (Exception ex) {
             showDbError(ex);
         }
+        if (serviceTimes != null) refreshServiceTimes();
+        if (itemSales != null) refreshTopItems();
+        if (heatmapLoaded) refreshHeatmap();
     }
 
     private void refreshDashboard() throws Exception {
         DashboardSummary s = dashboardDAO.loadSummary();
+        List<DailySalesRow> rows = dashboardDAO.loadRecentDailySales(OwnerWarmup.DAILY_SALES_DAYS);
+        applyDashboard(s, rows);
+    }
 
+    private void applyDashboard(DashboardSummary s, List<DailySalesRow> rows) {
         // Show paid total as “sales”
         lblTodaySales.setText(moneyPH.format(s.todayPaid));
         lblOrdersQueue.setText(String.valueOf(s.ordersInQueue));
@@ -384,7 +534,6 @@ public class OwnerFrame extends JFrame {
 
         if (dailySalesModel != null) {
             dailySalesModel.setRowCount(0);
-            List<DailySalesRow> rows = dashboardDAO.loadRecentDailySales(14);
             if (salesSortMode != null) {
                 String mode = String.valueOf(salesSortMode.getSelectedItem());
                 Comparator<DailySalesRow> comparator;
@@ -408,6 +557,270 @@ public class OwnerFrame extends JFrame {
         }
     }
 
+    private JComponent buildServiceTimesBox() {
+        JPanel box = surfacePanel(new EmptyBorder(14, 14, 14, 14));
+        box.setLayout(new BorderLayout(10, 10));
+
+        JLabel t = new JLabel("Service Times (last " + SERVICE_TIMES_DAYS + " days)");
+        t.setFont(new Font("SansSerif", Font.BOLD, 14));
+        t.setForeground(TEXT);
+
+        serviceTimesSummary = new JLabel(" ");
+        serviceTimesSummary.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        serviceTimesSummary.setForeground(MUTED);
+
+        JPanel titles = new JPanel(new GridLayout(2, 1, 0, 2));
+        titles.setOpaque(false);
+        titles.add(t);
+        titles.add(serviceTimesSummary);
+
+        serviceTimesView = new JComboBox<>(new String[]{"By Hour of Day", "By Menu Item"});
+        styleField(serviceTimesView);
+        serviceTimesView.setPreferredSize(new Dimension(220, 50));
+        serviceTimesView.setMaximumSize(new Dimension(220, 50));
+        serviceTimesView.addActionListener(e -> applyServiceTimes());
+
+        JPanel header = new JPanel(new BorderLayout());
+        header.setOpaque(false);
+        header.add(titles, BorderLayout.WEST);
+        header.add(serviceTimesView, BorderLayout.EAST);
+
+        serviceTimesModel = new DefaultTableModel(new String[]{
+                "Hour", "Started", "Wait p50", "Wait p90", "Wait p99", "Served", "Make p50", "Make p90", "Make p99"}, 0) {
+            @Override public boolean isCellEditable(int r, int c) { return false; }
+        };
+
+        JTable table = new JTable(serviceTimesModel);
+        table.setRowHeight(28);
+        styleTable(table);
+        table.getColumnModel().getColumn(0).setPreferredWidth(200);
+
+        JScrollPane sp = new JScrollPane(table);
+        sp.setBorder(BorderFactory.createLineBorder(BORDER, 1));
+
+        box.add(header, BorderLayout.NORTH);
+        box.add(sp, BorderLayout.CENTER);
+        return box;
+    }
+
+    /** Errors only go to the summary line: this also runs from the poll timer. */
+    private void refreshServiceTimes() {
+        try {
+            serviceTimes = dashboardDAO.loadServiceTimes(SERVICE_TIMES_DAYS);
+            applyServiceTimes();
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            serviceTimesSummary.setText("Could not load service times: " + ex.getMessage());
+        }
+    }
+
+    private void applyServiceTimes() {
+        if (serviceTimes == null || serviceTimesModel == null) return;
+
+        ServiceTimeRow all = serviceTimes.overall;
+        serviceTimesSummary.setText("Wait to start p90 " + duration(all.waitP90Millis) + " (" + all.startedCount
+                + " orders)  ·  Start to serve p90 " + duration(all.serveP90Millis) + " (" + all.servedCount + " orders)");
+
+        boolean byItem = serviceTimesView.getSelectedIndex() == 1;
+        String firstColumn = byItem ? "Item" : "Hour";
+        if (!firstColumn.equals(serviceTimesModel.getColumnName(0))) {
+            serviceTimesModel.setColumnIdentifiers(new String[]{firstColumn,
+                    "Started", "Wait p50", "Wait p90", "Wait p99", "Served", "Make p50", "Make p90", "Make p99"});
+        }
+        serviceTimesModel.setRowCount(0);
+        for (ServiceTimeRow r : byItem ? serviceTimes.byItem : serviceTimes.byHour) {
+            serviceTimesModel.addRow(new Object[]{
+                    r.label,
+                    r.startedCount,
+                    duration(r.waitP50Millis),
+                    duration(r.waitP90Millis),
+                    duration(r.waitP99Millis),
+                    r.servedCount,
+                    duration(r.serveP50Millis),
+                    duration(r.serveP90Millis),
+                    duration(r.serveP99Millis)
+            });
+        }
+    }
+
+    /** m:ss, or h:mm:ss past an hour. */
+    private static String duration(long millis) {
+        long seconds = Math.round(millis / 1000.0);
+        if (seconds >= 3600) {
+            return String.format(Locale.ROOT, "%d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+        }
+        return String.format(Locale.ROOT, "%d:%02d", seconds / 60, seconds % 60);
+    }
+
+    private JComponent buildTopItemsBox() {
+        JPanel box = surfacePanel(new EmptyBorder(14, 14, 14, 14));
+        box.setLayout(new BorderLayout(10, 10));
+
+        JLabel t = new JLabel("Top Items");
+        t.setFont(new Font("SansSerif", Font.BOLD, 14));
+        t.setForeground(TEXT);
+
+        topItemsSummary = new JLabel(" ");
+        topItemsSummary.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        topItemsSummary.setForeground(MUTED);
+
+        JPanel titles = new JPanel(new GridLayout(2, 1, 0, 2));
+        titles.setOpaque(false);
+        titles.add(t);
+        titles.add(topItemsSummary);
+
+        topItemsRange = new JComboBox<>(new String[]{"Today", "Last 7 Days", "Last 30 Days", "Last 90 Days"});
+        styleField(topItemsRange);
+        topItemsRange.setPreferredSize(new Dimension(170, 50));
+        topItemsRange.addActionListener(e -> refreshTopItems());
+
+        topItemsRank = new JComboBox<>(new String[]{"By Quantity", "By Revenue"});
+        styleField(topItemsRank);
+        topItemsRank.setPreferredSize(new Dimension(170, 50));
+        topItemsRank.addActionListener(e -> applyTopItems());
+
+        JPanel filters = new JPanel(new FlowLayout(FlowLayout.RIGHT, 8, 0));
+        filters.setOpaque(false);
+        filters.add(topItemsRange);
+        filters.add(topItemsRank);
+
+        JPanel header = new JPanel(new BorderLayout());
+        header.setOpaque(false);
+        header.add(titles, BorderLayout.WEST);
+        header.add(filters, BorderLayout.EAST);
+
+        topItemsModel = new DefaultTableModel(new String[]{"#", "Item", "Category", "Qty", "Revenue", "Extra Shot", "Alt Milk"}, 0) {
+            @Override public boolean isCellEditable(int r, int c) { return false; }
+        };
+        JTable itemsTable = new JTable(topItemsModel);
+        itemsTable.setRowHeight(28);
+        styleTable(itemsTable);
+        itemsTable.getColumnModel().getColumn(0).setMaxWidth(40);
+        itemsTable.getColumnModel().getColumn(1).setPreferredWidth(200);
+        JScrollPane itemsScroll = new JScrollPane(itemsTable);
+        itemsScroll.setBorder(BorderFactory.createLineBorder(BORDER, 1));
+
+        categoryMixModel = new DefaultTableModel(new String[]{"Category", "Qty", "Revenue", "Share"}, 0) {
+            @Override public boolean isCellEditable(int r, int c) { return false; }
+        };
+        JTable categoryTable = new JTable(categoryMixModel);
+        categoryTable.setRowHeight(28);
+        styleTable(categoryTable);
+        JScrollPane categoryScroll = new JScrollPane(categoryTable);
+        categoryScroll.setBorder(BorderFactory.createLineBorder(BORDER, 1));
+        categoryScroll.setPreferredSize(new Dimension(340, 10));
+
+        JPanel body = new JPanel(new BorderLayout(12, 12));
+        body.setOpaque(false);
+        body.add(itemsScroll, BorderLayout.CENTER);
+        body.add(categoryScroll, BorderLayout.EAST);
+
+        box.add(header, BorderLayout.NORTH);
+        box.add(body, BorderLayout.CENTER);
+        return box;
+    }
+
+    private void refreshTopItems() {
+        int days = switch (topItemsRange.getSelectedIndex()) {
+            case 1 -> 7;
+            case 2 -> 30;
+            case 3 -> 90;
+            default -> 1;
+        };
+        java.time.LocalDate today = java.time.LocalDate.now();
+        try {
+            itemSales = dashboardDAO.loadItemSales(today.minusDays(days - 1), today, TOP_ITEMS_LIMIT);
+            applyTopItems();
+        } catch (Exception ex) {
+            showDbError(ex);
+        }
+    }
+
+    private void applyTopItems() {
+        if (itemSales == null || topItemsModel == null) return;
+
+        ItemSalesRow all = itemSales.totals;
+        topItemsSummary.setText(all.quantity + " units of " + itemSales.itemsSold + " items, " + moneyPH.format(all.revenue)
+                + "  ·  Extra shot on " + percent(all.extraShotRate()) + " of drinks, alt milk on " + percent(all.altMilkRate()));
+
+        topItemsModel.setRowCount(0);
+        List<ItemSalesRow> rows = topItemsRank.getSelectedIndex() == 1 ? itemSales.topByRevenue : itemSales.topByQuantity;
+        int rank = 1;
+        for (ItemSalesRow r : rows) {
+            topItemsModel.addRow(new Object[]{
+                    rank++,
+                    r.itemName,
+                    r.category,
+                    r.quantity,
+                    moneyPH.format(r.revenue),
+                    r.drinkQuantity == 0 ? "-" : percent(r.extraShotRate()),
+                    r.drinkQuantity == 0 ? "-" : percent(r.altMilkRate())
+            });
+        }
+
+        categoryMixModel.setRowCount(0);
+        for (CategorySalesRow c : itemSales.categories) {
+            double share = all.revenue.signum() == 0 ? 0 : c.revenue.doubleValue() / all.revenue.doubleValue();
+            categoryMixModel.addRow(new Object[]{c.category, c.quantity, moneyPH.format(c.revenue), percent(share)});
+        }
+    }
+
+    private JComponent buildHeatmapBox() {
+        JPanel box = surfacePanel(new EmptyBorder(14, 14, 14, 14));
+        box.setLayout(new BorderLayout(10, 10));
+
+        JLabel t = new JLabel("Sales by Weekday and Hour");
+        t.setFont(new Font("SansSerif", Font.BOLD, 14));
+        t.setForeground(TEXT);
+
+        heatmapSummary = new JLabel(" ");
+        heatmapSummary.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        heatmapSummary.setForeground(MUTED);
+
+        JPanel titles = new JPanel(new GridLayout(2, 1, 0, 2));
+        titles.setOpaque(false);
+        titles.add(t);
+        titles.add(heatmapSummary);
+
+        heatmapWeeks = new JComboBox<>(new String[]{"Last 4 Weeks", "Last 8 Weeks", "Last 12 Weeks"});
+        styleField(heatmapWeeks);
+        heatmapWeeks.setPreferredSize(new Dimension(180, 50));
+        heatmapWeeks.setMaximumSize(new Dimension(180, 50));
+        heatmapWeeks.addActionListener(e -> refreshHeatmap());
+
+        JPanel header = new JPanel(new BorderLayout());
+        header.setOpaque(false);
+        header.add(titles, BorderLayout.WEST);
+        header.add(heatmapWeeks, BorderLayout.EAST);
+
+        salesHeatmapView = new SalesHeatmapView(primary, MUTED, TABLE_ROW_ALT, moneyPH);
+
+        box.add(header, BorderLayout.NORTH);
+        box.add(salesHeatmapView, BorderLayout.CENTER);
+        return box;
+    }
+
+    /** Both come from the in-memory hourly series, so this is cheap enough to poll. */
+    private void refreshHeatmap() {
+        int weeks = 4 * (heatmapWeeks.getSelectedIndex() + 1);
+        try {
+            SalesHeatmap map = dashboardDAO.loadSalesHeatmap(weeks);
+            SalesWindow recent = dashboardDAO.loadRollingSales(ROLLING_SALES_HOURS);
+            heatmapLoaded = true;
+            salesHeatmapView.setData(map);
+            heatmapSummary.setText("Last " + recent.hours + " h: " + moneyPH.format(recent.grossCentavos / 100.0)
+                    + " from " + recent.orderCount + " orders  ·  same hours last week: "
+                    + moneyPH.format(recent.lastWeekGrossCentavos / 100.0) + " from " + recent.lastWeekOrderCount);
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            heatmapSummary.setText("Could not load sales: " + ex.getMessage());
+        }
+    }
+
+    private static String percent(double fraction) {
+        return String.format(Locale.ROOT, "%.0f%%", fraction * 100);
+    }
+
     // -------------------- USERS (DB connected) --------------------
 
     private JComponent buildUsersPage() {
@@ -542,6 +955,11 @@ public class OwnerFrame extends JFrame {
         center.add(right, BorderLayout.EAST);
 
         page.add(center, BorderLayout.CENTER);
+
+        useWarmup(warmup.users, users -> {
+            applyUsers(users);
+            usersHint.setText("Loaded " + usersModel.getRowCount() + " users from database.");
+        }, this::refreshUsersTableSafe);
         return page;
     }
 
@@ -556,9 +974,12 @@ public class OwnerFrame extends JFrame {
 
     private void refreshUsersTable() throws Exception {
         if (usersModel == null) return;
+        applyUsers(userDAO.findAll());
+    }
 
+    private void applyUsers(List<User> users) {
         usersModel.setRowCount(0);
-        for (User u : userDAO.findAll()) {
+        for (User u : users) {
             usersModel.addRow(new Object[]{u.getId(), u.getUsername(), u.getRole(), u.isLocked() ? "Yes" : "No"});
         }
     }
@@ -752,11 +1173,14 @@ public class OwnerFrame extends JFrame {
         styleField(menuCategoryFilter);
 
         menuSearchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            @Override public void insertUpdate(javax.swing.event.DocumentEvent e) { applyMenuFilter(); }
-            @Override public void removeUpdate(javax.swing.event.DocumentEvent e) { applyMenuFilter(); }
-            @Override public void changedUpdate(javax.swing.event.DocumentEvent e) { applyMenuFilter(); }
+            @Override public void insertUpdate(javax.swing.event.DocumentEvent e) { menuFilter.request(menuSearchField.getText()); }
+            @Override public void removeUpdate(javax.swing.event.DocumentEvent e) { menuFilter.request(menuSearchField.getText()); }
+            @Override public void changedUpdate(javax.swing.event.DocumentEvent e) { menuFilter.request(menuSearchField.getText()); }
+        });
+        menuCategoryFilter.addActionListener(e -> {
+            updateMenuCategoryScope();
+            menuFilter.requestNow(menuSearchField.getText());
         });
-        menuCategoryFilter.addActionListener(e -> applyMenuFilter());
 
         JPanel filterRow = new JPanel(new GridLayout(1, 2, 8, 0));
         filterRow.setOpaque(false);
@@ -885,6 +1309,11 @@ public class OwnerFrame extends JFrame {
         center.add(right, BorderLayout.EAST);
 
         page.add(center, BorderLayout.CENTER);
+
+        useWarmup(warmup.menuItems, items -> {
+            applyMenuItems(items);
+            menuHint.setText("Loaded " + menuModel.getRowCount() + " items from database.");
+        }, this::refreshMenuTableSafe);
         return page;
     }
 
@@ -911,9 +1340,13 @@ public class OwnerFrame extends JFrame {
 
     private void refreshMenuTable() throws Exception {
         if (menuModel == null) return;
+        applyMenuItems(menuItemDAO.findAll());
+    }
+
+    private void applyMenuItems(List<MenuItem> items) {
         menuItemsCache.clear();
         menuImageCache.clear();
-        menuItemsCache.addAll(menuItemDAO.findAll());
+        menuItemsCache.addAll(items);
         updateMenuCategoryOptions();
         applyMenuFilter();
     }
@@ -960,19 +1393,25 @@ public class OwnerFrame extends JFrame {
 
     private void applyMenuFilter() {
         if (menuModel == null) return;
-        String query = menuSearchField == null ? "" : menuSearchField.getText().trim().toLowerCase(Locale.ROOT);
+        menuFilter.setSource(menuItemsCache);
+        updateMenuCategoryScope();
+        menuFilter.applyNow(menuSearchField == null ? "" : menuSearchField.getText());
+    }
+
+    private void updateMenuCategoryScope() {
         String category = menuCategoryFilter == null || menuCategoryFilter.getSelectedItem() == null
                 ? "All"
                 : menuCategoryFilter.getSelectedItem().toString();
+        if ("All".equalsIgnoreCase(category)) {
+            menuFilter.setScope(null);
+        } else {
+            menuFilter.setScope(item -> item.getCategory().equalsIgnoreCase(category));
+        }
+    }
 
+    private void replaceMenuRows(List<MenuItem> items) {
         menuModel.setRowCount(0);
-        for (MenuItem item : menuItemsCache) {
-            boolean matchesQuery = query.isEmpty()
-                    || item.getCode().toLowerCase(Locale.ROOT).contains(query)
-                    || item.getName().toLowerCase(Locale.ROOT).contains(query);
-            boolean matchesCategory = "All".equalsIgnoreCase(category)
-                    || item.getCategory().equalsIgnoreCase(category);
-            if (!matchesQuery || !matchesCategory) continue;
+        for (MenuItem item : items) {
             menuModel.addRow(new Object[]{
                     item.getCode(),
                     item.getName(),
@@ -1271,16 +1710,29 @@ public class OwnerFrame extends JFrame {
 
         page.add(card, BorderLayout.CENTER);
 
-        loadSystemSettings();
+        if (warmup.isFresh()) {
+            loadSystemSettingsFromWarmup();
+        } else {
+            loadSystemSettings();
+        }
         return page;
     }
 
+    private void loadSystemSettingsFromWarmup() {
+        fSystemName.setText(OwnerWarmup.await(warmup.shopName, "Coffee Shop"));
+        selectedAccent = primary;
+        updateAccentPreview(selectedAccent);
+        selectedLogoBytes = null;
+        ImageIcon logo = OwnerWarmup.await(warmup.logo, null);
+        logoPreview.setIcon(logo != null ? logo : UIManager.getIcon("OptionPane.informationIcon"));
+    }
+
     private void loadSystemSettings() {
         fSystemName.setText(assetService.getShopNameOrDefault());
         selectedAccent = assetService.getAccentColorOrDefault();
         updateAccentPreview(selectedAccent);
         selectedLogoBytes = null;
-        ImageIcon logo = assetService.getShopLogoOrNull(92);
+        ImageIcon logo = assetService.getShopLogoOrNull(OwnerWarmup.LOGO_PREVIEW_SIZE);
         if (logo != null) {
             logoPreview.setIcon(logo);
         } else {
@@ -1358,7 +1810,7 @@ public class OwnerFrame extends JFrame {
 
         JPanel wrap = new JPanel(new BorderLayout());
         wrap.setOpaque(false);
-        cashierPanel = new CashierPanel(false, ownerUsername + " (Owner)", assetService.getShopNameOrDefault());
+        cashierPanel = new CashierPanel(false, ownerUsername + " (Owner)", shopNameForPreview());
         wrap.add(cashierPanel, BorderLayout.CENTER);
 
         page.add(wrap, BorderLayout.CENTER);
@@ -1373,13 +1825,205 @@ public class OwnerFrame extends JFrame {
 
         JPanel wrap = new JPanel(new BorderLayout());
         wrap.setOpaque(false);
-        baristaPanel = new BaristaPanel(false, ownerUsername + " (Owner)", assetService.getShopNameOrDefault());
+        baristaPanel = new BaristaPanel(false, ownerUsername + " (Owner)", shopNameForPreview());
         wrap.add(baristaPanel, BorderLayout.CENTER);
 
         page.add(wrap, BorderLayout.CENTER);
         return page;
     }
 
+    // -------------------- DIAGNOSTICS --------------------
+
+    private JComponent buildDiagnosticsPage() {
+        JPanel page = new JPanel(new BorderLayout(14, 14));
+        page.setOpaque(false);
+
+        JPanel header = pageHeader("Diagnostics", "Latency of DB calls and counter actions since the app started.");
+
+        JButton btnRefresh = ghost("Refresh");
+        JButton btnDump = ghost("Write to Log");
+        JButton btnReset = primaryOutline("Reset");
+        btnRefresh.addActionListener(e -> refreshDiagnostics());
+        btnDump.addActionListener(e -> {
+            Metrics.dumpToLog();
+            diagnosticsHint.setText("Snapshot appended to logs/metrics-" + java.time.LocalDate.now() + ".log");
+        });
+        btnReset.addActionListener(e -> {
+            Metrics.reset();
+            SqlStats.reset();
+            EdtWatchdog watchdog = EdtWatchdog.get();
+            if (watchdog != null) watchdog.reset();
+            refreshDiagnostics();
+        });
+
+        JPanel actions = new JPanel(new FlowLayout(FlowLayout.RIGHT, 8, 0));
+        actions.setOpaque(false);
+        actions.add(btnRefresh);
+        actions.add(btnDump);
+        actions.add(btnReset);
+
+        JPanel headerRow = new JPanel(new BorderLayout());
+        headerRow.setOpaque(false);
+        headerRow.add(header, BorderLayout.WEST);
+        headerRow.add(actions, BorderLayout.EAST);
+        page.add(headerRow, BorderLayout.NORTH);
+
+        diagnosticsTimersModel = new DefaultTableModel(
+                new String[]{"Operation", "Calls", "Errors", "Mean ms", "p50 ms", "p90 ms", "p99 ms", "Max ms"}, 0) {
+            @Override public boolean isCellEditable(int row, int col) { return false; }
+        };
+        diagnosticsValuesModel = new DefaultTableModel(new String[]{"Counter / Gauge", "Value"}, 0) {
+            @Override public boolean isCellEditable(int row, int col) { return false; }
+        };
+
+        JTable timersTable = new JTable(diagnosticsTimersModel);
+        timersTable.setRowHeight(28);
+        styleTable(timersTable);
+        timersTable.getColumnModel().getColumn(0).setPreferredWidth(280);
+
+        JTable valuesTable = new JTable(diagnosticsValuesModel);
+        valuesTable.setRowHeight(28);
+        styleTable(valuesTable);
+
+        diagnosticsHint = new JLabel("Updates every " + DIAGNOSTICS_REFRESH_MS / 1000 + " s while this page is open.");
+        diagnosticsHint.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        diagnosticsHint.setForeground(MUTED);
+
+        JPanel left = surfacePanel(new EmptyBorder(14, 14, 14, 14));
+        left.setLayout(new BorderLayout(10, 10));
+        left.add(diagnosticsHint, BorderLayout.NORTH);
+        JScrollPane timersScroll = new JScrollPane(timersTable);
+        timersScroll.setBorder(BorderFactory.createLineBorder(BORDER, 1));
+        left.add(timersScroll, BorderLayout.CENTER);
+
+        JPanel right = surfacePanel(new EmptyBorder(14, 14, 14, 14));
+        right.setLayout(new BorderLayout(10, 10));
+        right.setPreferredSize(new Dimension(360, 10));
+        JScrollPane valuesScroll = new JScrollPane(valuesTable);
+        valuesScroll.setBorder(BorderFactory.createLineBorder(BORDER, 1));
+        right.add(valuesScroll, BorderLayout.CENTER);
+
+        // Bottom tabs: UI freezes caught by the EDT watchdog, and the SQL statements that cost the most
+        JPanel freezesTab = new JPanel(new BorderLayout(10, 10));
+        freezesTab.setOpaque(false);
+        freezesTab.setBorder(new EmptyBorder(10, 0, 0, 0));
+        diagnosticsFreezes = new JLabel();
+        diagnosticsFreezes.setFont(new Font("SansSerif", Font.BOLD, 13));
+        diagnosticsFreezes.setForeground(TEXT);
+        diagnosticsFreezeReport = new JTextArea();
+        diagnosticsFreezeReport.setEditable(false);
+        diagnosticsFreezeReport.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        JScrollPane freezeScroll = new JScrollPane(diagnosticsFreezeReport);
+        freezeScroll.setBorder(BorderFactory.createLineBorder(BORDER, 1));
+        freezesTab.add(diagnosticsFreezes, BorderLayout.NORTH);
+        freezesTab.add(freezeScroll, BorderLayout.CENTER);
+
+        diagnosticsSqlModel = new DefaultTableModel(
+                new String[]{"Statement", "Calls", "Total ms", "Mean ms", "p99 ms", "Slow", "Errors"}, 0) {
+            @Override public boolean isCellEditable(int row, int col) { return false; }
+        };
+        JTable sqlTable = new JTable(diagnosticsSqlModel);
+        sqlTable.setRowHeight(28);
+        styleTable(sqlTable);
+        sqlTable.getColumnModel().getColumn(0).setPreferredWidth(520);
+        JScrollPane sqlScroll = new JScrollPane(sqlTable);
+        sqlScroll.setBorder(BorderFactory.createLineBorder(BORDER, 1));
+        JLabel sqlHint = new JLabel("Top statements by total time. Slower than " + SqlStats.slowThresholdMillis()
+                + " ms goes to logs/slow-query.log with its parameters.");
+        sqlHint.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        sqlHint.setForeground(MUTED);
+        JPanel sqlTab = new JPanel(new BorderLayout(10, 10));
+        sqlTab.setOpaque(false);
+        sqlTab.setBorder(new EmptyBorder(10, 0, 0, 0));
+        sqlTab.add(sqlHint, BorderLayout.NORTH);
+        sqlTab.add(sqlScroll, BorderLayout.CENTER);
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("UI Freezes", freezesTab);
+        tabs.addTab("Top SQL", sqlTab);
+
+        JPanel bottom = surfacePanel(new EmptyBorder(14, 14, 14, 14));
+        bottom.setLayout(new BorderLayout());
+        bottom.setPreferredSize(new Dimension(10, 280));
+        bottom.add(tabs, BorderLayout.CENTER);
+
+        JPanel body = new JPanel(new BorderLayout(14, 14));
+        body.setOpaque(false);
+        body.add(left, BorderLayout.CENTER);
+        body.add(right, BorderLayout.EAST);
+        body.add(bottom, BorderLayout.SOUTH);
+        page.add(body, BorderLayout.CENTER);
+
+        // Only polls while the page is on screen; the registry itself is always recording.
+        Timer poll = new Timer(DIAGNOSTICS_REFRESH_MS, e -> {
+            if (page.isShowing()) {
+                refreshDiagnostics();
+            } else if (!isDisplayable()) {
+                ((Timer) e.getSource()).stop();
+            }
+        });
+        poll.start();
+
+        refreshDiagnostics();
+        return page;
+    }
+
+    private void refreshDiagnostics() {
+        diagnosticsTimersModel.setRowCount(0);
+        for (Map.Entry<String, Metrics.Timer> entry : Metrics.timers().entrySet()) {
+            LatencyHistogram h = entry.getValue().histogram();
+            diagnosticsTimersModel.addRow(new Object[]{
+                    entry.getKey(),
+                    h.count(),
+                    entry.getValue().errors(),
+                    String.format(Locale.ROOT, "%.2f", h.mean() / 1e6),
+                    String.format(Locale.ROOT, "%.2f", Metrics.millis(h.percentile(50))),
+                    String.format(Locale.ROOT, "%.2f", Metrics.millis(h.percentile(90))),
+                    String.format(Locale.ROOT, "%.2f", Metrics.millis(h.percentile(99))),
+                    String.format(Locale.ROOT, "%.2f", Metrics.millis(h.max()))
+            });
+        }
+
+        diagnosticsValuesModel.setRowCount(0);
+        for (Map.Entry<String, Long> entry : Metrics.values().entrySet()) {
+            diagnosticsValuesModel.addRow(new Object[]{entry.getKey(), entry.getValue()});
+        }
+
+        diagnosticsSqlModel.setRowCount(0);
+        for (SqlStats.Entry e : SqlStats.top(20)) {
+            diagnosticsSqlModel.addRow(new Object[]{
+                    e.fingerprint,
+                    e.calls(),
+                    String.format(Locale.ROOT, "%.1f", Metrics.millis(e.totalNanos())),
+                    String.format(Locale.ROOT, "%.2f", e.meanMillis()),
+                    String.format(Locale.ROOT, "%.2f", Metrics.millis(e.p99Nanos())),
+                    e.slow(),
+                    e.errors()
+            });
+        }
+
+        EdtWatchdog watchdog = EdtWatchdog.get();
+        if (watchdog == null) {
+            diagnosticsFreezes.setText("UI freezes: watchdog off");
+            diagnosticsFreezeReport.setText("");
+            return;
+        }
+        diagnosticsFreezes.setText("UI freezes over " + watchdog.budgetMillis() + " ms: " + watchdog.freezeCount()
+                + "  (longest " + watchdog.longestFreezeMillis() + " ms)");
+        String report = watchdog.report(5);
+        if (!report.equals(diagnosticsFreezeReport.getText())) {
+            diagnosticsFreezeReport.setText(report);
+            diagnosticsFreezeReport.setCaretPosition(0);
+        }
+    }
+
+    private String shopNameForPreview() {
+        if (warmup.isFresh()) {
+            return OwnerWarmup.await(warmup.shopName, "Coffee Shop");
+        }
+        return assetService.getShopNameOrDefault();
+    }
+
     private JComponent buildPlaceholderPage(String title, String body) {
         JPanel page = new JPanel(new BorderLayout(14, 14));
         page.setOpaque(false);
@@ -0,0 +1,98 @@
+package app.ui;
+
+import app.db.AssetService;
+import app.db.DashboardDAO;
+import app.db.MenuItemDAO;
+import app.db.UserDAO;
+import app.model.DailySalesRow;
+import app.model.DashboardSummary;
+import app.model.MenuItem;
+import app.model.User;
+import app.util.StartupTimer;
+
+import javax.swing.ImageIcon;
+import java.awt.Color;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Parallel background warm-up of the owner pages, started right after login.
+ * Each query runs on its own virtual thread so the owner window does not wait
+ * for a burst of sequential DB round trips before it can paint.
+ */
+final class OwnerWarmup {
+
+    // Warm-up results older than this are considered stale and the page reloads from the DB instead.
+    private static final long FRESH_FOR_MILLIS = 30_000L;
+    static final int DAILY_SALES_DAYS = 14;
+    static final int LOGO_PREVIEW_SIZE = 92;
+
+    final CompletableFuture<List<MenuItem>> menuItems;
+    final CompletableFuture<List<User>> users;
+    final CompletableFuture<DashboardSummary> summary;
+    final CompletableFuture<List<DailySalesRow>> dailySales;
+    final CompletableFuture<String> shopName;
+    final CompletableFuture<Color> accentColor;
+    final CompletableFuture<ImageIcon> logo;
+
+    private final long startedAt = System.currentTimeMillis();
+
+    private OwnerWarmup(ExecutorService executor) {
+        MenuItemDAO menuItemDAO = new MenuItemDAO();
+        UserDAO userDAO = new UserDAO();
+        DashboardDAO dashboardDAO = new DashboardDAO();
+        AssetService assetService = new AssetService();
+
+        accentColor = supply(executor, "accent color", assetService::getAccentColorOrDefault);
+        summary = supply(executor, "dashboard summary", dashboardDAO::loadSummary);
+        dailySales = supply(executor, "daily sales", () -> dashboardDAO.loadRecentDailySales(DAILY_SALES_DAYS));
+        menuItems = supply(executor, "menu items", menuItemDAO::findAll);
+        users = supply(executor, "users", userDAO::findAll);
+        shopName = supply(executor, "shop name", assetService::getShopNameOrDefault);
+        logo = supply(executor, "shop logo", () -> assetService.getShopLogoOrNull(LOGO_PREVIEW_SIZE));
+    }
+
+    static OwnerWarmup start() {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            return new OwnerWarmup(executor);
+        } finally {
+            // Already-submitted tasks keep running; the executor just stops accepting new ones.
+            executor.shutdown();
+        }
+    }
+
+    boolean isFresh() {
+        return System.currentTimeMillis() - startedAt <= FRESH_FOR_MILLIS;
+    }
+
+    /**
+     * Waits for a warm-up task that the caller needs immediately (e.g. the accent color for theming).
+     */
+    static <T> T await(CompletableFuture<T> future, T fallback) {
+        try {
+            T value = future.join();
+            return value == null ? fallback : value;
+        } catch (RuntimeException ex) {
+            return fallback;
+        }
+    }
+
+    private static <T> CompletableFuture<T> supply(ExecutorService executor, String name, Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                future.complete(task.call());
+            } catch (Throwable ex) {
+                future.completeExceptionally(ex);
+            } finally {
+                StartupTimer.record("Warm-up " + name, start);
+            }
+        });
+        return future;
+    }
+}
@@ -0,0 +1,110 @@
+package app.ui;
+
+import app.model.SalesHeatmap;
+
+import javax.swing.JPanel;
+import javax.swing.ToolTipManager;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.event.MouseEvent;
+import java.text.NumberFormat;
+
+/**
+ * Weekday x hour-of-day grid for the owner dashboard; darker cells sold more. Hovering a cell
+ * shows its average sales and orders per week.
+ */
+class SalesHeatmapView extends JPanel {
+
+    private static final String[] DAYS = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+    private static final int LEFT = 44;
+    private static final int TOP = 22;
+
+    private final Color accent;
+    private final Color text;
+    private final Color empty;
+    private final NumberFormat money;
+    private SalesHeatmap data;
+    private long max;
+
+    SalesHeatmapView(Color accent, Color text, Color empty, NumberFormat money) {
+        this.accent = accent;
+        this.text = text;
+        this.empty = empty;
+        this.money = money;
+        setOpaque(false);
+        setPreferredSize(new Dimension(720, 260));
+        ToolTipManager.sharedInstance().registerComponent(this);
+    }
+
+    void setData(SalesHeatmap data) {
+        this.data = data;
+        max = 0;
+        if (data != null) {
+            for (long[] day : data.grossCentavos) {
+                for (long v : day) max = Math.max(max, v);
+            }
+        }
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setFont(new Font("SansSerif", Font.PLAIN, 11));
+        FontMetrics fm = g2.getFontMetrics();
+
+        double cw = cellWidth();
+        double ch = cellHeight();
+        g2.setColor(text);
+        for (int h = 0; h < 24; h += 2) {
+            String label = String.valueOf(h);
+            g2.drawString(label, (int) (LEFT + h * cw + (cw - fm.stringWidth(label)) / 2), TOP - 6);
+        }
+        for (int d = 0; d < 7; d++) {
+            g2.setColor(text);
+            g2.drawString(DAYS[d], 4, (int) (TOP + d * ch + (ch + fm.getAscent()) / 2) - 2);
+            for (int h = 0; h < 24; h++) {
+                long v = data == null ? 0 : data.grossCentavos[d][h];
+                g2.setColor(v == 0 ? empty : shade(v));
+                g2.fillRect((int) (LEFT + h * cw) + 1, (int) (TOP + d * ch) + 1, (int) cw - 2, (int) ch - 2);
+            }
+        }
+        g2.dispose();
+    }
+
+    /** Square-root scale so the quiet hours still show some colour next to the rush. */
+    private Color shade(long value) {
+        double t = max == 0 ? 0 : Math.sqrt((double) value / max);
+        float alpha = (float) (0.12 + 0.88 * t);
+        return new Color(accent.getRed(), accent.getGreen(), accent.getBlue(), Math.round(alpha * 255));
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        if (data == null) return null;
+        int h = (int) ((e.getX() - LEFT) / cellWidth());
+        int d = (int) ((e.getY() - TOP) / cellHeight());
+        if (e.getX() < LEFT || e.getY() < TOP || h < 0 || h >= 24 || d < 0 || d >= 7) return null;
+
+        int weeks = Math.max(data.weeks, 1);
+        double perWeek = data.grossCentavos[d][h] / 100.0 / weeks;
+        double orders = (double) data.orderCounts[d][h] / weeks;
+        return String.format("%s %02d:00-%02d:00  ·  %s and %.1f orders per week", DAYS[d], h, (h + 1) % 24,
+                money.format(perWeek), orders);
+    }
+
+    private double cellWidth() {
+        return Math.max(8, (getWidth() - LEFT - 4) / 24.0);
+    }
+
+    private double cellHeight() {
+        return Math.max(8, (getHeight() - TOP - 4) / 7.0);
+    }
+}
@@ -0,0 +1,126 @@
+package app.ui;
+
+import app.util.FlightEvents;
+
+import javax.swing.AbstractButton;
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.awt.event.ActionEvent;
+import java.awt.event.InvocationEvent;
+
+/**
+ * Event queue that times every dispatch on the Event Dispatch Thread and reports the slow ones
+ * as JFR {@link FlightEvents.EdtTask} events (threshold 50 ms by default). Installed once from Main.
+ *
+ * It also keeps the EDT heartbeat for {@link EdtWatchdog}: a beat whenever the EDT takes an event
+ * or finishes one, and an idle flag while it waits for the next event. Modal dialogs pump events
+ * from inside a dispatch, so waiting in a dialog counts as idle, not as a freeze.
+ */
+public final class TimedEventQueue extends EventQueue {
+
+    private static final int MAX_DETAIL = 240;
+
+    private volatile long lastBeatNanos = System.nanoTime();
+    private volatile long beats;
+    private volatile boolean idle = true;
+    private volatile Thread dispatchThread;
+    private volatile EdtWatchdog watchdog;
+
+    private TimedEventQueue() {}
+
+    public static TimedEventQueue install() {
+        // Registering the first JFR event class takes a few hundred ms; do it here, not on the EDT.
+        new FlightEvents.EdtTask();
+        TimedEventQueue queue = new TimedEventQueue();
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(queue);
+        return queue;
+    }
+
+    @Override
+    public AWTEvent getNextEvent() throws InterruptedException {
+        beat(true);
+        idle = true;
+        try {
+            return super.getNextEvent();
+        } finally {
+            dispatchThread = Thread.currentThread();
+            idle = false;
+            beat(false);
+        }
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        FlightEvents.EdtTask task = new FlightEvents.EdtTask();
+        task.begin();
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            beat(true);
+            task.end();
+            if (task.shouldCommit()) {
+                task.eventType = event.getClass().getSimpleName();
+                task.source = describeSource(event);
+                task.detail = truncate(event.paramString());
+                task.commit();
+            }
+        }
+    }
+
+    /**
+     * @param afterWork the EDT was busy since the previous beat, so the gap is reported to the watchdog
+     */
+    private void beat(boolean afterWork) {
+        long now = System.nanoTime();
+        EdtWatchdog w = watchdog;
+        if (afterWork && w != null) w.busyFor(now - lastBeatNanos);
+        lastBeatNanos = now;
+        beats++;
+    }
+
+    void setWatchdog(EdtWatchdog watchdog) {
+        this.watchdog = watchdog;
+    }
+
+    long lastBeatNanos() {
+        return lastBeatNanos;
+    }
+
+    /** Changes on every beat; only the EDT writes it. */
+    long beats() {
+        return beats;
+    }
+
+    boolean isIdle() {
+        return idle;
+    }
+
+    Thread dispatchThread() {
+        return dispatchThread;
+    }
+
+    /**
+     * "JButton 'Checkout'" for button clicks, the runnable class for invokeLater tasks
+     * (lambda classes carry the name of the panel that posted them), else the source class.
+     */
+    static String describeSource(AWTEvent event) {
+        Object source = event.getSource();
+        if (event instanceof ActionEvent && source instanceof AbstractButton button) {
+            return source.getClass().getSimpleName() + " '" + button.getText() + "'";
+        }
+        if (event instanceof InvocationEvent) {
+            String param = event.paramString();
+            int at = param.indexOf("runnable=");
+            if (at >= 0) {
+                int end = param.indexOf(',', at);
+                return param.substring(at + "runnable=".length(), end < 0 ? param.length() : end);
+            }
+        }
+        return source == null ? "?" : source.getClass().getName();
+    }
+
+    private static String truncate(String s) {
+        return s == null || s.length() <= MAX_DETAIL ? s : s.substring(0, MAX_DETAIL) + "...";
+    }
+}
@@ -0,0 +1,29 @@
+package app.ui;
+
+import app.util.StartupTimer;
+
+import javax.swing.JPanel;
+import java.awt.Graphics;
+import java.awt.LayoutManager;
+
+/**
+ * Root content panel that reports the frame's first paint to {@link StartupTimer}.
+ */
+class TimedRootPanel extends JPanel {
+    private final String frameName;
+    private boolean painted;
+
+    TimedRootPanel(LayoutManager layout, String frameName) {
+        super(layout);
+        this.frameName = frameName;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (!painted) {
+            painted = true;
+            StartupTimer.markFirstPaint(frameName);
+        }
+    }
+}
@@ -2,8 +2,11 @@ package app.util;
 
 import app.model.MenuItem;
 import app.model.Order;
+import app.model.OrderPricing;
 import app.model.OrderQueue;
 import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
@@ -13,8 +16,10 @@ import java.util.List;
  */
 public final class AlgorithmRequirementsSelfTest {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
         linkedListQueueSupportsEnqueueDequeueAndTraversal();
+        shortFirstQueueKeepsItsDelayBound();
+        spillingQueueKeepsFifoPastItsHotWindow();
         linearSearchFindsOrdersAndMenuItems();
         insertionSortOrdersMenuItemsByPrice();
         System.out.println("Algorithm requirements self-test passed.");
@@ -39,6 +44,63 @@ public final class AlgorithmRequirementsSelfTest {
         assertTrue(!queue.isEmpty(), "queue should not be empty after one dequeue");
     }
 
+    private static void shortFirstQueueKeepsItsDelayBound() {
+        MenuItem latte = new MenuItem("CF002", "Latte", "Coffee", new BigDecimal("125.00"));
+        // A 10-latte office order (10 * 60 s, repeats at 60%) and three single lattes (60 s each).
+        Order office = buildOrder("C001", "Office");
+        OrderPricing.applyLines(office, List.of(OrderPricing.line(latte, "Medium • Hot", 135, 10)));
+        Order a = buildOrder("C002", "Dana");
+        Order b = buildOrder("C003", "Eli");
+        Order c = buildOrder("C004", "Fay");
+        for (Order o : List.of(a, b, c)) OrderPricing.applyLines(o, List.of(OrderPricing.line(latte, "Medium • Hot", 135, 1)));
+
+        OrderQueue queue = new OrderQueue(OrderQueue.Scheduling.SHORT_FIRST, 120, () -> 0L);
+        queue.enqueue(office);
+        queue.enqueue(a);
+        queue.enqueue(b);
+        queue.enqueue(c);
+        // The office order may be delayed by 120 s: two single lattes pass it, the third waits.
+        assertEquals(Arrays.asList(a, b, office, c), queue.traverse(), "short orders should pass a long one up to the delay bound");
+
+        OrderQueue fifo = new OrderQueue();
+        fifo.enqueue(office);
+        fifo.enqueue(a);
+        assertEquals(Arrays.asList(office, a), fifo.traverse(), "default queue should stay FIFO");
+    }
+
+    private static void spillingQueueKeepsFifoPastItsHotWindow() throws Exception {
+        ArrayDeque<Order> store = new ArrayDeque<>();
+        OrderQueue queue = new OrderQueue().spillTo(new OrderQueue.Spill() {
+            @Override public boolean push(Order order) { return store.add(order); }
+            @Override public List<Order> pull(int max) {
+                List<Order> out = new ArrayList<>();
+                while (out.size() < max && !store.isEmpty()) out.add(store.poll());
+                return out;
+            }
+            @Override public int size() { return store.size(); }
+            @Override public List<Order> contents() { return new ArrayList<>(store); }
+            @Override public void clear() { store.clear(); }
+        }, 2);
+
+        List<Order> orders = new ArrayList<>();
+        for (int i = 1; i <= OrderQueue.MAX_SIZE + 5; i++) {
+            Order o = buildOrder(String.format("D%03d", i), "Guest " + i);
+            orders.add(o);
+            assertTrue(queue.enqueue(o), "a spilling queue should never refuse an order");
+        }
+        assertEquals(orders.subList(0, 2), queue.traverse(), "only the hot window should be held in memory");
+        assertEquals(orders.size(), queue.size(), "size should count spilled orders");
+
+        List<Order> served = new ArrayList<>();
+        while (queue.size() > 0) {
+            // Serving does not refill by itself; the panels pull spilled orders back explicitly.
+            OrderQueue.Refill refill = queue.startRefill();
+            if (refill != null) refill.finish(refill.pull());
+            served.add(queue.dequeue());
+        }
+        assertEquals(orders, served, "spilled orders should come back in arrival order");
+    }
+
     private static void linearSearchFindsOrdersAndMenuItems() {
         Order first = buildOrder("B101", "Taylor");
         Order second = buildOrder("B102", "Jordan");
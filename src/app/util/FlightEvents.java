@@ -0,0 +1,86 @@
+package app.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder events emitted by the app. They cost next to nothing unless a recording
+ * is running, e.g.
+ *
+ *   java -XX:StartFlightRecording=filename=shift.jfr,settings=profile -jar Coffee_Shop.jar
+ *
+ * and show up in JDK Mission Control under "Coffee Shop". The EDT threshold can be changed per
+ * recording by adding {@code coffeeshop.EdtTask#threshold=100ms} to the recording options.
+ */
+public final class FlightEvents {
+
+    private FlightEvents() {}
+
+    @Name("coffeeshop.OrderTransition")
+    @Label("Order Transition")
+    @Category({"Coffee Shop", "Orders"})
+    @Description("An order changed status: created at checkout, started, or served. Duration covers the DB write.")
+    public static class OrderTransition extends Event {
+        @Label("Order Id")
+        public int orderId;
+
+        @Label("Order Code")
+        public String code;
+
+        @Label("From Status")
+        public String fromStatus;
+
+        @Label("To Status")
+        public String toStatus;
+
+        @Label("Line Items")
+        public int items;
+
+        @Label("Saved")
+        @Description("False when the DB write failed or the app runs in preview mode")
+        public boolean saved;
+    }
+
+    @Name("coffeeshop.JdbcStatement")
+    @Label("JDBC Statement")
+    @Category({"Coffee Shop", "Database"})
+    @Description("One statement execution; for queries the duration includes reading the result set.")
+    public static class JdbcStatement extends Event {
+        @Label("SQL")
+        public String sql;
+
+        @Label("Kind")
+        @Description("query, update, batch or execute")
+        public String kind;
+
+        @Label("Rows")
+        @Description("Rows read for queries, rows changed for updates and batches; -1 when unknown")
+        public long rows;
+
+        @Label("Failed")
+        public boolean failed;
+    }
+
+    @Name("coffeeshop.EdtTask")
+    @Label("EDT Task")
+    @Category({"Coffee Shop", "Swing"})
+    @Description("An event dispatched on the Swing Event Dispatch Thread that ran longer than the threshold.")
+    @Threshold("50 ms")
+    @StackTrace(false)
+    public static class EdtTask extends Event {
+        @Label("Event Type")
+        public String eventType;
+
+        @Label("Source")
+        @Description("Component or runnable the event was dispatched for")
+        public String source;
+
+        @Label("Detail")
+        public String detail;
+    }
+}
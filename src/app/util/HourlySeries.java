@@ -0,0 +1,154 @@
+package app.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Compact per-hour time series: sorted epoch-hour keys with a long sum (centavos) and an int
+ * count per hour, kept in three parallel primitive arrays.
+ *
+ * Hours are wall-clock hours (local date-time read as if it were UTC), so hour of day and
+ * weekday fall out of plain arithmetic. A year of trading is under 9,000 slots (~180 KB);
+ * range queries binary-search the start and walk the slots, which stays in the microseconds.
+ * Not thread-safe; the owner synchronizes.
+ */
+public final class HourlySeries {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private long[] hours;
+    private long[] sums;
+    private int[] counts;
+    private int size;
+
+    public HourlySeries() {
+        this(256);
+    }
+
+    private HourlySeries(int capacity) {
+        hours = new long[Math.max(capacity, 16)];
+        sums = new long[hours.length];
+        counts = new int[hours.length];
+    }
+
+    public static long hourOf(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 3600);
+    }
+
+    /** 0 = Monday .. 6 = Sunday. */
+    public static int weekdayOf(long hour) {
+        // Epoch day 0 (1970-01-01) was a Thursday.
+        return Math.floorMod(Math.floorDiv(hour, 24) + 3, 7);
+    }
+
+    public static int hourOfDay(long hour) {
+        return Math.floorMod(hour, 24);
+    }
+
+    /** Adds to the slot for {@code hour}; appending in time order is O(1). */
+    public void add(long hour, long amount, int count) {
+        int i;
+        if (size > 0 && hours[size - 1] == hour) {
+            i = size - 1;
+        } else if (size == 0 || hours[size - 1] < hour) {
+            i = insertAt(size, hour);
+        } else {
+            i = Arrays.binarySearch(hours, 0, size, hour);
+            if (i < 0) i = insertAt(-i - 1, hour);
+        }
+        sums[i] += amount;
+        counts[i] += count;
+    }
+
+    private int insertAt(int index, long hour) {
+        if (size == hours.length) {
+            int capacity = hours.length * 2;
+            hours = Arrays.copyOf(hours, capacity);
+            sums = Arrays.copyOf(sums, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+        int tail = size - index;
+        if (tail > 0) {
+            System.arraycopy(hours, index, hours, index + 1, tail);
+            System.arraycopy(sums, index, sums, index + 1, tail);
+            System.arraycopy(counts, index, counts, index + 1, tail);
+        }
+        hours[index] = hour;
+        sums[index] = 0;
+        counts[index] = 0;
+        size++;
+        return index;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /** Sum over hours in [fromHour, toHour). */
+    public long sum(long fromHour, long toHour) {
+        long total = 0;
+        for (int i = firstIndex(fromHour); i < size && hours[i] < toHour; i++) total += sums[i];
+        return total;
+    }
+
+    /** Count over hours in [fromHour, toHour). */
+    public long count(long fromHour, long toHour) {
+        long total = 0;
+        for (int i = firstIndex(fromHour); i < size && hours[i] < toHour; i++) total += counts[i];
+        return total;
+    }
+
+    /**
+     * Adds every slot in [fromHour, toHour) into weekday x hour-of-day grids ([7][24]).
+     */
+    public void heatmap(long fromHour, long toHour, long[][] sumGrid, long[][] countGrid) {
+        for (int i = firstIndex(fromHour); i < size && hours[i] < toHour; i++) {
+            int day = weekdayOf(hours[i]);
+            int hod = hourOfDay(hours[i]);
+            sumGrid[day][hod] += sums[i];
+            countGrid[day][hod] += counts[i];
+        }
+    }
+
+    private int firstIndex(long hour) {
+        int i = Arrays.binarySearch(hours, 0, size, hour);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeLong(hours[i]);
+            out.writeLong(sums[i]);
+            out.writeInt(counts[i]);
+        }
+    }
+
+    public static HourlySeries readFrom(DataInput in) throws IOException {
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) throw new IOException("Unsupported series format " + version);
+        int n = in.readInt();
+        if (n < 0) throw new IOException("Corrupt series length " + n);
+        HourlySeries series = new HourlySeries(n);
+        long previous = Long.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            long hour = in.readLong();
+            if (hour <= previous) throw new IOException("Series keys out of order at " + i);
+            previous = hour;
+            series.hours[i] = hour;
+            series.sums[i] = in.readLong();
+            series.counts[i] = in.readInt();
+        }
+        series.size = n;
+        return series;
+    }
+}
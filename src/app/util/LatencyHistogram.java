@@ -0,0 +1,103 @@
+package app.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets, in the style of HdrHistogram.
+ *
+ * Each power of two is split into 16 linear sub-buckets, so any recorded value is reported
+ * within about 6% of its real value while the whole long range fits in under a thousand
+ * counters. Values are nanoseconds by convention; recording never allocates.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long sum() {
+        return sum.sum();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public double mean() {
+        long n = count();
+        return n == 0 ? 0 : (double) sum() / n;
+    }
+
+    /**
+     * Value at the given percentile (0-100), or 0 when nothing was recorded.
+     * Reported as the middle of the bucket the percentile falls into, capped at the real max.
+     */
+    public long percentile(double p) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(total * Math.min(Math.max(p, 0), 100) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                long mid = lowerBound(i) + (upperBound(i) - lowerBound(i)) / 2;
+                return Math.min(mid, max());
+            }
+        }
+        return max();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB) return (int) value;
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (msb - SUB_BITS));
+        return (msb - SUB_BITS + 1) * SUB + (mantissa - SUB);
+    }
+
+    static long lowerBound(int bucket) {
+        if (bucket < SUB) return bucket;
+        int msb = bucket / SUB + SUB_BITS - 1;
+        long mantissa = bucket % SUB + SUB;
+        return mantissa << (msb - SUB_BITS);
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB) return bucket;
+        int msb = bucket / SUB + SUB_BITS - 1;
+        long mantissa = bucket % SUB + SUB;
+        long upper = ((mantissa + 1) << (msb - SUB_BITS)) - 1;
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+}
@@ -33,10 +33,16 @@ public final class LinearSearch {
      */
     public static List<MenuItem> searchMenuByName(List<MenuItem> items, String query) {
         String q = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
-        return search(items, item ->
-                safeLower(item.getCode()).contains(q)
-                        || safeLower(item.getName()).contains(q)
-                        || safeLower(item.getCategory()).contains(q));
+        return search(items, item -> menuItemMatches(item, q));
+    }
+
+    /**
+     * Single linear-search step for menu items; expects an already trimmed, lower-case query.
+     */
+    public static boolean menuItemMatches(MenuItem item, String lowerQuery) {
+        return safeLower(item.getCode()).contains(lowerQuery)
+                || safeLower(item.getName()).contains(lowerQuery)
+                || safeLower(item.getCategory()).contains(lowerQuery);
     }
 
     /**
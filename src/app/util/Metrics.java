@@ -0,0 +1,219 @@
+package app.util;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * In-process metrics: named timers (latency histogram + error count), counters and gauges.
+ *
+ * Database work is timed per connection under the "Class.method" that checked it out (see
+ * InstrumentedJdbc in app.db); UI actions use {@link #timed} / {@link #timedRun} at their call
+ * sites. The owner diagnostics page
+ * reads {@link #timers()} and friends, and {@link #startPeriodicDump()} appends a text
+ * snapshot to logs/metrics-yyyy-MM-dd.log every few minutes.
+ */
+public final class Metrics {
+
+    /** Minutes between log dumps; 0 turns the dump off. */
+    public static final String DUMP_MINUTES_PROPERTY = "metrics.dump.minutes";
+    private static final long DEFAULT_DUMP_MINUTES = 5;
+
+    private static final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private static final Map<String, Supplier<String>> sections = new ConcurrentHashMap<>();
+    private static volatile ScheduledExecutorService dumper;
+
+    private Metrics() {}
+
+    @FunctionalInterface
+    public interface Timed<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    @FunctionalInterface
+    public interface TimedRun<E extends Exception> {
+        void run() throws E;
+    }
+
+    /**
+     * Runs the body and records its latency under {@code name}; a thrown exception also counts as an error.
+     */
+    public static <T, E extends Exception> T timed(String name, Timed<T, E> body) throws E {
+        Timer timer = timer(name);
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            T result = body.call();
+            ok = true;
+            return result;
+        } finally {
+            timer.record(System.nanoTime() - start, ok);
+        }
+    }
+
+    public static <E extends Exception> void timedRun(String name, TimedRun<E> body) throws E {
+        timed(name, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    public static Timer timer(String name) {
+        return timers.computeIfAbsent(name, k -> new Timer());
+    }
+
+    public static void increment(String name) {
+        add(name, 1);
+    }
+
+    public static void add(String name, long delta) {
+        counters.computeIfAbsent(name, k -> new LongAdder()).add(delta);
+    }
+
+    public static long counter(String name) {
+        LongAdder adder = counters.get(name);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * Registers (or replaces) a gauge; the supplier is read on every snapshot, so it must be cheap and thread-safe.
+     */
+    public static void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Registers a free-form text report (e.g. the top SQL statements) appended to every snapshot.
+     */
+    public static void section(String title, Supplier<String> report) {
+        sections.put(title, report);
+    }
+
+    /** Timers sorted by name. */
+    public static Map<String, Timer> timers() {
+        return new TreeMap<>(timers);
+    }
+
+    /** Counters and gauges sorted by name, read at call time. */
+    public static Map<String, Long> values() {
+        Map<String, Long> out = new TreeMap<>();
+        counters.forEach((name, adder) -> out.put(name, adder.sum()));
+        gauges.forEach((name, supplier) -> {
+            try {
+                out.put(name, supplier.getAsLong());
+            } catch (RuntimeException ex) {
+                out.put(name, -1L);
+            }
+        });
+        return out;
+    }
+
+    public static void reset() {
+        timers.values().forEach(Timer::reset);
+        counters.values().forEach(LongAdder::reset);
+    }
+
+    /**
+     * Plain-text table of every timer (ms) followed by counters, gauges and the registered sections.
+     */
+    public static String snapshotText() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-44s %8s %6s %9s %9s %9s %9s %9s%n",
+                "timer", "count", "errors", "mean ms", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        timers().forEach((name, t) -> {
+            LatencyHistogram h = t.histogram();
+            sb.append(String.format(Locale.ROOT, "%-44s %8d %6d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    name, h.count(), t.errors(), h.mean() / 1e6, millis(h.percentile(50)),
+                    millis(h.percentile(90)), millis(h.percentile(99)), millis(h.max())));
+        });
+        values().forEach((name, value) -> sb.append(String.format(Locale.ROOT, "%-44s %d%n", name, value)));
+        new TreeMap<>(sections).forEach((title, report) -> sb.append("-- ").append(title).append('\n').append(report.get()));
+        return sb.toString();
+    }
+
+    public static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /**
+     * Starts the background log dump (idempotent). Interval from -Dmetrics.dump.minutes, default 5.
+     */
+    public static synchronized void startPeriodicDump() {
+        if (dumper != null) return;
+        long minutes = Long.getLong(DUMP_MINUTES_PROPERTY, DEFAULT_DUMP_MINUTES);
+        if (minutes <= 0) return;
+
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-dump");
+            t.setDaemon(true);
+            return t;
+        });
+        dumper.scheduleAtFixedRate(Metrics::dumpToLog, minutes, minutes, TimeUnit.MINUTES);
+        Runtime.getRuntime().addShutdownHook(new Thread(Metrics::dumpToLog, "metrics-final-dump"));
+    }
+
+    /**
+     * Appends the current snapshot to today's log file; failures only go to stderr.
+     */
+    public static void dumpToLog() {
+        if (timers.isEmpty() && counters.isEmpty()) return;
+        Path file = Paths.get("logs", "metrics-" + LocalDate.now() + ".log");
+        try {
+            Files.createDirectories(file.getParent());
+            try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                 PrintWriter out = new PrintWriter(w)) {
+                out.println("== " + LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+                out.print(snapshotText());
+                out.println();
+            }
+        } catch (IOException ex) {
+            System.err.println("[Metrics] Could not write " + file + ": " + ex.getMessage());
+        }
+    }
+
+    public static final class Timer {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+
+        private Timer() {}
+
+        public void record(long nanos, boolean ok) {
+            histogram.record(nanos);
+            if (!ok) errors.increment();
+        }
+
+        public LatencyHistogram histogram() {
+            return histogram;
+        }
+
+        public long errors() {
+            return errors.sum();
+        }
+
+        private void reset() {
+            histogram.reset();
+            errors.reset();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package app.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Startup timing for the role frames.
+ * The clock starts at app launch (Main) and restarts on every successful login,
+ * then each frame reports how long it took to construct and to paint for the first time.
+ */
+public final class StartupTimer {
+
+    private static volatile long startedAt = System.nanoTime();
+    private static volatile String startLabel = "launch";
+    private static final Map<String, Long> constructedAt = new ConcurrentHashMap<>();
+    private static final Map<String, Long> firstPaintAt = new ConcurrentHashMap<>();
+
+    private StartupTimer() {}
+
+    /**
+     * Restarts the clock (called at launch and right after a successful login).
+     */
+    public static void begin(String label) {
+        startedAt = System.nanoTime();
+        startLabel = label == null ? "start" : label;
+        constructedAt.clear();
+        firstPaintAt.clear();
+    }
+
+    public static long elapsedMillis() {
+        return (System.nanoTime() - startedAt) / 1_000_000L;
+    }
+
+    public static void markConstructed(String frame) {
+        long ms = elapsedMillis();
+        constructedAt.putIfAbsent(frame, ms);
+        log(frame + " constructed " + ms + " ms after " + startLabel);
+    }
+
+    /**
+     * Records the first paint of a frame; later paints are ignored until the next {@link #begin}.
+     */
+    public static void markFirstPaint(String frame) {
+        if (firstPaintAt.containsKey(frame)) return;
+        long ms = elapsedMillis();
+        if (firstPaintAt.putIfAbsent(frame, ms) != null) return;
+        Long built = constructedAt.get(frame);
+        log(frame + " first paint " + ms + " ms after " + startLabel
+                + (built == null ? "" : " (constructed at " + built + " ms)"));
+    }
+
+    /**
+     * Reports a single timed step (page build, warm-up query, ...).
+     */
+    public static void record(String what, long startNanos) {
+        log(what + " took " + (System.nanoTime() - startNanos) / 1_000_000L + " ms");
+    }
+
+    private static void log(String message) {
+        System.err.println("[Startup] " + message);
+    }
+}
@@ -0,0 +1,41 @@
+package app.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Streaming top-K: keeps the K largest values offered so far in a min-heap of size K, so a
+ * result set of any length is ranked in O(n log K) time and O(K) memory without collecting it.
+ */
+public final class TopK<T> {
+
+    private final int k;
+    private final Comparator<? super T> order;
+    private final PriorityQueue<T> heap;
+
+    public TopK(int k, Comparator<? super T> order) {
+        this.k = Math.max(0, k);
+        this.order = order;
+        this.heap = new PriorityQueue<>(Math.max(1, this.k), order);
+    }
+
+    public void offer(T value) {
+        if (k == 0) return;
+        if (heap.size() < k) {
+            heap.add(value);
+        } else if (order.compare(value, heap.peek()) > 0) {
+            // The smallest of the current top K drops out.
+            heap.poll();
+            heap.add(value);
+        }
+    }
+
+    /** The kept values, largest first. */
+    public List<T> result() {
+        List<T> out = new ArrayList<>(heap);
+        out.sort(order.reversed());
+        return out;
+    }
+}